@@ -50,6 +50,7 @@ public class SecurityConfig {
                 // Rutas públicas
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/gymcloud/**").permitAll()
+                .requestMatchers("/api/calendar/feeds/**").permitAll()
                 .requestMatchers("/error").permitAll()
                 // Rutas privadas
                 .anyRequest().authenticated()
@@ -2,27 +2,38 @@ package com.medibook.api.controller;
 
 import com.medibook.api.dto.ErrorResponseDTO;
 import com.medibook.api.dto.Admin.AdminStatsDTO;
+import com.medibook.api.dto.Admin.AdminRatingsPageDTO;
 import com.medibook.api.dto.Admin.AdminRatingsResponseDTO;
 import com.medibook.api.dto.Admin.DoctorApprovalResponseDTO;
 import com.medibook.api.dto.Admin.PendingDoctorDTO;
-import com.medibook.api.dto.Rating.RatingResponseDTO;
-import com.medibook.api.entity.Rating;
 import com.medibook.api.entity.User;
 import com.medibook.api.mapper.AdminMapper;
-import com.medibook.api.mapper.RatingMapper;
-import com.medibook.api.repository.RatingRepository;
 import com.medibook.api.repository.UserRepository;
+import com.medibook.api.service.AdminRatingService;
+import com.medibook.api.service.BadgeEvaluationTriggerService;
+import com.medibook.api.service.BadgeRecomputeService;
+import com.medibook.api.service.DoctorLeaderboardService;
 import com.medibook.api.service.EmailService;
+import com.medibook.api.service.RatingAggregateService;
+import com.medibook.api.service.RatingRollupService;
 import com.medibook.api.util.AuthorizationUtil;
 import com.medibook.api.util.ErrorResponseUtil;
 import com.medibook.api.util.UserValidationUtil;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,16 +45,27 @@ public class AdminController {
     private final UserRepository userRepository;
     private final AdminMapper adminMapper;
     private final EmailService emailService;
-    private final RatingRepository ratingRepository;
-    private final RatingMapper ratingMapper;
+    private final AdminRatingService adminRatingService;
+    private final RatingAggregateService ratingAggregateService;
+    private final RatingRollupService ratingRollupService;
+    private final DoctorLeaderboardService doctorLeaderboardService;
+    private final BadgeRecomputeService badgeRecomputeService;
+    private final BadgeEvaluationTriggerService badgeEvaluationTriggerService;
 
     public AdminController(UserRepository userRepository, AdminMapper adminMapper, EmailService emailService, 
-                          RatingRepository ratingRepository, RatingMapper ratingMapper) {
+                          AdminRatingService adminRatingService, RatingAggregateService ratingAggregateService,
+                          RatingRollupService ratingRollupService, DoctorLeaderboardService doctorLeaderboardService,
+                          BadgeRecomputeService badgeRecomputeService,
+                          BadgeEvaluationTriggerService badgeEvaluationTriggerService) {
         this.userRepository = userRepository;
         this.adminMapper = adminMapper;
         this.emailService = emailService;
-        this.ratingRepository = ratingRepository;
-        this.ratingMapper = ratingMapper;
+        this.adminRatingService = adminRatingService;
+        this.ratingAggregateService = ratingAggregateService;
+        this.ratingRollupService = ratingRollupService;
+        this.doctorLeaderboardService = doctorLeaderboardService;
+        this.badgeRecomputeService = badgeRecomputeService;
+        this.badgeEvaluationTriggerService = badgeEvaluationTriggerService;
     }
 
     @GetMapping("/pending-doctors")
@@ -88,6 +110,7 @@ public class AdminController {
 
             doctor.setStatus("ACTIVE");
             userRepository.save(doctor);
+            doctorLeaderboardService.update(doctor);
 
             try {
                 final String doctorEmail = doctor.getEmail();
@@ -221,33 +244,7 @@ public class AdminController {
         }
 
         try {
-            List<Rating> allRatings = ratingRepository.findAllOrderByCreatedAtDesc();
-            
-            List<RatingResponseDTO> allRatingDTOs = allRatings.stream()
-                .map(ratingMapper::toDTO)
-                .collect(Collectors.toList());
-            
-            List<RatingResponseDTO> patientRatings = allRatingDTOs.stream()
-                .filter(rating -> {
-                    return allRatings.stream()
-                        .anyMatch(r -> r.getId().equals(rating.getId()) && "PATIENT".equals(r.getRater().getRole()));
-                })
-                .collect(Collectors.toList());
-                
-            List<RatingResponseDTO> doctorRatings = allRatingDTOs.stream()
-                .filter(rating -> {
-                    return allRatings.stream()
-                        .anyMatch(r -> r.getId().equals(rating.getId()) && "DOCTOR".equals(r.getRater().getRole()));
-                })
-                .collect(Collectors.toList());
-            
-            AdminRatingsResponseDTO response = AdminRatingsResponseDTO.builder()
-                .allRatings(allRatingDTOs)
-                .patientRatings(patientRatings)
-                .doctorRatings(doctorRatings)
-                .stats(null) 
-                .build();
-            
+            AdminRatingsResponseDTO response = adminRatingService.getAllRatings();
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.error("Error fetching admin ratings: ", e);
@@ -255,6 +252,168 @@ public class AdminController {
         }
     }
 
+    @GetMapping("/ratings/page")
+    public ResponseEntity<?> getRatingsPage(
+            @RequestParam(required = false) String raterRole,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        AdminRatingsPageDTO response = adminRatingService.getRatingsPage(raterRole, page, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/ratings/export")
+    public void exportRatings(
+            @RequestParam(required = false) String raterRole,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ratings.csv\"");
+        adminRatingService.exportCsv(raterRole, response.getWriter());
+    }
+
+    @PostMapping("/ratings/aggregates/rebuild")
+    public ResponseEntity<?> rebuildRatingAggregates(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        try {
+            int users = ratingAggregateService.rebuildAll();
+            return ResponseEntity.ok(Map.of("rebuiltUsers", users));
+        } catch (Exception e) {
+            log.error("Error rebuilding rating aggregates: ", e);
+            return ErrorResponseUtil.createDatabaseErrorResponse(request.getRequestURI());
+        }
+    }
+
+    @GetMapping("/ratings/stats")
+    public ResponseEntity<?> getRatingStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        return ResponseEntity.ok(ratingRollupService.getStats(from, to));
+    }
+
+    @PostMapping("/ratings/rollups/rebuild")
+    public ResponseEntity<?> rebuildRatingRollups(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        try {
+            int rollups = ratingRollupService.rebuildAll();
+            return ResponseEntity.ok(Map.of("rebuiltRollups", rollups));
+        } catch (Exception e) {
+            log.error("Error rebuilding rating rollups: ", e);
+            return ErrorResponseUtil.createDatabaseErrorResponse(request.getRequestURI());
+        }
+    }
+
+    @PostMapping("/badges/recompute")
+    public ResponseEntity<?> recomputeBadges(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        try {
+            return ResponseEntity.ok(badgeRecomputeService.recomputeAll());
+        } catch (IllegalStateException e) {
+            return ErrorResponseUtil.createErrorResponse("CONFLICT", e.getMessage(), HttpStatus.CONFLICT,
+                    request.getRequestURI());
+        } catch (Exception e) {
+            log.error("Error recomputing badges: ", e);
+            return ErrorResponseUtil.createDatabaseErrorResponse(request.getRequestURI());
+        }
+    }
+
+    @GetMapping("/badges/recompute")
+    public ResponseEntity<?> getBadgeRecomputeStatus(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        return ResponseEntity.ok(badgeRecomputeService.getStatus());
+    }
+
+    @GetMapping("/badges/events")
+    public ResponseEntity<?> getBadgeEventLogStatus(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        try {
+            return ResponseEntity.ok(badgeEvaluationTriggerService.getLogStatus());
+        } catch (Exception e) {
+            log.error("Error reading badge event log status: ", e);
+            return ErrorResponseUtil.createDatabaseErrorResponse(request.getRequestURI());
+        }
+    }
+
+    @PostMapping("/badges/events/replay")
+    public ResponseEntity<?> replayBadgeEvents(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime since,
+            HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        try {
+            return ResponseEntity.ok(Map.of("replayedUsers", badgeEvaluationTriggerService.replaySince(since)));
+        } catch (Exception e) {
+            log.error("Error replaying badge events: ", e);
+            return ErrorResponseUtil.createDatabaseErrorResponse(request.getRequestURI());
+        }
+    }
+
+    @PostMapping("/badges/events/requeue-failed")
+    public ResponseEntity<?> requeueFailedBadgeEvents(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isAdmin(authenticatedUser)) {
+            return AuthorizationUtil.createAdminAccessDeniedResponse(request.getRequestURI());
+        }
+
+        try {
+            return ResponseEntity.ok(Map.of("requeuedEvents", badgeEvaluationTriggerService.requeueFailed()));
+        } catch (Exception e) {
+            log.error("Error requeueing failed badge events: ", e);
+            return ErrorResponseUtil.createDatabaseErrorResponse(request.getRequestURI());
+        }
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponseDTO> handleIllegalArgument(
             IllegalArgumentException ex, HttpServletRequest request) {
@@ -0,0 +1,76 @@
+package com.medibook.api.controller;
+
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.UserRepository;
+import com.medibook.api.service.CalendarFeedService;
+import com.medibook.api.util.AuthorizationUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarController {
+
+    private final CalendarFeedService calendarFeedService;
+    private final UserRepository userRepository;
+
+    @GetMapping("/feed-url")
+    public ResponseEntity<Object> getFeedUrl(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isDoctor(authenticatedUser) && !AuthorizationUtil.isPatient(authenticatedUser)) {
+            return AuthorizationUtil.createInvalidRoleResponse();
+        }
+
+        String token = calendarFeedService.getFeedToken(authenticatedUser.getId());
+        return ResponseEntity.ok(Map.of("url", feedPath(authenticatedUser.getId(), token)));
+    }
+
+    @PostMapping("/feed-url/reset")
+    public ResponseEntity<Object> resetFeedUrl(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isDoctor(authenticatedUser) && !AuthorizationUtil.isPatient(authenticatedUser)) {
+            return AuthorizationUtil.createInvalidRoleResponse();
+        }
+
+        String token = calendarFeedService.resetFeedToken(authenticatedUser.getId());
+        return ResponseEntity.ok(Map.of("url", feedPath(authenticatedUser.getId(), token)));
+    }
+
+    @GetMapping("/feeds/{userId}/{token}.ics")
+    public void getFeed(
+            @PathVariable UUID userId,
+            @PathVariable String token,
+            HttpServletResponse response) throws IOException {
+
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isEmpty() || !calendarFeedService.isValidFeedToken(user.get(), token)
+                || !"ACTIVE".equals(user.get().getStatus())
+                || !(AuthorizationUtil.isDoctor(user.get()) || AuthorizationUtil.isPatient(user.get()))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType("text/calendar");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "inline; filename=\"medibook.ics\"");
+        calendarFeedService.writeFeed(userId, user.get().getRole(), response.getWriter());
+    }
+
+    private static String feedPath(UUID userId, String token) {
+        return "/api/calendar/feeds/" + userId + "/" + token + ".ics";
+    }
+}
@@ -2,6 +2,7 @@ package com.medibook.api.controller;
 
 import com.medibook.api.dto.Availability.*;
 import com.medibook.api.dto.DoctorDTO;
+import com.medibook.api.dto.DoctorLeaderboardPageDTO;
 import com.medibook.api.dto.DoctorMetricsDTO;
 import com.medibook.api.dto.PatientDTO;
 import com.medibook.api.dto.UpdateMedicalHistoryRequestDTO;
@@ -9,18 +10,21 @@ import com.medibook.api.dto.CreateMedicalHistoryRequestDTO;
 import com.medibook.api.dto.UpdateMedicalHistoryContentRequestDTO;
 import com.medibook.api.dto.MedicalHistoryDTO;
 import com.medibook.api.service.DoctorAvailabilityService;
+import com.medibook.api.service.DoctorLeaderboardService;
 import com.medibook.api.service.DoctorService;
 import com.medibook.api.service.MedicalHistoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -32,6 +36,7 @@ public class DoctorController {
     private final DoctorService doctorService;
     private final DoctorAvailabilityService availabilityService;
     private final MedicalHistoryService medicalHistoryService;
+    private final DoctorLeaderboardService doctorLeaderboardService;
 
     @GetMapping
     public ResponseEntity<List<DoctorDTO>> getAllDoctors() {
@@ -45,6 +50,21 @@ public class DoctorController {
         return ResponseEntity.ok(doctors);
     }
 
+    @GetMapping("/leaderboard")
+    public ResponseEntity<Object> getLeaderboard(
+            @RequestParam(required = false) String specialty,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            DoctorLeaderboardPageDTO leaderboard = doctorLeaderboardService.getPage(specialty, page, size);
+            return ResponseEntity.ok(leaderboard);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(
+                    Map.of("error", "Bad Request", "message", e.getMessage()),
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/specialties")
     public ResponseEntity<List<String>> getAllSpecialties() {
         List<String> specialties = doctorService.getAllSpecialties();
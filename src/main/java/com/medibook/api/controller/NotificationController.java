@@ -3,13 +3,16 @@ package com.medibook.api.controller;
 import com.medibook.api.dto.Notification.NotificationResponseDTO;
 import com.medibook.api.entity.Notification;
 import com.medibook.api.entity.User;
+import com.medibook.api.mapper.NotificationMapper;
 import com.medibook.api.service.NotificationService;
+import com.medibook.api.service.UserChangeVersionService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +26,8 @@ import java.util.stream.Collectors;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationMapper notificationMapper;
+    private final UserChangeVersionService changeVersionService;
 
     @GetMapping
     public ResponseEntity<Object> getNotifications(
@@ -31,6 +36,11 @@ public class NotificationController {
 
         User authenticatedUser = (User) request.getAttribute("authenticatedUser");
 
+        String eTag = changeVersionService.getETag(authenticatedUser.getId());
+        if (new ServletWebRequest(request).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         List<Notification> notifications;
         if (unreadOnly) {
             notifications = notificationService.getUnreadNotifications(authenticatedUser.getId());
@@ -39,10 +49,10 @@ public class NotificationController {
         }
 
         List<NotificationResponseDTO> dtos = notifications.stream()
-                .map(this::mapToDTO)
+                .map(notificationMapper::toDTO)
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(Map.of("notifications", dtos));
+        return ResponseEntity.ok().eTag(eTag).body(Map.of("notifications", dtos));
     }
 
     @GetMapping("/count")
@@ -85,15 +95,4 @@ public class NotificationController {
                 HttpStatus.NOT_FOUND);
         }
     }
-
-    private NotificationResponseDTO mapToDTO(Notification notification) {
-        return NotificationResponseDTO.builder()
-                .id(notification.getId())
-                .type(notification.getType())
-                .relatedEntityId(notification.getRelatedEntityId())
-                .message(notification.getMessage())
-                .isRead(notification.isRead())
-                .createdAt(notification.getCreatedAt())
-                .build();
-    }
 }
\ No newline at end of file
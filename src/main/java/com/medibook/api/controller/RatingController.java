@@ -10,6 +10,7 @@ import com.medibook.api.service.TurnAssignedService;
 import com.medibook.api.util.ErrorResponseUtil;
 import com.medibook.api.mapper.RatingMapper;
 import com.medibook.api.repository.RatingRepository;
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
 import com.medibook.api.dto.Rating.SubcategoryCountDTO;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -65,7 +66,7 @@ public class RatingController {
             java.util.List<RatingRepository.SubcategoryCount> results = ratingRepository.countSubcategoriesByRatedId(ratedId, raterRole);
 
             java.util.List<SubcategoryCountDTO> dto = results.stream()
-                    .map(r -> new SubcategoryCountDTO(r.getSubcategory(), r.getCount()))
+                    .map(r -> new SubcategoryCountDTO(RatingSubcategoryCodes.labelOf(r.getSubcategory()), r.getCount()))
                     .toList();
 
             return ResponseEntity.ok(dto);
@@ -0,0 +1,44 @@
+package com.medibook.api.controller;
+
+import com.medibook.api.dto.Sync.SyncResponseDTO;
+import com.medibook.api.entity.User;
+import com.medibook.api.service.SyncService;
+import com.medibook.api.util.AuthorizationUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@Slf4j
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<Object> getChanges(
+            @RequestParam(required = false) String since,
+            HttpServletRequest request) {
+
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isDoctor(authenticatedUser) && !AuthorizationUtil.isPatient(authenticatedUser)) {
+            return AuthorizationUtil.createInvalidRoleResponse();
+        }
+
+        try {
+            SyncResponseDTO changes = syncService.getChanges(authenticatedUser, since);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(
+                    Map.of("error", "Bad Request", "message", e.getMessage()),
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
+}
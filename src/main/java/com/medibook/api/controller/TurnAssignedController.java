@@ -18,6 +18,7 @@ import com.medibook.api.entity.User;
 import com.medibook.api.dto.Availability.AvailableSlotDTO;
 import com.medibook.api.service.DoctorAvailabilityService;
 import com.medibook.api.service.TurnAssignedService;
+import com.medibook.api.service.UserChangeVersionService;
 import com.medibook.api.repository.TurnAssignedRepository;
 import com.medibook.api.util.AuthorizationUtil;
 import com.medibook.api.util.TurnAuthorizationUtil;
@@ -29,6 +30,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import com.medibook.api.util.ErrorResponseUtil;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @RestController
 @RequestMapping("/api/turns")
@@ -39,6 +41,7 @@ public class TurnAssignedController {
     private final TurnAssignedService turnService;
     private final DoctorAvailabilityService doctorAvailabilityService;
     private final TurnAssignedRepository turnAssignedRepository;
+    private final UserChangeVersionService changeVersionService;
 
     @PostMapping
     public ResponseEntity<Object> createTurn(
@@ -122,6 +125,11 @@ public class TurnAssignedController {
         
         User authenticatedUser = (User) request.getAttribute("authenticatedUser");
         
+        String eTag = changeVersionService.getETag(authenticatedUser.getId());
+        if (new ServletWebRequest(request).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        
         List<TurnResponseDTO> turns;
         
         if (AuthorizationUtil.isDoctor(authenticatedUser)) {
@@ -140,6 +148,18 @@ public class TurnAssignedController {
             return AuthorizationUtil.createInvalidRoleResponse();
         }
         
+        return ResponseEntity.ok().eTag(eTag).body(turns);
+    }
+
+    @GetMapping("/awaiting-rating")
+    public ResponseEntity<Object> getTurnsAwaitingRating(HttpServletRequest request) {
+        User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+
+        if (!AuthorizationUtil.isDoctor(authenticatedUser) && !AuthorizationUtil.isPatient(authenticatedUser)) {
+            return AuthorizationUtil.createInvalidRoleResponse();
+        }
+
+        List<TurnResponseDTO> turns = turnService.getTurnsAwaitingRating(authenticatedUser);
         return ResponseEntity.ok(turns);
     }
 
@@ -0,0 +1,20 @@
+package com.medibook.api.dto.Admin;
+
+import com.medibook.api.dto.Rating.RatingResponseDTO;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class AdminRatingsPageDTO {
+    private List<RatingResponseDTO> ratings;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private String raterRole;
+}
@@ -1,6 +1,7 @@
 package com.medibook.api.dto.Admin;
 
 import com.medibook.api.dto.Rating.RatingResponseDTO;
+import com.medibook.api.dto.Rating.SubcategoryCountDTO;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -26,5 +27,19 @@ public class AdminRatingsResponseDTO {
         private double averageScore;
         private double averagePatientRating;
         private double averageDoctorRating;
+        private List<Long> scoreHistogram;
+        private List<SubcategoryCountDTO> topSubcategories;
+        private List<SpecialtyStatsDTO> bySpecialty;
+    }
+
+    @Getter
+    @Setter
+    @Builder
+    public static class SpecialtyStatsDTO {
+        private String specialty;
+        private String raterRole;
+        private long ratingCount;
+        private double averageScore;
+        private List<SubcategoryCountDTO> topSubcategories;
     }
 }
\ No newline at end of file
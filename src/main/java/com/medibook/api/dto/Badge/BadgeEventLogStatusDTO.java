@@ -0,0 +1,19 @@
+package com.medibook.api.dto.Badge;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeEventLogStatusDTO {
+    private Long pendingEvents;
+    private Long failedEvents;
+    private OffsetDateTime oldestPendingAt;
+    private Long lagSeconds;
+}
@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
 import java.time.OffsetDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class BadgeProgressSummaryDTO {
@@ -28,4 +28,6 @@ public class BadgeProgressSummaryDTO {
     private OffsetDateTime lastEvaluatedAt;
     private Double progressPercentage;
     private String statusMessage;
+    private Long holderCount;
+    private Double holderPercentage;
 }
@@ -0,0 +1,24 @@
+package com.medibook.api.dto.Badge;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeRecomputeStatusDTO {
+    private Boolean running;
+    private Integer totalUsers;
+    private Integer processedUsers;
+    private Integer totalPartitions;
+    private Integer failedPartitions;
+    private Integer changedBadges;
+    private Integer correctedUsers;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+}
@@ -18,6 +18,7 @@ public class DoctorDTO {
     private String specialty;
     private int slotDurationMin;
     private Double score;
+    private Double weightedScore;
     private List<BadgeDTO> activeBadges;
     private Integer totalActiveBadges;
 }
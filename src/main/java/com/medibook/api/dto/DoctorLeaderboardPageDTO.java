@@ -0,0 +1,19 @@
+package com.medibook.api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class DoctorLeaderboardPageDTO {
+    private List<DoctorDTO> doctors;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private String specialty;
+}
@@ -20,6 +20,7 @@ public class DoctorMetricsDTO {
     private String surname;
     private String specialty;
     private Double score;
+    private Double weightedScore;
     private List<SubcategoryCountDTO> ratingSubcategories;
     private Integer totalPatients;
     private Integer upcomingTurns;
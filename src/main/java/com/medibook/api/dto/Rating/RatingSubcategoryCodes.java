@@ -0,0 +1,79 @@
+package com.medibook.api.dto.Rating;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ratings store their subcategories as enum constant names (codes) from RatingSubcategory
+ * and RatingSubcategoryPatient. This class maps codes back to their display labels and
+ * groups the codes that feed badge statistics.
+ */
+public final class RatingSubcategoryCodes {
+
+    public static final Set<String> COMMUNICATION = Set.of(
+            RatingSubcategory.EXPLICA_CLARAMENTE.name(),
+            RatingSubcategory.ESCUCHA_AL_PACIENTE.name());
+
+    public static final Set<String> EMPATHY = Set.of(
+            RatingSubcategory.DEMUESTRA_EMPATIA.name(),
+            RatingSubcategory.GENERA_CONFIANZA.name(),
+            RatingSubcategory.EXCELENTE_ATENCION.name());
+
+    public static final Set<String> PUNCTUALITY = Set.of(
+            RatingSubcategory.RESPETA_HORARIOS.name(),
+            RatingSubcategory.TIEMPO_DE_ESPERA_ACEPTABLE.name());
+
+    public static final Set<String> PATIENT_COLLABORATION = Set.of(
+            RatingSubcategoryPatient.COLABORA_EN_CONSULTA.name(),
+            RatingSubcategoryPatient.SIGUE_INDICACIONES.name());
+
+    public static final Set<String> PATIENT_PUNCTUALITY = Set.of(
+            RatingSubcategoryPatient.LLEGA_PUNTUAL.name());
+
+    private static final Map<String, String> LABELS = new HashMap<>();
+    private static final Map<String, Integer> ORDER = new HashMap<>();
+
+    static {
+        for (RatingSubcategory s : RatingSubcategory.values()) {
+            LABELS.put(s.name(), s.getLabel());
+            ORDER.put(s.name(), ORDER.size());
+        }
+        for (RatingSubcategoryPatient s : RatingSubcategoryPatient.values()) {
+            LABELS.put(s.name(), s.getLabel());
+            ORDER.put(s.name(), ORDER.size());
+        }
+    }
+
+    private RatingSubcategoryCodes() {
+    }
+
+    public static String labelOf(String code) {
+        return LABELS.getOrDefault(code, code);
+    }
+
+    public static List<String> labelsOf(Collection<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return List.of();
+        }
+        return codes.stream()
+                .sorted(Comparator.comparing(code -> ORDER.getOrDefault(code, Integer.MAX_VALUE)))
+                .map(RatingSubcategoryCodes::labelOf)
+                .toList();
+    }
+
+    public static boolean containsAny(Collection<String> codes, Set<String> group) {
+        if (codes == null) {
+            return false;
+        }
+        for (String code : codes) {
+            if (group.contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,11 @@
 package com.medibook.api.dto.Rating;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public enum RatingSubcategoryPatient {
     // Positive
@@ -27,6 +32,20 @@ public enum RatingSubcategoryPatient {
     NO_ASISTE("No asiste"),
     AGRESIVO("Agresivo");
 
+    // Lookups are built once; fromString runs for every submitted subcategory
+    private static final Pattern NON_CODE_CHARS = Pattern.compile("[^A-Z0-9]");
+    private static final Map<String, RatingSubcategoryPatient> BY_LABEL = new HashMap<>();
+    private static final Map<String, RatingSubcategoryPatient> BY_NAME = new HashMap<>();
+    private static final String ALLOWED_VALUES;
+
+    static {
+        for (RatingSubcategoryPatient r : values()) {
+            BY_LABEL.put(r.label.toLowerCase(Locale.ROOT), r);
+            BY_NAME.put(r.name(), r);
+        }
+        ALLOWED_VALUES = Arrays.stream(values()).map(RatingSubcategoryPatient::getLabel).collect(Collectors.joining(", "));
+    }
+
     private final String label;
 
     RatingSubcategoryPatient(String label) {
@@ -40,17 +59,12 @@ public enum RatingSubcategoryPatient {
     public static RatingSubcategoryPatient fromString(String s) {
         if (s == null) return null;
         String trimmed = s.trim();
-        for (RatingSubcategoryPatient r : values()) {
-            if (r.label.equalsIgnoreCase(trimmed)) return r;
-        }
-        try {
-            return RatingSubcategoryPatient.valueOf(trimmed.toUpperCase().replaceAll("[^A-Z0-9]","_"));
-        } catch (Exception e) {
-            return null;
-        }
+        RatingSubcategoryPatient byLabel = BY_LABEL.get(trimmed.toLowerCase(Locale.ROOT));
+        if (byLabel != null) return byLabel;
+        return BY_NAME.get(NON_CODE_CHARS.matcher(trimmed.toUpperCase(Locale.ROOT)).replaceAll("_"));
     }
 
     public static String allowedValues() {
-        return Arrays.stream(values()).map(RatingSubcategoryPatient::getLabel).reduce((a,b) -> a+", "+b).orElse("");
+        return ALLOWED_VALUES;
     }
 }
@@ -0,0 +1,26 @@
+package com.medibook.api.dto.Sync;
+
+import com.medibook.api.dto.Badge.BadgeDTO;
+import com.medibook.api.dto.Notification.NotificationResponseDTO;
+import com.medibook.api.dto.Turn.TurnModifyRequestResponseDTO;
+import com.medibook.api.dto.Turn.TurnResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+    private String syncToken;
+    private boolean fullSync;
+    private List<TurnResponseDTO> turns;
+    private List<NotificationResponseDTO> notifications;
+    private List<TurnModifyRequestResponseDTO> modifyRequests;
+    private List<BadgeDTO> badges;
+    private List<SyncTombstoneDTO> deleted;
+}
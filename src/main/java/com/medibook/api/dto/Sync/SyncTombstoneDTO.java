@@ -0,0 +1,19 @@
+package com.medibook.api.dto.Sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncTombstoneDTO {
+    private String entityType;
+    private UUID entityId;
+    private OffsetDateTime deletedAt;
+}
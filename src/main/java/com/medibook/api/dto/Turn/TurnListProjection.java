@@ -0,0 +1,30 @@
+package com.medibook.api.dto.Turn;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only source row for a turn_views entry, built directly by a JPQL constructor expression so that
+ * no TurnAssigned, User or DoctorProfile entities are loaded into the persistence context.
+ */
+public record TurnListProjection(
+        UUID id,
+        UUID doctorId,
+        String doctorName,
+        String doctorSurname,
+        String doctorSpecialty,
+        UUID patientId,
+        String patientName,
+        String patientSurname,
+        Double patientScore,
+        OffsetDateTime scheduledAt,
+        String status,
+        String motive,
+        boolean needsPatientRating,
+        boolean needsDoctorRating,
+        String fileUrl,
+        String fileName,
+        Instant uploadedAt
+) {
+}
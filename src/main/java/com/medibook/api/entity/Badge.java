@@ -40,6 +40,13 @@ public class Badge {
     @Column(name = "last_evaluated_at", nullable = false)
     private OffsetDateTime lastEvaluatedAt;
 
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    /** Id of the transaction that last wrote the row, stamped by a database trigger for delta sync. */
+    @Column(name = "sync_xid", insertable = false, updatable = false)
+    private Long syncXid;
+
     @PrePersist
     protected void onCreate() {
         if (earnedAt == null) {
@@ -48,5 +55,11 @@ public class Badge {
         if (lastEvaluatedAt == null) {
             lastEvaluatedAt = OffsetDateTime.now();
         }
+        updatedAt = OffsetDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = OffsetDateTime.now();
     }
 }
\ No newline at end of file
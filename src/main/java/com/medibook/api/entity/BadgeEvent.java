@@ -0,0 +1,62 @@
+package com.medibook.api.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Type;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One business change that may move a user's badges, appended in the same transaction as the
+ * change itself. {@code deltas} maps each trigger name to the statistic counters it adds to.
+ * Rows are claimed by the evaluation workers and stamped {@code processed_at} in the
+ * transaction that applies them.
+ */
+@Entity
+@Table(name = "badge_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BadgeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "role", length = 20)
+    private String role;
+
+    @Type(JsonBinaryType.class)
+    @Column(name = "deltas", columnDefinition = "jsonb", nullable = false)
+    private JsonNode deltas;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "claimed_until")
+    private OffsetDateTime claimedUntil;
+
+    @Column(name = "processed_at")
+    private OffsetDateTime processedAt;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+}
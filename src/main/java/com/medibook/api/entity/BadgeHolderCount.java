@@ -0,0 +1,30 @@
+package com.medibook.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.OffsetDateTime;
+
+/**
+ * How many users hold a badge type right now. Badge evaluations add their activations and
+ * deactivations as deltas through BadgeHolderCountRepository, and a periodic reconciliation
+ * recounts the badges table, so the row is never written back from the entity.
+ */
+@Entity
+@Table(name = "badge_holder_counts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BadgeHolderCount {
+
+    @Id
+    @Column(name = "badge_type")
+    private String badgeType;
+
+    @Column(name = "holders", nullable = false)
+    private Long holders;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
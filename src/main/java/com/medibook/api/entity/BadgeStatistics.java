@@ -4,11 +4,18 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 import org.hibernate.annotations.Type;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+/**
+ * Rows are only changed through the statements in BadgeStatisticsRepository, which apply
+ * counter deltas and progress patches in SQL and bump the version, so the entity is never
+ * written back from a possibly stale copy.
+ */
 @Entity
+@Immutable
 @Table(name = "badge_statistics")
 @Getter
 @Setter
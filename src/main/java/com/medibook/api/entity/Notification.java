@@ -41,8 +41,21 @@ public class Notification {
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    /** Id of the transaction that last wrote the row, stamped by a database trigger for delta sync. */
+    @Column(name = "sync_xid", insertable = false, updatable = false)
+    private Long syncXid;
+
     @PrePersist
     protected void onCreate() {
         createdAt = OffsetDateTime.now(ARGENTINA_ZONE);
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = OffsetDateTime.now(ARGENTINA_ZONE);
     }
 }
\ No newline at end of file
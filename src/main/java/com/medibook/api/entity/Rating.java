@@ -2,7 +2,10 @@ package com.medibook.api.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -33,8 +36,13 @@ public class Rating {
     @Column(name = "score", nullable = false)
     private Integer score; 
 
-    @Column(name = "subcategory")
-    private String subcategory; 
+    // Enum constant names from RatingSubcategory / RatingSubcategoryPatient
+    @ElementCollection
+    @CollectionTable(name = "rating_subcategories", joinColumns = @JoinColumn(name = "rating_id"))
+    @Column(name = "code", nullable = false, length = 64)
+    @BatchSize(size = 100)
+    @Builder.Default
+    private Set<String> subcategoryCodes = new HashSet<>();
 
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
@@ -0,0 +1,57 @@
+package com.medibook.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Running totals of the ratings received by a user. Updated in place on every new rating
+ * so the user's average never has to be recomputed from the ratings table.
+ */
+@Entity
+@Table(name = "rating_aggregates")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingAggregate {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Column(name = "score_1_count", nullable = false)
+    private long score1Count;
+
+    @Column(name = "score_2_count", nullable = false)
+    private long score2Count;
+
+    @Column(name = "score_3_count", nullable = false)
+    private long score3Count;
+
+    @Column(name = "score_4_count", nullable = false)
+    private long score4Count;
+
+    @Column(name = "score_5_count", nullable = false)
+    private long score5Count;
+
+    // Forward-decayed totals: each rating is weighted by 2^((createdAt - epoch) / halfLife),
+    // so new ratings are plain additions and the decay is applied once when reading
+    @Column(name = "decayed_weight", nullable = false)
+    private double decayedWeight;
+
+    @Column(name = "decayed_score_sum", nullable = false)
+    private double decayedScoreSum;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+}
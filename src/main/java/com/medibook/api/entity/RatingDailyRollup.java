@@ -0,0 +1,68 @@
+package com.medibook.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Ratings created on one day (Argentina time) by one rater role for one doctor specialty.
+ * Maintained incrementally by RatingRollupService so dashboard statistics read a handful
+ * of rows instead of the ratings table.
+ */
+@Entity
+@Table(name = "rating_daily_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingDailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Column(name = "score_1_count", nullable = false)
+    private long score1Count;
+
+    @Column(name = "score_2_count", nullable = false)
+    private long score2Count;
+
+    @Column(name = "score_3_count", nullable = false)
+    private long score3Count;
+
+    @Column(name = "score_4_count", nullable = false)
+    private long score4Count;
+
+    @Column(name = "score_5_count", nullable = false)
+    private long score5Count;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "rollup_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "rater_role", nullable = false, length = 20)
+        private String raterRole;
+
+        // Empty string when the rating is not tied to a doctor with a specialty
+        @Column(name = "specialty", nullable = false)
+        private String specialty;
+    }
+}
@@ -0,0 +1,46 @@
+package com.medibook.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-day count of one rating subcategory code, keyed like RatingDailyRollup.
+ */
+@Entity
+@Table(name = "rating_daily_subcategory_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingDailySubcategoryRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "rollup_day", nullable = false)
+        private LocalDate day;
+
+        @Column(name = "rater_role", nullable = false, length = 20)
+        private String raterRole;
+
+        @Column(name = "specialty", nullable = false)
+        private String specialty;
+
+        @Column(name = "code", nullable = false, length = 64)
+        private String code;
+    }
+}
@@ -0,0 +1,50 @@
+package com.medibook.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Records a hard delete so that delta sync clients can drop the entity locally.
+ */
+@Entity
+@Table(name = "sync_tombstones")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncTombstone {
+
+    public static final String NOTIFICATION = "NOTIFICATION";
+    public static final String MODIFY_REQUEST = "MODIFY_REQUEST";
+    public static final String TURN = "TURN";
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private OffsetDateTime deletedAt;
+
+    /** Id of the transaction that last wrote the row, stamped by a database trigger for delta sync. */
+    @Column(name = "sync_xid", insertable = false, updatable = false)
+    private Long syncXid;
+
+    @PrePersist
+    protected void onCreate() {
+        if (deletedAt == null) {
+            deletedAt = OffsetDateTime.now();
+        }
+    }
+}
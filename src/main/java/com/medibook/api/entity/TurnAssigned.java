@@ -35,4 +35,11 @@ public class TurnAssigned {
     
     @Column(name = "motive", columnDefinition = "text")
     private String motive;
+
+    // Set for both parties when the turn is completed, cleared by each party's rating
+    @Column(name = "needs_patient_rating", nullable = false)
+    private boolean needsPatientRating;
+
+    @Column(name = "needs_doctor_rating", nullable = false)
+    private boolean needsDoctorRating;
 }
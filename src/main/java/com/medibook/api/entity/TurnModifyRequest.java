@@ -38,4 +38,17 @@ public class TurnModifyRequest {
 
     @Column(name = "status", nullable = false)
     private String status; // PENDING, APPROVED, REJECTED
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    /** Id of the transaction that last wrote the row, stamped by a database trigger for delta sync. */
+    @Column(name = "sync_xid", insertable = false, updatable = false)
+    private Long syncXid;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = OffsetDateTime.now();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.medibook.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Denormalized, read-only copy of a turn as shown in turn listings. Rows are kept in sync
+ * by TurnViewService whenever a turn, its ratings, its file or its participants change.
+ */
+@Entity
+@Table(name = "turn_views")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TurnView {
+
+    @Id
+    @Column(name = "turn_id")
+    private UUID turnId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private UUID doctorId;
+
+    @Column(name = "doctor_name", nullable = false)
+    private String doctorName;
+
+    @Column(name = "doctor_specialty")
+    private String doctorSpecialty;
+
+    @Column(name = "patient_id")
+    private UUID patientId;
+
+    @Column(name = "patient_name")
+    private String patientName;
+
+    @Column(name = "patient_score")
+    private Double patientScore;
+
+    @Column(name = "scheduled_at", nullable = false)
+    private OffsetDateTime scheduledAt;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "motive", columnDefinition = "text")
+    private String motive;
+
+    @Column(name = "file_url")
+    private String fileUrl;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "uploaded_at")
+    private Instant uploadedAt;
+
+    @Column(name = "needs_patient_rating", nullable = false)
+    private boolean needsPatientRating;
+
+    @Column(name = "needs_doctor_rating", nullable = false)
+    private boolean needsDoctorRating;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    /** Id of the transaction that last wrote the row, stamped by a database trigger for delta sync. */
+    @Column(name = "sync_xid", insertable = false, updatable = false)
+    private Long syncXid;
+}
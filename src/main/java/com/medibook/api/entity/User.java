@@ -9,6 +9,7 @@ import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.Getter;
 import lombok.Setter;
@@ -60,6 +61,13 @@ public class User {
     @Column(name = "score")
     private Double score;
 
+    @Column(name = "weighted_score")
+    private Double weightedScore;
+
+    @JsonIgnore
+    @Column(name = "calendar_feed_secret", length = 64)
+    private String calendarFeedSecret;
+
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<MedicalHistory> medicalHistories = new ArrayList<>();
 
@@ -0,0 +1,24 @@
+package com.medibook.api.event;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published once per stored rating. Carries everything downstream consumers need, so
+ * listeners do not have to reload the rating, the turn or either user.
+ */
+public record RatingAddedEvent(
+        UUID ratingId,
+        UUID turnId,
+        UUID raterId,
+        String raterRole,
+        UUID ratedId,
+        String ratedRole,
+        int score,
+        Set<String> subcategoryCodes,
+        Integer communicationScore,
+        Integer empathyScore,
+        Integer punctualityScore,
+        OffsetDateTime createdAt) {
+}
@@ -37,6 +37,7 @@ public class DoctorMapper {
                 .specialty(user.getDoctorProfile().getSpecialty())
                 .slotDurationMin(user.getDoctorProfile().getSlotDurationMin())
                 .score(user.getScore())
+                .weightedScore(user.getWeightedScore())
                 .activeBadges(badgeDTOs)
                 .totalActiveBadges(badgeDTOs.size())
                 .build();
@@ -0,0 +1,20 @@
+package com.medibook.api.mapper;
+
+import com.medibook.api.dto.Notification.NotificationResponseDTO;
+import com.medibook.api.entity.Notification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NotificationMapper {
+
+    public NotificationResponseDTO toDTO(Notification notification) {
+        return NotificationResponseDTO.builder()
+                .id(notification.getId())
+                .type(notification.getType())
+                .relatedEntityId(notification.getRelatedEntityId())
+                .message(notification.getMessage())
+                .isRead(notification.isRead())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+}
@@ -1,20 +1,16 @@
 package com.medibook.api.mapper;
 
 import com.medibook.api.dto.Rating.RatingResponseDTO;
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
 import com.medibook.api.entity.Rating;
 import org.springframework.stereotype.Component;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class RatingMapper {
 
     public RatingResponseDTO toDTO(Rating r) {
-    List<String> subcats = r.getSubcategory() == null ? List.of() : Arrays.stream(r.getSubcategory().split(","))
-        .map(String::trim)
-        .filter(s -> !s.isEmpty())
-        .collect(Collectors.toList());
+    List<String> subcats = RatingSubcategoryCodes.labelsOf(r.getSubcategoryCodes());
 
     String doctorSpecialty = null;
     if ("DOCTOR".equals(r.getRated().getRole()) && r.getRated().getDoctorProfile() != null) {
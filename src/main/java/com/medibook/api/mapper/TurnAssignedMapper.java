@@ -4,8 +4,8 @@ import com.medibook.api.dto.Turn.TurnCreateRequestDTO;
 import com.medibook.api.dto.Turn.TurnResponseDTO;
 import com.medibook.api.entity.TurnAssigned;
 import com.medibook.api.entity.TurnFile;
+import com.medibook.api.entity.TurnView;
 import com.medibook.api.entity.User;
-import com.medibook.api.repository.RatingRepository;
 import com.medibook.api.service.TurnFileService;
 import org.springframework.stereotype.Component;
 import lombok.RequiredArgsConstructor;
@@ -16,7 +16,6 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TurnAssignedMapper {
 
-    private final RatingRepository ratingRepository;
     private final TurnFileService turnFileService;
 
     public TurnAssigned toEntity(TurnCreateRequestDTO dto, User doctor) {
@@ -29,24 +28,6 @@ public class TurnAssignedMapper {
     }
 
     public TurnResponseDTO toDTO(TurnAssigned turn) {
-        boolean isCompleted = "COMPLETED".equals(turn.getStatus());
-        
-        boolean needsPatientRating = false;
-        boolean needsDoctorRating = false;
-        
-        if (turn.getPatient() != null && turn.getDoctor() != null) {
-            
-            if (isCompleted) {
-                needsPatientRating = !ratingRepository.existsByTurnAssigned_IdAndRater_Id(
-                    turn.getId(), turn.getPatient().getId());
-            }
-            
-            if (isCompleted) {
-                needsDoctorRating = !ratingRepository.existsByTurnAssigned_IdAndRater_Id(
-                    turn.getId(), turn.getDoctor().getId());
-            }
-        }
-        
         Optional<TurnFile> turnFile = turnFileService.getTurnFileInfo(turn.getId());
         
         return TurnResponseDTO.builder()
@@ -61,11 +42,31 @@ public class TurnAssignedMapper {
                 .scheduledAt(turn.getScheduledAt())
                 .motive(turn.getMotive())
                 .status(turn.getStatus())
-                .needsPatientRating(needsPatientRating)
-                .needsDoctorRating(needsDoctorRating)
+                .needsPatientRating(turn.isNeedsPatientRating())
+                .needsDoctorRating(turn.isNeedsDoctorRating())
                 .fileUrl(turnFile.map(TurnFile::getFileUrl).orElse(null))
                 .fileName(turnFile.map(TurnFile::getFileName).orElse(null))
                 .uploadedAt(turnFile.map(TurnFile::getUploadedAt).orElse(null))
                 .build();
     }
+
+    public TurnResponseDTO toDTO(TurnView view) {
+        return TurnResponseDTO.builder()
+                .id(view.getTurnId())
+                .doctorId(view.getDoctorId())
+                .doctorName(view.getDoctorName())
+                .doctorSpecialty(view.getDoctorSpecialty())
+                .patientId(view.getPatientId())
+                .patientName(view.getPatientName())
+                .patientScore(view.getPatientScore())
+                .scheduledAt(view.getScheduledAt())
+                .motive(view.getMotive())
+                .status(view.getStatus())
+                .needsPatientRating(view.isNeedsPatientRating())
+                .needsDoctorRating(view.isNeedsDoctorRating())
+                .fileUrl(view.getFileUrl())
+                .fileName(view.getFileName())
+                .uploadedAt(view.getUploadedAt())
+                .build();
+    }
 }
@@ -0,0 +1,211 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medibook.api.entity.Badge;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One badge evaluation for one user as a unit of work. The statistics row, the progress
+ * document and the user's badges are loaded once; counter deltas, derived statistic values,
+ * progress and badge state changes are applied here in memory and then written back together.
+ */
+public class BadgeEvaluationContext {
+
+    @Getter
+    private final UUID userId;
+
+    @Getter
+    private final String role;
+
+    /** Stored statistics with every delta and value of this unit already applied. */
+    @Getter
+    private final ObjectNode statistics;
+
+    @Getter
+    private final ObjectNode progress;
+
+    @Getter
+    private final ObjectNode counterDeltas = JsonNodeFactory.instance.objectNode();
+
+    @Getter
+    private final ObjectNode statisticValues = JsonNodeFactory.instance.objectNode();
+
+    /** Values loaded from other tables for this unit only; they are never written back. */
+    private final ObjectNode inputs = JsonNodeFactory.instance.objectNode();
+
+    private final ObjectNode loadedStatistics;
+    private final ObjectNode loadedProgress;
+    private final Map<String, Badge> badges = new LinkedHashMap<>();
+    private final Map<String, Badge> changedBadges = new LinkedHashMap<>();
+    private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+    /** Per badge type, how many holders this unit added (+1) or removed (-1). */
+    @Getter
+    private final Map<String, Integer> holderDeltas = new LinkedHashMap<>();
+
+    /** Badge saves skipped because the badge already was in the evaluated state. */
+    @Getter
+    private int avoidedBadgeWrites;
+
+    public BadgeEvaluationContext(UUID userId, String role, JsonNode statistics, JsonNode progress, Collection<Badge> badges) {
+        this.userId = userId;
+        this.role = role;
+        this.loadedStatistics = BadgeStatisticsCodec.objectNode(statistics).deepCopy();
+        this.statistics = loadedStatistics.deepCopy();
+        this.loadedProgress = BadgeStatisticsCodec.objectNode(progress).deepCopy();
+        this.progress = loadedProgress.deepCopy();
+        for (Badge badge : badges) {
+            this.badges.put(badge.getBadgeType(), badge);
+        }
+    }
+
+    public boolean isPatient() {
+        return "PATIENT".equals(role);
+    }
+
+    public boolean isDoctor() {
+        return "DOCTOR".equals(role);
+    }
+
+    public BadgeStatisticsData statisticsData() {
+        return BadgeStatisticsCodec.read(statistics);
+    }
+
+    public void addCounter(String key, int delta) {
+        counterDeltas.put(key, counterDeltas.path(key).asInt(0) + delta);
+        statistics.put(key, statistics.path(key).asInt(0) + delta);
+    }
+
+    /** Overwrites derived statistics, such as averages recomputed from the ratings table. */
+    public void putStatistics(ObjectNode values) {
+        statisticValues.setAll(values);
+        statistics.setAll(values);
+    }
+
+    /** A rule input: an external value if one was loaded, otherwise the statistic of that name. */
+    public JsonNode input(String key) {
+        return inputs.has(key) ? inputs.get(key) : statistics.path(key);
+    }
+
+    public boolean hasInput(String key) {
+        return inputs.has(key);
+    }
+
+    public void putInput(String key, int value) {
+        inputs.put(key, value);
+    }
+
+    public void setProgress(String badgeType, double value) {
+        progress.put(badgeType, value);
+    }
+
+    public boolean isProgressChanged() {
+        return !progress.equals(loadedProgress);
+    }
+
+    /** Statistic keys whose value now differs from the loaded row. */
+    public Set<String> getChangedStatistics() {
+        Set<String> changed = new HashSet<>();
+        statistics.fieldNames().forEachRemaining(key -> {
+            if (!statistics.get(key).equals(loadedStatistics.get(key))) {
+                changed.add(key);
+            }
+        });
+        return changed;
+    }
+
+    public boolean hasStatisticChanges() {
+        return !getChangedStatistics().isEmpty();
+    }
+
+    public boolean hasBadge(String badgeType) {
+        return badges.containsKey(badgeType);
+    }
+
+    public boolean isActive(String badgeType) {
+        Badge badge = badges.get(badgeType);
+        return badge != null && Boolean.TRUE.equals(badge.getIsActive());
+    }
+
+    public long countActiveExcluding(String badgeType) {
+        return badges.values().stream()
+                .filter(badge -> Boolean.TRUE.equals(badge.getIsActive()) && !badgeType.equals(badge.getBadgeType()))
+                .count();
+    }
+
+    /** Adds a badge with entity defaults, as the first award of a badge that is never revoked. */
+    public void create(String badgeType) {
+        Badge badge = Badge.builder()
+                .userId(userId)
+                .badgeType(badgeType)
+                .build();
+        badges.put(badgeType, badge);
+        changedBadges.put(badgeType, badge);
+        countHolder(badgeType, 1);
+    }
+
+    /**
+     * Marks the badge earned. A badge that already is active is left untouched, so an
+     * evaluation that confirms the current state writes nothing.
+     */
+    public void activate(String badgeType) {
+        Badge badge = badges.get(badgeType);
+        if (badge == null) {
+            badge = Badge.builder()
+                    .userId(userId)
+                    .badgeType(badgeType)
+                    .earnedAt(now)
+                    .isActive(true)
+                    .lastEvaluatedAt(now)
+                    .build();
+            badges.put(badgeType, badge);
+        } else if (Boolean.TRUE.equals(badge.getIsActive())) {
+            avoidedBadgeWrites++;
+            return;
+        } else {
+            badge.setIsActive(true);
+            if (badge.getEarnedAt() == null) {
+                badge.setEarnedAt(now);
+            }
+            badge.setLastEvaluatedAt(now);
+        }
+        changedBadges.put(badgeType, badge);
+        countHolder(badgeType, 1);
+    }
+
+    public void deactivate(String badgeType) {
+        Badge badge = badges.get(badgeType);
+        if (badge == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(badge.getIsActive())) {
+            avoidedBadgeWrites++;
+            return;
+        }
+        badge.setIsActive(false);
+        badge.setLastEvaluatedAt(now);
+        changedBadges.put(badgeType, badge);
+        countHolder(badgeType, -1);
+    }
+
+    private void countHolder(String badgeType, int delta) {
+        if (holderDeltas.merge(badgeType, delta, Integer::sum) == 0) {
+            holderDeltas.remove(badgeType);
+        }
+    }
+
+    public Collection<Badge> getChangedBadges() {
+        return changedBadges.values();
+    }
+}
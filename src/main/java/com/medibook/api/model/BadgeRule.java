@@ -0,0 +1,75 @@
+package com.medibook.api.model;
+
+import com.medibook.api.entity.BadgeType.BadgeCategory;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Declaration of one badge: who can earn it, which inputs it reads and how progress and the
+ * earned state follow from them. Inputs are statistic keys, external inputs from
+ * {@link BadgeRules} or other badge types; they feed the dependency index.
+ */
+@Getter
+@Builder
+public class BadgeRule {
+
+    private final String badgeType;
+    private final String role;
+    private final BadgeCategory category;
+    private final int threshold;
+    private final String criteria;
+
+    @Singular
+    private final Set<String> inputs;
+
+    private final ToDoubleFunction<BadgeEvaluationContext> progress;
+    private final Predicate<BadgeEvaluationContext> earned;
+
+    /** Awarded once and never revoked. */
+    private final boolean permanent;
+
+    /**
+     * The common rule: earned once a single input reaches the threshold, with progress as the
+     * percentage of the way there. The criteria template receives the threshold.
+     */
+    public static BadgeRule counter(String badgeType, String role, BadgeCategory category,
+                                    String input, int threshold, String criteria) {
+        return counter(badgeType, role, category, input, threshold, criteria, false);
+    }
+
+    public static BadgeRule counter(String badgeType, String role, BadgeCategory category,
+                                    String input, int threshold, String criteria, boolean permanent) {
+        return BadgeRule.builder()
+                .badgeType(badgeType)
+                .role(role)
+                .category(category)
+                .threshold(threshold)
+                .criteria(String.format(criteria, threshold))
+                .input(input)
+                .progress(context -> percent(context.input(input).asInt(0), threshold))
+                .earned(context -> context.input(input).asInt(0) >= threshold)
+                .permanent(permanent)
+                .build();
+    }
+
+    public static double percent(double value, double threshold) {
+        return Math.min(value / threshold * 100, 100.0);
+    }
+
+    public boolean appliesTo(String role) {
+        return this.role.equals(role);
+    }
+
+    public double progress(BadgeEvaluationContext context) {
+        return progress.applyAsDouble(context);
+    }
+
+    public boolean isEarned(BadgeEvaluationContext context) {
+        return earned.test(context);
+    }
+}
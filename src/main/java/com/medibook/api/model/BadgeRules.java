@@ -0,0 +1,262 @@
+package com.medibook.api.model;
+
+import com.medibook.api.entity.BadgeType.BadgeCategory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.medibook.api.model.BadgeStatisticsCodec.*;
+
+/**
+ * The badge catalog. Every threshold, formula, role and category is declared here once; the
+ * evaluator, the progress updates and the badge metadata all read from it. Rules are kept in
+ * dependency order, so a rule that reads another badge comes after that badge.
+ */
+public final class BadgeRules {
+
+    /** Inputs that are not stored statistics and are loaded from other tables when a rule needs them. */
+    public static final String AVAILABLE_DAYS = "available_days";
+
+    public static final Set<String> EXTERNAL_INPUTS = Set.of(AVAILABLE_DAYS);
+
+    /** Also the size of the {@link RatingWindow} of latest patient scores kept per doctor. */
+    public static final int TOP_SPECIALIST_REQUIRED_RATINGS = 35;
+    public static final int TOP_SPECIALIST_MIN_SCORE = 4;
+
+    private static final int COMPLETE_DOCUMENTER_MIN_TURNS = 50;
+    private static final int CONSISTENT_PROFESSIONAL_MIN_TURNS = 80;
+    private static final double CONSISTENT_PROFESSIONAL_CANCELLATION_MAX = 0.15;
+    private static final double RESPONSIBLE_EVALUATOR_MIN_AVG_RATING = 3.0;
+    private static final double RESPONSIBLE_EVALUATOR_MAX_AVG_RATING = 5.0;
+    private static final int EXCELLENCE_MODEL_MIN_TURNS = 25;
+    private static final int EXCELLENCE_MODEL_MIN_OTHER_BADGES = 4;
+
+    public static final List<String> MEDICAL_LEGEND_REQUIRED_BADGES = List.of(
+            "DOCTOR_EXCEPTIONAL_COMMUNICATOR",
+            "DOCTOR_EMPATHETIC_DOCTOR",
+            "DOCTOR_PUNCTUALITY_PROFESSIONAL"
+    );
+
+    private static final Map<String, BadgeRule> RULES = new LinkedHashMap<>();
+    private static final Map<String, List<BadgeRule>> DEPENDENTS = new HashMap<>();
+
+    static {
+        register(BadgeRule.counter("PATIENT_MEDIBOOK_WELCOME", "PATIENT", BadgeCategory.WELCOME,
+                TOTAL_TURNS_COMPLETED, 1, "Ten tu primer turno"));
+        register(BadgeRule.counter("PATIENT_COMMITTED_PATIENT", "PATIENT", BadgeCategory.PREVENTIVE_CARE,
+                TOTAL_TURNS_COMPLETED, 5, "Completa %d+ turnos"));
+        register(BadgeRule.counter("PATIENT_CONTINUOUS_FOLLOWUP", "PATIENT", BadgeCategory.PREVENTIVE_CARE,
+                TURNS_WITH_SAME_DOCTOR, 3, "Completa %d+ turnos con el mismo doctor", true));
+        register(BadgeRule.counter("PATIENT_CONSTANT_PATIENT", "PATIENT", BadgeCategory.PREVENTIVE_CARE,
+                TOTAL_TURNS_COMPLETED, 15, "Completa %d+ turnos"));
+        register(BadgeRule.counter("PATIENT_EXEMPLARY_PUNCTUALITY", "PATIENT", BadgeCategory.ACTIVE_COMMITMENT,
+                DOCTOR_PUNCTUALITY_MENTIONS, 10, "Recibe %d+ menciones de puntualidad de tus médicos"));
+        register(BadgeRule.counter("PATIENT_SMART_PLANNER", "PATIENT", BadgeCategory.ACTIVE_COMMITMENT,
+                ADVANCE_BOOKINGS, 10, "Reserva %d+ turnos con al menos 24 horas de anticipación"));
+        register(BadgeRule.counter("PATIENT_EXCELLENT_COLLABORATOR", "PATIENT", BadgeCategory.ACTIVE_COMMITMENT,
+                DOCTOR_COLLABORATION_MENTIONS, 10, "Recibe %d+ menciones positivas de colaboración de tus médicos"));
+        register(BadgeRule.counter("PATIENT_ALWAYS_PREPARED", "PATIENT", BadgeCategory.ACTIVE_COMMITMENT,
+                FILES_UPLOADED, 10, "Sube %d+ documentos requeridos por tus doctores"));
+        register(responsibleEvaluator());
+        register(excellenceModel());
+
+        register(BadgeRule.counter("DOCTOR_EXCEPTIONAL_COMMUNICATOR", "DOCTOR", BadgeCategory.QUALITY_OF_CARE,
+                TOTAL_COMMUNICATION_COUNT, 25, "Recibe %d menciones positivas de comunicación en total"));
+        register(BadgeRule.counter("DOCTOR_EMPATHETIC_DOCTOR", "DOCTOR", BadgeCategory.QUALITY_OF_CARE,
+                TOTAL_EMPATHY_COUNT, 25, "Recibe %d menciones positivas de empatía en total"));
+        register(BadgeRule.counter("DOCTOR_PUNCTUALITY_PROFESSIONAL", "DOCTOR", BadgeCategory.QUALITY_OF_CARE,
+                TOTAL_PUNCTUALITY_COUNT, 20, "Recibe %d menciones positivas de puntualidad en total"));
+        register(BadgeRule.counter("DOCTOR_DETAILED_DIAGNOSTICIAN", "DOCTOR", BadgeCategory.QUALITY_OF_CARE,
+                DOCUMENTATION_COUNT, 60, "Completa %d+ historias médicas"));
+        register(completeDocumenter());
+        register(BadgeRule.counter("DOCTOR_AGILE_RESPONDER", "DOCTOR", BadgeCategory.PROFESSIONALISM,
+                TOTAL_REQUESTS_HANDLED, 8, "Responde a %d+ solicitudes de modificación"));
+        register(BadgeRule.counter("DOCTOR_RELATIONSHIP_BUILDER", "DOCTOR", BadgeCategory.PROFESSIONALISM,
+                TOTAL_UNIQUE_PATIENTS, 25, "Atendió a %d+ pacientes distintos"));
+        register(consistentProfessional());
+        register(BadgeRule.counter("DOCTOR_ALWAYS_AVAILABLE", "DOCTOR", BadgeCategory.CONSISTENCY,
+                AVAILABLE_DAYS, 4, "Disponibilidad en %d+ días/semana"));
+        register(topSpecialist());
+        register(medicalLegend());
+    }
+
+    private BadgeRules() {
+    }
+
+    public static BadgeRule get(String badgeType) {
+        return RULES.get(badgeType);
+    }
+
+    /** All rules of a role, in dependency order. */
+    public static List<BadgeRule> forRole(String role) {
+        return RULES.values().stream().filter(rule -> rule.appliesTo(role)).toList();
+    }
+
+    /** Rules that read the given input: a statistic key, an external input or a badge type. */
+    public static List<BadgeRule> dependentsOf(String input) {
+        return DEPENDENTS.getOrDefault(input, Collections.emptyList());
+    }
+
+    /** Rules of a role that read any of the inputs, in dependency order. */
+    public static List<BadgeRule> dependentsOf(String role, Collection<String> inputs) {
+        Set<BadgeRule> dependents = new HashSet<>();
+        for (String input : inputs) {
+            dependents.addAll(dependentsOf(input));
+        }
+        return forRole(role).stream().filter(dependents::contains).toList();
+    }
+
+    public static boolean isExternal(String input) {
+        return EXTERNAL_INPUTS.contains(input);
+    }
+
+    private static void register(BadgeRule rule) {
+        for (String input : rule.getInputs()) {
+            if (input.startsWith(rule.getRole() + "_") && !RULES.containsKey(input)) {
+                throw new IllegalStateException(rule.getBadgeType() + " depends on " + input + ", which is not declared before it");
+            }
+            DEPENDENTS.computeIfAbsent(input, key -> new ArrayList<>()).add(rule);
+        }
+        RULES.put(rule.getBadgeType(), rule);
+    }
+
+    private static BadgeRule responsibleEvaluator() {
+        int minRatings = 10;
+        return BadgeRule.builder()
+                .badgeType("PATIENT_RESPONSIBLE_EVALUATOR")
+                .role("PATIENT")
+                .category(BadgeCategory.ACTIVE_COMMITMENT)
+                .threshold(minRatings)
+                .criteria(String.format(Locale.ROOT, "Deja %d+ evaluaciones con calificación promedio entre %.0f y %.1f",
+                        minRatings, RESPONSIBLE_EVALUATOR_MIN_AVG_RATING, RESPONSIBLE_EVALUATOR_MAX_AVG_RATING))
+                .input(RATINGS_GIVEN)
+                .input(AVG_RATING_GIVEN)
+                .progress(context -> BadgeRule.percent(context.input(RATINGS_GIVEN).asInt(0), minRatings))
+                .earned(context -> {
+                    double avgRatingGiven = context.input(AVG_RATING_GIVEN).asDouble();
+                    return context.input(RATINGS_GIVEN).asInt(0) >= minRatings
+                            && avgRatingGiven >= RESPONSIBLE_EVALUATOR_MIN_AVG_RATING
+                            && avgRatingGiven <= RESPONSIBLE_EVALUATOR_MAX_AVG_RATING;
+                })
+                .build();
+    }
+
+    /** Depends on every other patient badge, so it is declared last among them. */
+    private static BadgeRule excellenceModel() {
+        String badgeType = "PATIENT_EXCELLENCE_MODEL";
+        BadgeRule.BadgeRuleBuilder builder = BadgeRule.builder()
+                .badgeType(badgeType)
+                .role("PATIENT")
+                .category(BadgeCategory.CLINICAL_EXCELLENCE)
+                .threshold(EXCELLENCE_MODEL_MIN_TURNS)
+                .criteria(String.format("Completa %d+ turnos con %d+ otros badges",
+                        EXCELLENCE_MODEL_MIN_TURNS, EXCELLENCE_MODEL_MIN_OTHER_BADGES))
+                .input(TOTAL_TURNS_COMPLETED)
+                .progress(context -> {
+                    int turns = context.input(TOTAL_TURNS_COMPLETED).asInt(0);
+                    if (turns < EXCELLENCE_MODEL_MIN_TURNS) {
+                        return BadgeRule.percent(turns, EXCELLENCE_MODEL_MIN_TURNS);
+                    }
+                    double badgeProgress = BadgeRule.percent(context.countActiveExcluding(badgeType), EXCELLENCE_MODEL_MIN_OTHER_BADGES);
+                    return Math.min((badgeProgress + 100.0) / 2, 100.0);
+                })
+                .earned(context -> context.input(TOTAL_TURNS_COMPLETED).asInt(0) >= EXCELLENCE_MODEL_MIN_TURNS
+                        && context.countActiveExcluding(badgeType) >= EXCELLENCE_MODEL_MIN_OTHER_BADGES);
+        RULES.values().stream()
+                .filter(rule -> rule.appliesTo("PATIENT"))
+                .forEach(rule -> builder.input(rule.getBadgeType()));
+        return builder.build();
+    }
+
+    private static BadgeRule completeDocumenter() {
+        int threshold = 35;
+        return BadgeRule.builder()
+                .badgeType("DOCTOR_COMPLETE_DOCUMENTER")
+                .role("DOCTOR")
+                .category(BadgeCategory.PROFESSIONALISM)
+                .threshold(threshold)
+                .criteria(String.format("Completa %d+ historias médicas", threshold))
+                .input(TOTAL_TURNS_COMPLETED)
+                .input(DOCUMENTATION_COUNT)
+                .progress(context -> {
+                    int turns = context.input(TOTAL_TURNS_COMPLETED).asInt(0);
+                    if (turns < COMPLETE_DOCUMENTER_MIN_TURNS) {
+                        return BadgeRule.percent(turns, COMPLETE_DOCUMENTER_MIN_TURNS);
+                    }
+                    return BadgeRule.percent(context.input(DOCUMENTATION_COUNT).asInt(0), threshold);
+                })
+                .earned(context -> context.input(TOTAL_TURNS_COMPLETED).asInt(0) >= COMPLETE_DOCUMENTER_MIN_TURNS
+                        && context.input(DOCUMENTATION_COUNT).asInt(0) >= threshold)
+                .build();
+    }
+
+    private static BadgeRule consistentProfessional() {
+        return BadgeRule.builder()
+                .badgeType("DOCTOR_CONSISTENT_PROFESSIONAL")
+                .role("DOCTOR")
+                .category(BadgeCategory.CONSISTENCY)
+                .threshold(CONSISTENT_PROFESSIONAL_MIN_TURNS)
+                .criteria(String.format(Locale.ROOT, "Completa %d+ turnos con menos del %.0f%% de cancelaciones",
+                        CONSISTENT_PROFESSIONAL_MIN_TURNS, CONSISTENT_PROFESSIONAL_CANCELLATION_MAX * 100))
+                .input(TOTAL_TURNS_COMPLETED)
+                .input(TOTAL_CANCELLATIONS)
+                .progress(context -> {
+                    int turns = context.input(TOTAL_TURNS_COMPLETED).asInt(0);
+                    if (turns < CONSISTENT_PROFESSIONAL_MIN_TURNS) {
+                        return BadgeRule.percent(turns, CONSISTENT_PROFESSIONAL_MIN_TURNS);
+                    }
+                    return lowCancellationRate(context) ? 100.0 : 0.0;
+                })
+                .earned(context -> context.input(TOTAL_TURNS_COMPLETED).asInt(0) >= CONSISTENT_PROFESSIONAL_MIN_TURNS
+                        && lowCancellationRate(context))
+                .build();
+    }
+
+    private static boolean lowCancellationRate(BadgeEvaluationContext context) {
+        int turns = context.input(TOTAL_TURNS_COMPLETED).asInt(0);
+        int cancellations = context.input(TOTAL_CANCELLATIONS).asInt(0);
+        double cancellationRate = turns > 0 ? (double) cancellations / turns : 0.0;
+        return cancellationRate < CONSISTENT_PROFESSIONAL_CANCELLATION_MAX;
+    }
+
+    private static BadgeRule topSpecialist() {
+        return BadgeRule.builder()
+                .badgeType("DOCTOR_TOP_SPECIALIST")
+                .role("DOCTOR")
+                .category(BadgeCategory.CONSISTENCY)
+                .threshold(TOP_SPECIALIST_REQUIRED_RATINGS)
+                .criteria(String.format("Sus últimas %d calificaciones tienen puntaje %d o más",
+                        TOP_SPECIALIST_REQUIRED_RATINGS, TOP_SPECIALIST_MIN_SCORE))
+                .input(RECENT_PATIENT_RATINGS)
+                .input(RECENT_HIGH_SCORE_RATINGS)
+                .progress(context -> BadgeRule.percent(context.input(RECENT_HIGH_SCORE_RATINGS).asInt(0), TOP_SPECIALIST_REQUIRED_RATINGS))
+                .earned(context -> context.input(RECENT_PATIENT_RATINGS).asInt(0) == TOP_SPECIALIST_REQUIRED_RATINGS
+                        && context.input(RECENT_HIGH_SCORE_RATINGS).asInt(0) == TOP_SPECIALIST_REQUIRED_RATINGS)
+                .build();
+    }
+
+    private static BadgeRule medicalLegend() {
+        return BadgeRule.builder()
+                .badgeType("DOCTOR_MEDICAL_LEGEND")
+                .role("DOCTOR")
+                .category(BadgeCategory.CONSISTENCY)
+                .threshold(MEDICAL_LEGEND_REQUIRED_BADGES.size())
+                .criteria("Activa Comunicador Excepcional, Médico Empático y Puntualidad Profesional")
+                .inputs(MEDICAL_LEGEND_REQUIRED_BADGES)
+                .progress(context -> Math.min(activeRequiredBadges(context) * 100.0 / MEDICAL_LEGEND_REQUIRED_BADGES.size(), 100.0))
+                .earned(context -> activeRequiredBadges(context) == MEDICAL_LEGEND_REQUIRED_BADGES.size())
+                .build();
+    }
+
+    private static long activeRequiredBadges(BadgeEvaluationContext context) {
+        return MEDICAL_LEGEND_REQUIRED_BADGES.stream().filter(context::isActive).count();
+    }
+}
@@ -0,0 +1,169 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads and writes {@link BadgeStatisticsData} field by field against the stored JSON tree,
+ * without converting through maps or an ObjectMapper. Keys not known to the model are left
+ * untouched on write. Also holds the small helpers used to edit the progress document.
+ */
+public final class BadgeStatisticsCodec {
+
+    public static final String TOTAL_TURNS_COMPLETED = "total_turns_completed";
+    public static final String TOTAL_TURNS_CANCELLED = "total_turns_cancelled";
+    public static final String TOTAL_CANCELLATIONS = "total_cancellations";
+    public static final String TOTAL_TURNS_NO_SHOW = "total_turns_no_show";
+    public static final String TURNS_WITH_SAME_DOCTOR = "turns_with_same_doctor";
+    public static final String TOTAL_UNIQUE_PATIENTS = "total_unique_patients";
+    public static final String DOCUMENTATION_COUNT = "documentation_count";
+    public static final String TOTAL_DOCUMENTATION_WORDS = "total_documentation_words";
+    public static final String REQUESTS_CREATED = "requests_created";
+    public static final String TOTAL_REQUESTS_HANDLED = "total_requests_handled";
+    public static final String ADVANCE_BOOKINGS = "advance_bookings";
+    public static final String FILES_UPLOADED = "files_uploaded";
+    public static final String LAST_10_TURNS_FILES_UPLOADED_COUNT = "last_10_turns_files_uploaded_count";
+    public static final String RATINGS_GIVEN = "ratings_given";
+    public static final String AVG_RATING_GIVEN = "avg_rating_given";
+    public static final String RATINGS_RECEIVED = "ratings_received";
+    public static final String AVG_RATING_RECEIVED = "avg_rating_received";
+    public static final String TOTAL_RATINGS_RECEIVED = "total_ratings_received";
+    public static final String COMMUNICATION_RATINGS = "communication_ratings";
+    public static final String EMPATHY_RATINGS = "empathy_ratings";
+    public static final String PUNCTUALITY_RATINGS = "punctuality_ratings";
+    public static final String TOTAL_COMMUNICATION_COUNT = "total_communication_count";
+    public static final String TOTAL_EMPATHY_COUNT = "total_empathy_count";
+    public static final String TOTAL_PUNCTUALITY_COUNT = "total_punctuality_count";
+    public static final String DOCTOR_COLLABORATION_MENTIONS = "doctor_collaboration_mentions";
+    public static final String DOCTOR_PUNCTUALITY_MENTIONS = "doctor_punctuality_mentions";
+    public static final String TOTAL_AVG_RATING = "total_avg_rating";
+    public static final String TOTAL_LOW_RATING_COUNT = "total_low_rating_count";
+    public static final String RATING_SCORE_SUM = "rating_score_sum";
+    public static final String RATINGS_GIVEN_SCORE_SUM = "ratings_given_score_sum";
+    /** Latest patient scores of a doctor, see {@link RatingWindow}; not part of {@link BadgeStatisticsData}. */
+    public static final String RECENT_PATIENT_SCORES = "recent_patient_scores";
+    public static final String RECENT_PATIENT_SCORES_HEAD = "recent_patient_scores_head";
+    public static final String RECENT_PATIENT_RATINGS = "recent_patient_ratings";
+    public static final String RECENT_HIGH_SCORE_RATINGS = "recent_high_score_ratings";
+    public static final String TURNS_LAST_6_MONTHS = "turns_last_6_months";
+    public static final String TURNS_LAST_90_DAYS = "turns_last_90_days";
+    public static final String LAST_5_TURNS_COUNT = "last_5_turns_count";
+    public static final String LAST_10_TURNS_PUNCTUAL_COUNT = "last_10_turns_punctual_count";
+    public static final String LAST_15_TURNS_COLLABORATION_COUNT = "last_15_turns_collaboration_count";
+    public static final String LAST_15_TURNS_FOLLOW_INSTRUCTIONS_COUNT = "last_15_turns_follow_instructions_count";
+    public static final String CANCELLATIONS_LAST_90_DAYS = "cancellations_last_90_days";
+
+    private BadgeStatisticsCodec() {
+    }
+
+    public static BadgeStatisticsData read(JsonNode node) {
+        BadgeStatisticsData data = new BadgeStatisticsData();
+        if (node == null || !node.isObject()) {
+            return data;
+        }
+        data.setTotalTurnsCompleted(node.path(TOTAL_TURNS_COMPLETED).asInt(0));
+        data.setTotalTurnsCancelled(node.path(TOTAL_TURNS_CANCELLED).asInt(0));
+        data.setTotalCancellations(node.path(TOTAL_CANCELLATIONS).asInt(0));
+        data.setTotalTurnsNoShow(node.path(TOTAL_TURNS_NO_SHOW).asInt(0));
+        data.setTurnsWithSameDoctor(node.path(TURNS_WITH_SAME_DOCTOR).asInt(0));
+        data.setTotalUniquePatients(node.path(TOTAL_UNIQUE_PATIENTS).asInt(0));
+        data.setDocumentationCount(node.path(DOCUMENTATION_COUNT).asInt(0));
+        data.setTotalDocumentationWords(node.path(TOTAL_DOCUMENTATION_WORDS).asInt(0));
+        data.setRequestsCreated(node.path(REQUESTS_CREATED).asInt(0));
+        data.setTotalRequestsHandled(node.path(TOTAL_REQUESTS_HANDLED).asInt(0));
+        data.setAdvanceBookings(node.path(ADVANCE_BOOKINGS).asInt(0));
+        data.setFilesUploaded(node.path(FILES_UPLOADED).asInt(0));
+        data.setLast10TurnsFilesUploadedCount(node.path(LAST_10_TURNS_FILES_UPLOADED_COUNT).asInt(0));
+        data.setRatingsGiven(node.path(RATINGS_GIVEN).asInt(0));
+        data.setAvgRatingGiven(node.path(AVG_RATING_GIVEN).asDouble(0.0));
+        data.setRatingsReceived(node.path(RATINGS_RECEIVED).asInt(0));
+        data.setAvgRatingReceived(node.path(AVG_RATING_RECEIVED).asDouble(0.0));
+        data.setTotalRatingsReceived(node.path(TOTAL_RATINGS_RECEIVED).asInt(0));
+        data.setCommunicationRatings(node.path(COMMUNICATION_RATINGS).asInt(0));
+        data.setEmpathyRatings(node.path(EMPATHY_RATINGS).asInt(0));
+        data.setPunctualityRatings(node.path(PUNCTUALITY_RATINGS).asInt(0));
+        data.setTotalCommunicationCount(node.path(TOTAL_COMMUNICATION_COUNT).asInt(0));
+        data.setTotalEmpathyCount(node.path(TOTAL_EMPATHY_COUNT).asInt(0));
+        data.setTotalPunctualityCount(node.path(TOTAL_PUNCTUALITY_COUNT).asInt(0));
+        data.setDoctorCollaborationMentions(node.path(DOCTOR_COLLABORATION_MENTIONS).asInt(0));
+        data.setDoctorPunctualityMentions(node.path(DOCTOR_PUNCTUALITY_MENTIONS).asInt(0));
+        data.setTotalAvgRating(node.path(TOTAL_AVG_RATING).asDouble(0.0));
+        data.setTotalLowRatingCount(node.path(TOTAL_LOW_RATING_COUNT).asInt(0));
+        data.setRatingScoreSum(node.path(RATING_SCORE_SUM).asInt(0));
+        data.setRatingsGivenScoreSum(node.path(RATINGS_GIVEN_SCORE_SUM).asInt(0));
+        data.setTurnsLast6Months(node.path(TURNS_LAST_6_MONTHS).asInt(0));
+        data.setTurnsLast90Days(node.path(TURNS_LAST_90_DAYS).asInt(0));
+        data.setLast5TurnsCount(node.path(LAST_5_TURNS_COUNT).asInt(0));
+        data.setLast10TurnsPunctualCount(node.path(LAST_10_TURNS_PUNCTUAL_COUNT).asInt(0));
+        data.setLast15TurnsCollaborationCount(node.path(LAST_15_TURNS_COLLABORATION_COUNT).asInt(0));
+        data.setLast15TurnsFollowInstructionsCount(node.path(LAST_15_TURNS_FOLLOW_INSTRUCTIONS_COUNT).asInt(0));
+        data.setCancellationsLast90Days(node.path(CANCELLATIONS_LAST_90_DAYS).asInt(0));
+        return data;
+    }
+
+    /**
+     * Writes every field of {@code data} into {@code target} when it is an object node,
+     * otherwise into a new one, and returns the node that was written.
+     */
+    public static ObjectNode write(BadgeStatisticsData data, JsonNode target) {
+        ObjectNode node = objectNode(target);
+        node.put(TOTAL_TURNS_COMPLETED, data.getTotalTurnsCompleted());
+        node.put(TOTAL_TURNS_CANCELLED, data.getTotalTurnsCancelled());
+        node.put(TOTAL_CANCELLATIONS, data.getTotalCancellations());
+        node.put(TOTAL_TURNS_NO_SHOW, data.getTotalTurnsNoShow());
+        node.put(TURNS_WITH_SAME_DOCTOR, data.getTurnsWithSameDoctor());
+        node.put(TOTAL_UNIQUE_PATIENTS, data.getTotalUniquePatients());
+        node.put(DOCUMENTATION_COUNT, data.getDocumentationCount());
+        node.put(TOTAL_DOCUMENTATION_WORDS, data.getTotalDocumentationWords());
+        node.put(REQUESTS_CREATED, data.getRequestsCreated());
+        node.put(TOTAL_REQUESTS_HANDLED, data.getTotalRequestsHandled());
+        node.put(ADVANCE_BOOKINGS, data.getAdvanceBookings());
+        node.put(FILES_UPLOADED, data.getFilesUploaded());
+        node.put(LAST_10_TURNS_FILES_UPLOADED_COUNT, data.getLast10TurnsFilesUploadedCount());
+        node.put(RATINGS_GIVEN, data.getRatingsGiven());
+        node.put(AVG_RATING_GIVEN, data.getAvgRatingGiven());
+        node.put(RATINGS_RECEIVED, data.getRatingsReceived());
+        node.put(AVG_RATING_RECEIVED, data.getAvgRatingReceived());
+        node.put(TOTAL_RATINGS_RECEIVED, data.getTotalRatingsReceived());
+        node.put(COMMUNICATION_RATINGS, data.getCommunicationRatings());
+        node.put(EMPATHY_RATINGS, data.getEmpathyRatings());
+        node.put(PUNCTUALITY_RATINGS, data.getPunctualityRatings());
+        node.put(TOTAL_COMMUNICATION_COUNT, data.getTotalCommunicationCount());
+        node.put(TOTAL_EMPATHY_COUNT, data.getTotalEmpathyCount());
+        node.put(TOTAL_PUNCTUALITY_COUNT, data.getTotalPunctualityCount());
+        node.put(DOCTOR_COLLABORATION_MENTIONS, data.getDoctorCollaborationMentions());
+        node.put(DOCTOR_PUNCTUALITY_MENTIONS, data.getDoctorPunctualityMentions());
+        node.put(TOTAL_AVG_RATING, data.getTotalAvgRating());
+        node.put(TOTAL_LOW_RATING_COUNT, data.getTotalLowRatingCount());
+        node.put(RATING_SCORE_SUM, data.getRatingScoreSum());
+        node.put(RATINGS_GIVEN_SCORE_SUM, data.getRatingsGivenScoreSum());
+        node.put(TURNS_LAST_6_MONTHS, data.getTurnsLast6Months());
+        node.put(TURNS_LAST_90_DAYS, data.getTurnsLast90Days());
+        node.put(LAST_5_TURNS_COUNT, data.getLast5TurnsCount());
+        node.put(LAST_10_TURNS_PUNCTUAL_COUNT, data.getLast10TurnsPunctualCount());
+        node.put(LAST_15_TURNS_COLLABORATION_COUNT, data.getLast15TurnsCollaborationCount());
+        node.put(LAST_15_TURNS_FOLLOW_INSTRUCTIONS_COUNT, data.getLast15TurnsFollowInstructionsCount());
+        node.put(CANCELLATIONS_LAST_90_DAYS, data.getCancellationsLast90Days());
+        return node;
+    }
+
+    public static ObjectNode objectNode(JsonNode node) {
+        return node instanceof ObjectNode objectNode ? objectNode : JsonNodeFactory.instance.objectNode();
+    }
+
+    /** Stores {@code value} unless the badge already has more progress; progress never goes back. */
+    public static void raiseProgress(ObjectNode progress, String badgeType, double value) {
+        progress.put(badgeType, Math.max(progress.path(badgeType).asDouble(0.0), value));
+    }
+
+    public static long countCompleted(JsonNode progress) {
+        long completed = 0;
+        for (JsonNode value : progress) {
+            if (value.asDouble(0.0) >= 100.0) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+}
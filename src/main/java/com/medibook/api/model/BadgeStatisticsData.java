@@ -0,0 +1,55 @@
+package com.medibook.api.model;
+
+import lombok.Data;
+
+/**
+ * Typed view of the badge_statistics.statistics document. Every counter is a primitive
+ * that defaults to zero, so callers never deal with missing keys or boxed values.
+ * Read and written through {@link BadgeStatisticsCodec}.
+ */
+@Data
+public class BadgeStatisticsData {
+    private int totalTurnsCompleted;
+    private int totalTurnsCancelled;
+    private int totalCancellations;
+    private int totalTurnsNoShow;
+    private int turnsWithSameDoctor;
+    private int totalUniquePatients;
+
+    private int documentationCount;
+    private int totalDocumentationWords;
+
+    private int requestsCreated;
+    private int totalRequestsHandled;
+    private int advanceBookings;
+    private int filesUploaded;
+    private int last10TurnsFilesUploadedCount;
+
+    private int ratingsGiven;
+    private double avgRatingGiven;
+    private int ratingsReceived;
+    private double avgRatingReceived;
+
+    private int totalRatingsReceived;
+    private int communicationRatings;
+    private int empathyRatings;
+    private int punctualityRatings;
+    private int totalCommunicationCount;
+    private int totalEmpathyCount;
+    private int totalPunctualityCount;
+    private int doctorCollaborationMentions;
+    private int doctorPunctualityMentions;
+    private double totalAvgRating;
+    private int totalLowRatingCount;
+    /** Sums of the scores received and given; the averages are derived from them and the counts. */
+    private int ratingScoreSum;
+    private int ratingsGivenScoreSum;
+
+    private int turnsLast6Months;
+    private int turnsLast90Days;
+    private int last5TurnsCount;
+    private int last10TurnsPunctualCount;
+    private int last15TurnsCollaborationCount;
+    private int last15TurnsFollowInstructionsCount;
+    private int cancellationsLast90Days;
+}
@@ -0,0 +1,55 @@
+package com.medibook.api.model;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.medibook.api.model.BadgeStatisticsCodec.*;
+
+/**
+ * Events that make a user's badges stale. Triggers tied to one role are dropped for users
+ * with any other role when the pending work is applied. Each trigger names the rule inputs
+ * it can change, which selects the badges to re-evaluate through {@link BadgeRules}.
+ */
+public enum BadgeTrigger {
+    TURN_COMPLETED(null, TOTAL_TURNS_COMPLETED, TURNS_WITH_SAME_DOCTOR),
+    PATIENT_SERVED("DOCTOR", TOTAL_UNIQUE_PATIENTS),
+    MEDICAL_HISTORY_DOCUMENTED("DOCTOR", DOCUMENTATION_COUNT, TOTAL_DOCUMENTATION_WORDS),
+    MODIFY_REQUEST_HANDLED("DOCTOR", TOTAL_REQUESTS_HANDLED),
+    TURN_CANCELLED("DOCTOR", TOTAL_CANCELLATIONS),
+    TURN_NO_SHOW("DOCTOR", TOTAL_TURNS_NO_SHOW),
+    AVAILABILITY_CONFIGURED("DOCTOR", BadgeRules.AVAILABLE_DAYS),
+    ADVANCE_BOOKING("PATIENT", ADVANCE_BOOKINGS),
+    FILE_UPLOADED("PATIENT", FILES_UPLOADED, LAST_10_TURNS_FILES_UPLOADED_COUNT),
+    RATING_RECEIVED(null, TOTAL_RATINGS_RECEIVED, RATINGS_RECEIVED, AVG_RATING_RECEIVED,
+            COMMUNICATION_RATINGS, EMPATHY_RATINGS, PUNCTUALITY_RATINGS,
+            TOTAL_COMMUNICATION_COUNT, TOTAL_EMPATHY_COUNT, TOTAL_PUNCTUALITY_COUNT,
+            DOCTOR_COLLABORATION_MENTIONS, DOCTOR_PUNCTUALITY_MENTIONS, TOTAL_AVG_RATING, TOTAL_LOW_RATING_COUNT,
+            RECENT_PATIENT_RATINGS, RECENT_HIGH_SCORE_RATINGS),
+    RATING_GIVEN(null, RATINGS_GIVEN, AVG_RATING_GIVEN),
+    ALL_BADGES(null);
+
+    private final String requiredRole;
+    private final Set<String> inputs;
+
+    BadgeTrigger(String requiredRole, String... inputs) {
+        this.requiredRole = requiredRole;
+        this.inputs = Set.of(inputs);
+    }
+
+    public boolean appliesTo(String role) {
+        return requiredRole == null || requiredRole.equals(role);
+    }
+
+    public Set<String> getInputs() {
+        return inputs;
+    }
+
+    public static Set<String> inputsOf(Collection<BadgeTrigger> triggers) {
+        Set<String> inputs = new HashSet<>();
+        for (BadgeTrigger trigger : triggers) {
+            inputs.addAll(trigger.getInputs());
+        }
+        return inputs;
+    }
+}
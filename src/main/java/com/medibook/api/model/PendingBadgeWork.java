@@ -0,0 +1,121 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Badge work for one user: the triggers seen and, per trigger, the statistic counter deltas
+ * they add up to, plus the patient scores received in order for the doctor's rating window.
+ * A business change builds one and stores it as a badge event; the drain folds all claimed
+ * events of a user back into one. Not thread safe.
+ */
+public class PendingBadgeWork {
+
+    /** Key of the patient scores array inside the stored {@code RATING_RECEIVED} deltas. */
+    static final String PATIENT_SCORES = "patient_scores";
+
+    private final Map<BadgeTrigger, Map<String, Integer>> deltas = new EnumMap<>(BadgeTrigger.class);
+
+    /** Scores received from patients, oldest first. */
+    @Getter
+    private final List<Integer> patientScores = new ArrayList<>();
+
+    @Getter
+    private String role;
+
+    @Getter
+    private int events;
+
+    public PendingBadgeWork record(BadgeTrigger trigger) {
+        deltas.computeIfAbsent(trigger, t -> new LinkedHashMap<>());
+        events++;
+        return this;
+    }
+
+    public PendingBadgeWork record(BadgeTrigger trigger, String counter, int delta) {
+        record(trigger);
+        deltas.get(trigger).merge(counter, delta, Integer::sum);
+        return this;
+    }
+
+    /** A score received from a patient, to be added to the doctor's {@link RatingWindow}. */
+    public PendingBadgeWork recordPatientScore(int score) {
+        deltas.computeIfAbsent(BadgeTrigger.RATING_RECEIVED, t -> new LinkedHashMap<>());
+        patientScores.add(score);
+        return this;
+    }
+
+    /** Role of the user when the trigger already knew it, so the drain can skip loading the user. */
+    public PendingBadgeWork withRole(String role) {
+        if (role != null) {
+            this.role = role;
+        }
+        return this;
+    }
+
+    /** Adds the triggers and deltas of a stored event, as written by {@link #toJson()}. */
+    public PendingBadgeWork record(JsonNode stored) {
+        stored.fields().forEachRemaining(entry -> {
+            BadgeTrigger trigger = BadgeTrigger.valueOf(entry.getKey());
+            record(trigger);
+            entry.getValue().fields().forEachRemaining(counter -> {
+                if (counter.getValue().isArray()) {
+                    counter.getValue().forEach(score -> patientScores.add(score.asInt()));
+                } else {
+                    deltas.get(trigger).merge(counter.getKey(), counter.getValue().asInt(), Integer::sum);
+                }
+            });
+        });
+        return this;
+    }
+
+    /**
+     * {@code {"TRIGGER": {"counter": delta, ...}, ...}}, the shape stored on a badge event;
+     * patient scores are an array under {@code RATING_RECEIVED}.
+     */
+    public ObjectNode toJson() {
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        deltas.forEach((trigger, counters) -> {
+            ObjectNode node = json.putObject(trigger.name());
+            counters.forEach(node::put);
+        });
+        if (!patientScores.isEmpty()) {
+            ArrayNode scores = ((ObjectNode) json.get(BadgeTrigger.RATING_RECEIVED.name())).putArray(PATIENT_SCORES);
+            patientScores.forEach(scores::add);
+        }
+        return json;
+    }
+
+    public boolean contains(BadgeTrigger trigger) {
+        return deltas.containsKey(trigger);
+    }
+
+    public Set<BadgeTrigger> triggersFor(String role) {
+        Set<BadgeTrigger> triggers = EnumSet.noneOf(BadgeTrigger.class);
+        for (BadgeTrigger trigger : deltas.keySet()) {
+            if (trigger.appliesTo(role)) {
+                triggers.add(trigger);
+            }
+        }
+        return triggers;
+    }
+
+    public Map<String, Integer> counterDeltas(Set<BadgeTrigger> triggers) {
+        Map<String, Integer> total = new LinkedHashMap<>();
+        for (BadgeTrigger trigger : triggers) {
+            deltas.getOrDefault(trigger, Map.of()).forEach((counter, delta) -> total.merge(counter, delta, Integer::sum));
+        }
+        return total;
+    }
+}
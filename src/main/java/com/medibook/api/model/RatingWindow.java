@@ -0,0 +1,97 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The latest scores a doctor received from patients, kept as a fixed-size ring of score
+ * bytes. The n-th score ever added goes to slot {@code n % capacity}, so a new rating
+ * overwrites the oldest one in place. On the statistics row the ring is one digit per slot
+ * plus the next slot to write, together with the two counts the rules read from it.
+ */
+public final class RatingWindow {
+
+    private final byte[] scores;
+    private int head;
+    private int size;
+
+    public RatingWindow(int capacity) {
+        this.scores = new byte[capacity];
+    }
+
+    /** Reads the ring stored on a statistics row; a missing or malformed ring reads as empty. */
+    public static RatingWindow read(JsonNode statistics, int capacity) {
+        RatingWindow window = new RatingWindow(capacity);
+        String slots = statistics.path(BadgeStatisticsCodec.RECENT_PATIENT_SCORES).asText("");
+        int head = statistics.path(BadgeStatisticsCodec.RECENT_PATIENT_SCORES_HEAD).asInt(0);
+        if (slots.isEmpty() || !slots.chars().allMatch(Character::isDigit) || head < 0 || head > slots.length()) {
+            return window;
+        }
+        if (slots.length() <= capacity) {
+            for (int i = 0; i < slots.length(); i++) {
+                window.scores[i] = (byte) (slots.charAt(i) - '0');
+            }
+            window.size = slots.length();
+            window.head = head % capacity;
+            return window;
+        }
+        int oldest = head < slots.length() ? head : 0;
+        for (int i = 0; i < slots.length(); i++) {
+            window.add(slots.charAt((oldest + i) % slots.length()) - '0');
+        }
+        return window;
+    }
+
+    /**
+     * Rebuilds the ring from the source tables: {@code total} is how many patient ratings the
+     * doctor ever received and {@code latest} the most recent ones, oldest first, one digit
+     * each. The slots come out exactly as adding every rating one by one would leave them; a
+     * window that is not full holds every rating, whatever {@code total} says.
+     */
+    public static RatingWindow of(int capacity, long total, String latest) {
+        RatingWindow window = new RatingWindow(capacity);
+        int kept = Math.min(latest.length(), capacity);
+        long count = kept < capacity ? kept : total;
+        long first = count - kept;
+        for (int i = 0; i < kept; i++) {
+            window.scores[(int) ((first + i) % capacity)] = (byte) (latest.charAt(latest.length() - kept + i) - '0');
+        }
+        window.size = kept;
+        window.head = (int) (count % capacity);
+        return window;
+    }
+
+    public void add(int score) {
+        scores[head] = (byte) score;
+        head = (head + 1) % scores.length;
+        if (size < scores.length) {
+            size++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int countAtLeast(int minScore) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (scores[i] >= minScore) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Stores the ring and the counts of the top specialist rule into {@code values}. */
+    public void write(ObjectNode values) {
+        StringBuilder slots = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            slots.append((char) ('0' + scores[i]));
+        }
+        values.put(BadgeStatisticsCodec.RECENT_PATIENT_SCORES, slots.toString())
+                .put(BadgeStatisticsCodec.RECENT_PATIENT_SCORES_HEAD, head)
+                .put(BadgeStatisticsCodec.RECENT_PATIENT_RATINGS, size)
+                .put(BadgeStatisticsCodec.RECENT_HIGH_SCORE_RATINGS, countAtLeast(BadgeRules.TOP_SPECIALIST_MIN_SCORE));
+    }
+}
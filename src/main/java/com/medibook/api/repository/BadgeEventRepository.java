@@ -0,0 +1,83 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.BadgeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BadgeEventRepository extends JpaRepository<BadgeEvent, Long> {
+
+    /**
+     * Oldest unclaimed events. Rows locked by another worker are skipped rather than waited
+     * on, so concurrent drains split the backlog instead of queueing behind each other.
+     */
+    @Query(value = "SELECT * FROM badge_events " +
+                   "WHERE processed_at IS NULL AND attempts < :maxAttempts " +
+                   "AND (claimed_until IS NULL OR claimed_until < :now) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<BadgeEvent> lockNextBatch(@Param("limit") int limit, @Param("maxAttempts") int maxAttempts,
+                                   @Param("now") OffsetDateTime now);
+
+    /**
+     * Every pending event of the users in {@code [fromId, toId]}, claimed or not. Waits for
+     * rows another transaction holds, so the caller sees each event exactly once.
+     */
+    @Query(value = "SELECT * FROM badge_events " +
+                   "WHERE user_id BETWEEN :fromId AND :toId " +
+                   "AND processed_at IS NULL AND attempts < :maxAttempts " +
+                   "ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<BadgeEvent> lockPendingBetween(@Param("fromId") UUID fromId, @Param("toId") UUID toId,
+                                        @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE BadgeEvent e SET e.claimedUntil = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("until") OffsetDateTime until);
+
+    @Modifying
+    @Query("UPDATE BadgeEvent e SET e.processedAt = :now, e.claimedUntil = null WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE BadgeEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, e.claimedUntil = null " +
+           "WHERE e.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+    @Query("SELECT COUNT(e) FROM BadgeEvent e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts")
+    long countPending(@Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT COUNT(e) FROM BadgeEvent e WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts")
+    long countFailed(@Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT MIN(e.createdAt) FROM BadgeEvent e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts")
+    OffsetDateTime findOldestPendingCreatedAt(@Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Appends one full evaluation per user that had events since {@code since}. The original
+     * events are not reset, so their counter deltas are never applied twice.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO badge_events (user_id, role, deltas, created_at, attempts) " +
+                   "SELECT user_id, MAX(role), CAST('{\"ALL_BADGES\": {}}' AS jsonb), :now, 0 " +
+                   "FROM badge_events WHERE created_at >= :since GROUP BY user_id",
+           nativeQuery = true)
+    int replaySince(@Param("since") OffsetDateTime since, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE BadgeEvent e SET e.attempts = 0, e.claimedUntil = null " +
+           "WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts")
+    int requeueFailed(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("DELETE FROM BadgeEvent e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
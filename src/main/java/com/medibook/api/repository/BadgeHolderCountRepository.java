@@ -0,0 +1,42 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.BadgeHolderCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BadgeHolderCountRepository extends JpaRepository<BadgeHolderCount, String> {
+
+    /**
+     * Adds each entry of {@code deltas}, a JSON object of badge type to holder delta, to the
+     * count of that type in one statement.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO badge_holder_counts (badge_type, holders, updated_at) " +
+            "SELECT d.key, CAST(d.value AS bigint), now() FROM jsonb_each_text(CAST(:deltas AS jsonb)) d " +
+            "ON CONFLICT (badge_type) DO UPDATE SET " +
+            "holders = badge_holder_counts.holders + EXCLUDED.holders, updated_at = now()", nativeQuery = true)
+    int addHolders(@Param("deltas") String deltas);
+
+    /**
+     * Blocks {@link #addHolders} until the transaction ends, so a recount never overwrites a
+     * delta: a badge write that committed before the lock is counted, and one that commits
+     * after it adds its delta to the recounted value.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE badge_holder_counts IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRecount();
+
+    /** Recounts the active badges of every type and overwrites the stored counts. Run after {@link #lockForRecount}. */
+    @Modifying
+    @Query(value = "INSERT INTO badge_holder_counts (badge_type, holders, updated_at) " +
+            "SELECT t.badge_type, COUNT(b.id), now() " +
+            "FROM (SELECT badge_type FROM badge_holder_counts UNION SELECT badge_type FROM badges) t " +
+            "LEFT JOIN badges b ON b.badge_type = t.badge_type AND b.is_active " +
+            "GROUP BY t.badge_type " +
+            "ON CONFLICT (badge_type) DO UPDATE SET holders = EXCLUDED.holders, updated_at = now()", nativeQuery = true)
+    int recount();
+}
@@ -29,4 +29,8 @@ public interface BadgeRepository extends JpaRepository<Badge, UUID> {
     long countActiveBadgesByUserIdExcludingType(@Param("userId") UUID userId, @Param("excludeType") String excludeType);
 
     List<Badge> findByBadgeTypeAndIsActiveTrue(String badgeType);
+
+    List<Badge> findByUserIdBetween(UUID fromId, UUID toId);
+
+    List<Badge> findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(UUID userId, long sinceXid);
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,15 +16,152 @@ public interface BadgeStatisticsRepository extends JpaRepository<BadgeStatistics
 
     Optional<BadgeStatistics> findByUserId(UUID userId);
 
-    @Modifying
-    @Query("UPDATE BadgeStatistics bs SET bs.statistics = :statistics, bs.lastUpdatedAt = CURRENT_TIMESTAMP WHERE bs.userId = :userId")
-    void updateStatistics(@Param("userId") UUID userId, @Param("statistics") String statistics);
+    /**
+     * The user's row, locked until the transaction ends. Badge units of work take it before
+     * reading anything else, so two workers evaluating the same user run one after the other
+     * and the second one sees the badges and derived values the first one wrote.
+     */
+    @Query(value = "SELECT * FROM badge_statistics WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<BadgeStatistics> lockByUserId(@Param("userId") UUID userId);
 
-    @Modifying
-    @Query("UPDATE BadgeStatistics bs SET bs.progress = :progress, bs.lastUpdatedAt = CURRENT_TIMESTAMP WHERE bs.userId = :userId")
-    void updateProgress(@Param("userId") UUID userId, @Param("progress") String progress);
+    List<BadgeStatistics> findByUserIdBetween(UUID fromId, UUID toId);
+
+    @Query("SELECT s.version FROM BadgeStatistics s WHERE s.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") UUID userId);
 
     @Modifying
-    @Query("UPDATE BadgeStatistics bs SET bs.statistics = :statistics, bs.progress = :progress, bs.lastUpdatedAt = CURRENT_TIMESTAMP WHERE bs.userId = :userId")
-    void updateStatisticsAndProgress(@Param("userId") UUID userId, @Param("statistics") String statistics, @Param("progress") String progress);
-}
\ No newline at end of file
+    @Query(value = "INSERT INTO badge_statistics (user_id, statistics, progress, last_updated_at, version) " +
+            "VALUES (:userId, CAST('{}' AS jsonb), CAST('{}' AS jsonb), now(), 0) " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertEmptyIfMissing(@Param("userId") UUID userId);
+
+    /**
+     * Adds every numeric entry of {@code deltas} to the stored counter of the same key and then
+     * overwrites the keys in {@code values}, all in one statement, so concurrent events for
+     * the same user never conflict. Both arguments are JSON objects.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE badge_statistics SET statistics = statistics " +
+            "|| COALESCE((SELECT jsonb_object_agg(d.key, COALESCE(CAST(statistics ->> d.key AS numeric), 0) + CAST(d.value AS numeric)) " +
+            "FROM jsonb_each_text(CAST(:deltas AS jsonb)) d), CAST('{}' AS jsonb)) " +
+            "|| CAST(:values AS jsonb), " +
+            "version = version + 1, last_updated_at = now() " +
+            "WHERE user_id = :userId", nativeQuery = true)
+    int applyStatistics(@Param("userId") UUID userId, @Param("deltas") String deltas, @Param("values") String values);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE badge_statistics SET progress = progress || CAST(:progress AS jsonb), " +
+            "version = version + 1, last_updated_at = now() " +
+            "WHERE user_id = :userId", nativeQuery = true)
+    int mergeProgress(@Param("userId") UUID userId, @Param("progress") String progress);
+
+    /**
+     * {@link #applyStatistics} and {@link #mergeProgress} as one statement, for a badge
+     * evaluation that writes its counters, derived values and progress back together.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE badge_statistics SET statistics = statistics " +
+            "|| COALESCE((SELECT jsonb_object_agg(d.key, COALESCE(CAST(statistics ->> d.key AS numeric), 0) + CAST(d.value AS numeric)) " +
+            "FROM jsonb_each_text(CAST(:deltas AS jsonb)) d), CAST('{}' AS jsonb)) " +
+            "|| CAST(:values AS jsonb), " +
+            "progress = progress || CAST(:progress AS jsonb), " +
+            "version = version + 1, last_updated_at = now() " +
+            "WHERE user_id = :userId", nativeQuery = true)
+    int applyStatisticsAndProgress(@Param("userId") UUID userId, @Param("deltas") String deltas,
+                                   @Param("values") String values, @Param("progress") String progress);
+
+    /**
+     * Upserts many rows at once from a JSON array of {@code {user_id, statistics, progress}}
+     * objects. Statistics are merged key by key so counters missing from a row are kept;
+     * progress is merged the same way.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO badge_statistics (user_id, statistics, progress, last_updated_at, version) " +
+            "SELECT CAST(r ->> 'user_id' AS uuid), r -> 'statistics', r -> 'progress', now(), 0 " +
+            "FROM jsonb_array_elements(CAST(:rows AS jsonb)) r " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "statistics = badge_statistics.statistics || EXCLUDED.statistics, " +
+            "progress = badge_statistics.progress || EXCLUDED.progress, " +
+            "version = badge_statistics.version + 1, last_updated_at = now()", nativeQuery = true)
+    int upsertAll(@Param("rows") String rows);
+
+    // Set-based sources for a full recompute of the users in [fromId, toId]. Each row starts
+    // with the user id followed by the aggregated values.
+
+    /** doctor_id, completed turns, distinct patients served, cancelled turns, no-shows. */
+    @Query(value = "SELECT doctor_id, " +
+            "SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+            "COUNT(DISTINCT CASE WHEN status = 'COMPLETED' THEN patient_id END), " +
+            "SUM(CASE WHEN status = 'CANCELED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN status = 'NO_SHOW' THEN 1 ELSE 0 END) " +
+            "FROM turns_assigned WHERE doctor_id BETWEEN :fromId AND :toId GROUP BY doctor_id", nativeQuery = true)
+    List<Object[]> sumDoctorTurns(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /** patient_id, completed turns, most completed turns with a single doctor. */
+    @Query(value = "SELECT patient_id, SUM(completed), MAX(completed) FROM (" +
+            "SELECT patient_id, doctor_id, SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed " +
+            "FROM turns_assigned WHERE patient_id BETWEEN :fromId AND :toId GROUP BY patient_id, doctor_id) t " +
+            "GROUP BY patient_id", nativeQuery = true)
+    List<Object[]> sumPatientTurns(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /** doctor_id, medical history entries, words across their current content. */
+    @Query(value = "SELECT doctor_id, COUNT(*), " +
+            "SUM(CASE WHEN content IS NULL OR btrim(content) = '' THEN 0 " +
+            "ELSE array_length(regexp_split_to_array(btrim(content), '\\s+'), 1) END) " +
+            "FROM medical_history WHERE doctor_id BETWEEN :fromId AND :toId GROUP BY doctor_id", nativeQuery = true)
+    List<Object[]> sumDocumentation(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /** doctor_id, modify requests approved or rejected. */
+    @Query(value = "SELECT doctor_id, COUNT(*) FROM turn_modify_requests " +
+            "WHERE doctor_id BETWEEN :fromId AND :toId AND status <> 'PENDING' GROUP BY doctor_id", nativeQuery = true)
+    List<Object[]> countHandledRequests(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /** patient_id, modify requests created. */
+    @Query(value = "SELECT patient_id, COUNT(*) FROM turn_modify_requests " +
+            "WHERE patient_id BETWEEN :fromId AND :toId GROUP BY patient_id", nativeQuery = true)
+    List<Object[]> countCreatedRequests(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /** patient_id, files uploaded to their turns. */
+    @Query(value = "SELECT t.patient_id, COUNT(*) FROM turn_files f JOIN turns_assigned t ON t.id = f.turn_id " +
+            "WHERE t.patient_id BETWEEN :fromId AND :toId GROUP BY t.patient_id", nativeQuery = true)
+    List<Object[]> countUploadedFiles(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /** rater_id, ratings given, average score given, sum of the scores given. */
+    @Query(value = "SELECT rater_id, COUNT(*), AVG(score), SUM(score) FROM ratings " +
+            "WHERE rater_id BETWEEN :fromId AND :toId GROUP BY rater_id", nativeQuery = true)
+    List<Object[]> sumRatingsGiven(@Param("fromId") UUID fromId, @Param("toId") UUID toId);
+
+    /**
+     * rated_id, ratings received, average score, low scores, high scores mentioning
+     * communication, empathy and punctuality, high scores from doctors mentioning
+     * collaboration and punctuality, the sum of all scores, the number of ratings from patients
+     * and the scores of the latest {@code recentWindow} of those, oldest first, one digit each.
+     */
+    @Query(value = "SELECT r.rated_id, COUNT(*), AVG(r.score), " +
+            "SUM(CASE WHEN r.score < 4 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.score >= 4 AND r.communication THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.score >= 4 AND r.empathy THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.score >= 4 AND r.punctuality THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.score >= 4 AND r.rater_role = 'DOCTOR' AND r.collaboration THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.score >= 4 AND r.rater_role = 'DOCTOR' AND r.patient_punctuality THEN 1 ELSE 0 END), " +
+            "SUM(r.score), " +
+            "SUM(CASE WHEN r.rater_role = 'PATIENT' THEN 1 ELSE 0 END), " +
+            "STRING_AGG(CASE WHEN r.rater_role = 'PATIENT' AND r.recency <= :recentWindow THEN CAST(r.score AS VARCHAR) END, '' " +
+            "ORDER BY r.recency DESC) " +
+            "FROM (SELECT ra.rated_id, ra.score, u.role AS rater_role, " +
+            "ROW_NUMBER() OVER (PARTITION BY ra.rated_id, u.role ORDER BY ra.created_at DESC) AS recency, " +
+            "EXISTS (SELECT 1 FROM rating_subcategories s WHERE s.rating_id = ra.id AND s.code IN (:communication)) AS communication, " +
+            "EXISTS (SELECT 1 FROM rating_subcategories s WHERE s.rating_id = ra.id AND s.code IN (:empathy)) AS empathy, " +
+            "EXISTS (SELECT 1 FROM rating_subcategories s WHERE s.rating_id = ra.id AND s.code IN (:punctuality)) AS punctuality, " +
+            "EXISTS (SELECT 1 FROM rating_subcategories s WHERE s.rating_id = ra.id AND s.code IN (:collaboration)) AS collaboration, " +
+            "EXISTS (SELECT 1 FROM rating_subcategories s WHERE s.rating_id = ra.id AND s.code IN (:patientPunctuality)) AS patient_punctuality " +
+            "FROM ratings ra JOIN users u ON u.id = ra.rater_id WHERE ra.rated_id BETWEEN :fromId AND :toId) r " +
+            "GROUP BY r.rated_id", nativeQuery = true)
+    List<Object[]> sumRatingsReceived(@Param("fromId") UUID fromId, @Param("toId") UUID toId,
+                                      @Param("communication") Collection<String> communication,
+                                      @Param("empathy") Collection<String> empathy,
+                                      @Param("punctuality") Collection<String> punctuality,
+                                      @Param("collaboration") Collection<String> collaboration,
+                                      @Param("patientPunctuality") Collection<String> patientPunctuality,
+                                      @Param("recentWindow") int recentWindow);
+}
@@ -3,9 +3,12 @@ package com.medibook.api.repository;
 import com.medibook.api.entity.DoctorProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface DoctorProfileRepository extends JpaRepository<DoctorProfile, UUID> {
     Optional<DoctorProfile> findByUserId(UUID userId);
+
+    List<DoctorProfile> findByIdBetween(UUID fromId, UUID toId);
 }
\ No newline at end of file
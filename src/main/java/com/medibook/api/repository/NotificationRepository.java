@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,11 +18,13 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
 
     long countByUserIdAndIsReadFalse(UUID userId);
 
+    List<Notification> findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(UUID userId, long sinceXid);
+
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.id = :id AND n.user.id = :userId")
     int deleteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
 
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = :userId")
-    int markAsReadByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+    @Query("UPDATE Notification n SET n.isRead = true, n.updatedAt = :now WHERE n.id = :id AND n.user.id = :userId")
+    int markAsReadByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId, @Param("now") OffsetDateTime now);
 }
\ No newline at end of file
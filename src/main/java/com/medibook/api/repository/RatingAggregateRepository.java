@@ -0,0 +1,130 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.RatingAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, UUID> {
+
+    @Modifying
+    @Query("UPDATE RatingAggregate a SET " +
+           "a.ratingCount = a.ratingCount + 1, " +
+           "a.scoreSum = a.scoreSum + :score, " +
+           "a.score1Count = a.score1Count + CASE WHEN :score = 1 THEN 1 ELSE 0 END, " +
+           "a.score2Count = a.score2Count + CASE WHEN :score = 2 THEN 1 ELSE 0 END, " +
+           "a.score3Count = a.score3Count + CASE WHEN :score = 3 THEN 1 ELSE 0 END, " +
+           "a.score4Count = a.score4Count + CASE WHEN :score = 4 THEN 1 ELSE 0 END, " +
+           "a.score5Count = a.score5Count + CASE WHEN :score = 5 THEN 1 ELSE 0 END, " +
+           "a.decayedWeight = a.decayedWeight + :weight, " +
+           "a.decayedScoreSum = a.decayedScoreSum + :weight * :score, " +
+           "a.updatedAt = :now " +
+           "WHERE a.userId = :userId")
+    int increment(@Param("userId") UUID userId, @Param("score") int score, @Param("weight") double weight,
+                  @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregates (user_id, rating_count, score_sum, score_1_count, score_2_count, " +
+                   "score_3_count, score_4_count, score_5_count, decayed_weight, decayed_score_sum, updated_at) " +
+                   "VALUES (:userId, 0, 0, 0, 0, 0, 0, 0, 0, 0, :now) " +
+                   "ON CONFLICT (user_id) DO NOTHING",
+           nativeQuery = true)
+    int insertEmptyIfMissing(@Param("userId") UUID userId, @Param("now") OffsetDateTime now);
+
+    @Query("SELECT a.scoreSum AS scoreSum, a.ratingCount AS ratingCount, " +
+           "a.decayedScoreSum AS decayedScoreSum, a.decayedWeight AS decayedWeight " +
+           "FROM RatingAggregate a WHERE a.userId = :userId")
+    Optional<Totals> findTotalsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Blocks rating writes to the aggregates until the transaction ends; reads go on. The
+     * turn views are locked first, in the order a rating transaction writes them, since the
+     * rebuild updates every turn view's patient score afterwards.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE turn_views, rating_aggregates IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM rating_aggregates", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregates (user_id, rating_count, score_sum, score_1_count, score_2_count, " +
+                   "score_3_count, score_4_count, score_5_count, decayed_weight, decayed_score_sum, updated_at) " +
+                   "SELECT rated_id, COUNT(*), SUM(score), " +
+                   "SUM(CASE WHEN score = 1 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN score = 2 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN score = 3 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN score = 4 THEN 1 ELSE 0 END), " +
+                   "SUM(CASE WHEN score = 5 THEN 1 ELSE 0 END), " +
+                   "SUM(POWER(2.0, (EXTRACT(EPOCH FROM created_at) - :epochSeconds) / :halfLifeSeconds)), " +
+                   "SUM(score * POWER(2.0, (EXTRACT(EPOCH FROM created_at) - :epochSeconds) / :halfLifeSeconds)), " +
+                   ":now " +
+                   "FROM ratings GROUP BY rated_id",
+           nativeQuery = true)
+    int insertFromRatings(@Param("now") OffsetDateTime now, @Param("epochSeconds") double epochSeconds,
+                          @Param("halfLifeSeconds") double halfLifeSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE users SET score = (" +
+                   "SELECT ROUND(a.score_sum * 100.0 / a.rating_count) / 100.0 " +
+                   "FROM rating_aggregates a WHERE a.user_id = users.id AND a.rating_count > 0)",
+           nativeQuery = true)
+    int updateUserScoresFromAggregates();
+
+    @Modifying
+    @Query(value = "UPDATE users SET weighted_score = (" +
+                   "SELECT ROUND((:priorWeight * :priorMean + a.decayed_score_sum * :decay) / " +
+                   "(:priorWeight + a.decayed_weight * :decay) * 100.0) / 100.0 " +
+                   "FROM rating_aggregates a WHERE a.user_id = users.id AND a.rating_count > 0)",
+           nativeQuery = true)
+    int updateUserWeightedScoresFromAggregates(@Param("priorMean") double priorMean,
+                                               @Param("priorWeight") double priorWeight,
+                                               @Param("decay") double decay);
+
+    @Modifying
+    @Query("UPDATE TurnView tv SET tv.patientScore = (SELECT u.score FROM User u WHERE u.id = tv.patientId) " +
+           "WHERE tv.patientId IS NOT NULL")
+    int updateTurnViewPatientScores();
+
+    /**
+     * Leaderboard inputs of every active doctor: the decayed sums are relative to the decay
+     * epoch, so scores of different doctors can be computed at one common instant. The totals
+     * are null for doctors without ratings.
+     */
+    @Query("SELECT u.id AS doctorId, dp.specialty AS specialty, a.ratingCount AS ratingCount, " +
+           "a.decayedScoreSum AS decayedScoreSum, a.decayedWeight AS decayedWeight " +
+           "FROM User u JOIN u.doctorProfile dp LEFT JOIN RatingAggregate a ON a.userId = u.id " +
+           "WHERE u.role = 'DOCTOR' AND u.status = 'ACTIVE'")
+    List<DoctorTotals> findActiveDoctorTotals();
+
+    @Query("SELECT u.id AS doctorId, dp.specialty AS specialty, a.ratingCount AS ratingCount, " +
+           "a.decayedScoreSum AS decayedScoreSum, a.decayedWeight AS decayedWeight " +
+           "FROM User u JOIN u.doctorProfile dp LEFT JOIN RatingAggregate a ON a.userId = u.id " +
+           "WHERE u.id = :doctorId AND u.role = 'DOCTOR' AND u.status = 'ACTIVE'")
+    Optional<DoctorTotals> findActiveDoctorTotalsById(@Param("doctorId") UUID doctorId);
+
+    interface Totals {
+        long getScoreSum();
+        long getRatingCount();
+        double getDecayedScoreSum();
+        double getDecayedWeight();
+    }
+
+    interface DoctorTotals {
+        UUID getDoctorId();
+        String getSpecialty();
+        Long getRatingCount();
+        Double getDecayedScoreSum();
+        Double getDecayedWeight();
+    }
+}
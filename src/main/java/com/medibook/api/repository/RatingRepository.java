@@ -1,37 +1,54 @@
 package com.medibook.api.repository;
 
 import com.medibook.api.entity.Rating;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface RatingRepository extends JpaRepository<Rating, UUID> {
+
+    // Rater and rated users (and their doctor profiles) are fetched with the rating so admin
+    // listings map rows without per-row lazy loads.
+    String ADMIN_SELECT = "SELECT r FROM Rating r " +
+            "JOIN FETCH r.rater rr LEFT JOIN FETCH rr.doctorProfile " +
+            "JOIN FETCH r.rated rd LEFT JOIN FETCH rd.doctorProfile ";
+
     boolean existsByTurnAssigned_IdAndRater_Id(UUID turnId, UUID raterId);
     Optional<Rating> findByTurnAssigned_IdAndRater_Id(UUID turnId, UUID raterId);
 
-    @org.springframework.data.jpa.repository.Query("SELECT AVG(r.score) FROM Rating r WHERE r.rated.id = :ratedId")
-    Double findAverageScoreByRatedId(java.util.UUID ratedId);
-    
-    @Query("SELECT r FROM Rating r ORDER BY r.createdAt DESC")
+    @Query(ADMIN_SELECT + "ORDER BY r.createdAt DESC")
     List<Rating> findAllOrderByCreatedAtDesc();
     
-    @Query("SELECT r FROM Rating r WHERE r.rater.role = :raterRole ORDER BY r.createdAt DESC")
-    List<Rating> findAllByRaterRoleOrderByCreatedAtDesc(String raterRole);
+    @Query(ADMIN_SELECT + "WHERE rr.role = :raterRole ORDER BY r.createdAt DESC")
+    List<Rating> findAllByRaterRoleOrderByCreatedAtDesc(@Param("raterRole") String raterRole);
+
+    @Query(value = ADMIN_SELECT + "WHERE (:raterRole IS NULL OR rr.role = :raterRole) ORDER BY r.createdAt DESC, r.id",
+           countQuery = "SELECT COUNT(r) FROM Rating r WHERE (:raterRole IS NULL OR r.rater.role = :raterRole)")
+    Page<Rating> findAdminPage(@Param("raterRole") String raterRole, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ADMIN_SELECT + "WHERE (:raterRole IS NULL OR rr.role = :raterRole) ORDER BY r.createdAt DESC, r.id")
+    Stream<Rating> streamForAdmin(@Param("raterRole") String raterRole);
     
     @Query("SELECT r FROM Rating r WHERE r.rated.role = :ratedRole ORDER BY r.createdAt DESC")
     List<Rating> findAllByRatedRoleOrderByCreatedAtDesc(String ratedRole);
 
-    @org.springframework.data.jpa.repository.Query("SELECT r.subcategory AS subcategory, COUNT(r) AS count FROM Rating r WHERE r.rated.id = :ratedId AND (:raterRole IS NULL OR r.rater.role = :raterRole) GROUP BY r.subcategory")
+    @org.springframework.data.jpa.repository.Query("SELECT c AS subcategory, COUNT(r) AS count FROM Rating r JOIN r.subcategoryCodes c WHERE r.rated.id = :ratedId AND (:raterRole IS NULL OR r.rater.role = :raterRole) GROUP BY c")
     java.util.List<SubcategoryCount> countSubcategoriesByRatedId(@org.springframework.data.repository.query.Param("ratedId") java.util.UUID ratedId, @org.springframework.data.repository.query.Param("raterRole") String raterRole);
 
-    @Query("SELECT r FROM Rating r WHERE r.rated.id = :ratedId ORDER BY r.createdAt DESC")
-    List<Rating> findTop100ByRatedIdOrderByCreatedAtDesc(@org.springframework.data.repository.query.Param("ratedId") UUID ratedId);
+    List<Rating> findTop100ByRatedIdOrderByCreatedAtDesc(UUID ratedId);
 
     List<Rating> findTop35ByRated_IdAndRater_RoleOrderByCreatedAtDesc(UUID ratedId, String role);
 
@@ -41,7 +58,7 @@ public interface RatingRepository extends JpaRepository<Rating, UUID> {
     @Query("SELECT r FROM Rating r WHERE r.rated.id = :ratedId ORDER BY r.createdAt DESC")
     List<Rating> findByRatedId(@org.springframework.data.repository.query.Param("ratedId") UUID ratedId);
 
-    @Query("SELECT r.rated.id, r.subcategory, COUNT(r) FROM Rating r WHERE r.rated.id IN :ratedIds AND r.rater.role = :raterRole GROUP BY r.rated.id, r.subcategory")
+    @Query("SELECT r.rated.id, c, COUNT(r) FROM Rating r JOIN r.subcategoryCodes c WHERE r.rated.id IN :ratedIds AND r.rater.role = :raterRole GROUP BY r.rated.id, c")
     List<Object[]> countSubcategoriesByRatedIds(@Param("ratedIds") List<UUID> ratedIds, @Param("raterRole") String raterRole);
 
     interface SubcategoryCount {
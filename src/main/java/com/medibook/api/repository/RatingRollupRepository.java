@@ -0,0 +1,59 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.RatingDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface RatingRollupRepository extends JpaRepository<RatingDailyRollup, RatingDailyRollup.Key> {
+
+    @Modifying
+    @Query("UPDATE RatingDailyRollup r SET " +
+           "r.ratingCount = r.ratingCount + 1, " +
+           "r.scoreSum = r.scoreSum + :score, " +
+           "r.score1Count = r.score1Count + CASE WHEN :score = 1 THEN 1 ELSE 0 END, " +
+           "r.score2Count = r.score2Count + CASE WHEN :score = 2 THEN 1 ELSE 0 END, " +
+           "r.score3Count = r.score3Count + CASE WHEN :score = 3 THEN 1 ELSE 0 END, " +
+           "r.score4Count = r.score4Count + CASE WHEN :score = 4 THEN 1 ELSE 0 END, " +
+           "r.score5Count = r.score5Count + CASE WHEN :score = 5 THEN 1 ELSE 0 END, " +
+           "r.updatedAt = :now " +
+           "WHERE r.id.day = :day AND r.id.raterRole = :raterRole AND r.id.specialty = :specialty")
+    int increment(@Param("day") LocalDate day, @Param("raterRole") String raterRole,
+                  @Param("specialty") String specialty, @Param("score") int score, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_daily_rollups (rollup_day, rater_role, specialty, rating_count, score_sum, " +
+                   "score_1_count, score_2_count, score_3_count, score_4_count, score_5_count, updated_at) " +
+                   "VALUES (:day, :raterRole, :specialty, 0, 0, 0, 0, 0, 0, 0, :now) " +
+                   "ON CONFLICT (rollup_day, rater_role, specialty) DO NOTHING",
+           nativeQuery = true)
+    int insertEmptyIfMissing(@Param("day") LocalDate day, @Param("raterRole") String raterRole,
+                             @Param("specialty") String specialty, @Param("now") OffsetDateTime now);
+
+    @Query("SELECT r.id.raterRole, r.id.specialty, SUM(r.ratingCount), SUM(r.scoreSum), " +
+           "SUM(r.score1Count), SUM(r.score2Count), SUM(r.score3Count), SUM(r.score4Count), SUM(r.score5Count) " +
+           "FROM RatingDailyRollup r WHERE r.id.day BETWEEN :from AND :to " +
+           "GROUP BY r.id.raterRole, r.id.specialty")
+    List<Object[]> sumByRoleAndSpecialty(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Blocks rating writes to both rollup tables until the transaction ends; reads go on.
+     * A rating that committed before the lock is in the rebuild's snapshot, and one that
+     * commits after it increments the rebuilt rows.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE rating_daily_rollups, rating_daily_subcategory_rollups IN EXCLUSIVE MODE",
+           nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM rating_daily_rollups", nativeQuery = true)
+    int deleteAllRows();
+}
@@ -0,0 +1,40 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.RatingDailySubcategoryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RatingSubcategoryRollupRepository
+        extends JpaRepository<RatingDailySubcategoryRollup, RatingDailySubcategoryRollup.Key> {
+
+    @Modifying
+    @Query("UPDATE RatingDailySubcategoryRollup s SET s.ratingCount = s.ratingCount + 1 " +
+           "WHERE s.id.day = :day AND s.id.raterRole = :raterRole AND s.id.specialty = :specialty AND s.id.code = :code")
+    int increment(@Param("day") LocalDate day, @Param("raterRole") String raterRole,
+                  @Param("specialty") String specialty, @Param("code") String code);
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_daily_subcategory_rollups (rollup_day, rater_role, specialty, code, rating_count) " +
+                   "VALUES (:day, :raterRole, :specialty, :code, 0) " +
+                   "ON CONFLICT (rollup_day, rater_role, specialty, code) DO NOTHING",
+           nativeQuery = true)
+    int insertEmptyIfMissing(@Param("day") LocalDate day, @Param("raterRole") String raterRole,
+                             @Param("specialty") String specialty, @Param("code") String code);
+
+    /** Rater role, specialty, code and count; most mentioned codes first within each role and specialty. */
+    @Query("SELECT s.id.raterRole, s.id.specialty, s.id.code, SUM(s.ratingCount) FROM RatingDailySubcategoryRollup s " +
+           "WHERE s.id.day BETWEEN :from AND :to GROUP BY s.id.raterRole, s.id.specialty, s.id.code " +
+           "ORDER BY s.id.raterRole, s.id.specialty, SUM(s.ratingCount) DESC, s.id.code")
+    List<Object[]> sumByRoleSpecialtyAndSubcategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "DELETE FROM rating_daily_subcategory_rollups", nativeQuery = true)
+    int deleteAllRows();
+}
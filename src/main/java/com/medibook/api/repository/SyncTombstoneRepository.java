@@ -0,0 +1,22 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, UUID> {
+
+    List<SyncTombstone> findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(UUID userId, long sinceXid);
+
+    /**
+     * Oldest transaction id still running when the statement started. Every transaction below
+     * it has committed or rolled back, so its rows are visible to any later read.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long currentSnapshotXmin();
+}
@@ -1,5 +1,6 @@
 package com.medibook.api.repository;
 
+import com.medibook.api.dto.Turn.TurnListProjection;
 import com.medibook.api.entity.TurnAssigned;
 import com.medibook.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -7,9 +8,21 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TurnAssignedRepository extends JpaRepository<TurnAssigned, UUID> {
+
+    String TURN_LIST_SELECT = "SELECT new com.medibook.api.dto.Turn.TurnListProjection(" +
+            "t.id, d.id, d.name, d.surname, dp.specialty, p.id, p.name, p.surname, p.score, " +
+            "t.scheduledAt, t.status, t.motive, t.needsPatientRating, t.needsDoctorRating, " +
+            "f.fileUrl, f.fileName, f.uploadedAt) " +
+            "FROM TurnAssigned t " +
+            "JOIN t.doctor d " +
+            "LEFT JOIN d.doctorProfile dp " +
+            "LEFT JOIN t.patient p " +
+            "LEFT JOIN TurnFile f ON f.turnId = t.id ";
+
     List<TurnAssigned> findByDoctor_IdAndScheduledAtBetween(UUID doctorId, OffsetDateTime start, OffsetDateTime end);
     boolean existsByDoctor_IdAndScheduledAt(UUID doctorId, OffsetDateTime scheduledAt);
     
@@ -23,10 +36,19 @@ public interface TurnAssignedRepository extends JpaRepository<TurnAssigned, UUID
     List<TurnAssigned> findByDoctor_IdAndStatusOrderByScheduledAtDesc(UUID doctorId, String status);
     
     List<TurnAssigned> findByPatient_IdAndStatusOrderByScheduledAtDesc(UUID patientId, String status);
-    
+
+    @Query("SELECT t FROM TurnAssigned t JOIN FETCH t.doctor d LEFT JOIN FETCH d.doctorProfile " +
+           "LEFT JOIN FETCH t.patient p LEFT JOIN FETCH p.doctorProfile WHERE t.id = :turnId")
+    Optional<TurnAssigned> findWithPartiesById(@Param("turnId") UUID turnId);
+
+    @Query(TURN_LIST_SELECT + "WHERE t.id = :turnId")
+    Optional<TurnListProjection> findListById(@Param("turnId") UUID turnId);
+
     @Query("SELECT DISTINCT t.patient FROM TurnAssigned t WHERE t.doctor.id = :doctorId AND t.patient IS NOT NULL ORDER BY t.patient.name, t.patient.surname")
     List<User> findDistinctPatientsByDoctorId(@Param("doctorId") UUID doctorId);
     
+    long countByDoctor_IdAndPatient_IdAndStatus(UUID doctorId, UUID patientId, String status);
+
     boolean existsByDoctor_IdAndPatient_Id(UUID doctorId, UUID patientId);
     
     List<TurnAssigned> findByPatient_IdAndStatusAndScheduledAtAfter(UUID patientId, String status, OffsetDateTime scheduledAt);
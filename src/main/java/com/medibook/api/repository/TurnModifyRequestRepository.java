@@ -27,6 +27,14 @@ public interface TurnModifyRequestRepository extends JpaRepository<TurnModifyReq
             @Param("turnId") UUID turnId, 
             @Param("patientId") UUID patientId);
 
+    @Query("SELECT tmr FROM TurnModifyRequest tmr " +
+           "WHERE (tmr.patient.id = :userId OR tmr.doctor.id = :userId) " +
+           "AND tmr.syncXid >= :sinceXid " +
+           "ORDER BY tmr.syncXid ASC")
+    List<TurnModifyRequest> findChangedForUserSince(
+            @Param("userId") UUID userId,
+            @Param("sinceXid") long sinceXid);
+
        @org.springframework.data.jpa.repository.Modifying
        @org.springframework.data.jpa.repository.Query("DELETE FROM TurnModifyRequest t WHERE t.turnAssigned.id = :turnId AND t.status = :status")
        void deleteByTurnAssigned_IdAndStatus(@Param("turnId") UUID turnId, @Param("status") String status);
@@ -0,0 +1,53 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.TurnView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TurnViewRepository extends JpaRepository<TurnView, UUID> {
+
+    List<TurnView> findByDoctorIdOrderByScheduledAtDesc(UUID doctorId);
+
+    List<TurnView> findByPatientIdOrderByScheduledAtDesc(UUID patientId);
+
+    List<TurnView> findByDoctorIdAndStatusOrderByScheduledAtDesc(UUID doctorId, String status);
+
+    List<TurnView> findByPatientIdAndStatusOrderByScheduledAtDesc(UUID patientId, String status);
+
+    // Served by the partial indexes idx_turn_views_awaiting_*_rating
+    List<TurnView> findByDoctorIdAndNeedsDoctorRatingTrueOrderByScheduledAtDesc(UUID doctorId);
+
+    List<TurnView> findByPatientIdAndNeedsPatientRatingTrueOrderByScheduledAtDesc(UUID patientId);
+
+    List<TurnView> findByDoctorIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(UUID doctorId, long sinceXid);
+
+    List<TurnView> findByPatientIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(UUID patientId, long sinceXid);
+
+    // Bulk updates bypass the entity, so each one sets updated_at itself; sync_xid is stamped by trigger
+
+    @Modifying
+    @Query("UPDATE TurnView v SET v.patientScore = :score, v.updatedAt = :now WHERE v.patientId = :patientId")
+    int updatePatientScore(@Param("patientId") UUID patientId, @Param("score") Double score,
+                           @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE TurnView v SET v.patientName = :name, v.updatedAt = :now WHERE v.patientId = :patientId")
+    int updatePatientName(@Param("patientId") UUID patientId, @Param("name") String name,
+                          @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE TurnView v SET v.doctorName = :name, v.doctorSpecialty = :specialty, v.updatedAt = :now " +
+           "WHERE v.doctorId = :doctorId")
+    int updateDoctorDisplay(@Param("doctorId") UUID doctorId,
+                            @Param("name") String name,
+                            @Param("specialty") String specialty,
+                            @Param("now") OffsetDateTime now);
+}
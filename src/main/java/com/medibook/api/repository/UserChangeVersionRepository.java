@@ -0,0 +1,36 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.UserChangeVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserChangeVersionRepository extends JpaRepository<UserChangeVersion, UUID> {
+
+    @Query("SELECT v.version FROM UserChangeVersion v WHERE v.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") UUID userId);
+
+    /** Creates the user's row at version 1 or increments it, in one statement that concurrent bumps cannot race. */
+    @Modifying
+    @Query(value = "INSERT INTO user_change_versions (user_id, version, updated_at) VALUES (:userId, 1, :now) " +
+            "ON CONFLICT (user_id) DO UPDATE SET version = user_change_versions.version + 1, updated_at = :now",
+            nativeQuery = true)
+    int increment(@Param("userId") UUID userId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE UserChangeVersion v SET v.version = v.version + 1, v.updatedAt = :now " +
+           "WHERE v.userId IN (SELECT DISTINCT tv.doctorId FROM TurnView tv WHERE tv.patientId = :patientId)")
+    int incrementDoctorsOfPatient(@Param("patientId") UUID patientId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE UserChangeVersion v SET v.version = v.version + 1, v.updatedAt = :now " +
+           "WHERE v.userId IN (SELECT DISTINCT tv.patientId FROM TurnView tv WHERE tv.doctorId = :doctorId)")
+    int incrementPatientsOfDoctor(@Param("doctorId") UUID doctorId, @Param("now") OffsetDateTime now);
+}
@@ -2,6 +2,7 @@ package com.medibook.api.repository;
 
 import com.medibook.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -37,7 +38,23 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     @Query("SELECT u FROM User u JOIN FETCH u.doctorProfile WHERE u.role = 'DOCTOR' AND u.status = 'ACTIVE'")
     List<User> findAllDoctors();
+
+    /** Id and role of every user that can hold badges, in id order. */
+    @Query("SELECT u.id, u.role FROM User u WHERE u.role IN ('PATIENT', 'DOCTOR') ORDER BY u.id")
+    List<Object[]> findBadgeHolderIdsAndRoles();
     
     @Query("SELECT u FROM User u JOIN FETCH u.doctorProfile dp WHERE u.role = 'DOCTOR' AND u.status = 'ACTIVE' AND dp.specialty = :specialty")
     List<User> findDoctorsBySpecialty(@Param("specialty") String specialty);
-}
\ No newline at end of file
+
+    @Query("SELECT u.calendarFeedSecret FROM User u WHERE u.id = :userId")
+    Optional<String> findCalendarFeedSecretById(@Param("userId") UUID userId);
+
+    /** Sets the feed secret unless the user already has one, so concurrent first requests agree on it. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.calendarFeedSecret = :secret WHERE u.id = :userId AND u.calendarFeedSecret IS NULL")
+    int setCalendarFeedSecretIfMissing(@Param("userId") UUID userId, @Param("secret") String secret);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.calendarFeedSecret = :secret WHERE u.id = :userId")
+    int setCalendarFeedSecret(@Param("userId") UUID userId, @Param("secret") String secret);
+}
@@ -0,0 +1,151 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Admin.AdminRatingsPageDTO;
+import com.medibook.api.dto.Admin.AdminRatingsResponseDTO;
+import com.medibook.api.dto.Rating.RatingResponseDTO;
+import com.medibook.api.entity.Rating;
+import com.medibook.api.mapper.RatingMapper;
+import com.medibook.api.repository.RatingRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Admin rating listings. Role filters run in SQL and users are fetch-joined, so a page
+ * costs one select plus one count, and exports stream rows instead of loading them all.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AdminRatingService {
+
+    static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    private static final String CSV_HEADER =
+            "id,created_at,turn_id,rater_id,rater_role,rater_name,rated_id,rated_name,doctor_specialty,score,subcategories";
+
+    private final RatingRepository ratingRepository;
+    private final RatingMapper ratingMapper;
+    private final RatingRollupService ratingRollupService;
+    private final EntityManager entityManager;
+
+    public AdminRatingsPageDTO getRatingsPage(String raterRole, int page, int size) {
+        String role = normalizeRole(raterRole);
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Page<Rating> result = ratingRepository.findAdminPage(role, PageRequest.of(page, size));
+        return AdminRatingsPageDTO.builder()
+                .ratings(result.getContent().stream().map(ratingMapper::toDTO).toList())
+                .page(result.getNumber())
+                .size(result.getSize())
+                .totalElements(result.getTotalElements())
+                .totalPages(result.getTotalPages())
+                .raterRole(role)
+                .build();
+    }
+
+    public AdminRatingsResponseDTO getAllRatings() {
+        List<RatingResponseDTO> all = new ArrayList<>();
+        List<RatingResponseDTO> byPatients = new ArrayList<>();
+        List<RatingResponseDTO> byDoctors = new ArrayList<>();
+
+        for (Rating rating : ratingRepository.findAllOrderByCreatedAtDesc()) {
+            RatingResponseDTO dto = ratingMapper.toDTO(rating);
+            all.add(dto);
+            String role = rating.getRater().getRole();
+            if ("PATIENT".equals(role)) {
+                byPatients.add(dto);
+            } else if ("DOCTOR".equals(role)) {
+                byDoctors.add(dto);
+            }
+        }
+
+        return AdminRatingsResponseDTO.builder()
+                .allRatings(all)
+                .patientRatings(byPatients)
+                .doctorRatings(byDoctors)
+                .stats(ratingRollupService.getStats(null, null))
+                .build();
+    }
+
+    public void exportCsv(String raterRole, Writer writer) throws IOException {
+        String role = normalizeRole(raterRole);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        try (Stream<Rating> ratings = ratingRepository.streamForAdmin(role)) {
+            Iterator<Rating> iterator = ratings.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                Rating rating = iterator.next();
+                writeCsvRow(writer, rating, ratingMapper.toDTO(rating));
+                if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                    // Keep the persistence context from growing with the export
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    static String normalizeRole(String raterRole) {
+        if (raterRole == null || raterRole.isBlank()) {
+            return null;
+        }
+        String role = raterRole.trim().toUpperCase(Locale.ROOT);
+        if (!"PATIENT".equals(role) && !"DOCTOR".equals(role)) {
+            throw new IllegalArgumentException("raterRole must be PATIENT or DOCTOR");
+        }
+        return role;
+    }
+
+    private void writeCsvRow(Writer writer, Rating rating, RatingResponseDTO dto) throws IOException {
+        String[] fields = {
+                String.valueOf(dto.getId()),
+                String.valueOf(dto.getCreatedAt()),
+                String.valueOf(dto.getTurnId()),
+                String.valueOf(dto.getRaterId()),
+                rating.getRater().getRole(),
+                dto.getRaterName(),
+                String.valueOf(dto.getRatedId()),
+                dto.getRatedName(),
+                dto.getDoctorSpecialty(),
+                String.valueOf(dto.getScore()),
+                String.join("|", dto.getSubcategories())
+        };
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(fields[i]));
+        }
+        writer.write('\n');
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
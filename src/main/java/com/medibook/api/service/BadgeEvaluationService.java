@@ -0,0 +1,65 @@
+package com.medibook.api.service;
+
+import com.medibook.api.model.BadgeEvaluationContext;
+import com.medibook.api.model.BadgeRules;
+import com.medibook.api.model.BadgeTrigger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Handles the coalesced badge work of one user as a single load-modify-store: statistics,
+ * progress and badges are read once, the badges whose inputs changed are recomputed in
+ * memory and the result is written back once.
+ *
+ * <p>Events are claimed per event, so two drains may hold events of the same user. Loading
+ * the context locks the user's statistics row, so their units of work still run one after
+ * the other and neither overwrites the derived values, progress or badges of the other.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BadgeEvaluationService {
+
+    private final BadgeService badgeService;
+    private final BadgeStatisticsUpdateService statisticsUpdateService;
+
+    @Transactional
+    public void evaluate(UUID userId, String role, Set<BadgeTrigger> triggers, Map<String, Integer> counterDeltas,
+                         List<Integer> patientScores) {
+        BadgeEvaluationContext context = badgeService.loadContext(userId, role);
+
+        if (!counterDeltas.isEmpty() || triggers.contains(BadgeTrigger.RATING_RECEIVED)) {
+            statisticsUpdateService.applyPendingStatistics(context, triggers, counterDeltas, patientScores);
+        }
+
+        if (triggers.contains(BadgeTrigger.ALL_BADGES)) {
+            badgeService.evaluateAllBadges(context);
+        } else {
+            badgeService.evaluateBadges(context, changedInputs(context, triggers));
+        }
+
+        badgeService.saveContext(context);
+        log.debug("[TRIGGER] Saved badge unit of work for user {}: {} badges changed", userId, context.getChangedBadges().size());
+    }
+
+    /**
+     * Statistics are compared with the loaded row, so a recomputed value that came out the
+     * same selects nothing. External inputs cannot be compared without loading them, so the
+     * triggers that may move them name them directly.
+     */
+    private Set<String> changedInputs(BadgeEvaluationContext context, Set<BadgeTrigger> triggers) {
+        Set<String> changed = new HashSet<>(context.getChangedStatistics());
+        BadgeTrigger.inputsOf(triggers).stream()
+                .filter(BadgeRules::isExternal)
+                .forEach(changed::add);
+        return changed;
+    }
+}
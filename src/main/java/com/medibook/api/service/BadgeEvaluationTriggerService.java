@@ -1,285 +1,375 @@
 package com.medibook.api.service;
 
+import com.medibook.api.dto.Badge.BadgeEventLogStatusDTO;
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
+import com.medibook.api.entity.BadgeEvent;
 import com.medibook.api.entity.User;
+import com.medibook.api.event.RatingAddedEvent;
+import com.medibook.api.model.BadgeStatisticsCodec;
+import com.medibook.api.model.BadgeTrigger;
+import com.medibook.api.model.PendingBadgeWork;
+import com.medibook.api.repository.BadgeEventRepository;
 import com.medibook.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+/**
+ * Durable queue for badge evaluation. Triggers append a badge event in the caller's
+ * transaction, so an event exists exactly when the business change committed. A scheduled
+ * drain claims the oldest events with SKIP LOCKED, folds them per user and applies each
+ * user's work in one transaction together with marking its events processed.
+ *
+ * <p>Producers never run badge work themselves: each drain takes at most
+ * {@code batch-size * max-batches-per-run} events and leaves the rest in the table, where
+ * they show up as lag. Events that keep failing stop being claimed after
+ * {@code max-attempts} and can be requeued once the cause is fixed.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BadgeEvaluationTriggerService {
 
-    private final BadgeService badgeService;
-    private final BadgeStatisticsUpdateService statisticsUpdateService;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final BadgeEvaluationService evaluationService;
     private final UserRepository userRepository;
+    private final BadgeEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BadgeMaintenanceLock maintenanceLock;
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterRating(UUID userId, Integer communicationScore, Integer empathyScore, Integer punctualityScore) {
-        try {
-            User user = userRepository.findById(userId).orElse(null);
-            
-            if (user == null) {
-                log.warn("Attempted badge evaluation for non-existent user: {}", userId);
-                return;
-            }
-            
-            if (!"DOCTOR".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-doctor user: {} (role: {})", userId, user.getRole());
-                return;
-            }
-            
-            statisticsUpdateService.updateAfterRatingAddedSync(userId, communicationScore, empathyScore, punctualityScore);
-            statisticsUpdateService.updateProgressAfterRatingSync(userId);
-            
-            badgeService.evaluateRatingRelatedBadges(userId);
+    @Value("${badge.events.batch-size:200}")
+    private int batchSize = 200;
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating rating-related badges for user {} after rating: {}", userId, e.getMessage(), e);
-        }
-    }
+    @Value("${badge.events.max-batches-per-run:10}")
+    private int maxBatchesPerRun = 10;
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterTurnCompletion(UUID userId, UUID otherUserId) {
-        try {
-            userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            statisticsUpdateService.updateAfterTurnCompletedSync(userId, otherUserId);
-            statisticsUpdateService.updateProgressAfterTurnCompletionSync(userId);
-            
-            badgeService.evaluateTurnCompletionRelatedBadges(userId);
+    @Value("${badge.events.max-attempts:5}")
+    private int maxAttempts = 5;
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating turn completion badges for user {} after turn completion: {}", userId, e.getMessage(), e);
+    @Value("${badge.events.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds = 300;
+
+    @Value("${badge.events.retention-days:7}")
+    private int retentionDays = 7;
+
+    /**
+     * Records both parties of a rating inside the rating transaction. Roles come from the
+     * event, so the drain does not reload either user, and every rating statistic is
+     * carried as a counter delta, so the drain never reads the user's rating history.
+     */
+    @EventListener
+    public void onRatingAdded(RatingAddedEvent event) {
+        if ("DOCTOR".equals(event.ratedRole()) || "PATIENT".equals(event.ratedRole())) {
+            enqueue(event.ratedId(), event.ratedRole(), work -> recordRatingReceived(work, event));
+        }
+
+        if ("PATIENT".equals(event.raterRole())) {
+            enqueue(event.raterId(), "PATIENT", work -> work
+                    .record(BadgeTrigger.RATING_GIVEN, BadgeStatisticsCodec.RATINGS_GIVEN, 1)
+                    .record(BadgeTrigger.RATING_GIVEN, BadgeStatisticsCodec.RATINGS_GIVEN_SCORE_SUM, event.score()));
         }
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterMedicalHistoryDocumented(UUID userId, String content) {
-        try {
-            User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            if (!"DOCTOR".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-doctor user: {} (role: {})", userId, user.getRole());
-                return;
+    private static void recordRatingReceived(PendingBadgeWork work, RatingAddedEvent event) {
+        BadgeTrigger trigger = BadgeTrigger.RATING_RECEIVED;
+        work.record(trigger, BadgeStatisticsCodec.TOTAL_RATINGS_RECEIVED, 1)
+                .record(trigger, BadgeStatisticsCodec.RATING_SCORE_SUM, event.score());
+
+        if ("DOCTOR".equals(event.ratedRole())) {
+            if (event.communicationScore() != null) {
+                work.record(trigger, BadgeStatisticsCodec.COMMUNICATION_RATINGS, 1);
             }
-            
-            statisticsUpdateService.updateAfterMedicalHistoryDocumentedSync(userId, content);
-            statisticsUpdateService.updateProgressAfterMedicalHistorySync(userId);
-            
-            badgeService.evaluateDocumentationRelatedBadges(userId);
+            if (event.empathyScore() != null) {
+                work.record(trigger, BadgeStatisticsCodec.EMPATHY_RATINGS, 1);
+            }
+            if (event.punctualityScore() != null) {
+                work.record(trigger, BadgeStatisticsCodec.PUNCTUALITY_RATINGS, 1);
+            }
+            if ("PATIENT".equals(event.raterRole())) {
+                work.recordPatientScore(event.score());
+            }
+        } else {
+            work.record(trigger, BadgeStatisticsCodec.RATINGS_RECEIVED, 1);
+        }
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating documentation badges for user {} after medical history: {}", userId, e.getMessage(), e);
+        if (event.score() < 4) {
+            work.record(trigger, BadgeStatisticsCodec.TOTAL_LOW_RATING_COUNT, 1);
+            return;
+        }
+        Set<String> codes = event.subcategoryCodes();
+        if (RatingSubcategoryCodes.containsAny(codes, RatingSubcategoryCodes.COMMUNICATION)) {
+            work.record(trigger, BadgeStatisticsCodec.TOTAL_COMMUNICATION_COUNT, 1);
+        }
+        if (RatingSubcategoryCodes.containsAny(codes, RatingSubcategoryCodes.EMPATHY)) {
+            work.record(trigger, BadgeStatisticsCodec.TOTAL_EMPATHY_COUNT, 1);
+        }
+        if (RatingSubcategoryCodes.containsAny(codes, RatingSubcategoryCodes.PUNCTUALITY)) {
+            work.record(trigger, BadgeStatisticsCodec.TOTAL_PUNCTUALITY_COUNT, 1);
+        }
+        if ("DOCTOR".equals(event.raterRole())) {
+            if (RatingSubcategoryCodes.containsAny(codes, RatingSubcategoryCodes.PATIENT_COLLABORATION)) {
+                work.record(trigger, BadgeStatisticsCodec.DOCTOR_COLLABORATION_MENTIONS, 1);
+            }
+            if (RatingSubcategoryCodes.containsAny(codes, RatingSubcategoryCodes.PATIENT_PUNCTUALITY)) {
+                work.record(trigger, BadgeStatisticsCodec.DOCTOR_PUNCTUALITY_MENTIONS, 1);
+            }
         }
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterModifyRequestHandled(UUID userId) {
-        try {
-            User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            if (!"DOCTOR".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-doctor user: {} (role: {})", userId, user.getRole());
-                return;
+    /**
+     * {@code firstTurnTogether} tells whether this is the first completed turn between the two
+     * parties, the only completion that adds a distinct patient to the doctor.
+     */
+    public void evaluateAfterTurnCompletion(UUID userId, boolean firstTurnTogether) {
+        enqueue(userId, null, work -> {
+            work.record(BadgeTrigger.TURN_COMPLETED, BadgeStatisticsCodec.TOTAL_TURNS_COMPLETED, 1);
+            if (firstTurnTogether) {
+                work.record(BadgeTrigger.PATIENT_SERVED, BadgeStatisticsCodec.TOTAL_UNIQUE_PATIENTS, 1);
             }
-            
-            statisticsUpdateService.updateAfterModifyRequestHandledSync(userId);
-            statisticsUpdateService.updateProgressAfterModifyRequestSync(userId);
-            
-            badgeService.evaluateResponseRelatedBadges(userId);
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating response badges for user {} after modify request: {}", userId, e.getMessage(), e);
-        }
+    public void evaluateAfterMedicalHistoryDocumented(UUID userId, String content) {
+        int wordCount = content != null && !content.trim().isEmpty() ? content.trim().split("\\s+").length : 0;
+        enqueue(userId, null, work -> work
+                .record(BadgeTrigger.MEDICAL_HISTORY_DOCUMENTED, BadgeStatisticsCodec.DOCUMENTATION_COUNT, 1)
+                .record(BadgeTrigger.MEDICAL_HISTORY_DOCUMENTED, BadgeStatisticsCodec.TOTAL_DOCUMENTATION_WORDS, wordCount));
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterTurnCancellation(UUID userId) {
-        try {
-            User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            if (!"DOCTOR".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-doctor user: {} (role: {})", userId, user.getRole());
-                return;
-            }
-            
-            statisticsUpdateService.updateAfterTurnCancelledSync(userId);
-            statisticsUpdateService.updateProgressAfterCancellationSync(userId);
-            
-            badgeService.evaluateConsistencyRelatedBadges(userId);
+    public void evaluateAfterModifyRequestHandled(UUID userId) {
+        enqueue(userId, null, work -> work.record(BadgeTrigger.MODIFY_REQUEST_HANDLED, BadgeStatisticsCodec.TOTAL_REQUESTS_HANDLED, 1));
+    }
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating consistency badges for user {} after cancellation: {}", userId, e.getMessage(), e);
-        }
+    public void evaluateAfterTurnCancellation(UUID userId) {
+        enqueue(userId, null, work -> work.record(BadgeTrigger.TURN_CANCELLED, BadgeStatisticsCodec.TOTAL_CANCELLATIONS, 1));
     }
 
-    @Async("badgeEvaluationTaskExecutor")
     public void evaluateAfterTurnNoShow(UUID userId) {
-        try {
-            User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            if (!"DOCTOR".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-doctor user: {} (role: {})", userId, user.getRole());
-                return;
-            }
-            
-            statisticsUpdateService.updateAfterTurnNoShowSync(userId);
-            statisticsUpdateService.updateProgressAfterCancellationSync(userId);
-            
-            badgeService.evaluateConsistencyRelatedBadges(userId);
-
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating consistency badges for user {} after no-show: {}", userId, e.getMessage(), e);
-        }
+        enqueue(userId, null, work -> work.record(BadgeTrigger.TURN_NO_SHOW, BadgeStatisticsCodec.TOTAL_TURNS_NO_SHOW, 1));
     }
 
-    @Async("badgeEvaluationTaskExecutor")
     public void evaluateAfterAdvanceBooking(UUID userId) {
-        try {
-            User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            if (!"PATIENT".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-patient user: {} (role: {})", userId, user.getRole());
-                return;
-            }
-            
-            statisticsUpdateService.updateAfterAdvanceBookingSync(userId);
-            statisticsUpdateService.updateProgressAfterBookingSync(userId);
-            badgeService.evaluateBookingRelatedBadges(userId);
+        enqueue(userId, null, work -> work.record(BadgeTrigger.ADVANCE_BOOKING, BadgeStatisticsCodec.ADVANCE_BOOKINGS, 1));
+    }
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating advance booking badges for user {} after booking: {}", userId, e.getMessage(), e);
+    public void evaluateAfterFileUploaded(UUID userId) {
+        enqueue(userId, null, work -> work.record(BadgeTrigger.FILE_UPLOADED, BadgeStatisticsCodec.FILES_UPLOADED, 1));
+    }
+
+    public void evaluateAfterAvailabilityConfigured(UUID doctorId) {
+        enqueue(doctorId, null, work -> work.record(BadgeTrigger.AVAILABILITY_CONFIGURED));
+    }
+
+    public void evaluateAllBadges(UUID userId) {
+        enqueue(userId, null, work -> work.record(BadgeTrigger.ALL_BADGES));
+    }
+
+    /**
+     * Queues a full evaluation for every user with events since {@code since}, e.g. after a
+     * badge rule was fixed. Returns the number of users queued.
+     */
+    @Transactional
+    public int replaySince(OffsetDateTime since) {
+        int users = eventRepository.replaySince(since, OffsetDateTime.now());
+        log.info("Replaying badge evaluation for {} users with events since {}", users, since);
+        return users;
+    }
+
+    /** Makes events that exhausted their attempts claimable again. Returns the number of events requeued. */
+    @Transactional
+    public int requeueFailed() {
+        int events = eventRepository.requeueFailed(maxAttempts);
+        log.info("Requeued {} failed badge events", events);
+        return events;
+    }
+
+    public BadgeEventLogStatusDTO getLogStatus() {
+        OffsetDateTime oldest = eventRepository.findOldestPendingCreatedAt(maxAttempts);
+        return BadgeEventLogStatusDTO.builder()
+                .pendingEvents(eventRepository.countPending(maxAttempts))
+                .failedEvents(eventRepository.countFailed(maxAttempts))
+                .oldestPendingAt(oldest)
+                .lagSeconds(oldest != null ? Math.max(0, Duration.between(oldest, OffsetDateTime.now()).toSeconds()) : 0)
+                .build();
+    }
+
+    /** Skipped while a recompute runs; the recompute takes each id range's pending events itself. */
+    @Scheduled(fixedDelayString = "${badge.evaluation.window-ms:2000}")
+    public void drainPendingEvaluations() {
+        if (!maintenanceLock.tryRunShared(this::drain)) {
+            log.debug("[TRIGGER] Skipping badge event drain while a badge recompute runs");
         }
+        refreshLag();
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterRatingGiven(UUID userId) {
-        int maxRetries = 3;
-        int attempt = 0;
-        while (attempt < maxRetries) {
-            try {
-                User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-                
-                if (!"PATIENT".equals(user.getRole())) {
-                    log.warn("Attempted badge evaluation for non-patient user: {} (role: {})", userId, user.getRole());
-                    return;
-                }
-                
-                statisticsUpdateService.updateAfterRatingGivenSync(userId);
-                statisticsUpdateService.updateProgressAfterRatingSync(userId);
-                badgeService.evaluateRatingRelatedBadges(userId);
-                return; // Success, exit
-            } catch (ObjectOptimisticLockingFailureException e) {
-                attempt++;
-                if (attempt >= maxRetries) {
-                    log.error("[TRIGGER] Failed to evaluate rating given badges for user {} after {} attempts due to optimistic locking: {}", userId, maxRetries, e.getMessage());
-                } else {
-                    log.warn("[TRIGGER] Optimistic locking failure for user {} on attempt {}, retrying...", userId, attempt);
-                    try {
-                        Thread.sleep(100 * attempt); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.error("[TRIGGER] Interrupted while retrying for user {}", userId);
-                        return;
-                    }
+    private void drain() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<BadgeEvent> events = claimBatch();
+            if (events.isEmpty()) {
+                break;
+            }
+            groupByUser(events).forEach((userId, userEvents) -> {
+                try {
+                    process(userId, userEvents);
+                } catch (Exception e) {
+                    // Marking the events failed failed too; their lease expires and they are retried
+                    log.error("[TRIGGER] Could not record failure of {} badge events for user {}: {}",
+                            userEvents.size(), userId, e.getMessage(), e);
                 }
-            } catch (Exception e) {
-                log.error("[TRIGGER] Unexpected error evaluating rating given badges for user {} after rating given: {}", userId, e.getMessage(), e);
-                return;
+            });
+            if (events.size() < batchSize) {
+                break;
             }
         }
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterRatingReceived(UUID userId) {
-        int maxRetries = 3;
-        int attempt = 0;
-        while (attempt < maxRetries) {
+    /**
+     * Takes every pending event of the users in {@code [fromId, toId]} and marks it processed
+     * in the caller's transaction, returning the events folded per user. Used by the
+     * recompute, which holds the maintenance lock and applies the returned work itself.
+     * Events that no longer parse stay pending for the drain to fail.
+     */
+    public Map<UUID, PendingBadgeWork> takePendingBetween(UUID fromId, UUID toId) {
+        Map<UUID, PendingBadgeWork> byUser = new LinkedHashMap<>();
+        List<Long> taken = new ArrayList<>();
+        for (BadgeEvent event : eventRepository.lockPendingBetween(fromId, toId, maxAttempts)) {
             try {
-                userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-                
-                statisticsUpdateService.updateAfterRatingReceivedSync(userId);
-                statisticsUpdateService.updateProgressAfterRatingSync(userId);
-                badgeService.evaluateRatingRelatedBadges(userId);
-                return; // Success, exit
-            } catch (ObjectOptimisticLockingFailureException e) {
-                attempt++;
-                if (attempt >= maxRetries) {
-                    log.error("[TRIGGER] Failed to evaluate rating received badges for user {} after {} attempts due to optimistic locking: {}", userId, maxRetries, e.getMessage());
-                } else {
-                    log.warn("[TRIGGER] Optimistic locking failure for user {} on attempt {}, retrying...", userId, attempt);
-                    try {
-                        Thread.sleep(100 * attempt); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.error("[TRIGGER] Interrupted while retrying for user {}", userId);
-                        return;
-                    }
-                }
+                new PendingBadgeWork().record(event.getDeltas());
             } catch (Exception e) {
-                log.error("[TRIGGER] Unexpected error evaluating rating received badges for user {} after rating received: {}", userId, e.getMessage(), e);
-                return;
+                log.warn("[TRIGGER] Leaving unreadable badge event {} pending: {}", event.getId(), e.getMessage());
+                continue;
             }
+            byUser.computeIfAbsent(event.getUserId(), id -> new PendingBadgeWork())
+                    .withRole(event.getRole())
+                    .record(event.getDeltas());
+            taken.add(event.getId());
         }
+        if (!taken.isEmpty()) {
+            eventRepository.markProcessed(taken, OffsetDateTime.now());
+            BadgeEventMetrics.processed(taken.size());
+        }
+        return byUser;
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterFileUploaded(UUID userId) {
-        try {
-            User user = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-            
-            if (!"PATIENT".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-patient user: {} (role: {})", userId, user.getRole());
-                return;
+    @Scheduled(cron = "${badge.events.cleanup-cron:0 30 3 * * *}")
+    public void purgeProcessedEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                eventRepository.deleteProcessedBefore(OffsetDateTime.now().minusDays(retentionDays)));
+        log.info("Purged {} processed badge events older than {} days", deleted, retentionDays);
+    }
+
+    /**
+     * Locks the next events and leases them for the claim timeout. The lease outlives the
+     * locking transaction, so other workers skip the events while they are being applied,
+     * and a worker that dies mid-batch only delays them until the lease expires.
+     */
+    private List<BadgeEvent> claimBatch() {
+        List<BadgeEvent> events = transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            List<BadgeEvent> locked = eventRepository.lockNextBatch(batchSize, maxAttempts, now);
+            if (!locked.isEmpty()) {
+                eventRepository.claim(ids(locked), now.plusSeconds(claimTimeoutSeconds));
             }
-            
-            statisticsUpdateService.updateAfterFileUploadedSync(userId);
-            statisticsUpdateService.updateProgressAfterFileUploadSync(userId);
-            badgeService.evaluateFileRelatedBadges(userId);
+            return locked;
+        });
+        return events != null ? events : List.of();
+    }
 
-        } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating file upload badges for user {} after file upload: {}", userId, e.getMessage(), e);
+    private static Map<UUID, List<BadgeEvent>> groupByUser(List<BadgeEvent> events) {
+        Map<UUID, List<BadgeEvent>> byUser = new LinkedHashMap<>();
+        for (BadgeEvent event : events) {
+            byUser.computeIfAbsent(event.getUserId(), id -> new ArrayList<>()).add(event);
         }
+        return byUser;
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAfterAvailabilityConfigured(UUID doctorId) {
+    /**
+     * Applies the user's events and marks them processed in the same transaction, so their
+     * counter deltas are applied exactly once. A failure, including an event that no longer
+     * parses, rolls both back and counts an attempt.
+     */
+    private void process(UUID userId, List<BadgeEvent> events) {
+        List<Long> ids = ids(events);
+
         try {
-            User user = userRepository.findById(doctorId).orElseThrow(() -> new IllegalArgumentException("User not found: " + doctorId));
-            
-            if (!"DOCTOR".equals(user.getRole())) {
-                log.warn("Attempted badge evaluation for non-doctor user: {} (role: {})", doctorId, user.getRole());
-                return;
+            PendingBadgeWork work = new PendingBadgeWork();
+            for (BadgeEvent event : events) {
+                work.withRole(event.getRole()).record(event.getDeltas());
             }
-            
-            badgeService.evaluateAlwaysAvailable(user);
-
+            transactionTemplate.executeWithoutResult(status -> {
+                evaluatePending(userId, work);
+                eventRepository.markProcessed(ids, OffsetDateTime.now());
+            });
+            BadgeEventMetrics.processed(ids.size());
         } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating ALWAYS_AVAILABLE badge for doctor {} after availability configuration: {}", doctorId, e.getMessage(), e);
+            log.error("[TRIGGER] Error evaluating {} badge events for user {}: {}", ids.size(), userId, e.getMessage(), e);
+            transactionTemplate.executeWithoutResult(status -> eventRepository.markFailed(ids, errorMessage(e)));
+            BadgeEventMetrics.failed(ids.size());
         }
     }
 
-    @Async("badgeEvaluationTaskExecutor")
-    public void evaluateAllBadges(UUID userId) {
-        try {
+    private void evaluatePending(UUID userId, PendingBadgeWork work) {
+        String role = work.getRole();
+        if (role == null) {
             User user = userRepository.findById(userId).orElse(null);
-            
             if (user == null) {
-                log.warn("Attempted badge evaluation for non-existent user: {}", userId);
+                log.warn("Dropping {} badge events for non-existent user: {}", work.getEvents(), userId);
                 return;
             }
-            
-            statisticsUpdateService.updateAllBadgeProgress(userId);
-            badgeService.evaluateAllBadges(userId);
-            
+            role = user.getRole();
+        }
+
+        Set<BadgeTrigger> triggers = work.triggersFor(role);
+        if (triggers.isEmpty()) {
+            log.warn("No badge evaluation applies to user: {} (role: {})", userId, role);
+            return;
+        }
+        log.debug("[TRIGGER] Evaluating {} coalesced badge events for user {}: {}", work.getEvents(), userId, triggers);
+
+        evaluationService.evaluate(userId, role, triggers, work.counterDeltas(triggers), work.getPatientScores());
+    }
+
+    private void refreshLag() {
+        try {
+            BadgeEventLogStatusDTO status = getLogStatus();
+            BadgeEventMetrics.lag(status.getPendingEvents(), status.getFailedEvents(), status.getLagSeconds());
         } catch (Exception e) {
-            log.error("[TRIGGER] Unexpected error evaluating all badges for user {}: {}", userId, e.getMessage(), e);
+            log.warn("Could not refresh badge event lag: {}", e.getMessage());
         }
     }
+
+    private void enqueue(UUID userId, String role, Consumer<PendingBadgeWork> change) {
+        PendingBadgeWork work = new PendingBadgeWork();
+        change.accept(work);
+        eventRepository.save(BadgeEvent.builder()
+                .userId(userId)
+                .role(role)
+                .deltas(work.toJson())
+                .build());
+    }
+
+    private static List<Long> ids(List<BadgeEvent> events) {
+        return events.stream().map(BadgeEvent::getId).toList();
+    }
+
+    private static String errorMessage(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
 }
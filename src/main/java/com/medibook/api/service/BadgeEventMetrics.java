@@ -0,0 +1,35 @@
+package com.medibook.api.service;
+
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and lag of the badge event log: {@code badge.events.processed} and
+ * {@code badge.events.failed} count events per drain outcome, and the gauges
+ * {@code badge.events.pending}, {@code badge.events.dead} and {@code badge.events.lag.seconds}
+ * (age of the oldest pending event) are refreshed after every drain.
+ */
+final class BadgeEventMetrics {
+
+    private static final AtomicLong PENDING = Metrics.gauge("badge.events.pending", new AtomicLong());
+    private static final AtomicLong DEAD = Metrics.gauge("badge.events.dead", new AtomicLong());
+    private static final AtomicLong LAG_SECONDS = Metrics.gauge("badge.events.lag.seconds", new AtomicLong());
+
+    private BadgeEventMetrics() {
+    }
+
+    static void processed(int count) {
+        Metrics.counter("badge.events.processed").increment(count);
+    }
+
+    static void failed(int count) {
+        Metrics.counter("badge.events.failed").increment(count);
+    }
+
+    static void lag(long pending, long dead, long lagSeconds) {
+        PENDING.set(pending);
+        DEAD.set(dead);
+        LAG_SECONDS.set(lagSeconds);
+    }
+}
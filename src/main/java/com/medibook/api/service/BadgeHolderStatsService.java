@@ -0,0 +1,95 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.BadgeHolderCount;
+import com.medibook.api.model.BadgeRule;
+import com.medibook.api.model.BadgeRules;
+import com.medibook.api.repository.BadgeHolderCountRepository;
+import com.medibook.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How rare each badge is: its active holders and their share of the users of the badge's
+ * role. Holder counts are maintained as deltas by every badge write and read here from a
+ * snapshot of badge_holder_counts that is refreshed on a fixed delay, so showing rarity never
+ * counts or loads badges. A periodic recount corrects any drift in the deltas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BadgeHolderStatsService {
+
+    private final BadgeHolderCountRepository holderCountRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Snapshot snapshot;
+
+    record Snapshot(Map<String, Long> holders, Map<String, Long> usersByRole) {
+    }
+
+    public long holders(String badgeType) {
+        return current().holders().getOrDefault(badgeType, 0L);
+    }
+
+    /** Percentage of the users of the badge's role holding it, or null when it cannot be known. */
+    public Double holderPercentage(String badgeType) {
+        BadgeRule rule = BadgeRules.get(badgeType);
+        if (rule == null) {
+            return null;
+        }
+        long users = current().usersByRole().getOrDefault(rule.getRole(), 0L);
+        if (users == 0) {
+            return null;
+        }
+        return Math.round(holders(badgeType) * 1000.0 / users) / 10.0;
+    }
+
+    /** Also runs on first use; the schedule starts one delay after startup. */
+    @Scheduled(fixedDelayString = "${badge.holders.refresh-ms:60000}",
+            initialDelayString = "${badge.holders.refresh-ms:60000}")
+    public void refresh() {
+        Map<String, Long> holders = new HashMap<>();
+        for (BadgeHolderCount count : holderCountRepository.findAll()) {
+            holders.put(count.getBadgeType(), count.getHolders());
+        }
+        Map<String, Long> usersByRole = Map.of(
+                "DOCTOR", userRepository.countByRole("DOCTOR"),
+                "PATIENT", userRepository.countByRole("PATIENT"));
+        snapshot = new Snapshot(holders, usersByRole);
+    }
+
+    /**
+     * Recounts the badges table and logs the badge types whose maintained count had drifted.
+     * Badge writes wait for the recount to commit rather than having their deltas overwritten.
+     */
+    @Scheduled(cron = "${badge.holders.reconciliation-cron:0 30 4 * * *}")
+    public void reconcile() {
+        List<BadgeHolderCount> before = holderCountRepository.findAll();
+        transactionTemplate.executeWithoutResult(status -> {
+            holderCountRepository.lockForRecount();
+            holderCountRepository.recount();
+        });
+        refresh();
+        long drifted = before.stream()
+                .filter(count -> !count.getHolders().equals(snapshot.holders().get(count.getBadgeType())))
+                .count();
+        log.info("Reconciled badge holder counts: {} of {} badge types had drifted", drifted, snapshot.holders().size());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+}
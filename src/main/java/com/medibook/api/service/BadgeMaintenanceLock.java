@@ -0,0 +1,96 @@
+package com.medibook.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the badge event drain and the full recompute apart. The recompute writes absolute
+ * counters, so a delta the drain applied while a range was being aggregated would be
+ * overwritten. Drains share the lock and skip their run while a recompute holds it; the
+ * recompute waits for running drains and keeps new ones out until it is done.
+ *
+ * <p>On PostgreSQL the lock is a session advisory lock, so it holds across instances; it is
+ * taken on a connection of its own and released before that connection returns to the pool.
+ * Within one instance a read-write lock does the same on any database.
+ */
+@Component
+@RequiredArgsConstructor
+public class BadgeMaintenanceLock {
+
+    /** Advisory lock key shared by every instance. */
+    static final long LOCK_KEY = 0x4D42_4144_4745L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock localLock = new ReentrantReadWriteLock();
+
+    /** Runs the drain unless a recompute holds the lock. Returns whether it ran. */
+    public boolean tryRunShared(Runnable drain) {
+        if (!localLock.readLock().tryLock()) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                boolean advisory = isPostgres(connection);
+                if (advisory && !advisoryLock(connection, "pg_try_advisory_lock_shared")) {
+                    return false;
+                }
+                try {
+                    drain.run();
+                } finally {
+                    if (advisory) {
+                        advisoryLock(connection, "pg_advisory_unlock_shared");
+                    }
+                }
+                return true;
+            }));
+        } finally {
+            localLock.readLock().unlock();
+        }
+    }
+
+    /** Runs the recompute once running drains finished, keeping new ones out until it returns. */
+    public void runExclusive(Runnable recompute) {
+        localLock.writeLock().lock();
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                boolean advisory = isPostgres(connection);
+                if (advisory) {
+                    advisoryLock(connection, "pg_advisory_lock");
+                }
+                try {
+                    recompute.run();
+                } finally {
+                    if (advisory) {
+                        advisoryLock(connection, "pg_advisory_unlock");
+                    }
+                }
+                return null;
+            });
+        } finally {
+            localLock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /** Calls an advisory lock function on the key; returns its result, false for the void ones. */
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,9 +28,31 @@ public class BadgeProgressService {
     private final UserRepository userRepository;
     private final BadgeRepository badgeRepository;
     private final BadgeMetadataService badgeMetadataService;
+    private final BadgeHolderStatsService holderStatsService;
 
+    private final BadgeViewCache<List<BadgeProgressSummaryDTO>> progressViews = new BadgeViewCache<>("progress");
+
+    /**
+     * Served from the per-user cache while the statistics row keeps the version the list was
+     * built from; badge and progress writes both bump it. Holder counts are shared by all
+     * users and are added to a copy of each entry on every request.
+     */
     @Transactional(readOnly = true)
     public List<BadgeProgressSummaryDTO> getBadgeProgress(UUID userId) {
+        Long version = statisticsRepository.findVersionByUserId(userId).orElse(null);
+        return progressViews.get(userId, version, () -> loadBadgeProgress(userId)).stream()
+                .map(this::withHolders)
+                .toList();
+    }
+
+    private BadgeProgressSummaryDTO withHolders(BadgeProgressSummaryDTO progress) {
+        return progress.toBuilder()
+                .holderCount(holderStatsService.holders(progress.getBadgeType()))
+                .holderPercentage(holderStatsService.holderPercentage(progress.getBadgeType()))
+                .build();
+    }
+
+    private List<BadgeProgressSummaryDTO> loadBadgeProgress(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -55,10 +78,7 @@ public class BadgeProgressService {
             return getEmptyDoctorProgressList();
         }
 
-        List<Badge> earnedBadges = badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)
-                .stream()
-                .filter(Badge::getIsActive)
-                .toList();
+        Map<String, Badge> earnedBadges = activeBadgesByType(userId);
 
         List<BadgeProgressSummaryDTO> progressList = new ArrayList<>();
         JsonNode progressJson = stats.getProgress();
@@ -68,10 +88,7 @@ public class BadgeProgressService {
             String badgeType = entry.getKey();
             com.medibook.api.model.BadgeMetadata metadata = entry.getValue();
 
-            Badge badge = earnedBadges.stream()
-                    .filter(b -> badgeType.equals(b.getBadgeType()))
-                    .findFirst()
-                    .orElse(null);
+            Badge badge = earnedBadges.get(badgeType);
 
             progressList.add(createProgressDTO(
                     badgeType,
@@ -98,10 +115,7 @@ public class BadgeProgressService {
             return getEmptyPatientProgressList();
         }
 
-        List<Badge> earnedBadges = badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)
-                .stream()
-                .filter(Badge::getIsActive)
-                .toList();
+        Map<String, Badge> earnedBadges = activeBadgesByType(userId);
 
         List<BadgeProgressSummaryDTO> progressList = new ArrayList<>();
         JsonNode progressJson = stats.getProgress();
@@ -111,10 +125,7 @@ public class BadgeProgressService {
             String badgeType = entry.getKey();
             com.medibook.api.model.BadgeMetadata metadata = entry.getValue();
 
-            Badge badge = earnedBadges.stream()
-                    .filter(b -> badgeType.equals(b.getBadgeType()))
-                    .findFirst()
-                    .orElse(null);
+            Badge badge = earnedBadges.get(badgeType);
 
             progressList.add(createProgressDTO(
                     badgeType,
@@ -128,6 +139,16 @@ public class BadgeProgressService {
         return progressList;
     }
 
+    private Map<String, Badge> activeBadgesByType(UUID userId) {
+        Map<String, Badge> active = new HashMap<>();
+        for (Badge badge : badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)) {
+            if (Boolean.TRUE.equals(badge.getIsActive())) {
+                active.putIfAbsent(badge.getBadgeType(), badge);
+            }
+        }
+        return active;
+    }
+
     private BadgeProgressSummaryDTO createProgressDTO(
             String badgeType,
             Double progress,
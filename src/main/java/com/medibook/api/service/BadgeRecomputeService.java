@@ -0,0 +1,372 @@
+package com.medibook.api.service;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medibook.api.dto.Badge.BadgeRecomputeStatusDTO;
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
+import com.medibook.api.entity.Badge;
+import com.medibook.api.entity.BadgeStatistics;
+import com.medibook.api.entity.DoctorProfile;
+import com.medibook.api.model.BadgeEvaluationContext;
+import com.medibook.api.model.BadgeRules;
+import com.medibook.api.model.PendingBadgeWork;
+import com.medibook.api.model.RatingWindow;
+import com.medibook.api.repository.BadgeRepository;
+import com.medibook.api.repository.BadgeStatisticsRepository;
+import com.medibook.api.repository.DoctorProfileRepository;
+import com.medibook.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.medibook.api.model.BadgeStatisticsCodec.*;
+
+/**
+ * Recomputes every user's badge statistics, progress and badges from the source tables.
+ * Users are split into contiguous id ranges; each range is aggregated with set-based
+ * queries, evaluated in memory against the rule catalog and written back in bulk in its own
+ * transaction. Ranges run in parallel on a fork-join pool.
+ *
+ * Counters that the source tables cannot reproduce (advance bookings and the per-aspect
+ * rating counts) keep their stored values.
+ *
+ * Event-driven updates only apply deltas, so the same recompute also runs on a schedule as
+ * the reconciliation that corrects any drift; {@code correctedUsers} counts the users whose
+ * stored statistics it had to change.
+ *
+ * <p>The absolute values would overwrite deltas drained while a range is aggregated, and
+ * count again the pending events whose changes the aggregates already include. The
+ * recompute therefore holds the {@link BadgeMaintenanceLock}, which pauses the scheduled
+ * drain, and each range runs in one repeatable-read transaction whose first statement
+ * takes the range's pending events and marks them processed. The aggregates read the same
+ * snapshot, so they include exactly the changes of the events taken; an event committed
+ * later stays pending for the drain. Only the deltas of counters the recompute cannot
+ * reproduce are applied from the taken events.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BadgeRecomputeService {
+
+    static final int PARTITION_SIZE = 500;
+
+    private static final List<String> RECEIVED_KEYS = List.of(TOTAL_RATINGS_RECEIVED, TOTAL_AVG_RATING,
+            TOTAL_LOW_RATING_COUNT, TOTAL_COMMUNICATION_COUNT, TOTAL_EMPATHY_COUNT, TOTAL_PUNCTUALITY_COUNT,
+            DOCTOR_COLLABORATION_MENTIONS, DOCTOR_PUNCTUALITY_MENTIONS, RATING_SCORE_SUM);
+    private static final List<String> DOCTOR_KEYS = List.of(TOTAL_TURNS_COMPLETED, TOTAL_UNIQUE_PATIENTS,
+            TOTAL_CANCELLATIONS, TOTAL_TURNS_NO_SHOW, DOCUMENTATION_COUNT, TOTAL_DOCUMENTATION_WORDS,
+            TOTAL_REQUESTS_HANDLED);
+    private static final List<String> PATIENT_KEYS = List.of(TOTAL_TURNS_COMPLETED, TURNS_WITH_SAME_DOCTOR,
+            REQUESTS_CREATED, FILES_UPLOADED, LAST_10_TURNS_FILES_UPLOADED_COUNT, RATINGS_GIVEN, AVG_RATING_GIVEN,
+            RATINGS_GIVEN_SCORE_SUM, RATINGS_RECEIVED, AVG_RATING_RECEIVED);
+    private static final Set<String> AVERAGE_KEYS = Set.of(TOTAL_AVG_RATING, AVG_RATING_GIVEN, AVG_RATING_RECEIVED);
+
+    private final UserRepository userRepository;
+    private final BadgeRepository badgeRepository;
+    private final BadgeStatisticsRepository statisticsRepository;
+    private final DoctorProfileRepository doctorProfileRepository;
+    private final BadgeService badgeService;
+    private final BadgeEvaluationTriggerService triggerService;
+    private final BadgeMaintenanceLock maintenanceLock;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${badge.recompute.parallelism:4}")
+    private int parallelism = 4;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger totalUsers = new AtomicInteger();
+    private final AtomicInteger processedUsers = new AtomicInteger();
+    private final AtomicInteger totalPartitions = new AtomicInteger();
+    private final AtomicInteger failedPartitions = new AtomicInteger();
+    private final AtomicInteger changedBadges = new AtomicInteger();
+    private final AtomicInteger correctedUsers = new AtomicInteger();
+    private volatile OffsetDateTime startedAt;
+    private volatile OffsetDateTime finishedAt;
+
+    record Partition(UUID fromId, UUID toId, Map<UUID, String> roles) {
+    }
+
+    /**
+     * Runs the full recompute and returns its final status. Only one recompute runs at a
+     * time; {@link #getStatus()} reports how far the current one got.
+     */
+    public BadgeRecomputeStatusDTO recomputeAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A badge recompute is already running");
+        }
+        try {
+            List<Partition> partitions = partition(userRepository.findBadgeHolderIdsAndRoles(), PARTITION_SIZE);
+            startedAt = OffsetDateTime.now();
+            finishedAt = null;
+            totalUsers.set(partitions.stream().mapToInt(partition -> partition.roles().size()).sum());
+            totalPartitions.set(partitions.size());
+            processedUsers.set(0);
+            failedPartitions.set(0);
+            changedBadges.set(0);
+            correctedUsers.set(0);
+            log.info("Recomputing badges for {} users in {} partitions", totalUsers.get(), partitions.size());
+
+            if (!partitions.isEmpty()) {
+                maintenanceLock.runExclusive(() -> {
+                    ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+                    try {
+                        pool.invoke(new RecomputeTask(partitions, 0, partitions.size()));
+                    } finally {
+                        pool.shutdown();
+                    }
+                });
+            }
+
+            finishedAt = OffsetDateTime.now();
+            log.info("Recomputed badges for {} users ({} badges changed, {} users corrected, {} partitions failed)",
+                    processedUsers.get(), changedBadges.get(), correctedUsers.get(), failedPartitions.get());
+        } finally {
+            running.set(false);
+        }
+        return getStatus();
+    }
+
+    /** Periodic reconciliation; skipped when an admin-started recompute is already running. */
+    @Scheduled(cron = "${badge.reconciliation.cron:0 0 4 * * *}")
+    public void reconcile() {
+        try {
+            recomputeAll();
+        } catch (IllegalStateException e) {
+            log.info("Skipping badge reconciliation: {}", e.getMessage());
+        }
+    }
+
+    public BadgeRecomputeStatusDTO getStatus() {
+        return BadgeRecomputeStatusDTO.builder()
+                .running(running.get())
+                .totalUsers(totalUsers.get())
+                .processedUsers(processedUsers.get())
+                .totalPartitions(totalPartitions.get())
+                .failedPartitions(failedPartitions.get())
+                .changedBadges(changedBadges.get())
+                .correctedUsers(correctedUsers.get())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+
+    /** Splits {@code (id, role)} rows, ordered by id, into contiguous ranges of at most {@code size} users. */
+    static List<Partition> partition(List<Object[]> users, int size) {
+        List<Partition> partitions = new ArrayList<>();
+        for (int start = 0; start < users.size(); start += size) {
+            List<Object[]> slice = users.subList(start, Math.min(start + size, users.size()));
+            Map<UUID, String> roles = new LinkedHashMap<>();
+            for (Object[] row : slice) {
+                roles.put((UUID) row[0], (String) row[1]);
+            }
+            partitions.add(new Partition((UUID) slice.get(0)[0], (UUID) slice.get(slice.size() - 1)[0], roles));
+        }
+        return partitions;
+    }
+
+    private class RecomputeTask extends RecursiveAction {
+
+        private final List<Partition> partitions;
+        private final int from;
+        private final int to;
+
+        RecomputeTask(List<Partition> partitions, int from, int to) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                recomputePartition(partitions.get(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RecomputeTask(partitions, from, middle), new RecomputeTask(partitions, middle, to));
+        }
+    }
+
+    void recomputePartition(Partition partition) {
+        try {
+            TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+                    transactionTemplate);
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            int changed = snapshot.execute(status -> recompute(partition));
+            changedBadges.addAndGet(changed);
+        } catch (Exception e) {
+            failedPartitions.incrementAndGet();
+            log.error("Error recomputing badges for users {}..{}", partition.fromId(), partition.toId(), e);
+        }
+        log.info("Badge recompute progress: {}/{} users", processedUsers.addAndGet(partition.roles().size()), totalUsers.get());
+    }
+
+    private int recompute(Partition partition) {
+        UUID fromId = partition.fromId();
+        UUID toId = partition.toId();
+        Map<UUID, PendingBadgeWork> pending = triggerService.takePendingBetween(fromId, toId);
+        Map<UUID, ObjectNode> doctors = new HashMap<>();
+        Map<UUID, ObjectNode> patients = new HashMap<>();
+        Map<UUID, ObjectNode> inputs = new HashMap<>();
+        partition.roles().forEach((userId, role) -> {
+            if ("DOCTOR".equals(role)) {
+                doctors.put(userId, zeroed(DOCTOR_KEYS));
+                new RatingWindow(BadgeRules.TOP_SPECIALIST_REQUIRED_RATINGS).write(doctors.get(userId));
+                inputs.put(userId, JsonNodeFactory.instance.objectNode()
+                        .put(BadgeRules.AVAILABLE_DAYS, 0));
+            } else if ("PATIENT".equals(role)) {
+                patients.put(userId, zeroed(PATIENT_KEYS));
+            }
+        });
+        Map<UUID, ObjectNode> everyone = new HashMap<>(doctors);
+        everyone.putAll(patients);
+        everyone.values().forEach(values -> RECEIVED_KEYS.forEach(key -> values.put(key, 0)));
+
+        collect(doctors, statisticsRepository.sumDoctorTurns(fromId, toId),
+                TOTAL_TURNS_COMPLETED, TOTAL_UNIQUE_PATIENTS, TOTAL_CANCELLATIONS, TOTAL_TURNS_NO_SHOW);
+        collect(doctors, statisticsRepository.sumDocumentation(fromId, toId),
+                DOCUMENTATION_COUNT, TOTAL_DOCUMENTATION_WORDS);
+        collect(doctors, statisticsRepository.countHandledRequests(fromId, toId), TOTAL_REQUESTS_HANDLED);
+        collect(patients, statisticsRepository.sumPatientTurns(fromId, toId),
+                TOTAL_TURNS_COMPLETED, TURNS_WITH_SAME_DOCTOR);
+        collect(patients, statisticsRepository.countCreatedRequests(fromId, toId), REQUESTS_CREATED);
+        collect(patients, statisticsRepository.countUploadedFiles(fromId, toId), FILES_UPLOADED);
+        collect(patients, statisticsRepository.sumRatingsGiven(fromId, toId), RATINGS_GIVEN, AVG_RATING_GIVEN,
+                RATINGS_GIVEN_SCORE_SUM);
+
+        List<Object[]> received = statisticsRepository.sumRatingsReceived(fromId, toId,
+                RatingSubcategoryCodes.COMMUNICATION, RatingSubcategoryCodes.EMPATHY, RatingSubcategoryCodes.PUNCTUALITY,
+                RatingSubcategoryCodes.PATIENT_COLLABORATION, RatingSubcategoryCodes.PATIENT_PUNCTUALITY,
+                BadgeRules.TOP_SPECIALIST_REQUIRED_RATINGS);
+        collect(everyone, received, TOTAL_RATINGS_RECEIVED, TOTAL_AVG_RATING, TOTAL_LOW_RATING_COUNT,
+                TOTAL_COMMUNICATION_COUNT, TOTAL_EMPATHY_COUNT, TOTAL_PUNCTUALITY_COUNT,
+                DOCTOR_COLLABORATION_MENTIONS, DOCTOR_PUNCTUALITY_MENTIONS, RATING_SCORE_SUM);
+        for (Object[] row : received) {
+            ObjectNode values = doctors.get((UUID) row[0]);
+            if (values != null && row[11] != null) {
+                RatingWindow.of(BadgeRules.TOP_SPECIALIST_REQUIRED_RATINGS, ((Number) row[10]).longValue(), (String) row[11])
+                        .write(values);
+            }
+        }
+
+        patients.values().forEach(values -> values
+                .put(LAST_10_TURNS_FILES_UPLOADED_COUNT, Math.min(values.get(FILES_UPLOADED).asInt(), 10))
+                .put(RATINGS_RECEIVED, values.get(TOTAL_RATINGS_RECEIVED).asInt())
+                .put(AVG_RATING_RECEIVED, values.get(TOTAL_AVG_RATING).asDouble()));
+        for (DoctorProfile profile : doctorProfileRepository.findByIdBetween(fromId, toId)) {
+            ObjectNode doctorInputs = inputs.get(profile.getId());
+            if (doctorInputs != null) {
+                doctorInputs.put(BadgeRules.AVAILABLE_DAYS, badgeService.countAvailableDays(profile.getAvailabilitySchedule()));
+            }
+        }
+
+        Map<UUID, BadgeStatistics> stored = statisticsRepository.findByUserIdBetween(fromId, toId).stream()
+                .collect(Collectors.toMap(BadgeStatistics::getUserId, stats -> stats));
+        Map<UUID, List<Badge>> badges = badgeRepository.findByUserIdBetween(fromId, toId).stream()
+                .collect(Collectors.groupingBy(Badge::getUserId));
+
+        List<Badge> changed = new ArrayList<>();
+        Map<String, Integer> holderDeltas = new HashMap<>();
+        ArrayNode rows = JsonNodeFactory.instance.arrayNode();
+        partition.roles().forEach((userId, role) -> {
+            ObjectNode values = everyone.get(userId);
+            if (values == null) {
+                return;
+            }
+            BadgeStatistics stats = stored.get(userId);
+            BadgeEvaluationContext context = new BadgeEvaluationContext(userId, role,
+                    stats != null ? stats.getStatistics() : null, stats != null ? stats.getProgress() : null,
+                    badges.getOrDefault(userId, List.of()));
+            PendingBadgeWork work = pending.get(userId);
+            if (work != null) {
+                // The aggregates already include these events; only the counters they cannot reproduce move
+                work.counterDeltas(work.triggersFor(role)).forEach((key, delta) -> {
+                    if (!values.has(key)) {
+                        values.put(key, context.getStatistics().path(key).asInt(0) + delta);
+                    }
+                });
+            }
+            context.putStatistics(values);
+            ObjectNode userInputs = inputs.get(userId);
+            if (userInputs != null) {
+                userInputs.fields().forEachRemaining(input -> context.putInput(input.getKey(), input.getValue().asInt()));
+            }
+            badgeService.evaluateAllBadges(context);
+
+            changed.addAll(context.getChangedBadges());
+            context.getHolderDeltas().forEach((badgeType, delta) -> holderDeltas.merge(badgeType, delta, Integer::sum));
+            BadgeWriteMetrics.avoidedBadgeWrites(context.getAvoidedBadgeWrites());
+            if (stats != null && context.hasStatisticChanges()) {
+                correctedUsers.incrementAndGet();
+            }
+            if (stats == null || context.hasStatisticChanges() || context.isProgressChanged()
+                    || !context.getChangedBadges().isEmpty()) {
+                rows.addObject()
+                        .put("user_id", userId.toString())
+                        .<ObjectNode>set("statistics", context.getStatisticValues())
+                        .set("progress", context.getProgress());
+            } else {
+                BadgeWriteMetrics.avoidedStatisticsWrite();
+            }
+        });
+
+        if (!changed.isEmpty()) {
+            badgeRepository.saveAll(changed);
+            badgeService.addHolders(holderDeltas);
+        }
+        if (!rows.isEmpty()) {
+            statisticsRepository.upsertAll(rows.toString());
+        }
+        return changed.size();
+    }
+
+    private static ObjectNode zeroed(List<String> keys) {
+        ObjectNode values = JsonNodeFactory.instance.objectNode();
+        keys.forEach(key -> values.put(key, 0));
+        return values;
+    }
+
+    /**
+     * Copies the aggregated columns of each row into the values of its user. {@code keys}
+     * name the columns after the id; a null key skips that column. Rows for users outside
+     * {@code target} are ignored.
+     */
+    private static void collect(Map<UUID, ObjectNode> target, List<Object[]> rows, String... keys) {
+        for (Object[] row : rows) {
+            ObjectNode values = target.get((UUID) row[0]);
+            if (values == null) {
+                continue;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                Number value = (Number) row[i + 1];
+                if (keys[i] == null || value == null) {
+                    continue;
+                }
+                if (AVERAGE_KEYS.contains(keys[i])) {
+                    values.put(keys[i], value.doubleValue());
+                } else {
+                    values.put(keys[i], value.intValue());
+                }
+            }
+        }
+    }
+}
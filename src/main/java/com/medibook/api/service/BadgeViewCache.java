@@ -0,0 +1,63 @@
+package com.medibook.api.service;
+
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-user badge views keyed by the version of the user's statistics row. Every write of a
+ * badge or a statistic bumps that version, so an entry is served only while it still
+ * describes the stored state, whichever instance made the change. Lookups are counted as
+ * {@code badge.views} tagged with {@code result} {@code hit} or {@code miss}.
+ */
+final class BadgeViewCache<T> {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private record Entry<T>(long version, T view) {
+    }
+
+    private final String name;
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    BadgeViewCache(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the view cached for {@code version}, or loads and caches it. Users without a
+     * statistics row have no version and are always loaded.
+     */
+    T get(UUID userId, Long version, Supplier<T> loader) {
+        if (version != null) {
+            Entry<T> entry = entries.get(userId);
+            if (entry != null && entry.version() == version) {
+                Metrics.counter("badge.views", "view", name, "result", "hit").increment();
+                return entry.view();
+            }
+        }
+        Metrics.counter("badge.views", "view", name, "result", "miss").increment();
+        T view = loader.get();
+        if (version != null) {
+            makeRoomFor(userId);
+            entries.put(userId, new Entry<>(version, view));
+        }
+        return view;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void makeRoomFor(UUID userId) {
+        Iterator<UUID> keys = entries.keySet().iterator();
+        while (entries.size() >= MAX_ENTRIES && !entries.containsKey(userId) && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.medibook.api.service;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Counts badge writes that change detection made unnecessary, as
+ * {@code badge.writes.avoided} tagged with the skipped target ({@code badge} or
+ * {@code statistics}). Registered on the global registry, which Spring Boot binds to the
+ * actuator metrics.
+ */
+final class BadgeWriteMetrics {
+
+    static final String AVOIDED_WRITES = "badge.writes.avoided";
+
+    private BadgeWriteMetrics() {
+    }
+
+    static void avoidedBadgeWrites(int count) {
+        if (count > 0) {
+            Metrics.counter(AVOIDED_WRITES, "target", "badge").increment(count);
+        }
+    }
+
+    static void avoidedStatisticsWrite() {
+        Metrics.counter(AVOIDED_WRITES, "target", "statistics").increment();
+    }
+}
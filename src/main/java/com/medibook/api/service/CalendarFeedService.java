@@ -0,0 +1,225 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds per-user iCalendar feeds. Turns are read from turn_views through a forward-only
+ * JDBC cursor and written event by event, so memory use does not grow with the number of turns.
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarFeedService {
+
+    private static final int FETCH_SIZE = 200;
+    private static final int DEFAULT_SLOT_MINUTES = 30;
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final String CRLF = "\r\n";
+    private static final DateTimeFormatter ICS_UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private static final String FEED_QUERY =
+            "SELECT v.turn_id, v.doctor_name, v.doctor_specialty, v.patient_name, v.scheduled_at, v.status, " +
+            "v.motive, v.updated_at, COALESCE(dp.slot_duration_min, " + DEFAULT_SLOT_MINUTES + ") AS slot_minutes " +
+            "FROM turn_views v LEFT JOIN doctor_profiles dp ON dp.user_id = v.doctor_id " +
+            "WHERE v.%s = ? AND v.status <> 'AVAILABLE' " +
+            "ORDER BY v.scheduled_at";
+
+    private static final int SECRET_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    /**
+     * Returns the token of the user's feed URL, creating their feed secret on first use.
+     * The token is keyed with that per-user secret, so replacing it revokes a leaked URL
+     * without touching any other user's feed.
+     */
+    @Transactional
+    public String getFeedToken(UUID userId) {
+        Optional<String> secret = userRepository.findCalendarFeedSecretById(userId);
+        if (secret.isEmpty()) {
+            userRepository.setCalendarFeedSecretIfMissing(userId, newSecret());
+            secret = userRepository.findCalendarFeedSecretById(userId);
+        }
+        return sign(secret.orElseThrow(() -> new IllegalStateException("User not found")), userId);
+    }
+
+    /** Replaces the user's feed secret; URLs handed out before stop working. */
+    @Transactional
+    public String resetFeedToken(UUID userId) {
+        String secret = newSecret();
+        userRepository.setCalendarFeedSecret(userId, secret);
+        return sign(secret, userId);
+    }
+
+    public boolean isValidFeedToken(User user, String token) {
+        if (token == null || user.getCalendarFeedSecret() == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sign(user.getCalendarFeedSecret(), user.getId()).getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sign(String secret, UUID userId) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] digest = mac.doFinal(("calendar:" + userId).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign calendar feed token", e);
+        }
+    }
+
+    private static String newSecret() {
+        byte[] secret = new byte[SECRET_BYTES];
+        RANDOM.nextBytes(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeFeed(UUID userId, String role, Writer writer) throws IOException {
+        boolean isDoctor = "DOCTOR".equals(role);
+        String sql = String.format(FEED_QUERY, isDoctor ? "doctor_id" : "patient_id");
+
+        writeLine(writer, "BEGIN:VCALENDAR");
+        writeLine(writer, "VERSION:2.0");
+        writeLine(writer, "PRODID:-//MediBook//Turnos//ES");
+        writeLine(writer, "CALSCALE:GREGORIAN");
+        writeLine(writer, "METHOD:PUBLISH");
+        writeLine(writer, "X-WR-CALNAME:MediBook");
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setObject(1, userId);
+                return ps;
+            }, rs -> {
+                try {
+                    writeEvent(writer, rs, isDoctor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writeLine(writer, "END:VCALENDAR");
+        writer.flush();
+    }
+
+    private void writeEvent(Writer writer, ResultSet rs, boolean isDoctor) throws SQLException, IOException {
+        OffsetDateTime start = rs.getObject("scheduled_at", OffsetDateTime.class);
+        OffsetDateTime end = start.plusMinutes(rs.getInt("slot_minutes"));
+        OffsetDateTime updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+        String status = rs.getString("status");
+        String motive = rs.getString("motive");
+
+        String summary = isDoctor
+                ? "Turno con " + nullToEmpty(rs.getString("patient_name"))
+                : "Turno con Dr. " + nullToEmpty(rs.getString("doctor_name"));
+        String specialty = rs.getString("doctor_specialty");
+
+        writeLine(writer, "BEGIN:VEVENT");
+        writeLine(writer, "UID:" + rs.getObject("turn_id") + "@medibook");
+        writeLine(writer, "DTSTAMP:" + formatUtc(updatedAt));
+        writeLine(writer, "LAST-MODIFIED:" + formatUtc(updatedAt));
+        writeLine(writer, "DTSTART:" + formatUtc(start));
+        writeLine(writer, "DTEND:" + formatUtc(end));
+        writeLine(writer, "SUMMARY:" + escapeText(summary));
+        if (motive != null && !motive.isBlank()) {
+            writeLine(writer, "DESCRIPTION:" + escapeText(motive));
+        }
+        if (specialty != null && !specialty.isBlank()) {
+            writeLine(writer, "CATEGORIES:" + escapeText(specialty));
+        }
+        writeLine(writer, "STATUS:" + toEventStatus(status));
+        writeLine(writer, "END:VEVENT");
+    }
+
+    static String toEventStatus(String turnStatus) {
+        if ("CANCELED".equals(turnStatus) || "CANCELLED".equals(turnStatus)) {
+            return "CANCELLED";
+        }
+        return "CONFIRMED";
+    }
+
+    static String escapeText(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    static void writeLine(Writer writer, String line) throws IOException {
+        // RFC 5545 content lines are folded after 75 octets of UTF-8 with CRLF + a single space,
+        // which counts towards the next line; a character is never split across two lines
+        int start = 0;
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int size = utf8Length(codePoint);
+            if (octets + size > limit) {
+                writer.write(line, start, i - start);
+                writer.write(CRLF);
+                writer.write(' ');
+                start = i;
+                octets = 0;
+                limit = MAX_LINE_OCTETS - 1;
+            }
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        writer.write(line, start, line.length() - start);
+        writer.write(CRLF);
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private static String formatUtc(OffsetDateTime time) {
+        return time.withOffsetSameInstant(ZoneOffset.UTC).format(ICS_UTC);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,197 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.DoctorDTO;
+import com.medibook.api.dto.DoctorLeaderboardPageDTO;
+import com.medibook.api.entity.User;
+import com.medibook.api.mapper.DoctorMapper;
+import com.medibook.api.repository.RatingAggregateRepository;
+import com.medibook.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory ranking of active doctors by weighted score, overall and per specialty. Entries
+ * are kept in sorted sets that are updated when a doctor's score, specialty or status changes,
+ * so reading a page never sorts the doctors table. Unrated doctors are ranked last.
+ *
+ * <p>Weighted scores decay over time and the order between two doctors can change without
+ * either being rated, so every entry is scored at the same instant: the one at which the board
+ * was last built. The board is rebuilt from rating_aggregates on startup, after the aggregates
+ * are rebuilt and on {@code leaderboard.rebuild-cron}; the rebuild also picks up changes that
+ * were written through another instance, which an instance otherwise only sees for the
+ * doctors it updated itself.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorLeaderboardService {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    static final Comparator<Entry> RANKING = Comparator
+            .comparing(Entry::score, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Entry::doctorId);
+
+    private final RatingAggregateRepository aggregateRepository;
+    private final UserRepository userRepository;
+    private final DoctorMapper doctorMapper;
+
+    private volatile Board board = new Board(Instant.now());
+
+    record Entry(UUID doctorId, String specialty, Double score) {
+    }
+
+    /** The rankings, all scored at {@code scoredAt}. Replaced as a whole by a rebuild. */
+    private static final class Board {
+        final Instant scoredAt;
+        final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+        final NavigableSet<Entry> overall = new ConcurrentSkipListSet<>(RANKING);
+        final Map<String, NavigableSet<Entry>> bySpecialty = new ConcurrentHashMap<>();
+
+        Board(Instant scoredAt) {
+            this.scoredAt = scoredAt;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${leaderboard.rebuild-cron:0 0 * * * *}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Board rebuilt = new Board(Instant.now());
+        for (RatingAggregateRepository.DoctorTotals totals : aggregateRepository.findActiveDoctorTotals()) {
+            put(rebuilt, entryOf(totals, rebuilt.scoredAt));
+        }
+        board = rebuilt;
+        log.info("Rebuilt doctor leaderboard with {} doctors", rebuilt.entries.size());
+    }
+
+    /** Rebuilds the board once the caller's transaction committed, e.g. after a bulk score update. */
+    public void rebuildAfterCommit() {
+        afterCommit(this::rebuild);
+    }
+
+    /**
+     * Re-ranks a doctor: active doctors are inserted or moved, anyone else is removed. Inside
+     * a transaction this happens after commit, from the committed row rather than the caller's
+     * copy, so a concurrent rating committed in between is not ranked with a stale score.
+     */
+    public void update(User user) {
+        UUID id = user.getId();
+        afterCommit(() -> refresh(id));
+    }
+
+    @Transactional(readOnly = true)
+    public DoctorLeaderboardPageDTO getPage(String specialty, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        String key = specialty == null || specialty.isBlank() ? null : specialty.trim();
+        Board current = board;
+        NavigableSet<Entry> ranking = key == null
+                ? current.overall
+                : current.bySpecialty.getOrDefault(key, Collections.emptyNavigableSet());
+        List<Entry> ranked = ranking.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+        long total = ranking.size();
+
+        Map<UUID, User> doctors = userRepository.findAllById(ranked.stream().map(Entry::doctorId).toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<DoctorDTO> content = new ArrayList<>();
+        for (Entry entry : ranked) {
+            User doctor = doctors.get(entry.doctorId());
+            DoctorDTO dto = doctor != null ? doctorMapper.toDTO(doctor) : null;
+            if (dto != null) {
+                // The score the page is ranked by, rather than the one stored at the last rating
+                dto.setWeightedScore(entry.score());
+                content.add(dto);
+            }
+        }
+
+        return DoctorLeaderboardPageDTO.builder()
+                .doctors(content)
+                .page(page)
+                .size(size)
+                .totalElements(total)
+                .totalPages((int) ((total + size - 1) / size))
+                .specialty(key)
+                .build();
+    }
+
+    /**
+     * Re-reads and applies in one step, so the refresh that runs last also reads last and the
+     * board ends on the latest committed state.
+     */
+    synchronized void refresh(UUID doctorId) {
+        Board current = board;
+        apply(current, doctorId, aggregateRepository.findActiveDoctorTotalsById(doctorId)
+                .map(totals -> entryOf(totals, current.scoredAt))
+                .orElse(null));
+    }
+
+    private static void apply(Board board, UUID doctorId, Entry entry) {
+        Entry previous = board.entries.remove(doctorId);
+        if (previous != null) {
+            board.overall.remove(previous);
+            NavigableSet<Entry> set = board.bySpecialty.get(previous.specialty());
+            if (set != null) {
+                set.remove(previous);
+            }
+        }
+        if (entry != null) {
+            put(board, entry);
+        }
+    }
+
+    private static void put(Board board, Entry entry) {
+        board.entries.put(entry.doctorId(), entry);
+        board.overall.add(entry);
+        if (entry.specialty() != null) {
+            board.bySpecialty.computeIfAbsent(entry.specialty(), s -> new ConcurrentSkipListSet<>(RANKING)).add(entry);
+        }
+    }
+
+    private static Entry entryOf(RatingAggregateRepository.DoctorTotals totals, Instant at) {
+        Double score = totals.getRatingCount() == null ? null : RatingAggregateService.weightedScoreOf(
+                totals.getDecayedScoreSum(), totals.getDecayedWeight(), totals.getRatingCount(), at);
+        return new Entry(totals.getDoctorId(), totals.getSpecialty(), score);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -4,6 +4,7 @@ import com.medibook.api.dto.DoctorDTO;
 import com.medibook.api.dto.DoctorMetricsDTO;
 import com.medibook.api.dto.MedicalHistoryDTO;
 import com.medibook.api.dto.PatientDTO;
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
 import com.medibook.api.dto.Rating.SubcategoryCountDTO;
 import com.medibook.api.entity.Badge;
 import com.medibook.api.entity.TurnAssigned;
@@ -88,17 +89,9 @@ public class DoctorService {
         Map<UUID, Map<String, Long>> ratingsMap = new java.util.HashMap<>();
         for (Object[] row : results) {
             UUID patientId = (UUID) row[0];
-            String subcategoriesString = (String) row[1];
+            String label = RatingSubcategoryCodes.labelOf((String) row[1]);
             Long count = (Long) row[2];
-            if (subcategoriesString != null && !subcategoriesString.trim().isEmpty()) {
-                String[] subcategories = subcategoriesString.split(",");
-                for (String subcategory : subcategories) {
-                    String trimmed = subcategory.trim();
-                    if (!trimmed.isEmpty()) {
-                        ratingsMap.computeIfAbsent(patientId, k -> new java.util.HashMap<>()).merge(trimmed, count, Long::sum);
-                    }
-                }
-            }
+            ratingsMap.computeIfAbsent(patientId, k -> new java.util.HashMap<>()).put(label, count);
         }
         return ratingsMap;
     }
@@ -180,22 +173,8 @@ public class DoctorService {
         List<RatingRepository.SubcategoryCount> subcategoryCounts = 
                 ratingRepository.countSubcategoriesByRatedId(doctorId, "PATIENT");
         
-        java.util.Map<String, Long> subcategoryMap = new java.util.HashMap<>();
-        for (RatingRepository.SubcategoryCount sc : subcategoryCounts) {
-            String subcategoriesString = sc.getSubcategory();
-            if (subcategoriesString != null && !subcategoriesString.trim().isEmpty()) {
-                String[] subcategories = subcategoriesString.split(",");
-                for (String subcategory : subcategories) {
-                    String trimmed = subcategory.trim();
-                    if (!trimmed.isEmpty()) {
-                        subcategoryMap.merge(trimmed, sc.getCount(), Long::sum);
-                    }
-                }
-            }
-        }
-        
-        List<SubcategoryCountDTO> ratingSubcategories = subcategoryMap.entrySet().stream()
-                .map(entry -> new SubcategoryCountDTO(entry.getKey(), entry.getValue()))
+        List<SubcategoryCountDTO> ratingSubcategories = subcategoryCounts.stream()
+                .map(sc -> new SubcategoryCountDTO(RatingSubcategoryCodes.labelOf(sc.getSubcategory()), sc.getCount()))
                 .sorted((a, b) -> Long.compare(b.getCount(), a.getCount()))
                 .collect(Collectors.toList());
         
@@ -211,6 +190,7 @@ public class DoctorService {
                 .surname(doctor.getSurname())
                 .specialty(doctor.getDoctorProfile() != null ? doctor.getDoctorProfile().getSpecialty() : null)
                 .score(doctor.getScore())
+                .weightedScore(doctor.getWeightedScore())
                 .ratingSubcategories(ratingSubcategories)
                 .totalPatients(totalPatients)
                 .upcomingTurns(upcomingTurns)
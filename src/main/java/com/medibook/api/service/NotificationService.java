@@ -2,13 +2,16 @@ package com.medibook.api.service;
 
 import com.medibook.api.entity.Notification;
 import com.medibook.api.entity.NotificationType;
+import com.medibook.api.entity.SyncTombstone;
 import com.medibook.api.entity.User;
 import com.medibook.api.repository.NotificationRepository;
+import com.medibook.api.repository.SyncTombstoneRepository;
 import com.medibook.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +22,8 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final UserChangeVersionService changeVersionService;
+    private final SyncTombstoneRepository tombstoneRepository;
 
     public Notification createNotification(UUID userId, NotificationType type,
                                          UUID relatedEntityId, String message) {
@@ -33,7 +38,9 @@ public class NotificationService {
                 .isRead(false)
                 .build();
 
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        changeVersionService.bump(userId);
+        return saved;
     }
 
     public List<Notification> getUnreadNotifications(UUID userId) {
@@ -49,12 +56,23 @@ public class NotificationService {
     }
 
     public boolean markAsRead(UUID notificationId, UUID userId) {
-        int updatedRows = notificationRepository.markAsReadByIdAndUserId(notificationId, userId);
+        int updatedRows = notificationRepository.markAsReadByIdAndUserId(notificationId, userId, OffsetDateTime.now());
+        if (updatedRows > 0) {
+            changeVersionService.bump(userId);
+        }
         return updatedRows > 0;
     }
 
     public boolean deleteNotification(UUID notificationId, UUID userId) {
         int deletedRows = notificationRepository.deleteByIdAndUserId(notificationId, userId);
+        if (deletedRows > 0) {
+            tombstoneRepository.save(SyncTombstone.builder()
+                    .userId(userId)
+                    .entityType(SyncTombstone.NOTIFICATION)
+                    .entityId(notificationId)
+                    .build());
+            changeVersionService.bump(userId);
+        }
         return deletedRows > 0;
     }
 
@@ -22,6 +22,8 @@ public class ProfileService {
     private final UserRepository userRepository;
     private final ProfileMapper profileMapper;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final TurnViewService turnViewService;
+    private final DoctorLeaderboardService doctorLeaderboardService;
     private static final ZoneId ARGENTINA_ZONE = ZoneId.of("America/Argentina/Buenos_Aires");
 
     public ProfileResponseDTO getProfile(UUID userId) {
@@ -43,6 +45,8 @@ public class ProfileService {
 
         profileMapper.updateUserFromRequest(user, updateRequest);
         user = userRepository.save(user);
+        turnViewService.refreshDisplayNames(user);
+        doctorLeaderboardService.update(user);
         
         return profileMapper.toProfileResponse(user);
     }
@@ -54,6 +58,7 @@ public class ProfileService {
         
         user.setStatus("DISABLED");
         userRepository.save(user);
+        doctorLeaderboardService.update(user);
         
         refreshTokenRepository.revokeAllTokensByUserId(userId, ZonedDateTime.now(ARGENTINA_ZONE));
     }
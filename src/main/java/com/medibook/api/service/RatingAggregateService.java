@@ -0,0 +1,120 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.RatingAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Maintains rating_aggregates, the per-user running count, sum and score histogram of
+ * received ratings. User.score is derived from these totals instead of averaging the
+ * ratings table on every new rating.
+ *
+ * <p>User.weightedScore is a Bayesian average with exponential time decay: ratings lose half
+ * their weight every {@link #HALF_LIFE} and the result is pulled towards {@link #PRIOR_MEAN}
+ * as if {@link #PRIOR_WEIGHT} extra average ratings existed. The decayed sums are stored
+ * forward-decayed relative to {@link #DECAY_EPOCH}, so recording a rating is a constant-time
+ * addition and no rating history is ever re-read.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class RatingAggregateService {
+
+    static final Instant DECAY_EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    static final Duration HALF_LIFE = Duration.ofDays(180);
+    static final double PRIOR_MEAN = 3.5;
+    static final double PRIOR_WEIGHT = 5.0;
+
+    private final RatingAggregateRepository aggregateRepository;
+    private final DoctorLeaderboardService doctorLeaderboardService;
+
+    /**
+     * Adds a rating to the rated user's totals and sets the user's new average and weighted
+     * score. The user is expected to be managed, so both are flushed with the transaction.
+     */
+    public void recordRating(User ratedUser, int score) {
+        UUID ratedUserId = ratedUser.getId();
+        OffsetDateTime now = OffsetDateTime.now();
+        double weight = decayWeight(now.toInstant());
+        if (aggregateRepository.increment(ratedUserId, score, weight, now) == 0) {
+            // First rating for this user: create the empty row, then apply the same increment
+            aggregateRepository.insertEmptyIfMissing(ratedUserId, now);
+            aggregateRepository.increment(ratedUserId, score, weight, now);
+        }
+        aggregateRepository.findTotalsByUserId(ratedUserId).ifPresent(totals -> {
+            ratedUser.setScore(averageOf(totals.getScoreSum(), totals.getRatingCount()));
+            ratedUser.setWeightedScore(weightedScoreOf(
+                    totals.getDecayedScoreSum(), totals.getDecayedWeight(), totals.getRatingCount(), now.toInstant()));
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Double getAverageScore(UUID userId) {
+        return aggregateRepository.findTotalsByUserId(userId)
+                .map(totals -> averageOf(totals.getScoreSum(), totals.getRatingCount()))
+                .orElse(null);
+    }
+
+    /**
+     * Weighted score decayed to the current time. Unlike the value stored on the user, this
+     * also reflects the decay since the user's last rating.
+     */
+    @Transactional(readOnly = true)
+    public Double getWeightedScore(UUID userId) {
+        return aggregateRepository.findTotalsByUserId(userId)
+                .map(totals -> weightedScoreOf(totals.getDecayedScoreSum(), totals.getDecayedWeight(),
+                        totals.getRatingCount(), Instant.now()))
+                .orElse(null);
+    }
+
+    /**
+     * Rebuilds every aggregate from the ratings table and re-derives user scores from them.
+     * Used to backfill the table and to repair drift. Ratings wait for the rebuild to commit,
+     * so none is lost between the delete and the insert. The bulk updates bypass the doctor
+     * leaderboard, so it is rebuilt once they committed.
+     */
+    public int rebuildAll() {
+        aggregateRepository.lockForRebuild();
+        aggregateRepository.deleteAllRows();
+        int users = aggregateRepository.insertFromRatings(OffsetDateTime.now(),
+                DECAY_EPOCH.getEpochSecond(), HALF_LIFE.toSeconds());
+        aggregateRepository.updateUserScoresFromAggregates();
+        aggregateRepository.updateUserWeightedScoresFromAggregates(PRIOR_MEAN, PRIOR_WEIGHT,
+                1.0 / decayWeight(Instant.now()));
+        aggregateRepository.updateTurnViewPatientScores();
+        doctorLeaderboardService.rebuildAfterCommit();
+        log.info("Rebuilt rating aggregates for {} users", users);
+        return users;
+    }
+
+    static Double averageOf(long scoreSum, long ratingCount) {
+        if (ratingCount == 0) {
+            return null;
+        }
+        return Math.round((double) scoreSum / ratingCount * 100.0) / 100.0;
+    }
+
+    static double decayWeight(Instant at) {
+        double halfLives = (double) Duration.between(DECAY_EPOCH, at).toSeconds() / HALF_LIFE.toSeconds();
+        return Math.pow(2.0, halfLives);
+    }
+
+    static Double weightedScoreOf(double decayedScoreSum, double decayedWeight, long ratingCount, Instant at) {
+        if (ratingCount == 0) {
+            return null;
+        }
+        double decay = 1.0 / decayWeight(at);
+        double weighted = (PRIOR_WEIGHT * PRIOR_MEAN + decayedScoreSum * decay)
+                / (PRIOR_WEIGHT + decayedWeight * decay);
+        return Math.round(weighted * 100.0) / 100.0;
+    }
+}
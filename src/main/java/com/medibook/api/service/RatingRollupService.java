@@ -0,0 +1,229 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Admin.AdminRatingsResponseDTO.RatingStatsDTO;
+import com.medibook.api.dto.Admin.AdminRatingsResponseDTO.SpecialtyStatsDTO;
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
+import com.medibook.api.dto.Rating.SubcategoryCountDTO;
+import com.medibook.api.entity.RatingDailyRollup;
+import com.medibook.api.entity.RatingDailySubcategoryRollup;
+import com.medibook.api.entity.Rating;
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.RatingRepository;
+import com.medibook.api.repository.RatingRollupRepository;
+import com.medibook.api.repository.RatingSubcategoryRollupRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.medibook.api.util.DateTimeUtils.ARGENTINA_ZONE;
+
+/**
+ * Maintains daily rating rollups per rater role and doctor specialty and answers the admin
+ * dashboard statistics from them.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class RatingRollupService {
+
+    static final int TOP_SUBCATEGORIES = 5;
+    private static final LocalDate MIN_DAY = LocalDate.of(2000, 1, 1);
+    private static final LocalDate MAX_DAY = LocalDate.of(9999, 12, 31);
+    private static final int REBUILD_CLEAR_INTERVAL = 500;
+
+    private final RatingRollupRepository rollupRepository;
+    private final RatingSubcategoryRollupRepository subcategoryRollupRepository;
+    private final RatingRepository ratingRepository;
+    private final EntityManager entityManager;
+
+    private record RoleAndSpecialty(String role, String specialty) {
+    }
+
+    public void recordRating(Rating rating) {
+        LocalDate day = dayOf(rating.getCreatedAt());
+        String role = rating.getRater().getRole();
+        String specialty = specialtyOf(rating);
+        OffsetDateTime now = OffsetDateTime.now();
+
+        if (rollupRepository.increment(day, role, specialty, rating.getScore(), now) == 0) {
+            rollupRepository.insertEmptyIfMissing(day, role, specialty, now);
+            rollupRepository.increment(day, role, specialty, rating.getScore(), now);
+        }
+        if (rating.getSubcategoryCodes() == null) {
+            return;
+        }
+        for (String code : rating.getSubcategoryCodes()) {
+            if (subcategoryRollupRepository.increment(day, role, specialty, code) == 0) {
+                subcategoryRollupRepository.insertEmptyIfMissing(day, role, specialty, code);
+                subcategoryRollupRepository.increment(day, role, specialty, code);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RatingStatsDTO getStats(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : MIN_DAY;
+        LocalDate end = to != null ? to : MAX_DAY;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        long total = 0, totalSum = 0;
+        long patientCount = 0, patientSum = 0;
+        long doctorCount = 0, doctorSum = 0;
+        long[] histogram = new long[5];
+        List<SpecialtyStatsDTO> bySpecialty = new ArrayList<>();
+
+        Map<String, Long> subcategoryTotals = new HashMap<>();
+        Map<RoleAndSpecialty, List<SubcategoryCountDTO>> topSubcategoriesByGroup = new HashMap<>();
+        for (Object[] row : subcategoryRollupRepository.sumByRoleSpecialtyAndSubcategory(start, end)) {
+            String code = (String) row[2];
+            long count = ((Number) row[3]).longValue();
+            subcategoryTotals.merge(code, count, Long::sum);
+            List<SubcategoryCountDTO> top = topSubcategoriesByGroup.computeIfAbsent(
+                    new RoleAndSpecialty((String) row[0], (String) row[1]), key -> new ArrayList<>());
+            if (top.size() < TOP_SUBCATEGORIES) {
+                top.add(subcategoryCount(code, count));
+            }
+        }
+
+        for (Object[] row : rollupRepository.sumByRoleAndSpecialty(start, end)) {
+            String role = (String) row[0];
+            String specialty = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+            long sum = ((Number) row[3]).longValue();
+            for (int i = 0; i < 5; i++) {
+                histogram[i] += ((Number) row[4 + i]).longValue();
+            }
+
+            total += count;
+            totalSum += sum;
+            if ("PATIENT".equals(role)) {
+                patientCount += count;
+                patientSum += sum;
+            } else if ("DOCTOR".equals(role)) {
+                doctorCount += count;
+                doctorSum += sum;
+            }
+            if (!specialty.isEmpty()) {
+                bySpecialty.add(SpecialtyStatsDTO.builder()
+                        .specialty(specialty)
+                        .raterRole(role)
+                        .ratingCount(count)
+                        .averageScore(average(sum, count))
+                        .topSubcategories(topSubcategoriesByGroup.getOrDefault(
+                                new RoleAndSpecialty(role, specialty), List.of()))
+                        .build());
+            }
+        }
+
+        List<SubcategoryCountDTO> topSubcategories = subcategoryTotals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(TOP_SUBCATEGORIES)
+                .map(entry -> subcategoryCount(entry.getKey(), entry.getValue()))
+                .toList();
+
+        return RatingStatsDTO.builder()
+                .totalRatings(total)
+                .patientRatingsCount(patientCount)
+                .doctorRatingsCount(doctorCount)
+                .averageScore(average(totalSum, total))
+                .averagePatientRating(average(patientSum, patientCount))
+                .averageDoctorRating(average(doctorSum, doctorCount))
+                .scoreHistogram(List.of(histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]))
+                .topSubcategories(topSubcategories)
+                .bySpecialty(bySpecialty)
+                .build();
+    }
+
+    /**
+     * Recomputes every rollup from the ratings table. Used to backfill and to repair drift.
+     * Ratings wait for the rebuild to commit, so none is lost between the stream and the swap.
+     */
+    public int rebuildAll() {
+        rollupRepository.lockForRebuild();
+        Map<RatingDailyRollup.Key, RatingDailyRollup> rollups = new LinkedHashMap<>();
+        Map<RatingDailySubcategoryRollup.Key, RatingDailySubcategoryRollup> subcategoryRollups = new LinkedHashMap<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        int processed = 0;
+
+        try (Stream<Rating> ratings = ratingRepository.streamForAdmin(null)) {
+            Iterator<Rating> iterator = ratings.iterator();
+            while (iterator.hasNext()) {
+                Rating rating = iterator.next();
+                LocalDate day = dayOf(rating.getCreatedAt());
+                String role = rating.getRater().getRole();
+                String specialty = specialtyOf(rating);
+
+                RatingDailyRollup rollup = rollups.computeIfAbsent(new RatingDailyRollup.Key(day, role, specialty),
+                        key -> RatingDailyRollup.builder().id(key).updatedAt(now).build());
+                addScore(rollup, rating.getScore());
+
+                for (String code : rating.getSubcategoryCodes()) {
+                    RatingDailySubcategoryRollup subcategoryRollup = subcategoryRollups.computeIfAbsent(
+                            new RatingDailySubcategoryRollup.Key(day, role, specialty, code),
+                            key -> RatingDailySubcategoryRollup.builder().id(key).build());
+                    subcategoryRollup.setRatingCount(subcategoryRollup.getRatingCount() + 1);
+                }
+
+                if (++processed % REBUILD_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+
+        subcategoryRollupRepository.deleteAllRows();
+        rollupRepository.deleteAllRows();
+        rollupRepository.saveAll(rollups.values());
+        subcategoryRollupRepository.saveAll(subcategoryRollups.values());
+        log.info("Rebuilt {} rating rollups from {} ratings", rollups.size(), processed);
+        return rollups.size();
+    }
+
+    static LocalDate dayOf(OffsetDateTime createdAt) {
+        return createdAt.atZoneSameInstant(ARGENTINA_ZONE).toLocalDate();
+    }
+
+    static String specialtyOf(Rating rating) {
+        User doctor = "DOCTOR".equals(rating.getRater().getRole()) ? rating.getRater() : rating.getRated();
+        if (doctor == null || !"DOCTOR".equals(doctor.getRole()) || doctor.getDoctorProfile() == null
+                || doctor.getDoctorProfile().getSpecialty() == null) {
+            return "";
+        }
+        return doctor.getDoctorProfile().getSpecialty();
+    }
+
+    private static SubcategoryCountDTO subcategoryCount(String code, long count) {
+        return new SubcategoryCountDTO(RatingSubcategoryCodes.labelOf(code), count);
+    }
+
+    private static void addScore(RatingDailyRollup rollup, int score) {
+        rollup.setRatingCount(rollup.getRatingCount() + 1);
+        rollup.setScoreSum(rollup.getScoreSum() + score);
+        switch (score) {
+            case 1 -> rollup.setScore1Count(rollup.getScore1Count() + 1);
+            case 2 -> rollup.setScore2Count(rollup.getScore2Count() + 1);
+            case 3 -> rollup.setScore3Count(rollup.getScore3Count() + 1);
+            case 4 -> rollup.setScore4Count(rollup.getScore4Count() + 1);
+            case 5 -> rollup.setScore5Count(rollup.getScore5Count() + 1);
+            default -> { }
+        }
+    }
+
+    private static double average(long sum, long count) {
+        return count == 0 ? 0.0 : Math.round((double) sum / count * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Sync.SyncResponseDTO;
+import com.medibook.api.dto.Sync.SyncTombstoneDTO;
+import com.medibook.api.entity.TurnView;
+import com.medibook.api.entity.User;
+import com.medibook.api.mapper.NotificationMapper;
+import com.medibook.api.mapper.TurnAssignedMapper;
+import com.medibook.api.mapper.TurnModifyRequestMapper;
+import com.medibook.api.repository.BadgeRepository;
+import com.medibook.api.repository.NotificationRepository;
+import com.medibook.api.repository.SyncTombstoneRepository;
+import com.medibook.api.repository.TurnModifyRequestRepository;
+import com.medibook.api.repository.TurnViewRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Delta sync for mobile clients. Every synced row carries the id of the transaction that
+ * last wrote it, and a sync token is the oldest transaction still running when the previous
+ * sync started: anything older had already committed and was returned then, so rows written
+ * by that transaction or a newer one are returned, together with tombstones for hard deletes.
+ * The cursor follows commit order rather than any clock, so a transaction that commits long
+ * after it wrote its rows, or on an instance with a skewed clock, is still picked up.
+ * Rows may be returned twice; clients apply results idempotently. Without a token, or with
+ * a token from the previous timestamp format, every entity is returned.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SyncService {
+
+    static final String TOKEN_PREFIX = "x";
+
+    private final TurnViewRepository turnViewRepository;
+    private final NotificationRepository notificationRepository;
+    private final TurnModifyRequestRepository turnModifyRequestRepository;
+    private final BadgeRepository badgeRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final TurnAssignedMapper turnMapper;
+    private final NotificationMapper notificationMapper;
+    private final TurnModifyRequestMapper modifyRequestMapper;
+    private final BadgeService badgeService;
+
+    public SyncResponseDTO getChanges(User user, String syncToken) {
+        long snapshotXmin = tombstoneRepository.currentSnapshotXmin();
+        Long tokenXid = parseToken(syncToken);
+        boolean fullSync = tokenXid == null;
+        long since = fullSync ? 0 : tokenXid;
+
+        List<TurnView> turns = "DOCTOR".equals(user.getRole())
+                ? turnViewRepository.findByDoctorIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(user.getId(), since)
+                : turnViewRepository.findByPatientIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(user.getId(), since);
+
+        List<SyncTombstoneDTO> deleted = fullSync
+                ? List.of()
+                : tombstoneRepository.findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(user.getId(), since).stream()
+                        .map(t -> SyncTombstoneDTO.builder()
+                                .entityType(t.getEntityType())
+                                .entityId(t.getEntityId())
+                                .deletedAt(t.getDeletedAt())
+                                .build())
+                        .toList();
+
+        return SyncResponseDTO.builder()
+                .syncToken(toToken(snapshotXmin))
+                .fullSync(fullSync)
+                .turns(turns.stream().map(turnMapper::toDTO).toList())
+                .notifications(notificationRepository
+                        .findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(user.getId(), since).stream()
+                        .map(notificationMapper::toDTO)
+                        .toList())
+                .modifyRequests(turnModifyRequestRepository.findChangedForUserSince(user.getId(), since).stream()
+                        .map(modifyRequestMapper::toResponseDTO)
+                        .toList())
+                .badges(badgeRepository.findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(user.getId(), since).stream()
+                        .map(badge -> badgeService.toBadgeDTO(badge, user.getRole()))
+                        .toList())
+                .deleted(deleted)
+                .build();
+    }
+
+    static String toToken(long snapshotXmin) {
+        return TOKEN_PREFIX + snapshotXmin;
+    }
+
+    /** The transaction id of a token, or null for a full sync. */
+    static Long parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String value = token.trim();
+        try {
+            if (value.startsWith(TOKEN_PREFIX)) {
+                return Long.parseLong(value.substring(TOKEN_PREFIX.length()));
+            }
+            // Timestamp tokens issued before the cursor followed commit order
+            Long.parseLong(value);
+            return null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.medibook.api.service;
 
+import com.medibook.api.dto.Rating.RatingSubcategoryCodes;
 import com.medibook.api.dto.Turn.TurnCreateRequestDTO;
 import com.medibook.api.dto.Turn.TurnResponseDTO;
 import com.medibook.api.entity.TurnAssigned;
+import com.medibook.api.entity.TurnView;
 import com.medibook.api.entity.User;
+import com.medibook.api.event.RatingAddedEvent;
 import com.medibook.api.mapper.TurnAssignedMapper;
 import com.medibook.api.entity.Rating;
+import com.medibook.api.entity.SyncTombstone;
 import com.medibook.api.repository.RatingRepository;
+import com.medibook.api.repository.SyncTombstoneRepository;
 import com.medibook.api.repository.TurnAssignedRepository;
+import com.medibook.api.repository.TurnViewRepository;
 import com.medibook.api.repository.UserRepository;
 import com.medibook.api.util.DateTimeUtils;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,14 +37,20 @@ import java.util.stream.Collectors;
 public class TurnAssignedService {
 
     private final TurnAssignedRepository turnRepo;
+    private final TurnViewRepository turnViewRepository;
+    private final TurnViewService turnViewService;
     private final UserRepository userRepo;
     private final TurnAssignedMapper mapper;
     private final RatingRepository ratingRepo;
+    private final RatingAggregateService ratingAggregateService;
+    private final RatingRollupService ratingRollupService;
+    private final DoctorLeaderboardService doctorLeaderboardService;
     private final NotificationService notificationService;
     private final EmailService emailService;
     private final TurnFileService turnFileService;
     private final BadgeEvaluationTriggerService badgeEvaluationTrigger;
     private final MedicalCheckApiService medicalCheckApiService;
+    private final ApplicationEventPublisher eventPublisher;
     private static final ZoneId ARGENTINA_ZONE = ZoneId.of("America/Argentina/Buenos_Aires");
 
     public TurnResponseDTO createTurn(TurnCreateRequestDTO dto) {
@@ -79,6 +92,7 @@ public class TurnAssignedService {
                 .build();
 
         TurnAssigned saved = turnRepo.save(turn);
+        turnViewService.refresh(saved.getId());
         
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
         long daysDifference = java.time.Duration.between(now, turn.getScheduledAt()).toDays();
@@ -169,6 +183,7 @@ public class TurnAssignedService {
         turn.setPatient(patient);
         turn.setStatus("RESERVED");
         TurnAssigned saved = turnRepo.save(turn);
+        turnViewService.refresh(saved.getId());
 
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
         long daysDifference = java.time.Duration.between(now, turn.getScheduledAt()).toDays();
@@ -179,35 +194,46 @@ public class TurnAssignedService {
         return saved;
     }
     
+    @Transactional(readOnly = true)
     public List<TurnResponseDTO> getTurnsByDoctor(UUID doctorId) {
-        List<TurnAssigned> turns = turnRepo.findByDoctor_IdOrderByScheduledAtDesc(doctorId);
-        return turns.stream()
+        return turnViewRepository.findByDoctorIdOrderByScheduledAtDesc(doctorId).stream()
                 .map(mapper::toDTO)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<TurnResponseDTO> getTurnsByPatient(UUID patientId) {
-        List<TurnAssigned> turns = turnRepo.findByPatient_IdOrderByScheduledAtDesc(patientId);
-        return turns.stream()
+        return turnViewRepository.findByPatientIdOrderByScheduledAtDesc(patientId).stream()
                 .map(mapper::toDTO)
                 .collect(Collectors.toList());
     }
     
-    public List<TurnResponseDTO> getTurnsByDoctorAndStatus(UUID doctorId, String status) {
-        List<TurnAssigned> turns = turnRepo.findByDoctor_IdAndStatusOrderByScheduledAtDesc(doctorId, status);
+    @Transactional(readOnly = true)
+    public List<TurnResponseDTO> getTurnsAwaitingRating(User user) {
+        List<TurnView> turns = "DOCTOR".equals(user.getRole())
+                ? turnViewRepository.findByDoctorIdAndNeedsDoctorRatingTrueOrderByScheduledAtDesc(user.getId())
+                : turnViewRepository.findByPatientIdAndNeedsPatientRatingTrueOrderByScheduledAtDesc(user.getId());
         return turns.stream()
                 .map(mapper::toDTO)
                 .collect(Collectors.toList());
     }
+
+    @Transactional(readOnly = true)
+    public List<TurnResponseDTO> getTurnsByDoctorAndStatus(UUID doctorId, String status) {
+        return turnViewRepository.findByDoctorIdAndStatusOrderByScheduledAtDesc(doctorId, status).stream()
+                .map(mapper::toDTO)
+                .collect(Collectors.toList());
+    }
     
+    @Transactional(readOnly = true)
     public List<TurnResponseDTO> getTurnsByPatientAndStatus(UUID patientId, String status) {
-        List<TurnAssigned> turns = turnRepo.findByPatient_IdAndStatusOrderByScheduledAtDesc(patientId, status);
-        return turns.stream()
+        return turnViewRepository.findByPatientIdAndStatusOrderByScheduledAtDesc(patientId, status).stream()
                 .map(mapper::toDTO)
                 .collect(Collectors.toList());
     }
     
     private final com.medibook.api.repository.TurnModifyRequestRepository turnModifyRequestRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
 
     public TurnResponseDTO cancelTurn(UUID turnId, UUID userId, String userRole) {
         TurnAssigned turn = turnRepo.findById(turnId)
@@ -253,6 +279,7 @@ public class TurnAssignedService {
         } catch (Exception e) {
             log.warn("Failed to delete file for canceled turn {}: {}", turnId, e.getMessage());
         }
+        turnViewService.refresh(turnId);
 
         try {
             String date = DateTimeUtils.formatDate(saved.getScheduledAt());
@@ -323,10 +350,14 @@ public class TurnAssignedService {
             timeForNotification
         );
 
-        boolean hasPendingRequest = turnModifyRequestRepository.findByTurnAssigned_IdAndStatus(turnId, "PENDING").isPresent();
-        if (hasPendingRequest) {
+        turnModifyRequestRepository.findByTurnAssigned_IdAndStatus(turnId, "PENDING").ifPresent(pending -> {
             turnModifyRequestRepository.deleteByTurnAssigned_IdAndStatus(turnId, "PENDING");
-        }
+            tombstoneRepository.saveAll(List.of(
+                    SyncTombstone.builder().userId(turn.getPatient().getId())
+                            .entityType(SyncTombstone.MODIFY_REQUEST).entityId(pending.getId()).build(),
+                    SyncTombstone.builder().userId(turn.getDoctor().getId())
+                            .entityType(SyncTombstone.MODIFY_REQUEST).entityId(pending.getId()).build()));
+        });
 
         return mapper.toDTO(saved);
     }
@@ -344,7 +375,13 @@ public class TurnAssignedService {
         }
 
         turn.setStatus("COMPLETED");
+        if (turn.getPatient() != null) {
+            // A party may already have rated a past turn before it was marked completed
+            turn.setNeedsPatientRating(!ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, turn.getPatient().getId()));
+            turn.setNeedsDoctorRating(!ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId));
+        }
         TurnAssigned saved = turnRepo.save(turn);
+        turnViewService.refresh(saved.getId());
 
         // Check if this is a health certificate turn and process external API call
         if ("HEALTH CERTIFICATE".equalsIgnoreCase(turn.getMotive()) && turn.getPatient() != null) {
@@ -359,14 +396,10 @@ public class TurnAssignedService {
         }
 
         if (turn.getDoctor() != null && turn.getPatient() != null) {
-            badgeEvaluationTrigger.evaluateAfterTurnCompletion(
-                turn.getDoctor().getId(), 
-                turn.getPatient().getId()
-            );
-            badgeEvaluationTrigger.evaluateAfterTurnCompletion(
-                turn.getPatient().getId(),
-                turn.getDoctor().getId()
-            );
+            boolean firstTurnTogether = turnRepo.countByDoctor_IdAndPatient_IdAndStatus(
+                turn.getDoctor().getId(), turn.getPatient().getId(), "COMPLETED") == 1;
+            badgeEvaluationTrigger.evaluateAfterTurnCompletion(turn.getDoctor().getId(), firstTurnTogether);
+            badgeEvaluationTrigger.evaluateAfterTurnCompletion(turn.getPatient().getId(), firstTurnTogether);
         }
 
         return mapper.toDTO(saved);
@@ -386,6 +419,7 @@ public class TurnAssignedService {
 
         turn.setStatus("NO_SHOW");
         TurnAssigned saved = turnRepo.save(turn);
+        turnViewService.refresh(saved.getId());
 
         if (turn.getDoctor() != null) {
             badgeEvaluationTrigger.evaluateAfterTurnNoShow(turn.getDoctor().getId());
@@ -403,7 +437,8 @@ public class TurnAssignedService {
             throw new RuntimeException("Score must be between 1 and 5");
         }
 
-        TurnAssigned turn = turnRepo.findById(turnId)
+        // Doctor and patient are fetched with the turn; the rater is almost always one of them
+        TurnAssigned turn = turnRepo.findWithPartiesById(turnId)
                 .orElseThrow(() -> new RuntimeException("Turn not found"));
 
         if ("CANCELED".equals(turn.getStatus()) || "CANCELLED".equals(turn.getStatus())) {
@@ -415,8 +450,11 @@ public class TurnAssignedService {
             throw new RuntimeException("Can only rate turns that have already occurred");
         }
 
-        User rater = userRepo.findById(raterId)
-                .orElseThrow(() -> new RuntimeException("Rater not found"));
+        User rater = partyOf(turn, raterId);
+        if (rater == null) {
+            rater = userRepo.findById(raterId)
+                    .orElseThrow(() -> new RuntimeException("Rater not found"));
+        }
 
         User ratedUser;
         if ("PATIENT".equals(rater.getRole())) {
@@ -438,120 +476,116 @@ public class TurnAssignedService {
         } else {
             throw new RuntimeException("Only patients and doctors can rate");
         }
-        boolean exists = ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, raterId);
-        if (exists) {
+        // A pending flag is only set when the party had not rated yet, so the lookup can be skipped
+        boolean pending = "PATIENT".equals(rater.getRole()) ? turn.isNeedsPatientRating() : turn.isNeedsDoctorRating();
+        if (!pending && ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, raterId)) {
             throw new RuntimeException("You have already rated this turn");
         }
 
-        String normalizedSubcategory = null;
-        if (subcategories != null && !subcategories.isEmpty()) {
-            if (subcategories.size() > 3) {
-                throw new RuntimeException("You can select up to 3 subcategories");
-            }
-
-            String role = rater.getRole() == null ? "" : rater.getRole().trim();
-            java.util.List<String> normalized = new java.util.ArrayList<>();
-
-            for (String s : subcategories) {
-                if (s == null || s.trim().isEmpty()) continue;
-                if ("PATIENT".equalsIgnoreCase(role)) {
-                    com.medibook.api.dto.Rating.RatingSubcategory cat = com.medibook.api.dto.Rating.RatingSubcategory.fromString(s);
-                    if (cat == null) {
-                        String patientAllowed = com.medibook.api.dto.Rating.RatingSubcategory.allowedValues();
-                        String doctorAllowed = com.medibook.api.dto.Rating.RatingSubcategoryPatient.allowedValues();
-                        log.warn("Invalid subcategory '{}' for rater role '{}'. Patient allowed: {}. Doctor allowed: {}", s, role, patientAllowed, doctorAllowed);
-                        throw new RuntimeException("Invalid subcategory. Allowed for patients: " + patientAllowed + "; Allowed for doctors: " + doctorAllowed);
-                    }
-                    normalized.add(cat.getLabel());
-                } else if ("DOCTOR".equalsIgnoreCase(role)) {
-                    com.medibook.api.dto.Rating.RatingSubcategoryPatient cat = com.medibook.api.dto.Rating.RatingSubcategoryPatient.fromString(s);
-                    if (cat == null) {
-                        String doctorAllowed = com.medibook.api.dto.Rating.RatingSubcategoryPatient.allowedValues();
-                        log.warn("Invalid subcategory '{}' for rater role '{}'. Doctor allowed: {}", s, role, doctorAllowed);
-                        throw new RuntimeException("Invalid subcategory. Allowed for doctors: " + doctorAllowed);
-                    }
-                    normalized.add(cat.getLabel());
-                } else {
-                    com.medibook.api.dto.Rating.RatingSubcategory cat = com.medibook.api.dto.Rating.RatingSubcategory.fromString(s);
-                    if (cat == null) {
-                        String patientAllowed = com.medibook.api.dto.Rating.RatingSubcategory.allowedValues();
-                        String doctorAllowed = com.medibook.api.dto.Rating.RatingSubcategoryPatient.allowedValues();
-                        throw new RuntimeException("Invalid subcategory. Allowed for patients: " + patientAllowed + "; Allowed for doctors: " + doctorAllowed);
-                    }
-                    normalized.add(cat.getLabel());
-                }
-            }
-
-     
-            java.util.List<String> unique = new java.util.ArrayList<>();
-            for (String v : normalized) if (!unique.contains(v)) unique.add(v);
-
-            normalizedSubcategory = String.join(", ", unique);
-        }
+        java.util.Set<String> subcategoryCodes = normalizeSubcategories(subcategories, rater.getRole());
 
         Rating rating = Rating.builder()
                 .turnAssigned(turn)
                 .rater(rater)
                 .rated(ratedUser)
                 .score(score)
-                .subcategory(normalizedSubcategory)
+                .subcategoryCodes(subcategoryCodes)
                 .createdAt(OffsetDateTime.now())
                 .build();
 
+        if ("PATIENT".equals(rater.getRole())) {
+            turn.setNeedsPatientRating(false);
+        } else {
+            turn.setNeedsDoctorRating(false);
+        }
+
         Rating saved = ratingRepo.save(rating);
+        turnViewService.refresh(turnId);
+        ratingRollupService.recordRating(rating);
 
-        
-        try {
-            Double avg = ratingRepo.findAverageScoreByRatedId(ratedUser.getId());
-           
-            ratedUser.setScore(avg == null ? null : Math.round(avg * 100.0) / 100.0);
-            userRepo.save(ratedUser);
-        } catch (Exception e) {
-            log.warn("Failed to update average score for user {}: {}", ratedUser.getId(), e.getMessage());
+        // ratedUser is managed, so the new scores are flushed with the transaction
+        ratingAggregateService.recordRating(ratedUser, score);
+        if ("PATIENT".equals(ratedUser.getRole())) {
+            turnViewService.refreshPatientScore(ratedUser.getId(), ratedUser.getScore());
         }
 
         if ("DOCTOR".equals(ratedUser.getRole())) {
-            Integer communicationScore = extractCommunicationScore(score, normalizedSubcategory);
-            Integer empathyScore = extractEmpathyScore(score, normalizedSubcategory);
-            Integer punctualityScore = extractPunctualityScore(score, normalizedSubcategory);
-            
-            badgeEvaluationTrigger.evaluateAfterRating(ratedUser.getId(), communicationScore, empathyScore, punctualityScore);
-        } else if ("PATIENT".equals(ratedUser.getRole())) {
-            badgeEvaluationTrigger.evaluateAfterRatingReceived(ratedUser.getId());
-        }
-
-        if ("PATIENT".equals(rater.getRole())) {
-            badgeEvaluationTrigger.evaluateAfterRatingGiven(rater.getId());
-        }
+            doctorLeaderboardService.update(ratedUser);
+        }
+
+        eventPublisher.publishEvent(new RatingAddedEvent(
+                saved.getId(),
+                turnId,
+                rater.getId(),
+                rater.getRole(),
+                ratedUser.getId(),
+                ratedUser.getRole(),
+                score,
+                java.util.Set.copyOf(subcategoryCodes),
+                extractCommunicationScore(score, subcategoryCodes),
+                extractEmpathyScore(score, subcategoryCodes),
+                extractPunctualityScore(score, subcategoryCodes),
+                rating.getCreatedAt()));
 
         return saved;
     }
-    
-    private Integer extractCommunicationScore(Integer score, String subcategories) {
-        if (subcategories == null || score == null) return null;
-        // Labels exactas de RatingSubcategory relacionadas con comunicación
-        if (subcategories.contains("Explica claramente") || subcategories.contains("Escucha al paciente")) {
-            return score;
+
+    private static User partyOf(TurnAssigned turn, UUID userId) {
+        if (turn.getPatient() != null && turn.getPatient().getId().equals(userId)) {
+            return turn.getPatient();
+        }
+        if (turn.getDoctor() != null && turn.getDoctor().getId().equals(userId)) {
+            return turn.getDoctor();
         }
         return null;
     }
-    
-    private Integer extractEmpathyScore(Integer score, String subcategories) {
-        if (subcategories == null || score == null) return null;
-        // Labels exactas de RatingSubcategory relacionadas con empatía
-        if (subcategories.contains("Demuestra empatía") || subcategories.contains("Genera confianza") || subcategories.contains("Excelente atención")) {
-            return score;
+
+    private java.util.Set<String> normalizeSubcategories(java.util.List<String> subcategories, String raterRole) {
+        java.util.Set<String> subcategoryCodes = new java.util.LinkedHashSet<>();
+        if (subcategories == null || subcategories.isEmpty()) {
+            return subcategoryCodes;
         }
-        return null;
+        if (subcategories.size() > 3) {
+            throw new RuntimeException("You can select up to 3 subcategories");
+        }
+
+        String role = raterRole == null ? "" : raterRole.trim();
+        for (String s : subcategories) {
+            if (s == null || s.trim().isEmpty()) continue;
+            if ("DOCTOR".equalsIgnoreCase(role)) {
+                com.medibook.api.dto.Rating.RatingSubcategoryPatient cat = com.medibook.api.dto.Rating.RatingSubcategoryPatient.fromString(s);
+                if (cat == null) {
+                    String doctorAllowed = com.medibook.api.dto.Rating.RatingSubcategoryPatient.allowedValues();
+                    log.warn("Invalid subcategory '{}' for rater role '{}'. Doctor allowed: {}", s, role, doctorAllowed);
+                    throw new RuntimeException("Invalid subcategory. Allowed for doctors: " + doctorAllowed);
+                }
+                subcategoryCodes.add(cat.name());
+            } else {
+                com.medibook.api.dto.Rating.RatingSubcategory cat = com.medibook.api.dto.Rating.RatingSubcategory.fromString(s);
+                if (cat == null) {
+                    String patientAllowed = com.medibook.api.dto.Rating.RatingSubcategory.allowedValues();
+                    String doctorAllowed = com.medibook.api.dto.Rating.RatingSubcategoryPatient.allowedValues();
+                    if ("PATIENT".equalsIgnoreCase(role)) {
+                        log.warn("Invalid subcategory '{}' for rater role '{}'. Patient allowed: {}. Doctor allowed: {}", s, role, patientAllowed, doctorAllowed);
+                    }
+                    throw new RuntimeException("Invalid subcategory. Allowed for patients: " + patientAllowed + "; Allowed for doctors: " + doctorAllowed);
+                }
+                subcategoryCodes.add(cat.name());
+            }
+        }
+        return subcategoryCodes;
+    }
+
+    private Integer extractCommunicationScore(Integer score, java.util.Set<String> subcategoryCodes) {
+        return RatingSubcategoryCodes.containsAny(subcategoryCodes, RatingSubcategoryCodes.COMMUNICATION) ? score : null;
     }
     
-    private Integer extractPunctualityScore(Integer score, String subcategories) {
-        if (subcategories == null || score == null) return null;
-        // Labels exactas de RatingSubcategory relacionadas con puntualidad
-        if (subcategories.contains("Respeta horarios") || subcategories.contains("Tiempo de espera aceptable")) {
-            return score;
-        }
-        return null;
+    private Integer extractEmpathyScore(Integer score, java.util.Set<String> subcategoryCodes) {
+        return RatingSubcategoryCodes.containsAny(subcategoryCodes, RatingSubcategoryCodes.EMPATHY) ? score : null;
+    }
+    
+    private Integer extractPunctualityScore(Integer score, java.util.Set<String> subcategoryCodes) {
+        return RatingSubcategoryCodes.containsAny(subcategoryCodes, RatingSubcategoryCodes.PUNCTUALITY) ? score : null;
     }
 
     public boolean hasHealthCertificateWithinLastYear(String email) {
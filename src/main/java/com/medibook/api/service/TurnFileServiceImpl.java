@@ -24,6 +24,7 @@ public class TurnFileServiceImpl implements TurnFileService {
     private final TurnAssignedRepository turnAssignedRepository;
     private final NotificationService notificationService;
     private final BadgeEvaluationTriggerService badgeEvaluationTrigger;
+    private final TurnViewService turnViewService;
     
     private static final String BUCKET_NAME = "archivosTurnos";
 
@@ -48,6 +49,7 @@ public class TurnFileServiceImpl implements TurnFileService {
                             .build();
                     
                     turnFileRepository.save(turnFile);
+                    turnViewService.refresh(turnId);
                     log.info("File upload completed successfully for turnId: {}", turnId);
                     
                     try {
@@ -112,6 +114,7 @@ public class TurnFileServiceImpl implements TurnFileService {
                             .then(Mono.fromRunnable(() -> {
                                 log.info("File {} deleted successfully from Supabase, now deleting from database", fileName);
                                 turnFileRepository.deleteByTurnId(turnId);
+                                turnViewService.refresh(turnId);
                                 log.info("Database record deleted successfully for turnId: {}", turnId);
                             }));
                 })
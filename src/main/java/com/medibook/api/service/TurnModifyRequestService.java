@@ -34,6 +34,8 @@ public class TurnModifyRequestService {
     private final NotificationService notificationService;
     private final EmailService emailService;
     private final BadgeEvaluationTriggerService badgeEvaluationTrigger;
+    private final TurnViewService turnViewService;
+    private final UserChangeVersionService changeVersionService;
     
     @Transactional
     public TurnModifyRequestResponseDTO createModifyRequest(TurnModifyRequestDTO dto, User patient) {
@@ -72,6 +74,7 @@ public class TurnModifyRequestService {
                 .build();
         
         TurnModifyRequest savedRequest = turnModifyRequestRepository.save(modifyRequest);
+        changeVersionService.bump(patient.getId(), turn.getDoctor().getId());
                 
         return mapper.toResponseDTO(savedRequest);
     }
@@ -117,12 +120,14 @@ public class TurnModifyRequestService {
         
         turn.setScheduledAt(request.getRequestedScheduledAt());
         turnAssignedRepository.save(turn);
+        turnViewService.refresh(turn.getId());
 
         String newDate = DateTimeUtils.formatDate(turn.getScheduledAt());
         String newTime = DateTimeUtils.formatTime(turn.getScheduledAt());
 
         request.setStatus("APPROVED");
         TurnModifyRequest savedRequest = turnModifyRequestRepository.save(request);
+        changeVersionService.bump(request.getPatient().getId(), request.getDoctor().getId());
 
         try {
             
@@ -205,6 +210,7 @@ public class TurnModifyRequestService {
 
         request.setStatus("REJECTED");
         TurnModifyRequest savedRequest = turnModifyRequestRepository.save(request);
+        changeVersionService.bump(request.getPatient().getId(), request.getDoctor().getId());
 
         String currentDate = DateTimeUtils.formatDate(request.getCurrentScheduledAt());
         String currentTime = DateTimeUtils.formatTime(request.getCurrentScheduledAt());
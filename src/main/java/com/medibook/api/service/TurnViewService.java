@@ -0,0 +1,104 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Turn.TurnListProjection;
+import com.medibook.api.entity.SyncTombstone;
+import com.medibook.api.entity.TurnView;
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.SyncTombstoneRepository;
+import com.medibook.api.repository.TurnAssignedRepository;
+import com.medibook.api.repository.TurnViewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the turn_views read model. Writers call into this service after changing a turn,
+ * its ratings or its file so that turn listings can be served from a single table.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class TurnViewService {
+
+    private final TurnAssignedRepository turnRepo;
+    private final TurnViewRepository turnViewRepository;
+    private final UserChangeVersionService changeVersionService;
+    private final SyncTombstoneRepository tombstoneRepository;
+
+    public void refresh(UUID turnId) {
+        Optional<TurnListProjection> row = turnRepo.findListById(turnId);
+        if (row.isEmpty()) {
+            turnViewRepository.findById(turnId).ifPresent(this::delete);
+            return;
+        }
+        turnViewRepository.save(toView(row.get()));
+        changeVersionService.bump(row.get().doctorId(), row.get().patientId());
+    }
+
+    /** Drops a view whose turn is gone and tells both parties' delta sync clients about it. */
+    private void delete(TurnView view) {
+        turnViewRepository.delete(view);
+        tombstoneRepository.saveAll(Stream.of(view.getDoctorId(), view.getPatientId())
+                .filter(Objects::nonNull)
+                .map(userId -> SyncTombstone.builder()
+                        .userId(userId)
+                        .entityType(SyncTombstone.TURN)
+                        .entityId(view.getTurnId())
+                        .build())
+                .toList());
+        changeVersionService.bump(view.getDoctorId(), view.getPatientId());
+    }
+
+    public void refreshPatientScore(UUID patientId, Double score) {
+        int updated = turnViewRepository.updatePatientScore(patientId, score, OffsetDateTime.now());
+        log.debug("Updated patient score on {} turn views for patient {}", updated, patientId);
+        if (updated > 0) {
+            changeVersionService.bumpDoctorsOfPatient(patientId);
+        }
+    }
+
+    public void refreshDisplayNames(User user) {
+        String fullName = user.getName() + " " + user.getSurname();
+        if ("DOCTOR".equals(user.getRole())) {
+            String specialty = user.getDoctorProfile() != null ? user.getDoctorProfile().getSpecialty() : null;
+            if (turnViewRepository.updateDoctorDisplay(user.getId(), fullName, specialty, OffsetDateTime.now()) > 0) {
+                changeVersionService.bump(user.getId());
+                changeVersionService.bumpPatientsOfDoctor(user.getId());
+            }
+        } else if ("PATIENT".equals(user.getRole())) {
+            if (turnViewRepository.updatePatientName(user.getId(), fullName, OffsetDateTime.now()) > 0) {
+                changeVersionService.bump(user.getId());
+                changeVersionService.bumpDoctorsOfPatient(user.getId());
+            }
+        }
+    }
+
+    TurnView toView(TurnListProjection row) {
+        return TurnView.builder()
+                .turnId(row.id())
+                .doctorId(row.doctorId())
+                .doctorName(row.doctorName() + " " + row.doctorSurname())
+                .doctorSpecialty(row.doctorSpecialty())
+                .patientId(row.patientId())
+                .patientName(row.patientId() != null ? row.patientName() + " " + row.patientSurname() : null)
+                .patientScore(row.patientScore())
+                .scheduledAt(row.scheduledAt())
+                .status(row.status())
+                .motive(row.motive())
+                .fileUrl(row.fileUrl())
+                .fileName(row.fileName())
+                .uploadedAt(row.uploadedAt())
+                .needsPatientRating(row.needsPatientRating())
+                .needsDoctorRating(row.needsDoctorRating())
+                .updatedAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.medibook.api.service;
+
+import com.medibook.api.repository.UserChangeVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Tracks a per-user change version so list endpoints can answer conditional GETs
+ * without reading turns or notifications.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class UserChangeVersionService {
+
+    private final UserChangeVersionRepository versionRepository;
+
+    @Transactional(readOnly = true)
+    public long getVersion(UUID userId) {
+        return versionRepository.findVersionByUserId(userId).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public String getETag(UUID userId) {
+        return "\"" + userId + "-" + getVersion(userId) + "\"";
+    }
+
+    /** Bumps each distinct user once, in id order so concurrent bumps lock rows in the same order. */
+    public void bump(UUID... userIds) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Arrays.stream(userIds)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .forEach(userId -> versionRepository.increment(userId, now));
+    }
+
+    public void bumpDoctorsOfPatient(UUID patientId) {
+        versionRepository.incrementDoctorsOfPatient(patientId, OffsetDateTime.now());
+    }
+
+    public void bumpPatientsOfDoctor(UUID doctorId) {
+        versionRepository.incrementPatientsOfDoctor(doctorId, OffsetDateTime.now());
+    }
+}
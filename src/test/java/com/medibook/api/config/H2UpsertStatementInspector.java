@@ -0,0 +1,68 @@
+package com.medibook.api.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Lets the H2 test database run the PostgreSQL upserts of the native repository queries.
+ * H2 has no {@code ON CONFLICT (...)}, so a single-row {@code INSERT ... VALUES ... ON
+ * CONFLICT} is rewritten into the equivalent {@code MERGE} whose source is named
+ * {@code EXCLUDED}, so an update clause and the bind parameters stay as they are. Statements
+ * stay one-for-one, so statement counts still hold.
+ *
+ * <p>Hibernate inspects every statement it prepares, so the inspector also counts them per
+ * thread: unlike the session factory statistics, {@link #countStatements} leaves out the
+ * scheduled jobs running alongside a test.
+ */
+public class H2UpsertStatementInspector implements StatementInspector {
+
+    private static final Pattern UPSERT = Pattern.compile(
+            "INSERT INTO (\\w+) \\(([^)]*)\\) VALUES \\((.*)\\) ON CONFLICT \\(([^)]*)\\) DO (?:NOTHING|UPDATE SET (.*))",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final ThreadLocal<long[]> PREPARED = new ThreadLocal<>();
+
+    /** Runs the action and returns the number of statements Hibernate prepared for it on this thread. */
+    public static long countStatements(Runnable action) {
+        long[] prepared = {0};
+        PREPARED.set(prepared);
+        try {
+            action.run();
+        } finally {
+            PREPARED.remove();
+        }
+        return prepared[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long[] prepared = PREPARED.get();
+        if (prepared != null) {
+            prepared[0]++;
+        }
+        Matcher upsert = UPSERT.matcher(sql.trim());
+        if (!upsert.matches()) {
+            return sql;
+        }
+        String table = upsert.group(1);
+        String[] columns = split(upsert.group(2));
+        String on = Arrays.stream(split(upsert.group(4)))
+                .map(key -> table + "." + key + " = EXCLUDED." + key)
+                .collect(Collectors.joining(" AND "));
+        String inserted = Arrays.stream(columns)
+                .map(column -> "EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+        String update = upsert.group(5) != null ? " WHEN MATCHED THEN UPDATE SET " + upsert.group(5) : "";
+        return "MERGE INTO " + table + " USING (VALUES (" + upsert.group(3) + ")) EXCLUDED("
+                + String.join(", ", columns) + ") ON " + on + update
+                + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES (" + inserted + ")";
+    }
+
+    private static String[] split(String columns) {
+        return Arrays.stream(columns.split(",")).map(String::trim).toArray(String[]::new);
+    }
+}
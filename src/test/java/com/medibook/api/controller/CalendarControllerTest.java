@@ -0,0 +1,132 @@
+package com.medibook.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medibook.api.dto.Turn.TurnCreateRequestDTO;
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class CalendarControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String patientToken;
+    private User patient;
+    private User doctor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        patient = createUser("patient@example.com", 12345678L, "PATIENT");
+        doctor = createUser("doctor@example.com", 87654321L, "DOCTOR");
+
+        patientToken = getAuthToken(patient.getEmail(), "password123");
+    }
+
+    @Test
+    void calendarFeed_WithSignedUrl_StreamsTurnsAsICalendar() throws Exception {
+        TurnCreateRequestDTO createRequest = new TurnCreateRequestDTO();
+        createRequest.setDoctorId(doctor.getId());
+        createRequest.setPatientId(patient.getId());
+        createRequest.setScheduledAt(OffsetDateTime.now().plusDays(3));
+        createRequest.setMotive("Control, anual");
+        mockMvc.perform(post("/api/turns")
+                .header("Authorization", "Bearer " + patientToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated());
+
+        String feedUrl = feedUrl(mockMvc.perform(get("/api/calendar/feed-url")
+                .header("Authorization", "Bearer " + patientToken)));
+
+        String body = mockMvc.perform(get(feedUrl))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(body.contains("DESCRIPTION:Control\\, anual\r\n"));
+        assertTrue(body.trim().endsWith("END:VCALENDAR"));
+
+        mockMvc.perform(get("/api/calendar/feeds/" + patient.getId() + "/invalid.ics"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void resetFeedUrl_RevokesThePreviousUrl() throws Exception {
+        String oldUrl = feedUrl(mockMvc.perform(get("/api/calendar/feed-url")
+                .header("Authorization", "Bearer " + patientToken)));
+
+        String newUrl = feedUrl(mockMvc.perform(post("/api/calendar/feed-url/reset")
+                .header("Authorization", "Bearer " + patientToken)));
+
+        assertNotEquals(oldUrl, newUrl);
+        mockMvc.perform(get(oldUrl)).andExpect(status().isNotFound());
+        mockMvc.perform(get(newUrl)).andExpect(status().isOk());
+        assertEquals(newUrl, feedUrl(mockMvc.perform(get("/api/calendar/feed-url")
+                .header("Authorization", "Bearer " + patientToken))));
+    }
+
+    private String feedUrl(ResultActions result) throws Exception {
+        String response = result.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("url").asText();
+    }
+
+    private User createUser(String email, Long dni, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setDni(dni);
+        user.setPasswordHash(passwordEncoder.encode("password123"));
+        user.setName("John");
+        user.setSurname("Doe");
+        user.setPhone("1234567890");
+        user.setBirthdate(LocalDate.of(1990, 1, 1));
+        user.setGender("MALE");
+        user.setRole(role);
+        user.setStatus("ACTIVE");
+        user.setEmailVerified(true);
+        return userRepository.save(user);
+    }
+
+    private String getAuthToken(String email, String password) throws Exception {
+        String response = mockMvc.perform(post("/api/auth/signin")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+}
@@ -103,6 +103,37 @@ class TurnAssignedControllerTest {
     }
 
     // HELPER METHODS
+    @Test
+    void getMyTurns_WithMatchingETag_ReturnsNotModifiedUntilTurnsChange() throws Exception {
+        String eTag = mockMvc.perform(get("/api/turns/my-turns")
+                .header("Authorization", "Bearer " + patientToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/turns/my-turns")
+                .header("Authorization", "Bearer " + patientToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        TurnCreateRequestDTO createRequest = new TurnCreateRequestDTO();
+        createRequest.setDoctorId(doctor.getId());
+        createRequest.setPatientId(patient.getId());
+        createRequest.setScheduledAt(OffsetDateTime.now().plusDays(2));
+        mockMvc.perform(post("/api/turns")
+                .header("Authorization", "Bearer " + patientToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/turns/my-turns")
+                .header("Authorization", "Bearer " + patientToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(eTag)));
+    }
+
     private User createTestPatient() {
         User patient = new User();
         patient.setEmail("patient@example.com");
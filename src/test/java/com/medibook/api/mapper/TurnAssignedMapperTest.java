@@ -5,8 +5,8 @@ import com.medibook.api.dto.Turn.TurnResponseDTO;
 import com.medibook.api.entity.DoctorProfile;
 import com.medibook.api.entity.TurnAssigned;
 import com.medibook.api.entity.TurnFile;
+import com.medibook.api.entity.TurnView;
 import com.medibook.api.entity.User;
-import com.medibook.api.repository.RatingRepository;
 import com.medibook.api.service.TurnFileService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +23,7 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,9 +31,6 @@ class TurnAssignedMapperTest {
 
     private TurnAssignedMapper turnAssignedMapper;
     
-    @Mock
-    private RatingRepository ratingRepository;
-    
     @Mock
     private TurnFileService turnFileService;
     
@@ -48,7 +46,7 @@ class TurnAssignedMapperTest {
 
     @BeforeEach
     void setUp() {
-        turnAssignedMapper = new TurnAssignedMapper(ratingRepository, turnFileService);
+        turnAssignedMapper = new TurnAssignedMapper(turnFileService);
         
         doctorId = UUID.randomUUID();
         patientId = UUID.randomUUID();
@@ -58,9 +56,6 @@ class TurnAssignedMapperTest {
         doctorUser = createUser(doctorId, "doctor@test.com", 12345678L, "DOCTOR", "ACTIVE", "Dr. Juan", "Pérez");
         patientUser = createUser(patientId, "patient@test.com", 87654321L, "PATIENT", "ACTIVE", "María", "González");
         
-        // Default mock behavior - no ratings exist (lenient to avoid UnnecessaryStubbingException)
-        lenient().when(ratingRepository.existsByTurnAssigned_IdAndRater_Id(any(), any())).thenReturn(false);
-        
         // Default mock behavior - no files exist (lenient to avoid UnnecessaryStubbingException)
         lenient().when(turnFileService.getTurnFileInfo(any())).thenReturn(Optional.empty());
 
@@ -157,6 +152,18 @@ class TurnAssignedMapperTest {
         assertEquals("RESERVED", result.getStatus());
     }
 
+    @Test
+    void toDTO_CompletedTurn_UsesStoredPendingRatingFlags() {
+        turnAssigned.setStatus("COMPLETED");
+        turnAssigned.setNeedsPatientRating(false);
+        turnAssigned.setNeedsDoctorRating(true);
+
+        TurnResponseDTO result = turnAssignedMapper.toDTO(turnAssigned);
+
+        assertFalse(result.getNeedsPatientRating());
+        assertTrue(result.getNeedsDoctorRating());
+    }
+
     @Test
     void toDTO_EntityWithoutPatient_ReturnsDTOWithNullPatientFields() {
         turnAssigned = TurnAssigned.builder()
@@ -207,7 +214,7 @@ class TurnAssignedMapperTest {
     @Test
     void toDTO_NullEntity_ThrowsNullPointerException() {
         assertThrows(NullPointerException.class, () -> 
-                turnAssignedMapper.toDTO(null));
+                turnAssignedMapper.toDTO((TurnAssigned) null));
     }
 
     @Test
@@ -483,4 +490,40 @@ class TurnAssignedMapperTest {
         assertNull(result.getFileName());
         assertNull(result.getUploadedAt());
     }
+
+    @Test
+    void toDTO_FromTurnView_CopiesStoredColumnsWithoutLookups() {
+        Instant uploadedAt = Instant.now();
+        TurnView view = TurnView.builder()
+                .turnId(turnId)
+                .doctorId(doctorId)
+                .doctorName("Dr. Juan Pérez")
+                .doctorSpecialty("Cardiología")
+                .patientId(patientId)
+                .patientName("María González")
+                .patientScore(4.5)
+                .scheduledAt(scheduledDateTime)
+                .status("COMPLETED")
+                .motive("Control")
+                .fileUrl("https://files.test/a.pdf")
+                .fileName("a.pdf")
+                .uploadedAt(uploadedAt)
+                .needsPatientRating(true)
+                .needsDoctorRating(false)
+                .build();
+
+        TurnResponseDTO result = turnAssignedMapper.toDTO(view);
+
+        assertEquals(turnId, result.getId());
+        assertEquals("Dr. Juan Pérez", result.getDoctorName());
+        assertEquals("Cardiología", result.getDoctorSpecialty());
+        assertEquals("María González", result.getPatientName());
+        assertEquals(4.5, result.getPatientScore());
+        assertEquals("Control", result.getMotive());
+        assertTrue(result.getNeedsPatientRating());
+        assertFalse(result.getNeedsDoctorRating());
+        assertEquals("a.pdf", result.getFileName());
+        assertEquals(uploadedAt, result.getUploadedAt());
+        verifyNoInteractions(turnFileService);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medibook.api.entity.Badge;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BadgeEvaluationContextTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void activate_ExistingInactiveBadge_ReactivatesAndMarksChanged() {
+        Badge badge = badge("DOCTOR_EMPATHETIC_DOCTOR", false);
+        BadgeEvaluationContext context = context(List.of(badge));
+
+        context.activate("DOCTOR_EMPATHETIC_DOCTOR");
+
+        assertTrue(badge.getIsActive());
+        assertNotNull(badge.getLastEvaluatedAt());
+        assertTrue(context.isActive("DOCTOR_EMPATHETIC_DOCTOR"));
+        assertEquals(List.of(badge), List.copyOf(context.getChangedBadges()));
+    }
+
+    @Test
+    void activate_NewBadge_CreatesActiveBadge() {
+        BadgeEvaluationContext context = context(List.of());
+
+        context.activate("DOCTOR_EMPATHETIC_DOCTOR");
+
+        Badge created = context.getChangedBadges().iterator().next();
+        assertEquals(userId, created.getUserId());
+        assertEquals("DOCTOR_EMPATHETIC_DOCTOR", created.getBadgeType());
+        assertTrue(created.getIsActive());
+        assertNotNull(created.getEarnedAt());
+        assertTrue(context.hasBadge("DOCTOR_EMPATHETIC_DOCTOR"));
+    }
+
+    @Test
+    void deactivate_ExistingActiveBadge_DeactivatesAndMarksChanged() {
+        Badge badge = badge("DOCTOR_EMPATHETIC_DOCTOR", true);
+        BadgeEvaluationContext context = context(List.of(badge));
+
+        context.deactivate("DOCTOR_EMPATHETIC_DOCTOR");
+
+        assertFalse(badge.getIsActive());
+        assertFalse(context.isActive("DOCTOR_EMPATHETIC_DOCTOR"));
+        assertEquals(1, context.getChangedBadges().size());
+    }
+
+    @Test
+    void holderDeltas_CountStateChangesOnly() {
+        BadgeEvaluationContext context = context(List.of(badge("DOCTOR_EMPATHETIC_DOCTOR", true),
+                badge("DOCTOR_AGILE_RESPONDER", false)));
+
+        context.activate("DOCTOR_EMPATHETIC_DOCTOR");
+        context.activate("DOCTOR_AGILE_RESPONDER");
+        context.activate("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        context.create("DOCTOR_MEDICAL_LEGEND");
+        context.deactivate("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+
+        assertEquals(Map.of("DOCTOR_AGILE_RESPONDER", 1, "DOCTOR_MEDICAL_LEGEND", 1), context.getHolderDeltas());
+    }
+
+    @Test
+    void deactivate_MissingBadge_DoesNothing() {
+        BadgeEvaluationContext context = context(List.of());
+
+        context.deactivate("DOCTOR_EMPATHETIC_DOCTOR");
+
+        assertFalse(context.hasBadge("DOCTOR_EMPATHETIC_DOCTOR"));
+        assertTrue(context.getChangedBadges().isEmpty());
+    }
+
+    @Test
+    void create_ValidInputs_AddsBadgeForUser() {
+        BadgeEvaluationContext context = context(List.of());
+
+        context.create("PATIENT_MEDIBOOK_WELCOME");
+
+        Badge created = context.getChangedBadges().iterator().next();
+        assertEquals(userId, created.getUserId());
+        assertEquals("PATIENT_MEDIBOOK_WELCOME", created.getBadgeType());
+        assertTrue(context.hasBadge("PATIENT_MEDIBOOK_WELCOME"));
+    }
+
+    @Test
+    void countActiveExcluding_IgnoresInactiveAndExcludedBadge() {
+        BadgeEvaluationContext context = context(List.of(
+                badge("DOCTOR_MEDICAL_LEGEND", true),
+                badge("DOCTOR_EMPATHETIC_DOCTOR", true),
+                badge("DOCTOR_AGILE_RESPONDER", false)));
+
+        assertEquals(1, context.countActiveExcluding("DOCTOR_MEDICAL_LEGEND"));
+    }
+
+    @Test
+    void counterAndValues_AreAppliedToStatisticsAndTrackedSeparately() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("total_turns_completed", 4);
+        BadgeEvaluationContext context = new BadgeEvaluationContext(userId, "DOCTOR", statistics,
+                objectMapper.createObjectNode(), List.of());
+
+        context.addCounter("total_turns_completed", 2);
+        ObjectNode values = objectMapper.createObjectNode();
+        values.put("total_avg_rating", 4.5);
+        context.putStatistics(values);
+
+        assertEquals(6, context.getStatistics().get("total_turns_completed").asInt());
+        assertEquals(4.5, context.getStatistics().get("total_avg_rating").asDouble());
+        assertEquals(2, context.getCounterDeltas().get("total_turns_completed").asInt());
+        assertEquals(4, statistics.get("total_turns_completed").asInt());
+        assertTrue(context.hasStatisticChanges());
+    }
+
+    @Test
+    void isProgressChanged_OnlyWhenValueDiffers() {
+        ObjectNode progress = objectMapper.createObjectNode();
+        progress.put("DOCTOR_EMPATHETIC_DOCTOR", 50.0);
+        BadgeEvaluationContext context = new BadgeEvaluationContext(userId, "DOCTOR", objectMapper.createObjectNode(),
+                progress, List.of());
+
+        context.setProgress("DOCTOR_EMPATHETIC_DOCTOR", 50.0);
+        assertFalse(context.isProgressChanged());
+
+        context.setProgress("DOCTOR_EMPATHETIC_DOCTOR", 60.0);
+        assertTrue(context.isProgressChanged());
+    }
+
+    private BadgeEvaluationContext context(List<Badge> badges) {
+        return new BadgeEvaluationContext(userId, "DOCTOR", objectMapper.createObjectNode(),
+                objectMapper.createObjectNode(), badges);
+    }
+
+    private Badge badge(String badgeType, boolean active) {
+        return Badge.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .badgeType(badgeType)
+                .isActive(active)
+                .earnedAt(OffsetDateTime.now().minusDays(1))
+                .build();
+    }
+}
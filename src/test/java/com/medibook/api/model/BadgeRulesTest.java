@@ -0,0 +1,54 @@
+package com.medibook.api.model;
+
+import com.medibook.api.entity.BadgeType.BadgeCategory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BadgeRulesTest {
+
+    @Test
+    void dependentsOf_TurnCounter_ReturnsOnlyRulesReadingIt() {
+        List<String> dependents = types(BadgeRules.dependentsOf("PATIENT", Set.of("total_turns_completed")));
+
+        assertEquals(List.of("PATIENT_MEDIBOOK_WELCOME", "PATIENT_COMMITTED_PATIENT",
+                "PATIENT_CONSTANT_PATIENT", "PATIENT_EXCELLENCE_MODEL"), dependents);
+    }
+
+    @Test
+    void dependentsOf_BadgeType_ReturnsBadgesBuiltOnIt() {
+        assertEquals(List.of("DOCTOR_MEDICAL_LEGEND"), types(BadgeRules.dependentsOf("DOCTOR_EMPATHETIC_DOCTOR")));
+        assertTrue(BadgeRules.dependentsOf("unknown_counter").isEmpty());
+    }
+
+    @Test
+    void forRole_ListsBaseBadgesBeforeTheBadgesThatDependOnThem() {
+        List<String> doctor = types(BadgeRules.forRole("DOCTOR"));
+
+        assertEquals("DOCTOR_MEDICAL_LEGEND", doctor.get(doctor.size() - 1));
+        assertTrue(doctor.stream().allMatch(type -> type.startsWith("DOCTOR_")));
+    }
+
+    @Test
+    void counterRule_DerivesCriteriaProgressAndEarnedStateFromTheThreshold() {
+        BadgeRule rule = BadgeRules.get("DOCTOR_AGILE_RESPONDER");
+
+        assertEquals(BadgeCategory.PROFESSIONALISM, rule.getCategory());
+        assertEquals(8, rule.getThreshold());
+        assertEquals("Responde a 8+ solicitudes de modificación", rule.getCriteria());
+        assertEquals(50.0, BadgeRule.percent(4, rule.getThreshold()));
+        assertEquals(100.0, BadgeRule.percent(20, rule.getThreshold()));
+    }
+
+    @Test
+    void get_UnknownBadge_ReturnsNull() {
+        assertNull(BadgeRules.get("DOCTOR_UNKNOWN"));
+    }
+
+    private static List<String> types(List<BadgeRule> rules) {
+        return rules.stream().map(BadgeRule::getBadgeType).toList();
+    }
+}
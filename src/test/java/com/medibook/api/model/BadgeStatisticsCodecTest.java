@@ -0,0 +1,60 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BadgeStatisticsCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void read_NullOrNonObject_ReturnsZeroedModel() {
+        assertEquals(new BadgeStatisticsData(), BadgeStatisticsCodec.read(null));
+        assertEquals(new BadgeStatisticsData(), BadgeStatisticsCodec.read(objectMapper.nullNode()));
+        assertEquals(new BadgeStatisticsData(), BadgeStatisticsCodec.read(objectMapper.createArrayNode()));
+    }
+
+    @Test
+    void read_AcceptsIntegralAndFloatingValuesForEitherType() {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("total_turns_completed", 7.0);
+        node.put("total_avg_rating", 4);
+
+        BadgeStatisticsData data = BadgeStatisticsCodec.read(node);
+
+        assertEquals(7, data.getTotalTurnsCompleted());
+        assertEquals(4.0, data.getTotalAvgRating());
+    }
+
+    @Test
+    void write_RoundTripsAndKeepsUnknownKeys() {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("legacy_counter", 3);
+        BadgeStatisticsData data = new BadgeStatisticsData();
+        data.setTotalTurnsCompleted(12);
+        data.setRatingsGiven(4);
+        data.setAvgRatingGiven(4.25);
+
+        ObjectNode written = BadgeStatisticsCodec.write(data, node);
+
+        assertSame(node, written);
+        assertEquals(3, written.get("legacy_counter").asInt());
+        assertEquals(12, written.get("total_turns_completed").asInt());
+        assertEquals(data, BadgeStatisticsCodec.read(written));
+    }
+
+    @Test
+    void raiseProgress_NeverLowersStoredProgress() {
+        ObjectNode progress = objectMapper.createObjectNode();
+
+        BadgeStatisticsCodec.raiseProgress(progress, "PATIENT_SMART_PLANNER", 40.0);
+        BadgeStatisticsCodec.raiseProgress(progress, "PATIENT_SMART_PLANNER", 20.0);
+        BadgeStatisticsCodec.raiseProgress(progress, "PATIENT_ALWAYS_PREPARED", 100.0);
+
+        assertEquals(40.0, progress.get("PATIENT_SMART_PLANNER").asDouble());
+        assertEquals(1, BadgeStatisticsCodec.countCompleted(progress));
+    }
+}
@@ -0,0 +1,81 @@
+package com.medibook.api.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingWindowTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void add_PastCapacity_OverwritesOldestScore() {
+        RatingWindow window = new RatingWindow(3);
+        window.add(5);
+        window.add(5);
+        window.add(5);
+        window.add(2);
+
+        ObjectNode values = objectMapper.createObjectNode();
+        window.write(values);
+
+        assertEquals(3, window.size());
+        assertEquals(2, window.countAtLeast(4));
+        assertEquals("255", values.get(BadgeStatisticsCodec.RECENT_PATIENT_SCORES).asText());
+        assertEquals(1, values.get(BadgeStatisticsCodec.RECENT_PATIENT_SCORES_HEAD).asInt());
+    }
+
+    @Test
+    void read_WrittenWindow_ContinuesWhereItLeftOff() {
+        RatingWindow window = new RatingWindow(3);
+        window.add(1);
+        window.add(2);
+        ObjectNode values = objectMapper.createObjectNode();
+        window.write(values);
+
+        RatingWindow read = RatingWindow.read(values, 3);
+        read.add(3);
+        read.add(4);
+        read.write(values);
+
+        assertEquals("423", values.get(BadgeStatisticsCodec.RECENT_PATIENT_SCORES).asText());
+        assertEquals(1, values.get(BadgeStatisticsCodec.RECENT_PATIENT_SCORES_HEAD).asInt());
+    }
+
+    @Test
+    void read_MissingOrMalformed_ReturnsEmptyWindow() {
+        assertEquals(0, RatingWindow.read(objectMapper.createObjectNode(), 35).size());
+        assertEquals(0, RatingWindow.read(objectMapper.createObjectNode()
+                .put(BadgeStatisticsCodec.RECENT_PATIENT_SCORES, "5x5"), 35).size());
+    }
+
+    @Test
+    void read_StoredWithLargerCapacity_KeepsLatestScores() {
+        ObjectNode values = objectMapper.createObjectNode()
+                .put(BadgeStatisticsCodec.RECENT_PATIENT_SCORES, "3412")
+                .put(BadgeStatisticsCodec.RECENT_PATIENT_SCORES_HEAD, 2);
+
+        RatingWindow window = RatingWindow.read(values, 3);
+        window.write(values);
+
+        assertEquals("423", values.get(BadgeStatisticsCodec.RECENT_PATIENT_SCORES).asText());
+        assertEquals(1, window.countAtLeast(4));
+    }
+
+    @Test
+    void of_MatchesAddingEveryScoreInOrder() {
+        RatingWindow added = new RatingWindow(3);
+        for (int score : new int[]{1, 2, 3, 4, 5, 1, 2}) {
+            added.add(score);
+        }
+        ObjectNode expected = objectMapper.createObjectNode();
+        added.write(expected);
+
+        ObjectNode rebuilt = objectMapper.createObjectNode();
+        RatingWindow.of(3, 7, "512").write(rebuilt);
+
+        assertEquals(expected, rebuilt);
+    }
+}
@@ -0,0 +1,127 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.Rating;
+import com.medibook.api.entity.RatingAggregate;
+import com.medibook.api.entity.TurnAssigned;
+import com.medibook.api.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class RatingAggregateRepositoryTest {
+
+    @Autowired
+    private RatingAggregateRepository aggregateRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User doctor;
+    private User patient;
+
+    @BeforeEach
+    void setUp() {
+        doctor = createUser("doctor@test.com", 87654321L, "DOCTOR");
+        patient = createUser("patient@test.com", 12345678L, "PATIENT");
+        entityManager.persist(doctor);
+        entityManager.persist(patient);
+        entityManager.flush();
+    }
+
+    @Test
+    void insertThenIncrement_UpdatesCountSumAndHistogram() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        assertEquals(0, aggregateRepository.increment(doctor.getId(), 4, 1.5, now));
+        assertEquals(1, aggregateRepository.insertEmptyIfMissing(doctor.getId(), now));
+        assertEquals(0, aggregateRepository.insertEmptyIfMissing(doctor.getId(), now));
+        assertEquals(1, aggregateRepository.increment(doctor.getId(), 4, 1.5, now));
+        assertEquals(1, aggregateRepository.increment(doctor.getId(), 5, 2.0, now));
+        entityManager.clear();
+
+        RatingAggregate aggregate = aggregateRepository.findById(doctor.getId()).orElseThrow();
+        assertEquals(2, aggregate.getRatingCount());
+        assertEquals(9, aggregate.getScoreSum());
+        assertEquals(1, aggregate.getScore4Count());
+        assertEquals(1, aggregate.getScore5Count());
+        assertEquals(0, aggregate.getScore1Count());
+        assertEquals(3.5, aggregate.getDecayedWeight(), 1e-9);
+        assertEquals(16.0, aggregate.getDecayedScoreSum(), 1e-9);
+
+        RatingAggregateRepository.Totals totals = aggregateRepository.findTotalsByUserId(doctor.getId()).orElseThrow();
+        assertEquals(9, totals.getScoreSum());
+        assertEquals(2, totals.getRatingCount());
+        assertEquals(3.5, totals.getDecayedWeight(), 1e-9);
+    }
+
+    @Test
+    void rebuildFromRatings_RecomputesAggregatesAndUserScores() {
+        persistRating(patient, doctor, 5);
+        persistRating(patient, doctor, 4);
+        persistRating(patient, doctor, 4);
+        persistRating(doctor, patient, 3);
+        entityManager.flush();
+
+        aggregateRepository.deleteAllRows();
+        // Epoch = now and a huge half-life make every weight 1, so decayed totals equal the plain ones
+        OffsetDateTime now = OffsetDateTime.now();
+        assertEquals(2, aggregateRepository.insertFromRatings(now, now.toEpochSecond(), 1e12));
+        aggregateRepository.updateUserScoresFromAggregates();
+        aggregateRepository.updateUserWeightedScoresFromAggregates(3.5, 5.0, 1.0);
+        entityManager.clear();
+
+        RatingAggregate doctorAggregate = aggregateRepository.findById(doctor.getId()).orElseThrow();
+        assertEquals(3, doctorAggregate.getRatingCount());
+        assertEquals(13, doctorAggregate.getScoreSum());
+        assertEquals(2, doctorAggregate.getScore4Count());
+        assertEquals(3.0, doctorAggregate.getDecayedWeight(), 0.001);
+        assertEquals(13.0, doctorAggregate.getDecayedScoreSum(), 0.001);
+        // (5 * 3.5 + 13) / (5 + 3)
+        assertEquals(3.81, entityManager.find(User.class, doctor.getId()).getWeightedScore(), 0.001);
+        assertEquals(4.33, entityManager.find(User.class, doctor.getId()).getScore(), 0.001);
+        assertEquals(3.0, entityManager.find(User.class, patient.getId()).getScore(), 0.001);
+    }
+
+    private void persistRating(User rater, User rated, int score) {
+        TurnAssigned turn = TurnAssigned.builder()
+                .doctor(doctor)
+                .patient(patient)
+                .scheduledAt(OffsetDateTime.now().minusDays(1))
+                .status("COMPLETED")
+                .build();
+        entityManager.persist(turn);
+        entityManager.persist(Rating.builder()
+                .turnAssigned(turn)
+                .rater(rater)
+                .rated(rated)
+                .score(score)
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
+
+    private User createUser(String email, Long dni, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setDni(dni);
+        user.setPasswordHash("hashedPassword");
+        user.setName("Test");
+        user.setSurname("User");
+        user.setPhone("123456789");
+        user.setBirthdate(LocalDate.of(1990, 1, 1));
+        user.setGender("MALE");
+        user.setEmailVerified(true);
+        user.setStatus("ACTIVE");
+        user.setRole(role);
+        return user;
+    }
+}
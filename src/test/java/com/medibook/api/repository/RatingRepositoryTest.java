@@ -0,0 +1,141 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.Rating;
+import com.medibook.api.entity.TurnAssigned;
+import com.medibook.api.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class RatingRepositoryTest {
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User doctor;
+    private User patient;
+
+    @BeforeEach
+    void setUp() {
+        doctor = createUser("doctor@test.com", 87654321L, "DOCTOR");
+        patient = createUser("patient@test.com", 12345678L, "PATIENT");
+        entityManager.persist(doctor);
+        entityManager.persist(patient);
+
+        persistRating(patient, doctor, Set.of("EXPLICA_CLARAMENTE", "GENERA_CONFIANZA"));
+        persistRating(patient, doctor, Set.of("EXPLICA_CLARAMENTE"));
+        persistRating(patient, doctor, Set.of());
+        persistRating(doctor, patient, Set.of("LLEGA_PUNTUAL", "RESPETUOSO"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void countSubcategoriesByRatedId_CountsEachLabelIndividually() {
+        Map<String, Long> counts = ratingRepository.countSubcategoriesByRatedId(doctor.getId(), "PATIENT").stream()
+                .collect(Collectors.toMap(RatingRepository.SubcategoryCount::getSubcategory,
+                        RatingRepository.SubcategoryCount::getCount));
+
+        assertEquals(Map.of("EXPLICA_CLARAMENTE", 2L, "GENERA_CONFIANZA", 1L), counts);
+    }
+
+    @Test
+    void countSubcategoriesByRatedIds_GroupsByRatedUserAndCode() {
+        List<Object[]> rows = ratingRepository.countSubcategoriesByRatedIds(List.of(patient.getId()), "DOCTOR");
+
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            assertEquals(patient.getId(), row[0]);
+            assertTrue(Set.of("LLEGA_PUNTUAL", "RESPETUOSO").contains((String) row[1]));
+            assertEquals(1L, row[2]);
+        }
+    }
+
+    @Test
+    void findByRatedId_LoadsSubcategoryCodes() {
+        List<Rating> ratings = ratingRepository.findByRatedId(patient.getId());
+
+        assertEquals(1, ratings.size());
+        assertEquals(Set.of("LLEGA_PUNTUAL", "RESPETUOSO"), ratings.get(0).getSubcategoryCodes());
+    }
+
+    @Test
+    void findAdminPage_FiltersByRaterRoleInSqlAndPaginates() {
+        Page<Rating> firstPage = ratingRepository.findAdminPage("PATIENT", PageRequest.of(0, 2));
+
+        assertEquals(3, firstPage.getTotalElements());
+        assertEquals(2, firstPage.getTotalPages());
+        assertEquals(2, firstPage.getContent().size());
+        assertTrue(firstPage.getContent().stream().allMatch(r -> "PATIENT".equals(r.getRater().getRole())));
+
+        Page<Rating> all = ratingRepository.findAdminPage(null, PageRequest.of(0, 10));
+        assertEquals(4, all.getTotalElements());
+    }
+
+    @Test
+    void streamForAdmin_ReturnsRatingsWithUsersLoaded() {
+        try (Stream<Rating> ratings = ratingRepository.streamForAdmin("DOCTOR")) {
+            List<Rating> list = ratings.toList();
+            assertEquals(1, list.size());
+            assertTrue(Hibernate.isInitialized(list.get(0).getRater()));
+            assertTrue(Hibernate.isInitialized(list.get(0).getRated()));
+        }
+    }
+
+    private void persistRating(User rater, User rated, Set<String> codes) {
+        TurnAssigned turn = TurnAssigned.builder()
+                .doctor(doctor)
+                .patient(patient)
+                .scheduledAt(OffsetDateTime.now().minusDays(1))
+                .status("COMPLETED")
+                .build();
+        entityManager.persist(turn);
+        entityManager.persist(Rating.builder()
+                .turnAssigned(turn)
+                .rater(rater)
+                .rated(rated)
+                .score(5)
+                .subcategoryCodes(new HashSet<>(codes))
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
+
+    private User createUser(String email, Long dni, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setDni(dni);
+        user.setPasswordHash("hashedPassword");
+        user.setName("Test");
+        user.setSurname("User");
+        user.setPhone("123456789");
+        user.setBirthdate(LocalDate.of(1990, 1, 1));
+        user.setGender("MALE");
+        user.setEmailVerified(true);
+        user.setStatus("ACTIVE");
+        user.setRole(role);
+        return user;
+    }
+}
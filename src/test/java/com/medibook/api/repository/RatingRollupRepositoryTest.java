@@ -0,0 +1,80 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.RatingDailyRollup;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class RatingRollupRepositoryTest {
+
+    @Autowired
+    private RatingRollupRepository rollupRepository;
+
+    @Autowired
+    private RatingSubcategoryRollupRepository subcategoryRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LocalDate day = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void incrementAndSum_AggregatesAcrossDaysPerRoleAndSpecialty() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertEquals(0, rollupRepository.increment(day, "PATIENT", "Cardiología", 5, now));
+        assertEquals(1, rollupRepository.insertEmptyIfMissing(day, "PATIENT", "Cardiología", now));
+        assertEquals(0, rollupRepository.insertEmptyIfMissing(day, "PATIENT", "Cardiología", now));
+        rollupRepository.increment(day, "PATIENT", "Cardiología", 5, now);
+        rollupRepository.increment(day, "PATIENT", "Cardiología", 3, now);
+        rollupRepository.insertEmptyIfMissing(day.plusDays(1), "PATIENT", "Cardiología", now);
+        rollupRepository.increment(day.plusDays(1), "PATIENT", "Cardiología", 4, now);
+        entityManager.clear();
+
+        RatingDailyRollup rollup = rollupRepository.findById(new RatingDailyRollup.Key(day, "PATIENT", "Cardiología"))
+                .orElseThrow();
+        assertEquals(2, rollup.getRatingCount());
+        assertEquals(8, rollup.getScoreSum());
+        assertEquals(1, rollup.getScore3Count());
+        assertEquals(1, rollup.getScore5Count());
+
+        List<Object[]> rows = rollupRepository.sumByRoleAndSpecialty(day, day.plusDays(1));
+        assertEquals(1, rows.size());
+        assertEquals(3L, ((Number) rows.get(0)[2]).longValue());
+        assertEquals(12L, ((Number) rows.get(0)[3]).longValue());
+
+        assertEquals(2L, ((Number) rollupRepository.sumByRoleAndSpecialty(day, day).get(0)[2]).longValue());
+    }
+
+    @Test
+    void subcategoryRollups_SumPerRoleAndSpecialtyOrderedByCount() {
+        subcategoryRollupRepository.insertEmptyIfMissing(day, "PATIENT", "", "EXPLICA_CLARAMENTE");
+        subcategoryRollupRepository.increment(day, "PATIENT", "", "EXPLICA_CLARAMENTE");
+        subcategoryRollupRepository.insertEmptyIfMissing(day, "PATIENT", "", "LLEGA_PUNTUAL");
+        subcategoryRollupRepository.increment(day, "PATIENT", "", "LLEGA_PUNTUAL");
+        subcategoryRollupRepository.increment(day, "PATIENT", "", "LLEGA_PUNTUAL");
+        subcategoryRollupRepository.insertEmptyIfMissing(day.plusDays(1), "PATIENT", "", "EXPLICA_CLARAMENTE");
+        subcategoryRollupRepository.increment(day.plusDays(1), "PATIENT", "", "EXPLICA_CLARAMENTE");
+        subcategoryRollupRepository.increment(day.plusDays(1), "PATIENT", "", "EXPLICA_CLARAMENTE");
+        subcategoryRollupRepository.insertEmptyIfMissing(day, "DOCTOR", "", "LLEGA_PUNTUAL");
+        subcategoryRollupRepository.increment(day, "DOCTOR", "", "LLEGA_PUNTUAL");
+
+        List<Object[]> rows = subcategoryRollupRepository.sumByRoleSpecialtyAndSubcategory(day, day.plusDays(1));
+
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[]{"DOCTOR", "", "LLEGA_PUNTUAL"}, Arrays.copyOf(rows.get(0), 3));
+        assertArrayEquals(new Object[]{"PATIENT", "", "EXPLICA_CLARAMENTE"}, Arrays.copyOf(rows.get(1), 3));
+        assertEquals(3L, ((Number) rows.get(1)[3]).longValue());
+        assertEquals(2L, ((Number) rows.get(2)[3]).longValue());
+    }
+}
@@ -1,6 +1,8 @@
 package com.medibook.api.repository;
 
+import com.medibook.api.dto.Turn.TurnListProjection;
 import com.medibook.api.entity.TurnAssigned;
+import com.medibook.api.entity.TurnFile;
 import com.medibook.api.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -390,4 +392,58 @@ class TurnAssignedRepositoryTest {
         assertNotNull(found);
         assertEquals("Consulta por dolor de cabeza", found.getMotive());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findListById_TurnWithoutPendingRatingsOrFile_ReturnsEmptyJoins() {
+        TurnListProjection row = turnAssignedRepository.findListById(turnAssigned1.getId()).orElse(null);
+
+        assertNotNull(row);
+        assertEquals(doctorUser.getId(), row.doctorId());
+        assertEquals(patientUser.getId(), row.patientId());
+        assertEquals("SCHEDULED", row.status());
+        assertFalse(row.needsPatientRating());
+        assertFalse(row.needsDoctorRating());
+        assertNull(row.fileUrl());
+    }
+
+    @Test
+    void findListById_NonExistingTurn_ReturnsEmpty() {
+        assertTrue(turnAssignedRepository.findListById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void findListById_ReadsPendingFlagsAndJoinsFile() {
+        TurnAssigned completed = createTurnAssigned(doctorUser, patientUser,
+            OffsetDateTime.now().minusDays(1), "COMPLETED");
+        completed.setNeedsDoctorRating(true);
+        completed = entityManager.persistAndFlush(completed);
+
+        TurnFile file = TurnFile.builder()
+            .turnId(completed.getId())
+            .fileUrl("https://files.test/report.pdf")
+            .fileName("report.pdf")
+            .build();
+        entityManager.persistAndFlush(file);
+        entityManager.clear();
+
+        TurnListProjection row = turnAssignedRepository.findListById(completed.getId()).orElse(null);
+
+        assertNotNull(row);
+        assertEquals(completed.getId(), row.id());
+        assertFalse(row.needsPatientRating());
+        assertTrue(row.needsDoctorRating());
+        assertEquals("report.pdf", row.fileName());
+        assertNotNull(row.uploadedAt());
+    }
+
+    @Test
+    void countByDoctor_IdAndPatient_IdAndStatus_CountsOnlyThatPairAndStatus() {
+        entityManager.persist(createTurnAssigned(doctorUser, patientUser, OffsetDateTime.now().minusDays(2), "COMPLETED"));
+        entityManager.persist(createTurnAssigned(doctorUser, patientUser, OffsetDateTime.now().minusDays(1), "COMPLETED"));
+        entityManager.persist(createTurnAssigned(doctorUser, otherPatientUser, OffsetDateTime.now().minusDays(1), "COMPLETED"));
+        entityManager.flush();
+
+        assertEquals(2, turnAssignedRepository.countByDoctor_IdAndPatient_IdAndStatus(
+            doctorUser.getId(), patientUser.getId(), "COMPLETED"));
+    }
+}
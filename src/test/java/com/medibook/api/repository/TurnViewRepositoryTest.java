@@ -0,0 +1,67 @@
+package com.medibook.api.repository;
+
+import com.medibook.api.entity.TurnView;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TurnViewRepositoryTest {
+
+    @Autowired
+    private TurnViewRepository turnViewRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final UUID doctorId = UUID.randomUUID();
+    private final UUID patientId = UUID.randomUUID();
+    private final OffsetDateTime created = OffsetDateTime.now().minusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(TurnView.builder()
+                .turnId(UUID.randomUUID())
+                .doctorId(doctorId)
+                .doctorName("Hugo Martinez")
+                .patientId(patientId)
+                .patientName("Juan Perez")
+                .scheduledAt(created)
+                .status("SCHEDULED")
+                .updatedAt(created)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void bulkUpdates_MoveUpdatedAt() {
+        OffsetDateTime since = created.plusHours(1);
+
+        assertEquals(1, turnViewRepository.updatePatientScore(patientId, 4.5, since.plusMinutes(1)));
+        assertUpdatedSince(since);
+
+        since = since.plusHours(1);
+        assertEquals(1, turnViewRepository.updatePatientName(patientId, "Juan Pérez", since.plusMinutes(1)));
+        assertUpdatedSince(since);
+
+        since = since.plusHours(1);
+        assertEquals(1, turnViewRepository.updateDoctorDisplay(doctorId, "Hugo Martínez", "Pediatría", since.plusMinutes(1)));
+        assertUpdatedSince(since);
+    }
+
+    private void assertUpdatedSince(OffsetDateTime since) {
+        entityManager.clear();
+        TurnView view = turnViewRepository.findByPatientIdOrderByScheduledAtDesc(patientId).get(0);
+        assertTrue(view.getUpdatedAt().isAfter(since));
+    }
+}
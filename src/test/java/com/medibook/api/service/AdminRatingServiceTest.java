@@ -0,0 +1,127 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Admin.AdminRatingsPageDTO;
+import com.medibook.api.dto.Admin.AdminRatingsResponseDTO;
+import com.medibook.api.dto.Rating.RatingResponseDTO;
+import com.medibook.api.entity.Rating;
+import com.medibook.api.entity.User;
+import com.medibook.api.mapper.RatingMapper;
+import com.medibook.api.repository.RatingRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.StringWriter;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminRatingServiceTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private RatingMapper ratingMapper;
+
+    @Mock
+    private RatingRollupService ratingRollupService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private AdminRatingService adminRatingService;
+
+    @Test
+    void getRatingsPage_NormalizesRoleAndMapsPage() {
+        Rating rating = rating("PATIENT");
+        RatingResponseDTO dto = RatingResponseDTO.builder().id(rating.getId()).build();
+        when(ratingRepository.findAdminPage("PATIENT", PageRequest.of(1, 10)))
+                .thenReturn(new PageImpl<>(List.of(rating), PageRequest.of(1, 10), 11));
+        when(ratingMapper.toDTO(rating)).thenReturn(dto);
+
+        AdminRatingsPageDTO page = adminRatingService.getRatingsPage(" patient ", 1, 10);
+
+        assertEquals(List.of(dto), page.getRatings());
+        assertEquals(1, page.getPage());
+        assertEquals(11, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertEquals("PATIENT", page.getRaterRole());
+    }
+
+    @Test
+    void getRatingsPage_InvalidArguments_ThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> adminRatingService.getRatingsPage("ADMIN", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> adminRatingService.getRatingsPage(null, -1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminRatingService.getRatingsPage(null, 0, AdminRatingService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(ratingRepository);
+    }
+
+    @Test
+    void getAllRatings_SplitsByRaterRoleInSinglePass() {
+        Rating byPatient = rating("PATIENT");
+        Rating byDoctor = rating("DOCTOR");
+        AdminRatingsResponseDTO.RatingStatsDTO stats = AdminRatingsResponseDTO.RatingStatsDTO.builder().totalRatings(2).build();
+        when(ratingRepository.findAllOrderByCreatedAtDesc()).thenReturn(List.of(byPatient, byDoctor));
+        when(ratingRollupService.getStats(null, null)).thenReturn(stats);
+        when(ratingMapper.toDTO(any(Rating.class)))
+                .thenAnswer(inv -> RatingResponseDTO.builder().id(((Rating) inv.getArgument(0)).getId()).build());
+
+        AdminRatingsResponseDTO response = adminRatingService.getAllRatings();
+
+        assertEquals(2, response.getAllRatings().size());
+        assertEquals(byPatient.getId(), response.getPatientRatings().get(0).getId());
+        assertEquals(byDoctor.getId(), response.getDoctorRatings().get(0).getId());
+        assertSame(stats, response.getStats());
+        verify(ratingMapper, times(2)).toDTO(any(Rating.class));
+    }
+
+    @Test
+    void exportCsv_WritesHeaderAndEscapedRows() throws Exception {
+        Rating rating = rating("PATIENT");
+        when(ratingRepository.streamForAdmin(null)).thenReturn(Stream.of(rating));
+        when(ratingMapper.toDTO(rating)).thenReturn(RatingResponseDTO.builder()
+                .id(rating.getId())
+                .raterName("Juan \"JP\" Perez")
+                .ratedName("Ana, Gomez")
+                .score(5)
+                .subcategories(List.of("Explica claramente", "Genera confianza"))
+                .createdAt(rating.getCreatedAt())
+                .build());
+        StringWriter writer = new StringWriter();
+
+        adminRatingService.exportCsv(null, writer);
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,created_at,"));
+        assertTrue(lines[1].contains(",PATIENT,\"Juan \"\"JP\"\" Perez\","));
+        assertTrue(lines[1].contains(",\"Ana, Gomez\","));
+        assertTrue(lines[1].endsWith(",5,Explica claramente|Genera confianza"));
+    }
+
+    private Rating rating(String raterRole) {
+        User rater = new User();
+        rater.setId(UUID.randomUUID());
+        rater.setRole(raterRole);
+        return Rating.builder()
+                .id(UUID.randomUUID())
+                .rater(rater)
+                .score(5)
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.medibook.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medibook.api.entity.Badge;
+import com.medibook.api.entity.BadgeStatistics;
+import com.medibook.api.model.BadgeRules;
+import com.medibook.api.model.BadgeTrigger;
+import com.medibook.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BadgeEvaluationServiceTest {
+
+    @Mock
+    private BadgeRepository badgeRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BadgeStatisticsRepository statisticsRepository;
+
+    @Mock
+    private TurnAssignedRepository turnAssignedRepository;
+
+    @Mock
+    private DoctorProfileRepository doctorProfileRepository;
+
+    @Mock
+    private BadgeProgressService badgeProgressService;
+
+    @Mock
+    private BadgeHolderCountRepository holderCountRepository;
+
+    private BadgeEvaluationService evaluationService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        BadgeService badgeService = new BadgeService(badgeRepository, userRepository, statisticsRepository,
+                doctorProfileRepository, badgeProgressService, holderCountRepository);
+        BadgeStatisticsUpdateService statisticsUpdateService = new BadgeStatisticsUpdateService(turnAssignedRepository);
+        evaluationService = new BadgeEvaluationService(badgeService, statisticsUpdateService);
+    }
+
+    @Test
+    void evaluate_PatientTurnAndFiles_LoadsOnceAndWritesOnce() throws Exception {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("total_turns_completed", 4);
+        statistics.put("files_uploaded", 9);
+        stubStatistics(statistics, objectMapper.createObjectNode());
+        Badge welcome = badge("PATIENT_MEDIBOOK_WELCOME", true);
+        when(badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)).thenReturn(List.of(welcome));
+        when(turnAssignedRepository.findMaxCompletedTurnsWithSameDoctor(userId)).thenReturn(2L);
+
+        evaluationService.evaluate(userId, "PATIENT", Set.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.FILE_UPLOADED),
+                Map.of("total_turns_completed", 1, "files_uploaded", 1), List.of());
+
+        verify(statisticsRepository, times(1)).lockByUserId(userId);
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verifyNoInteractions(userRepository);
+
+        ArgumentCaptor<String> deltas = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> values = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> progress = ArgumentCaptor.forClass(String.class);
+        verify(statisticsRepository, times(1)).applyStatisticsAndProgress(eq(userId), deltas.capture(), values.capture(), progress.capture());
+        assertEquals(1, objectMapper.readTree(deltas.getValue()).get("total_turns_completed").asInt());
+        assertEquals(1, objectMapper.readTree(deltas.getValue()).get("files_uploaded").asInt());
+        assertEquals(2, objectMapper.readTree(values.getValue()).get("turns_with_same_doctor").asInt());
+        assertEquals(10, objectMapper.readTree(values.getValue()).get("last_10_turns_files_uploaded_count").asInt());
+        assertEquals(100.0, objectMapper.readTree(progress.getValue()).get("PATIENT_COMMITTED_PATIENT").asDouble());
+        assertEquals(100.0, objectMapper.readTree(progress.getValue()).get("PATIENT_ALWAYS_PREPARED").asDouble());
+
+        ArgumentCaptor<Collection<Badge>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(badgeRepository, times(1)).saveAll(saved.capture());
+        assertTrue(saved.getValue().stream().anyMatch(b -> "PATIENT_COMMITTED_PATIENT".equals(b.getBadgeType()) && b.getIsActive()));
+        assertTrue(saved.getValue().stream().anyMatch(b -> "PATIENT_ALWAYS_PREPARED".equals(b.getBadgeType()) && b.getIsActive()));
+        assertFalse(saved.getValue().contains(welcome), "an already active badge is not written again");
+
+        verify(statisticsRepository, never()).applyStatistics(any(), anyString(), anyString());
+        verify(statisticsRepository, never()).mergeProgress(any(), anyString());
+        verify(badgeRepository, never()).save(any());
+        verify(badgeRepository, never()).findByUser_IdAndBadgeType(any(), anyString());
+    }
+
+    @Test
+    void evaluate_DoctorAllBadges_UsesLoadedBadgesForMedicalLegend() throws Exception {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("total_turns_completed", 10);
+        statistics.put("total_communication_count", 25);
+        statistics.put("total_empathy_count", 25);
+        statistics.put("total_punctuality_count", 20);
+        stubStatistics(statistics, objectMapper.createObjectNode());
+        List<Badge> badges = new ArrayList<>();
+        for (String badgeType : BadgeRules.MEDICAL_LEGEND_REQUIRED_BADGES) {
+            badges.add(badge(badgeType, true));
+        }
+        when(badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)).thenReturn(badges);
+
+        evaluationService.evaluate(userId, "DOCTOR", Set.of(BadgeTrigger.ALL_BADGES), Map.of(), List.of());
+
+        ArgumentCaptor<String> progress = ArgumentCaptor.forClass(String.class);
+        verify(statisticsRepository, times(1)).applyStatisticsAndProgress(eq(userId), eq("{}"), eq("{}"), progress.capture());
+        assertEquals(100.0, objectMapper.readTree(progress.getValue()).get("DOCTOR_MEDICAL_LEGEND").asDouble());
+        verify(badgeRepository, never()).existsByUser_IdAndBadgeTypeAndIsActive(any(), anyString(), anyBoolean());
+        verify(badgeRepository, times(1)).saveAll(anyCollection());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void evaluate_NothingChanged_WritesNothing() {
+        ObjectNode progress = objectMapper.createObjectNode();
+        progress.put("DOCTOR_ALWAYS_AVAILABLE", 0.0);
+        stubStatistics(objectMapper.createObjectNode(), progress);
+        when(doctorProfileRepository.findByUserId(userId)).thenReturn(Optional.empty());
+
+        evaluationService.evaluate(userId, "DOCTOR", Set.of(BadgeTrigger.AVAILABILITY_CONFIGURED), Map.of(), List.of());
+
+        verify(statisticsRepository, never()).applyStatisticsAndProgress(any(), anyString(), anyString(), anyString());
+        verify(badgeRepository, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void evaluate_BadgesAlreadyInEvaluatedState_WritesNothing() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("total_turns_completed", 5);
+        ObjectNode progress = objectMapper.createObjectNode();
+        progress.put("PATIENT_MEDIBOOK_WELCOME", 100.0);
+        progress.put("PATIENT_COMMITTED_PATIENT", 100.0);
+        progress.put("PATIENT_CONSTANT_PATIENT", 5.0 / 15 * 100);
+        progress.put("PATIENT_EXCELLENCE_MODEL", 5.0 / 25 * 100);
+        for (String badgeType : List.of("PATIENT_CONTINUOUS_FOLLOWUP", "PATIENT_EXEMPLARY_PUNCTUALITY",
+                "PATIENT_SMART_PLANNER", "PATIENT_EXCELLENT_COLLABORATOR", "PATIENT_ALWAYS_PREPARED",
+                "PATIENT_RESPONSIBLE_EVALUATOR")) {
+            progress.put(badgeType, 0.0);
+        }
+        stubStatistics(statistics, progress);
+        Badge welcome = badge("PATIENT_MEDIBOOK_WELCOME", true);
+        Badge committed = badge("PATIENT_COMMITTED_PATIENT", true);
+        Badge constant = badge("PATIENT_CONSTANT_PATIENT", false);
+        OffsetDateTime evaluatedAt = welcome.getLastEvaluatedAt();
+        when(badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)).thenReturn(List.of(welcome, committed, constant));
+
+        evaluationService.evaluate(userId, "PATIENT", Set.of(BadgeTrigger.ALL_BADGES), Map.of(), List.of());
+
+        verify(badgeRepository, never()).saveAll(anyCollection());
+        verify(statisticsRepository, never()).applyStatisticsAndProgress(any(), anyString(), anyString(), anyString());
+        assertSame(evaluatedAt, welcome.getLastEvaluatedAt());
+    }
+
+    @Test
+    void evaluate_WriteFails_Propagates() {
+        stubStatistics(objectMapper.createObjectNode(), objectMapper.createObjectNode());
+        when(statisticsRepository.applyStatisticsAndProgress(eq(userId), anyString(), anyString(), anyString()))
+                .thenThrow(new RuntimeException("Database error"));
+
+        assertThrows(RuntimeException.class, () -> evaluationService.evaluate(userId, "DOCTOR",
+                Set.of(BadgeTrigger.MODIFY_REQUEST_HANDLED), Map.of("total_requests_handled", 1), List.of()));
+    }
+
+    private void stubStatistics(ObjectNode statistics, ObjectNode progress) {
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(BadgeStatistics.builder()
+                .userId(userId)
+                .statistics(statistics)
+                .progress(progress)
+                .build()));
+    }
+
+    private Badge badge(String badgeType, boolean active) {
+        return Badge.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .badgeType(badgeType)
+                .isActive(active)
+                .earnedAt(OffsetDateTime.now())
+                .lastEvaluatedAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -1,39 +1,71 @@
 package com.medibook.api.service;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.medibook.api.entity.BadgeEvent;
 import com.medibook.api.entity.User;
+import com.medibook.api.event.RatingAddedEvent;
+import com.medibook.api.model.BadgeTrigger;
+import com.medibook.api.model.PendingBadgeWork;
+import com.medibook.api.repository.BadgeEventRepository;
 import com.medibook.api.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BadgeEvaluationTriggerServiceTest {
 
     @Mock
-    private BadgeService badgeService;
+    private BadgeEvaluationService evaluationService;
 
     @Mock
-    private BadgeStatisticsUpdateService statisticsUpdateService;
+    private UserRepository userRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private BadgeEventRepository eventRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private BadgeMaintenanceLock maintenanceLock;
 
-    @InjectMocks
     private BadgeEvaluationTriggerService triggerService;
 
+    private final List<BadgeEvent> stored = new ArrayList<>();
+
     private UUID doctorId;
     private UUID patientId;
     private User doctor;
+    private User patient;
 
     @BeforeEach
     void setUp() {
@@ -45,328 +77,368 @@ class BadgeEvaluationTriggerServiceTest {
         doctor.setSurname("Doctor");
         doctor.setRole("DOCTOR");
         doctor.setStatus("ACTIVE");
+        patient = new User();
+        patient.setId(patientId);
+        patient.setRole("PATIENT");
+
+        triggerService = new BadgeEvaluationTriggerService(evaluationService, userRepository, eventRepository,
+                transactionTemplate, maintenanceLock);
+        lenient().when(maintenanceLock.tryRunShared(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return true;
+        });
+        lenient().when(eventRepository.save(any(BadgeEvent.class))).thenAnswer(invocation -> {
+            BadgeEvent event = invocation.getArgument(0);
+            event.setId((long) stored.size() + 1);
+            stored.add(event);
+            return event;
+        });
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(eventRepository.lockNextBatch(anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            List<BadgeEvent> batch = stored.stream().filter(event -> event.getProcessedAt() == null)
+                    .limit(invocation.<Integer>getArgument(0)).toList();
+            batch.forEach(event -> event.setProcessedAt(OffsetDateTime.now()));
+            return batch;
+        });
     }
 
     @Test
-    void evaluateAfterRating_ValidDoctor_UpdatesStatisticsAndEvaluatesBadges() {
-        Integer communicationScore = 4;
-        Integer empathyScore = 5;
-        Integer punctualityScore = 4;
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-
-        triggerService.evaluateAfterRating(doctorId, communicationScore, empathyScore, punctualityScore);
-
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterRatingAddedSync(doctorId, communicationScore, empathyScore, punctualityScore);
-        verify(statisticsUpdateService).updateProgressAfterRatingSync(doctorId);
-        verify(badgeService).evaluateRatingRelatedBadges(doctorId);
+    void triggers_AppendOneEventPerChangeWithoutEvaluating() {
+        triggerService.evaluateAfterTurnCompletion(doctorId, true);
+        triggerService.onRatingAdded(ratingEvent(patientId, "PATIENT", doctorId, "DOCTOR", 4, 5, 4));
+
+        assertEquals(3, stored.size());
+        assertNull(stored.get(0).getRole());
+        assertEquals(1, stored.get(0).getDeltas().path("TURN_COMPLETED").path("total_turns_completed").asInt());
+        assertEquals("DOCTOR", stored.get(1).getRole());
+        assertEquals(1, stored.get(1).getDeltas().path("RATING_RECEIVED").path("empathy_ratings").asInt());
+        assertEquals("PATIENT", stored.get(2).getRole());
+        verifyNoInteractions(evaluationService, userRepository, transactionTemplate);
     }
 
     @Test
-    void evaluateAfterRating_InvalidDoctorRole_HandlesGracefully() {
-        User patient = new User();
-        patient.setId(doctorId);
-        patient.setRole("PATIENT");
+    void onRatingAdded_PatientRatesDoctor_UpdatesBothPartiesWithoutLoadingUsers() {
+        triggerService.onRatingAdded(ratingEvent(patientId, "PATIENT", doctorId, "DOCTOR", 4, 5, 4));
+        triggerService.drainPendingEvaluations();
+
+        verify(evaluationService).evaluate(doctorId, "DOCTOR", Set.of(BadgeTrigger.RATING_RECEIVED),
+                Map.of("total_ratings_received", 1, "rating_score_sum", 4,
+                        "communication_ratings", 1, "empathy_ratings", 1, "punctuality_ratings", 1), List.of(4));
+        verify(evaluationService).evaluate(patientId, "PATIENT", Set.of(BadgeTrigger.RATING_GIVEN),
+                Map.of("ratings_given", 1, "ratings_given_score_sum", 4), List.of());
+        verifyNoInteractions(userRepository);
+    }
 
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(patient));
+    @Test
+    void onRatingAdded_PatientScoresForDoctor_AreStoredAndDrainedInOrder() {
+        triggerService.onRatingAdded(ratingEvent(patientId, "PATIENT", doctorId, "DOCTOR", 5, Set.of()));
+        triggerService.onRatingAdded(ratingEvent(UUID.randomUUID(), "PATIENT", doctorId, "DOCTOR", 2, Set.of()));
 
-        assertDoesNotThrow(() ->
-            triggerService.evaluateAfterRating(doctorId, 4, 5, 4));
+        assertEquals(5, stored.get(0).getDeltas().path("RATING_RECEIVED").path("patient_scores").path(0).asInt());
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(statisticsUpdateService);
-        verifyNoInteractions(badgeService);
+        verify(evaluationService).evaluate(eq(doctorId), eq("DOCTOR"), eq(Set.of(BadgeTrigger.RATING_RECEIVED)), anyMap(),
+                eq(List.of(5, 2)));
     }
 
     @Test
-    void evaluateAfterRating_DoctorNotFound_HandlesGracefully() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.empty());
-
-        assertDoesNotThrow(() ->
-            triggerService.evaluateAfterRating(doctorId, 4, 5, 4));
+    void onRatingAdded_DoctorRatesPatient_UpdatesRatedPatientOnly() {
+        triggerService.onRatingAdded(ratingEvent(doctorId, "DOCTOR", patientId, "PATIENT", null, null, null));
+        triggerService.drainPendingEvaluations();
+
+        verify(evaluationService).evaluate(patientId, "PATIENT", Set.of(BadgeTrigger.RATING_RECEIVED),
+                Map.of("total_ratings_received", 1, "ratings_received", 1, "rating_score_sum", 4), List.of());
+        verify(evaluationService, never()).evaluate(eq(doctorId), anyString(), anySet(), anyMap(), anyList());
+        verifyNoInteractions(userRepository);
+    }
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(statisticsUpdateService);
-        verifyNoInteractions(badgeService);
+    @Test
+    void onRatingAdded_HighScoreWithSubcategories_CarriesEveryRatingCounterAsDelta() {
+        triggerService.onRatingAdded(ratingEvent(doctorId, "DOCTOR", patientId, "PATIENT", 5,
+                Set.of("SIGUE_INDICACIONES", "LLEGA_PUNTUAL")));
+        triggerService.onRatingAdded(ratingEvent(UUID.randomUUID(), "DOCTOR", patientId, "PATIENT", 2,
+                Set.of("COLABORA_EN_CONSULTA")));
+        triggerService.drainPendingEvaluations();
+
+        verify(evaluationService).evaluate(patientId, "PATIENT", Set.of(BadgeTrigger.RATING_RECEIVED),
+                Map.of("total_ratings_received", 2, "ratings_received", 2, "rating_score_sum", 7,
+                        "total_low_rating_count", 1, "doctor_collaboration_mentions", 1, "doctor_punctuality_mentions", 1), List.of());
     }
 
     @Test
-    void evaluateAfterRating_ExceptionInStatisticsUpdate_HandlesGracefully() {
+    void drain_RepeatedTriggersForSameUser_RunsOneUnitOfWorkWithSummedDeltas() {
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        doThrow(new RuntimeException("Statistics update failed"))
-            .when(statisticsUpdateService).updateAfterRatingAddedSync(any(), any(), any(), any());
 
-        assertDoesNotThrow(() ->
-            triggerService.evaluateAfterRating(doctorId, 4, 5, 4));
-
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterRatingAddedSync(doctorId, 4, 5, 4);
-        verify(statisticsUpdateService, never()).updateProgressAfterRatingSync(any());
-        verify(badgeService, never()).evaluateRatingRelatedBadges(any());
+        for (int i = 0; i < 30; i++) {
+            triggerService.evaluateAfterTurnCompletion(doctorId, true);
+        }
+        triggerService.evaluateAfterMedicalHistoryDocumented(doctorId, "Control de rutina");
+        triggerService.evaluateAfterMedicalHistoryDocumented(doctorId, "Paciente estable sin cambios");
+        triggerService.drainPendingEvaluations();
+
+        verify(userRepository, times(1)).findById(doctorId);
+        verify(evaluationService, times(1)).evaluate(doctorId, "DOCTOR",
+                Set.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED, BadgeTrigger.MEDICAL_HISTORY_DOCUMENTED),
+                Map.of("total_turns_completed", 30, "total_unique_patients", 30,
+                        "documentation_count", 2, "total_documentation_words", 7), List.of());
+        assertEquals(32, processedIds().size());
     }
 
     @Test
-    void evaluateAfterTurnCompletion_ValidDoctor_UpdatesStatisticsAndEvaluatesBadges() {
+    void drain_ClaimsInBatchesUntilTheLogIsEmpty() {
+        ReflectionTestUtils.setField(triggerService, "batchSize", 2);
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
-        triggerService.evaluateAfterTurnCompletion(doctorId, patientId);
-
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterTurnCompletedSync(doctorId, patientId);
-        verify(statisticsUpdateService).updateProgressAfterTurnCompletionSync(doctorId);
-        verify(badgeService).evaluateTurnCompletionRelatedBadges(doctorId);
+        for (int i = 0; i < 3; i++) {
+            triggerService.evaluateAfterModifyRequestHandled(doctorId);
+        }
+        triggerService.drainPendingEvaluations();
+
+        verify(eventRepository, times(2)).lockNextBatch(eq(2), eq(5), any());
+        verify(eventRepository, times(2)).claim(anyCollection(), any());
+        verify(evaluationService).evaluate(doctorId, "DOCTOR", Set.of(BadgeTrigger.MODIFY_REQUEST_HANDLED),
+                Map.of("total_requests_handled", 2), List.of());
+        verify(evaluationService).evaluate(doctorId, "DOCTOR", Set.of(BadgeTrigger.MODIFY_REQUEST_HANDLED),
+                Map.of("total_requests_handled", 1), List.of());
+        assertEquals(List.of(1L, 2L, 3L), processedIds());
     }
 
     @Test
-    void evaluateAfterTurnCompletion_Success() {
-        User patient = new User();
-        patient.setId(doctorId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(patient));
+    void drain_RecomputeHoldsTheLock_ClaimsNothing() {
+        doReturn(false).when(maintenanceLock).tryRunShared(any());
+        triggerService.evaluateAfterModifyRequestHandled(doctorId);
 
-        assertDoesNotThrow(() ->
-            triggerService.evaluateAfterTurnCompletion(doctorId, patientId));
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterTurnCompletedSync(doctorId, patientId);
-        verify(statisticsUpdateService).updateProgressAfterTurnCompletionSync(doctorId);
-        verify(badgeService).evaluateTurnCompletionRelatedBadges(doctorId);
+        verify(eventRepository, never()).lockNextBatch(anyInt(), anyInt(), any());
+        verifyNoInteractions(evaluationService);
+        verify(eventRepository).countPending(5);
     }
 
     @Test
-    void evaluateAfterMedicalHistoryDocumented_ValidDoctor_UpdatesStatisticsAndEvaluatesBadges() {
-        String content = "Patient shows symptoms of diabetes";
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void takePendingBetween_FoldsTheRangesEventsAndMarksThemProcessedWithoutEvaluating() {
+        triggerService.evaluateAfterAdvanceBooking(patientId);
+        triggerService.evaluateAfterAdvanceBooking(patientId);
+        triggerService.evaluateAfterFileUploaded(patientId);
+        stored.get(2).setDeltas(JsonNodeFactory.instance.objectNode().set("RENAMED_TRIGGER",
+                JsonNodeFactory.instance.objectNode()));
+        when(eventRepository.lockPendingBetween(patientId, patientId, 5)).thenReturn(List.copyOf(stored));
 
-        triggerService.evaluateAfterMedicalHistoryDocumented(doctorId, content);
+        Map<UUID, PendingBadgeWork> pending = triggerService.takePendingBetween(patientId, patientId);
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterMedicalHistoryDocumentedSync(doctorId, content);
-        verify(statisticsUpdateService).updateProgressAfterMedicalHistorySync(doctorId);
-        verify(badgeService).evaluateDocumentationRelatedBadges(doctorId);
+        PendingBadgeWork work = pending.get(patientId);
+        assertEquals(Map.of("advance_bookings", 2), work.counterDeltas(work.triggersFor("PATIENT")));
+        assertEquals(List.of(1L, 2L), processedIds());
+        verifyNoInteractions(evaluationService, transactionTemplate, maintenanceLock);
+        verify(eventRepository, never()).markFailed(anyCollection(), anyString());
     }
 
     @Test
-    void evaluateAfterMedicalHistoryDocumented_NullContent_HandlesGracefully() {
-        String content = null;
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void drain_StopsAfterMaxBatchesAndLeavesTheRestPending() {
+        ReflectionTestUtils.setField(triggerService, "batchSize", 1);
+        ReflectionTestUtils.setField(triggerService, "maxBatchesPerRun", 2);
+        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
-        triggerService.evaluateAfterMedicalHistoryDocumented(doctorId, content);
+        for (int i = 0; i < 5; i++) {
+            triggerService.evaluateAfterFileUploaded(patientId);
+        }
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterMedicalHistoryDocumentedSync(doctorId, content);
-        verify(statisticsUpdateService).updateProgressAfterMedicalHistorySync(doctorId);
-        verify(badgeService).evaluateDocumentationRelatedBadges(doctorId);
+        verify(eventRepository, times(2)).lockNextBatch(eq(1), eq(5), any());
+        verify(evaluationService, times(2)).evaluate(patientId, "PATIENT", Set.of(BadgeTrigger.FILE_UPLOADED),
+                Map.of("files_uploaded", 1), List.of());
+        verify(eventRepository).countPending(5);
     }
 
     @Test
-    void evaluateAfterModifyRequestHandled_ValidDoctor_UpdatesStatisticsAndEvaluatesBadges() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void drain_PatientTurnCompletion_DropsDoctorOnlyCounters() {
+        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
-        triggerService.evaluateAfterModifyRequestHandled(doctorId);
+        triggerService.evaluateAfterTurnCompletion(patientId, true);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterModifyRequestHandledSync(doctorId);
-        verify(statisticsUpdateService).updateProgressAfterModifyRequestSync(doctorId);
-        verify(badgeService).evaluateResponseRelatedBadges(doctorId);
+        verify(evaluationService).evaluate(patientId, "PATIENT",
+                Set.of(BadgeTrigger.TURN_COMPLETED), Map.of("total_turns_completed", 1), List.of());
     }
 
     @Test
-    void evaluateAfterTurnCancellation_ValidDoctor_UpdatesStatisticsAndEvaluatesBadges() {
+    void drain_CancellationAndNoShow_ShareOneUnitOfWork() {
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
         triggerService.evaluateAfterTurnCancellation(doctorId);
+        triggerService.evaluateAfterTurnNoShow(doctorId);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterTurnCancelledSync(doctorId);
-        verify(statisticsUpdateService).updateProgressAfterCancellationSync(doctorId);
-        verify(badgeService).evaluateConsistencyRelatedBadges(doctorId);
+        verify(evaluationService, times(1)).evaluate(doctorId, "DOCTOR",
+                Set.of(BadgeTrigger.TURN_CANCELLED, BadgeTrigger.TURN_NO_SHOW),
+                Map.of("total_cancellations", 1, "total_turns_no_show", 1), List.of());
     }
 
     @Test
-    void evaluateAllBadges_ValidDoctor_UpdatesAllProgressAndEvaluatesBadges() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void drain_PatientBookingAndFiles_ShareOneUnitOfWork() {
+        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
-        triggerService.evaluateAllBadges(doctorId);
+        triggerService.evaluateAfterAdvanceBooking(patientId);
+        triggerService.evaluateAfterFileUploaded(patientId);
+        triggerService.evaluateAfterFileUploaded(patientId);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAllBadgeProgress(doctorId);
-        verify(badgeService).evaluateAllBadges(doctorId);
+        verify(evaluationService).evaluate(patientId, "PATIENT",
+                Set.of(BadgeTrigger.ADVANCE_BOOKING, BadgeTrigger.FILE_UPLOADED),
+                Map.of("advance_bookings", 1, "files_uploaded", 2), List.of());
     }
 
     @Test
-    void evaluateAllBadges_Success() {
-        User patient = new User();
-        patient.setId(doctorId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(patient));
+    void drain_TriggerForWrongRole_DoesNothing() {
+        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
-        assertDoesNotThrow(() -> triggerService.evaluateAllBadges(doctorId));
+        triggerService.evaluateAfterTurnNoShow(patientId);
+        triggerService.evaluateAfterAdvanceBooking(doctorId);
+        triggerService.evaluateAfterFileUploaded(doctorId);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAllBadgeProgress(doctorId);
-        verify(badgeService).evaluateAllBadges(doctorId);
+        verifyNoInteractions(evaluationService);
     }
 
     @Test
-    void evaluateAllBadges_ExceptionInProgressUpdate_HandlesGracefully() {
+    void drain_AvailabilityConfigured_EvaluatesWithoutCounterDeltas() {
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        doThrow(new RuntimeException("Progress update failed"))
-            .when(statisticsUpdateService).updateAllBadgeProgress(doctorId);
 
-        assertDoesNotThrow(() -> triggerService.evaluateAllBadges(doctorId));
+        triggerService.evaluateAfterAvailabilityConfigured(doctorId);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAllBadgeProgress(doctorId);
-        verify(badgeService, never()).evaluateAllBadges(any());
+        verify(evaluationService).evaluate(doctorId, "DOCTOR", Set.of(BadgeTrigger.AVAILABILITY_CONFIGURED), Map.of(), List.of());
     }
 
     @Test
-    void evaluateAfterTurnNoShow_ValidDoctor_UpdatesStatisticsAndEvaluatesBadges() {
+    void drain_RepeatPatientTurnCompletion_AddsNoDistinctPatient() {
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
-        triggerService.evaluateAfterTurnNoShow(doctorId);
+        triggerService.evaluateAfterTurnCompletion(doctorId, false);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterTurnNoShowSync(doctorId);
-        verify(statisticsUpdateService).updateProgressAfterCancellationSync(doctorId);
-        verify(badgeService).evaluateConsistencyRelatedBadges(doctorId);
+        verify(evaluationService).evaluate(doctorId, "DOCTOR",
+                Set.of(BadgeTrigger.TURN_COMPLETED), Map.of("total_turns_completed", 1), List.of());
     }
 
     @Test
-    void evaluateAfterTurnNoShow_InvalidDoctorRole_HandlesGracefully() {
-        User patient = new User();
-        patient.setId(doctorId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(patient));
+    void drain_AllBadges_IsCoalescedWithOtherTriggers() {
+        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
-        assertDoesNotThrow(() -> triggerService.evaluateAfterTurnNoShow(doctorId));
+        triggerService.evaluateAfterTurnCompletion(doctorId, true);
+        triggerService.evaluateAllBadges(doctorId);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(statisticsUpdateService);
-        verifyNoInteractions(badgeService);
+        verify(evaluationService, times(1)).evaluate(doctorId, "DOCTOR",
+                Set.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED, BadgeTrigger.ALL_BADGES),
+                Map.of("total_turns_completed", 1, "total_unique_patients", 1), List.of());
     }
 
     @Test
-    void evaluateAfterAdvanceBooking_ValidPatient_UpdatesStatisticsAndEvaluatesBadges() {
-        User patient = new User();
-        patient.setId(patientId);
-        patient.setRole("PATIENT");
+    void drain_ExceptionForOneUser_StillEvaluatesOthers() {
+        triggerService.onRatingAdded(ratingEvent(patientId, "PATIENT", doctorId, "DOCTOR", null, null, null));
+        lenient().doThrow(new RuntimeException("Database error"))
+                .when(evaluationService).evaluate(eq(doctorId), anyString(), anySet(), anyMap(), anyList());
 
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-
-        triggerService.evaluateAfterAdvanceBooking(patientId);
+        assertDoesNotThrow(() -> triggerService.drainPendingEvaluations());
 
-        verify(userRepository).findById(patientId);
-        verify(statisticsUpdateService).updateAfterAdvanceBookingSync(patientId);
-        verify(statisticsUpdateService).updateProgressAfterBookingSync(patientId);
-        verify(badgeService).evaluateBookingRelatedBadges(patientId);
+        verify(evaluationService).evaluate(patientId, "PATIENT", Set.of(BadgeTrigger.RATING_GIVEN),
+                Map.of("ratings_given", 1, "ratings_given_score_sum", 4), List.of());
+        verify(eventRepository).markFailed(List.of(1L), "Database error");
+        assertEquals(List.of(2L), processedIds());
     }
 
     @Test
-    void evaluateAfterAdvanceBooking_InvalidPatientRole_HandlesGracefully() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void drain_EventWithUnknownTrigger_IsMarkedFailedAndOthersStillEvaluated() {
+        triggerService.onRatingAdded(ratingEvent(patientId, "PATIENT", doctorId, "DOCTOR", null, null, null));
+        stored.get(0).setDeltas(JsonNodeFactory.instance.objectNode().set("RENAMED_TRIGGER",
+                JsonNodeFactory.instance.objectNode()));
 
-        assertDoesNotThrow(() -> triggerService.evaluateAfterAdvanceBooking(doctorId));
+        assertDoesNotThrow(() -> triggerService.drainPendingEvaluations());
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(statisticsUpdateService);
-        verifyNoInteractions(badgeService);
+        verify(eventRepository).markFailed(eq(List.of(1L)), contains("RENAMED_TRIGGER"));
+        verify(evaluationService).evaluate(patientId, "PATIENT", Set.of(BadgeTrigger.RATING_GIVEN),
+                Map.of("ratings_given", 1, "ratings_given_score_sum", 4), List.of());
+        assertEquals(List.of(2L), processedIds());
     }
 
     @Test
-    void evaluateAfterRatingGiven_ValidPatient_UpdatesStatisticsAndEvaluatesBadges() {
-        User patient = new User();
-        patient.setId(patientId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
+    void drain_MarkingFailedFails_StillEvaluatesOthers() {
+        triggerService.onRatingAdded(ratingEvent(patientId, "PATIENT", doctorId, "DOCTOR", null, null, null));
+        doThrow(new RuntimeException("Database error"))
+                .when(evaluationService).evaluate(eq(doctorId), anyString(), anySet(), anyMap(), anyList());
+        doThrow(new RuntimeException("Connection lost")).when(eventRepository).markFailed(anyCollection(), anyString());
 
-        triggerService.evaluateAfterRatingGiven(patientId);
+        assertDoesNotThrow(() -> triggerService.drainPendingEvaluations());
 
-        verify(userRepository).findById(patientId);
-        verify(statisticsUpdateService).updateAfterRatingGivenSync(patientId);
-        verify(statisticsUpdateService).updateProgressAfterRatingSync(patientId);
-        verify(badgeService).evaluateRatingRelatedBadges(patientId);
+        assertEquals(List.of(2L), processedIds());
     }
 
     @Test
-    void evaluateAfterRatingGiven_InvalidPatientRole_HandlesGracefully() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void drain_NonExistentUser_DropsPendingWork() {
+        when(userRepository.findById(doctorId)).thenReturn(Optional.empty());
 
-        assertDoesNotThrow(() -> triggerService.evaluateAfterRatingGiven(doctorId));
+        triggerService.evaluateAfterTurnCompletion(doctorId, true);
+        triggerService.drainPendingEvaluations();
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(statisticsUpdateService);
-        verifyNoInteractions(badgeService);
+        verifyNoInteractions(evaluationService);
+        assertEquals(List.of(1L), processedIds());
     }
 
     @Test
-    void evaluateAfterRatingReceived_ValidUser_UpdatesStatisticsAndEvaluatesBadges() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void drain_EmptyLog_OnlyRefreshesLag() {
+        triggerService.drainPendingEvaluations();
 
-        triggerService.evaluateAfterRatingReceived(doctorId);
-
-        verify(userRepository).findById(doctorId);
-        verify(statisticsUpdateService).updateAfterRatingReceivedSync(doctorId);
-        verify(statisticsUpdateService).updateProgressAfterRatingSync(doctorId);
-        verify(badgeService).evaluateRatingRelatedBadges(doctorId);
+        verify(eventRepository, times(1)).lockNextBatch(anyInt(), anyInt(), any());
+        verify(eventRepository, never()).claim(anyCollection(), any());
+        verify(eventRepository).findOldestPendingCreatedAt(5);
+        verifyNoInteractions(evaluationService);
     }
 
     @Test
-    void evaluateAfterFileUploaded_ValidPatient_UpdatesStatisticsAndEvaluatesBadges() {
-        User patient = new User();
-        patient.setId(patientId);
-        patient.setRole("PATIENT");
+    void replaySince_QueuesFullEvaluationsWithoutResettingEvents() {
+        OffsetDateTime since = OffsetDateTime.now().minusDays(1);
+        when(eventRepository.replaySince(eq(since), any())).thenReturn(12);
 
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-
-        triggerService.evaluateAfterFileUploaded(patientId);
-
-        verify(userRepository).findById(patientId);
-        verify(statisticsUpdateService).updateAfterFileUploadedSync(patientId);
-        verify(statisticsUpdateService).updateProgressAfterFileUploadSync(patientId);
-        verify(badgeService).evaluateFileRelatedBadges(patientId);
+        assertEquals(12, triggerService.replaySince(since));
+        verify(eventRepository, never()).requeueFailed(anyInt());
     }
 
     @Test
-    void evaluateAfterFileUploaded_InvalidPatientRole_HandlesGracefully() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+    void getLogStatus_ReportsLagOfOldestPendingEvent() {
+        when(eventRepository.findOldestPendingCreatedAt(5)).thenReturn(OffsetDateTime.now().minusMinutes(2));
+        when(eventRepository.countPending(5)).thenReturn(40L);
+        when(eventRepository.countFailed(5)).thenReturn(1L);
 
-        assertDoesNotThrow(() -> triggerService.evaluateAfterFileUploaded(doctorId));
+        var status = triggerService.getLogStatus();
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(statisticsUpdateService);
-        verifyNoInteractions(badgeService);
+        assertEquals(40L, status.getPendingEvents());
+        assertEquals(1L, status.getFailedEvents());
+        assertTrue(status.getLagSeconds() >= 119);
     }
 
-    @Test
-    void evaluateAfterAvailabilityConfigured_ValidDoctor_EvaluatesAlwaysAvailableBadge() {
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-
-        triggerService.evaluateAfterAvailabilityConfigured(doctorId);
-
-        verify(userRepository).findById(doctorId);
-        verify(badgeService).evaluateAlwaysAvailable(doctor);
+    @SuppressWarnings("unchecked")
+    private List<Long> processedIds() {
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(eventRepository, atLeast(0)).markProcessed(ids.capture(), any());
+        return ids.getAllValues().stream().flatMap(Collection::stream).sorted().toList();
     }
 
-    @Test
-    void evaluateAfterAvailabilityConfigured_InvalidDoctorRole_HandlesGracefully() {
-        User patient = new User();
-        patient.setId(doctorId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(doctorId)).thenReturn(Optional.of(patient));
-
-        assertDoesNotThrow(() -> triggerService.evaluateAfterAvailabilityConfigured(doctorId));
+    private RatingAddedEvent ratingEvent(UUID raterId, String raterRole, UUID ratedId, String ratedRole,
+                                         Integer communicationScore, Integer empathyScore, Integer punctualityScore) {
+        return new RatingAddedEvent(UUID.randomUUID(), UUID.randomUUID(), raterId, raterRole, ratedId, ratedRole,
+                4, Set.of(), communicationScore, empathyScore, punctualityScore, OffsetDateTime.now());
+    }
 
-        verify(userRepository).findById(doctorId);
-        verifyNoInteractions(badgeService);
+    private RatingAddedEvent ratingEvent(UUID raterId, String raterRole, UUID ratedId, String ratedRole,
+                                         int score, Set<String> subcategoryCodes) {
+        return new RatingAddedEvent(UUID.randomUUID(), UUID.randomUUID(), raterId, raterRole, ratedId, ratedRole,
+                score, subcategoryCodes, null, null, null, OffsetDateTime.now());
     }
-}
\ No newline at end of file
+}
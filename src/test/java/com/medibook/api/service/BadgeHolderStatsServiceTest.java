@@ -0,0 +1,74 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.BadgeHolderCount;
+import com.medibook.api.repository.BadgeHolderCountRepository;
+import com.medibook.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BadgeHolderStatsServiceTest {
+
+    @Mock
+    private BadgeHolderCountRepository holderCountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BadgeHolderStatsService holderStatsService;
+
+    @BeforeEach
+    void setUp() {
+        holderStatsService = new BadgeHolderStatsService(holderCountRepository, userRepository, transactionTemplate);
+        lenient().when(userRepository.countByRole("DOCTOR")).thenReturn(8L);
+        lenient().when(userRepository.countByRole("PATIENT")).thenReturn(0L);
+    }
+
+    @Test
+    void holderPercentage_SharesOfTheBadgeRole() {
+        when(holderCountRepository.findAll()).thenReturn(List.of(count("DOCTOR_EMPATHETIC_DOCTOR", 3L)));
+
+        assertEquals(3L, holderStatsService.holders("DOCTOR_EMPATHETIC_DOCTOR"));
+        assertEquals(37.5, holderStatsService.holderPercentage("DOCTOR_EMPATHETIC_DOCTOR"));
+        assertEquals(0.0, holderStatsService.holderPercentage("DOCTOR_AGILE_RESPONDER"));
+        assertNull(holderStatsService.holderPercentage("PATIENT_MEDIBOOK_WELCOME"));
+        assertNull(holderStatsService.holderPercentage("UNKNOWN_BADGE"));
+        verify(holderCountRepository, times(1)).findAll();
+    }
+
+    @Test
+    void reconcile_RecountsUnderTheTableLockAndServesCorrectedCounts() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(holderCountRepository.findAll()).thenReturn(
+                List.of(count("DOCTOR_EMPATHETIC_DOCTOR", 4L)),
+                List.of(count("DOCTOR_EMPATHETIC_DOCTOR", 3L)));
+
+        holderStatsService.reconcile();
+
+        var inOrder = inOrder(holderCountRepository);
+        inOrder.verify(holderCountRepository).lockForRecount();
+        inOrder.verify(holderCountRepository).recount();
+        assertEquals(3L, holderStatsService.holders("DOCTOR_EMPATHETIC_DOCTOR"));
+    }
+
+    private static BadgeHolderCount count(String badgeType, long holders) {
+        return BadgeHolderCount.builder().badgeType(badgeType).holders(holders).build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.medibook.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BadgeMaintenanceLockTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    private BadgeMaintenanceLock maintenanceLock;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+        maintenanceLock = new BadgeMaintenanceLock(new JdbcTemplate(dataSource));
+    }
+
+    @Test
+    void tryRunShared_NoRecompute_RunsTheDrain() throws Exception {
+        AtomicBoolean drained = new AtomicBoolean();
+
+        assertTrue(maintenanceLock.tryRunShared(() -> drained.set(true)));
+
+        assertTrue(drained.get());
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    void tryRunShared_DuringRecompute_SkipsTheDrain() {
+        AtomicBoolean drained = new AtomicBoolean();
+        AtomicBoolean ran = new AtomicBoolean(true);
+
+        maintenanceLock.runExclusive(() -> ran.set(CompletableFuture
+                .supplyAsync(() -> maintenanceLock.tryRunShared(() -> drained.set(true))).join()));
+
+        assertFalse(ran.get());
+        assertFalse(drained.get());
+        assertTrue(maintenanceLock.tryRunShared(() -> drained.set(true)));
+    }
+}
@@ -39,6 +39,9 @@ class BadgeProgressServiceTest {
     @Mock
     private BadgeMetadataService badgeMetadataService;
 
+    @Mock
+    private BadgeHolderStatsService holderStatsService;
+
     @InjectMocks
     private BadgeProgressService badgeProgressService;
 
@@ -172,6 +175,30 @@ class BadgeProgressServiceTest {
         assertTrue(result.stream().noneMatch(dto -> dto.getEarned()));
     }
 
+    @Test
+    void getBadgeProgress_SameStatisticsVersion_ServesCachedListWithCurrentHolders() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
+        when(badgeMetadataService.getAllDoctorBadgeMetadata()).thenReturn(createDoctorMetadata());
+        when(statisticsRepository.findVersionByUserId(userId)).thenReturn(Optional.of(3L), Optional.of(3L), Optional.of(4L));
+        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(BadgeStatistics.builder()
+                .userId(userId)
+                .progress(createDoctorProgressJson())
+                .build()));
+        when(badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)).thenReturn(List.of());
+
+        when(holderStatsService.holders("DOCTOR_EMPATHETIC_DOCTOR")).thenReturn(4L, 5L, 5L);
+
+        badgeProgressService.getBadgeProgress(userId);
+        List<BadgeProgressSummaryDTO> cached = badgeProgressService.getBadgeProgress(userId);
+        badgeProgressService.getBadgeProgress(userId);
+
+        assertEquals(5L, cached.stream()
+                .filter(dto -> "DOCTOR_EMPATHETIC_DOCTOR".equals(dto.getBadgeType()))
+                .findFirst().orElseThrow().getHolderCount());
+        verify(userRepository, times(2)).findById(userId);
+        verify(badgeRepository, times(2)).findByUser_IdOrderByEarnedAtDesc(userId);
+    }
+
     @Test
     void getPatientBadgeProgress_NoStatistics_ReturnsEmptyProgress() {
         UUID patientId = patient.getId();
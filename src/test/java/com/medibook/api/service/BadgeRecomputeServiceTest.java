@@ -0,0 +1,231 @@
+package com.medibook.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medibook.api.dto.Badge.BadgeRecomputeStatusDTO;
+import com.medibook.api.entity.Badge;
+import com.medibook.api.entity.BadgeStatistics;
+import com.medibook.api.entity.DoctorProfile;
+import com.medibook.api.model.BadgeTrigger;
+import com.medibook.api.model.PendingBadgeWork;
+import com.medibook.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BadgeRecomputeServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BadgeRepository badgeRepository;
+
+    @Mock
+    private BadgeStatisticsRepository statisticsRepository;
+
+    @Mock
+    private DoctorProfileRepository doctorProfileRepository;
+
+    @Mock
+    private BadgeProgressService badgeProgressService;
+
+    @Mock
+    private BadgeHolderCountRepository holderCountRepository;
+
+    @Mock
+    private BadgeEvaluationTriggerService triggerService;
+
+    @Mock
+    private BadgeMaintenanceLock maintenanceLock;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BadgeRecomputeService recomputeService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID doctorId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private final UUID patientId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @BeforeEach
+    void setUp() {
+        BadgeService badgeService = new BadgeService(badgeRepository, userRepository, statisticsRepository,
+                doctorProfileRepository, badgeProgressService, holderCountRepository);
+        recomputeService = new BadgeRecomputeService(userRepository, badgeRepository, statisticsRepository,
+                doctorProfileRepository, badgeService, triggerService, maintenanceLock, new TransactionTemplate(transactionManager));
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(maintenanceLock).runExclusive(any());
+    }
+
+    @Test
+    void partition_SplitsOrderedUsersIntoContiguousRanges() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            users.add(new Object[]{new UUID(0, i), "PATIENT"});
+        }
+
+        List<BadgeRecomputeService.Partition> partitions = BadgeRecomputeService.partition(users, 2);
+
+        assertEquals(3, partitions.size());
+        assertEquals(new UUID(0, 1), partitions.get(0).fromId());
+        assertEquals(new UUID(0, 2), partitions.get(0).toId());
+        assertEquals(new UUID(0, 5), partitions.get(2).fromId());
+        assertEquals(new UUID(0, 5), partitions.get(2).toId());
+        assertEquals(1, partitions.get(2).roles().size());
+    }
+
+    @Test
+    void recomputeAll_DerivesStatisticsFromSourcesAndWritesInBulk() throws Exception {
+        when(userRepository.findBadgeHolderIdsAndRoles()).thenReturn(List.of(
+                new Object[]{doctorId, "DOCTOR"}, new Object[]{patientId, "PATIENT"}));
+        when(statisticsRepository.sumDoctorTurns(doctorId, patientId)).thenReturn(rows(
+                new Object[]{doctorId, BigDecimal.valueOf(30), 26L, BigDecimal.ONE, BigDecimal.ZERO}));
+        when(statisticsRepository.sumPatientTurns(doctorId, patientId)).thenReturn(rows(
+                new Object[]{patientId, BigDecimal.valueOf(6), BigDecimal.valueOf(3)}));
+        when(statisticsRepository.sumRatingsGiven(doctorId, patientId)).thenReturn(rows(
+                new Object[]{patientId, 2L, new BigDecimal("4.5"), 9L}));
+        when(statisticsRepository.sumRatingsReceived(eq(doctorId), eq(patientId), anyCollection(), anyCollection(),
+                anyCollection(), anyCollection(), anyCollection(), eq(35))).thenReturn(rows(
+                new Object[]{doctorId, 3L, new BigDecimal("4.0"), BigDecimal.ONE, BigDecimal.valueOf(2), BigDecimal.ZERO,
+                        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 12L, BigDecimal.valueOf(4), "3545"}));
+        DoctorProfile profile = new DoctorProfile();
+        profile.setId(doctorId);
+        profile.setAvailabilitySchedule("[{\"day\": \"MONDAY\", \"enabled\": true}, {\"day\": \"TUESDAY\", \"enabled\": true}, " +
+                "{\"day\": \"WEDNESDAY\", \"enabled\": true}, {\"day\": \"THURSDAY\", \"enabled\": true}]");
+        when(doctorProfileRepository.findByIdBetween(doctorId, patientId)).thenReturn(List.of(profile));
+
+        BadgeRecomputeStatusDTO status = recomputeService.recomputeAll();
+
+        assertFalse(status.getRunning());
+        assertEquals(2, status.getTotalUsers());
+        assertEquals(2, status.getProcessedUsers());
+        assertEquals(0, status.getFailedPartitions());
+
+        ArgumentCaptor<String> rows = ArgumentCaptor.forClass(String.class);
+        verify(statisticsRepository, times(1)).upsertAll(rows.capture());
+        Map<String, JsonNode> byUser = new HashMap<>();
+        objectMapper.readTree(rows.getValue()).forEach(row -> byUser.put(row.get("user_id").asText(), row));
+
+        JsonNode doctor = byUser.get(doctorId.toString());
+        assertEquals(30, doctor.path("statistics").path("total_turns_completed").asInt());
+        assertEquals(26, doctor.path("statistics").path("total_unique_patients").asInt());
+        assertEquals(1, doctor.path("statistics").path("total_cancellations").asInt());
+        assertEquals(2, doctor.path("statistics").path("total_communication_count").asInt());
+        assertEquals(0, doctor.path("statistics").path("documentation_count").asInt());
+        assertEquals(12, doctor.path("statistics").path("rating_score_sum").asInt());
+        assertEquals("3545", doctor.path("statistics").path("recent_patient_scores").asText());
+        assertEquals(4, doctor.path("statistics").path("recent_patient_scores_head").asInt());
+        assertEquals(4, doctor.path("statistics").path("recent_patient_ratings").asInt());
+        assertEquals(3, doctor.path("statistics").path("recent_high_score_ratings").asInt());
+        assertEquals(100.0, doctor.path("progress").path("DOCTOR_RELATIONSHIP_BUILDER").asDouble());
+        assertEquals(100.0, doctor.path("progress").path("DOCTOR_ALWAYS_AVAILABLE").asDouble());
+
+        JsonNode patient = byUser.get(patientId.toString());
+        assertEquals(6, patient.path("statistics").path("total_turns_completed").asInt());
+        assertEquals(3, patient.path("statistics").path("turns_with_same_doctor").asInt());
+        assertEquals(4.5, patient.path("statistics").path("avg_rating_given").asDouble());
+        assertEquals(9, patient.path("statistics").path("ratings_given_score_sum").asInt());
+        assertFalse(patient.path("statistics").has("advance_bookings"));
+
+        ArgumentCaptor<Collection<Badge>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(badgeRepository, times(1)).saveAll(saved.capture());
+        Set<String> active = new HashSet<>();
+        saved.getValue().stream().filter(Badge::getIsActive).forEach(badge -> active.add(badge.getBadgeType()));
+        assertTrue(active.containsAll(Set.of("DOCTOR_RELATIONSHIP_BUILDER", "DOCTOR_ALWAYS_AVAILABLE",
+                "PATIENT_MEDIBOOK_WELCOME", "PATIENT_COMMITTED_PATIENT", "PATIENT_CONTINUOUS_FOLLOWUP")));
+        assertEquals(saved.getValue().size(), status.getChangedBadges());
+
+        verify(statisticsRepository, never()).lockByUserId(any());
+        verify(badgeRepository, never()).findByUser_IdOrderByEarnedAtDesc(any());
+    }
+
+    @Test
+    void recomputeAll_TakesEachRangesPendingEventsInTheSnapshotItAggregates() {
+        when(userRepository.findBadgeHolderIdsAndRoles()).thenReturn(rows(new Object[]{patientId, "PATIENT"}));
+        PendingBadgeWork work = new PendingBadgeWork()
+                .record(BadgeTrigger.ADVANCE_BOOKING, "advance_bookings", 2)
+                .record(BadgeTrigger.FILE_UPLOADED, "files_uploaded", 1);
+        when(triggerService.takePendingBetween(patientId, patientId)).thenReturn(Map.of(patientId, work));
+        when(statisticsRepository.countUploadedFiles(patientId, patientId)).thenReturn(rows(new Object[]{patientId, 4L}));
+        ObjectNode storedStatistics = objectMapper.createObjectNode().put("advance_bookings", 3).put("files_uploaded", 3);
+        when(statisticsRepository.findByUserIdBetween(patientId, patientId)).thenReturn(List.of(BadgeStatistics.builder()
+                .userId(patientId).statistics(storedStatistics).progress(objectMapper.createObjectNode()).build()));
+
+        recomputeService.recomputeAll();
+
+        InOrder order = inOrder(maintenanceLock, transactionManager, triggerService, statisticsRepository);
+        order.verify(maintenanceLock).runExclusive(any());
+        order.verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        order.verify(triggerService).takePendingBetween(patientId, patientId);
+        order.verify(statisticsRepository).sumPatientTurns(patientId, patientId);
+        ArgumentCaptor<String> rows = ArgumentCaptor.forClass(String.class);
+        order.verify(statisticsRepository).upsertAll(rows.capture());
+        order.verify(transactionManager).commit(any());
+        verify(triggerService, never()).drainPendingEvaluations();
+        assertTrue(rows.getValue().contains("\"advance_bookings\":5"), rows.getValue());
+        assertTrue(rows.getValue().contains("\"files_uploaded\":4"), rows.getValue());
+    }
+
+    @Test
+    void recomputeAll_PartitionFails_CountsFailureAndFinishes() {
+        when(userRepository.findBadgeHolderIdsAndRoles()).thenReturn(rows(new Object[]{patientId, "PATIENT"}));
+        when(statisticsRepository.sumPatientTurns(patientId, patientId)).thenThrow(new RuntimeException("Database error"));
+
+        BadgeRecomputeStatusDTO status = recomputeService.recomputeAll();
+
+        assertEquals(1, status.getFailedPartitions());
+        assertEquals(1, status.getProcessedUsers());
+        assertNotNull(status.getFinishedAt());
+        assertFalse(recomputeService.getStatus().getRunning());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void recomputeAll_NoUsers_WritesNothing() {
+        when(userRepository.findBadgeHolderIdsAndRoles()).thenReturn(List.of());
+
+        BadgeRecomputeStatusDTO status = recomputeService.recomputeAll();
+
+        assertEquals(0, status.getTotalUsers());
+        verifyNoInteractions(transactionManager, statisticsRepository, badgeRepository);
+    }
+
+    @Test
+    void reconcile_StoredStatisticsDrifted_CountsCorrectedUser() {
+        when(userRepository.findBadgeHolderIdsAndRoles()).thenReturn(rows(new Object[]{patientId, "PATIENT"}));
+        ObjectNode drifted = objectMapper.createObjectNode().put("ratings_given", 3);
+        when(statisticsRepository.findByUserIdBetween(patientId, patientId)).thenReturn(List.of(BadgeStatistics.builder()
+                .userId(patientId).statistics(drifted).progress(objectMapper.createObjectNode()).build()));
+
+        recomputeService.reconcile();
+
+        BadgeRecomputeStatusDTO status = recomputeService.getStatus();
+        assertEquals(1, status.getCorrectedUsers());
+        assertNotNull(status.getFinishedAt());
+        verify(statisticsRepository).upsertAll(contains("\"ratings_given\":0"));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+}
@@ -0,0 +1,100 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.Badge;
+import com.medibook.api.entity.User;
+import com.medibook.api.model.BadgeEvaluationContext;
+import com.medibook.api.repository.BadgeRepository;
+import com.medibook.api.repository.BadgeStatisticsRepository;
+import com.medibook.api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Two badge units of work for the same user, interleaved on separate connections. */
+@SpringBootTest
+@ActiveProfiles("test")
+class BadgeServiceLockingTest {
+
+    private static final String BADGE = "PATIENT_MEDIBOOK_WELCOME";
+
+    @Autowired
+    private BadgeService badgeService;
+
+    @Autowired
+    private BadgeRepository badgeRepository;
+
+    @Autowired
+    private BadgeStatisticsRepository statisticsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User patient;
+
+    @BeforeEach
+    void setUp() {
+        patient = new User();
+        patient.setEmail("locking-patient@example.com");
+        patient.setDni(11223344L);
+        patient.setPasswordHash("hash");
+        patient.setName("Ana");
+        patient.setSurname("Lopez");
+        patient.setPhone("1234567890");
+        patient.setBirthdate(LocalDate.of(1990, 1, 1));
+        patient.setGender("FEMALE");
+        patient.setRole("PATIENT");
+        patient.setStatus("ACTIVE");
+        patient.setEmailVerified(true);
+        patient = userRepository.save(patient);
+        transactionTemplate.executeWithoutResult(status -> statisticsRepository.insertEmptyIfMissing(patient.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        badgeRepository.deleteAll(badgeRepository.findByUser_IdOrderByEarnedAtDesc(patient.getId()));
+        statisticsRepository.deleteById(patient.getId());
+        userRepository.deleteById(patient.getId());
+    }
+
+    @Test
+    void loadContext_SecondUnitForTheSameUser_WaitsAndSeesTheFirstUnitsBadges() throws Exception {
+        CountDownLatch firstLoaded = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            BadgeEvaluationContext context = badgeService.loadContext(patient.getId(), "PATIENT");
+            assertFalse(context.isActive(BADGE));
+            firstLoaded.countDown();
+            pause();
+            badgeRepository.save(Badge.builder().userId(patient.getId()).badgeType(BADGE).build());
+        }));
+
+        assertTrue(firstLoaded.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status ->
+                badgeService.loadContext(patient.getId(), "PATIENT").isActive(BADGE)));
+
+        first.get(5, TimeUnit.SECONDS);
+        assertTrue(second.get(5, TimeUnit.SECONDS), "the second unit must not read the badges before the first commits");
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
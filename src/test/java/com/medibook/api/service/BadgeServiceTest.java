@@ -8,15 +8,21 @@ import com.medibook.api.dto.Badge.BadgesResponseDTO;
 import com.medibook.api.dto.Badge.BadgeDTO;
 import com.medibook.api.entity.*;
 import com.medibook.api.entity.BadgeType.BadgeCategory;
+import com.medibook.api.model.BadgeEvaluationContext;
+import com.medibook.api.model.BadgeRules;
+import com.medibook.api.model.BadgeTrigger;
+import com.medibook.api.model.RatingWindow;
 import com.medibook.api.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,18 +39,15 @@ class BadgeServiceTest {
     @Mock
     private BadgeStatisticsRepository statisticsRepository;
 
-    @Mock
-    private RatingRepository ratingRepository;
-
-    @Mock
-    private TurnAssignedRepository turnAssignedRepository;
-
     @Mock
     private DoctorProfileRepository doctorProfileRepository;
 
     @Mock
     private BadgeProgressService badgeProgressService;
 
+    @Mock
+    private BadgeHolderCountRepository holderCountRepository;
+
     @InjectMocks
     private BadgeService badgeService;
 
@@ -76,9 +79,6 @@ class BadgeServiceTest {
 
         patientId = patient.getId();
         doctorId = doctor.getId();
-
-        lenient().when(ratingRepository.findTop35ByRated_IdAndRater_RoleOrderByCreatedAtDesc(any(UUID.class), anyString()))
-            .thenReturn(new ArrayList<>());
     }
 
     @Test
@@ -110,6 +110,36 @@ class BadgeServiceTest {
         verifyNoInteractions(badgeRepository);
     }
 
+    @Test
+    void getUserBadges_SameStatisticsVersion_ReadsBadgesOnce() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
+        when(statisticsRepository.findVersionByUserId(userId)).thenReturn(Optional.of(7L));
+        when(badgeRepository.findByUser_IdOrderByEarnedAtDesc(userId)).thenReturn(List.of(
+                Badge.builder().userId(userId).badgeType("DOCTOR_EMPATHETIC_DOCTOR").isActive(true).build()));
+
+        badgeService.getUserBadges(userId);
+        BadgesResponseDTO cached = badgeService.getUserBadges(userId);
+
+        assertEquals(1, cached.getTotalActiveBadges());
+        assertEquals("Dr. Test Doctor", cached.getUserName());
+        verify(userRepository, times(2)).findById(userId);
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+    }
+
+    @Test
+    void saveContext_OnlyBadgeChanged_StillBumpsStatisticsVersion() {
+        BadgeEvaluationContext context = new BadgeEvaluationContext(userId, "DOCTOR", objectMapper.createObjectNode(),
+                objectMapper.createObjectNode(), List.of(Badge.builder().userId(userId)
+                        .badgeType("DOCTOR_EMPATHETIC_DOCTOR").isActive(true).build()));
+        context.deactivate("DOCTOR_EMPATHETIC_DOCTOR");
+
+        badgeService.saveContext(context);
+
+        verify(badgeRepository).saveAll(anyCollection());
+        verify(statisticsRepository).applyStatisticsAndProgress(userId, "{}", "{}", "{}");
+        verify(holderCountRepository).addHolders("{\"DOCTOR_EMPATHETIC_DOCTOR\":-1}");
+    }
+
     @Test
     void getUserBadgeProgress_UserFound_ReturnsProgressList() {
         List<BadgeProgressSummaryDTO> expectedProgress = List.of(
@@ -152,78 +182,6 @@ class BadgeServiceTest {
         verify(badgeProgressService).getBadgeProgress(userId);
     }
 
-    @Test
-    void evaluateTurnRelatedBadges_Doctor_EvaluatesDoctorBadges() {
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateTurnRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateTurnRelatedBadges_Patient_EvaluatesPatientBadges() {
-        UUID patientId = patient.getId();
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(patientId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-
-        badgeService.evaluateTurnRelatedBadges(patientId);
-
-        verify(userRepository).findById(patientId);
-    }
-
-    @Test
-    void evaluateRatingRelatedBadges_Doctor_EvaluatesDoctorRatingBadges() {
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateRatingRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateRatingRelatedBadges_Patient_EvaluatesPatientRatingBadges() {
-        UUID patientId = patient.getId();
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(patientId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-
-        badgeService.evaluateRatingRelatedBadges(patientId);
-
-        verify(userRepository).findById(patientId);
-    }
-
     @Test
     void evaluateAllBadges_Doctor_EvaluatesAllDoctorBadges() {
         BadgeStatistics stats = BadgeStatistics.builder()
@@ -231,14 +189,13 @@ class BadgeServiceTest {
                 .statistics(objectMapper.createObjectNode())
                 .progress(objectMapper.createObjectNode())
                 .build();
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
 
         badgeService.evaluateAllBadges(userId);
 
-        verify(userRepository, times(6)).findById(userId);
+        verify(userRepository, times(1)).findById(userId);
     }
 
     @Test
@@ -250,14 +207,13 @@ class BadgeServiceTest {
                 .statistics(objectMapper.createObjectNode())
                 .progress(objectMapper.createObjectNode())
                 .build();
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
 
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
         badgeService.evaluateAllBadges(patientId);
 
-        verify(userRepository, times(5)).findById(patientId);
+        verify(userRepository, times(1)).findById(patientId);
     }
 
     @Test
@@ -294,14 +250,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_MEDIBOOK_WELCOME")).thenReturn(Optional.empty());
 
-        badgeService.evaluateTurnRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_MEDIBOOK_WELCOME".equals(badge.getBadgeType()) && 
             badge.getIsActive() && 
             badge.getEarnedAt() != null
@@ -321,14 +275,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_MEDIBOOK_WELCOME")).thenReturn(Optional.empty());
 
-        badgeService.evaluateTurnRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED));
 
-        verify(badgeRepository, never()).save(any(Badge.class));
+        verify(badgeRepository, never()).saveAll(anyCollection());
     }
 
     @Test
@@ -345,14 +297,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_EXEMPLARY_PUNCTUALITY")).thenReturn(Optional.empty());
 
-        badgeService.evaluateRatingRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_EXEMPLARY_PUNCTUALITY".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -371,14 +321,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_ALWAYS_PREPARED")).thenReturn(Optional.empty());
 
-        badgeService.evaluateFileRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.FILE_UPLOADED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_ALWAYS_PREPARED".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -395,14 +343,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR")).thenReturn(Optional.empty());
 
-        badgeService.evaluateRatingRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_EXCEPTIONAL_COMMUNICATOR".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -420,14 +366,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_COMPLETE_DOCUMENTER")).thenReturn(Optional.empty());
 
-        badgeService.evaluateDocumentationRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.MEDICAL_HISTORY_DOCUMENTED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_COMPLETE_DOCUMENTER".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -445,15 +389,13 @@ class BadgeServiceTest {
         profile.setId(userId);
         profile.setAvailabilitySchedule("[{\"day\": \"MONDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}, {\"day\": \"TUESDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}, {\"day\": \"WEDNESDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}, {\"day\": \"THURSDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}]");
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
         when(doctorProfileRepository.findByUserId(userId)).thenReturn(Optional.of(profile));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_ALWAYS_AVAILABLE")).thenReturn(Optional.empty());
 
-        badgeService.evaluateConsistencyRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.TURN_CANCELLED, BadgeTrigger.TURN_NO_SHOW, BadgeTrigger.AVAILABILITY_CONFIGURED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_ALWAYS_AVAILABLE".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -464,6 +406,9 @@ class BadgeServiceTest {
         ObjectNode statisticsJson = objectMapper.createObjectNode();
         statisticsJson.put("total_turns_completed", 350);
         statisticsJson.put("total_avg_rating", 4.8);
+        statisticsJson.put("total_communication_count", 25);
+        statisticsJson.put("total_empathy_count", 25);
+        statisticsJson.put("total_punctuality_count", 20);
         
         BadgeStatistics stats = BadgeStatistics.builder()
                 .userId(userId)
@@ -471,15 +416,13 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_MEDICAL_LEGEND")).thenReturn(Optional.empty());
-        stubMedicalLegendDependencies(userId, true, true, true);
+        stubMedicalLegendDependencies(userId, false, true, true);
 
-        badgeService.evaluateTurnRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_MEDICAL_LEGEND".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -498,14 +441,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_CONSTANT_PATIENT")).thenReturn(Optional.empty());
 
-        badgeService.evaluateTurnRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_CONSTANT_PATIENT".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -524,14 +465,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_SMART_PLANNER")).thenReturn(Optional.empty());
 
-        badgeService.evaluateBookingRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.ADVANCE_BOOKING));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_SMART_PLANNER".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -550,14 +489,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_EXCELLENT_COLLABORATOR")).thenReturn(Optional.empty());
 
-        badgeService.evaluateRatingRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_EXCELLENT_COLLABORATOR".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -577,14 +514,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_RESPONSIBLE_EVALUATOR")).thenReturn(Optional.empty());
 
-        badgeService.evaluateRatingRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_RESPONSIBLE_EVALUATOR".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -603,15 +538,13 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.countActiveBadgesByUserIdExcludingType(patientId, "PATIENT_EXCELLENCE_MODEL")).thenReturn(4L);
-        when(badgeRepository.findByUser_IdAndBadgeType(patientId, "PATIENT_EXCELLENCE_MODEL")).thenReturn(Optional.empty());
+        stubActiveBadges(patientId, "PATIENT_MEDIBOOK_WELCOME", "PATIENT_COMMITTED_PATIENT", "PATIENT_CONSTANT_PATIENT", "PATIENT_SMART_PLANNER");
 
-        badgeService.evaluateRatingRelatedBadges(patientId);
+        badgeService.evaluateBadges(patientId, EnumSet.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "PATIENT_EXCELLENCE_MODEL".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -628,14 +561,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_EMPATHETIC_DOCTOR")).thenReturn(Optional.empty());
 
-        badgeService.evaluateRatingRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_EMPATHETIC_DOCTOR".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -652,14 +583,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_PUNCTUALITY_PROFESSIONAL")).thenReturn(Optional.empty());
 
-        badgeService.evaluateRatingRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_PUNCTUALITY_PROFESSIONAL".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -678,22 +607,19 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.existsByUser_IdAndBadgeTypeAndIsActive(userId, "DOCTOR_COMPLETE_DOCUMENTER", true)).thenReturn(true);
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_DETAILED_DIAGNOSTICIAN")).thenReturn(Optional.empty());
 
-        badgeService.evaluateDocumentationRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.MEDICAL_HISTORY_DOCUMENTED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_DETAILED_DIAGNOSTICIAN".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
     }
 
     @Test
-    void evaluateAgileResponder_ViaResponseRelatedBadges_ActivatesBadge() {
+    void evaluateAgileResponder_ManyRequestsHandled_ActivatesBadge() {
         ObjectNode statisticsJson = objectMapper.createObjectNode();
         statisticsJson.put("total_requests_handled", 8);
         
@@ -703,21 +629,19 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_AGILE_RESPONDER")).thenReturn(Optional.empty());
 
-        badgeService.evaluateResponseRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.MODIFY_REQUEST_HANDLED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_AGILE_RESPONDER".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
     }
 
     @Test
-    void evaluateRelationshipBuilder_ViaTurnRelatedBadges_ActivatesBadge() {
+    void evaluateRelationshipBuilder_SufficientUniquePatients_ActivatesBadge() {
         ObjectNode statisticsJson = objectMapper.createObjectNode();
         statisticsJson.put("total_unique_patients", 50);
         statisticsJson.put("returning_patients_count", 10);
@@ -728,28 +652,19 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_RELATIONSHIP_BUILDER")).thenReturn(Optional.empty());
 
-        List<User> patients = java.util.stream.IntStream.range(0, 50).mapToObj(i -> {
-            User u = new User();
-            u.setId(UUID.randomUUID());
-            return u;
-        }).collect(java.util.stream.Collectors.toList());
-        when(turnAssignedRepository.findDistinctPatientsByDoctorId(userId)).thenReturn(patients);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED));
 
-        badgeService.evaluateTurnRelatedBadges(userId);
-
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_RELATIONSHIP_BUILDER".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
     }
 
     @Test
-    void evaluateConsistentProfessional_ViaConsistencyRelatedBadges_ActivatesBadge() {
+    void evaluateConsistentProfessional_FewCancellations_ActivatesBadge() {
         ObjectNode statisticsJson = objectMapper.createObjectNode();
         statisticsJson.put("total_turns_completed", 80);
         statisticsJson.put("total_cancellations", 10);
@@ -760,14 +675,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL")).thenReturn(Optional.empty());
 
-        badgeService.evaluateConsistencyRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.TURN_CANCELLED, BadgeTrigger.TURN_NO_SHOW, BadgeTrigger.AVAILABILITY_CONFIGURED));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_CONSISTENT_PROFESSIONAL".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
@@ -779,6 +692,7 @@ class BadgeServiceTest {
         statisticsJson.put("total_turns_completed", 100);
         statisticsJson.put("total_avg_rating", 4.2);
         statisticsJson.put("specialty_rank_percentile", 0.15);
+        withRecentPatientScores(statisticsJson, 35, 4);
         
         BadgeStatistics stats = BadgeStatistics.builder()
                 .userId(userId)
@@ -786,75 +700,19 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_TOP_SPECIALIST")).thenReturn(Optional.empty());
-        when(ratingRepository.findTop35ByRated_IdAndRater_RoleOrderByCreatedAtDesc(userId, "PATIENT")).thenReturn(createRatings(35, 4));
 
-        badgeService.evaluateTurnRelatedBadges(userId);
+        badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.RATING_RECEIVED, BadgeTrigger.RATING_GIVEN));
 
-        verify(badgeRepository).save(argThat(badge -> 
+        verify(badgeRepository).saveAll(savedBadge(badge -> 
             "DOCTOR_TOP_SPECIALIST".equals(badge.getBadgeType()) && 
             badge.getIsActive()
         ));
     }
 
     @Test
-    void evaluateConsistencyRelatedBadges_DoctorRole_EvaluatesDoctorBadges() {
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("total_turns_completed", 60);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        DoctorProfile profile = new DoctorProfile();
-        profile.setId(userId);
-        profile.setAvailabilitySchedule("{\"monday\": \"09:00-17:00\"}");
-        
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(doctorProfileRepository.findByUserId(userId)).thenReturn(Optional.of(profile));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_RELATIONSHIP_BUILDER")).thenReturn(Optional.empty());
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_TOP_SPECIALIST")).thenReturn(Optional.empty());
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_MEDICAL_LEGEND")).thenReturn(Optional.empty());
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_ALWAYS_AVAILABLE")).thenReturn(Optional.empty());
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL")).thenReturn(Optional.empty());
-        when(ratingRepository.findTop35ByRated_IdAndRater_RoleOrderByCreatedAtDesc(userId, "PATIENT")).thenReturn(new ArrayList<>());
-
-        badgeService.evaluateConsistencyRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL");
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_ALWAYS_AVAILABLE");
-    }
-
-    @Test
-    void evaluateTurnRelatedBadges_ExceptionInSave_LogsError() {
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("total_turns_completed", 10);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateTurnRelatedBadges(userId);
-
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateRatingRelatedBadges_ExceptionInSave_LogsError() {
+    void evaluateBadges_ExceptionInSave_Propagates() {
         ObjectNode statisticsJson = objectMapper.createObjectNode();
         statisticsJson.put("total_turns_completed", 10);
         
@@ -864,166 +722,13 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
         
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
+        when(statisticsRepository.applyStatisticsAndProgress(eq(userId), anyString(), anyString(), anyString())).thenThrow(new RuntimeException("Database error"));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
 
-        badgeService.evaluateRatingRelatedBadges(userId);
-
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateFileRelatedBadges_ExceptionInSave_LogsError() {
-        UUID patientId = patient.getId();
-        
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("files_uploaded", 15);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(patientId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-
-        badgeService.evaluateFileRelatedBadges(patientId);
+        assertThrows(RuntimeException.class, () -> badgeService.evaluateBadges(userId, EnumSet.of(BadgeTrigger.TURN_COMPLETED, BadgeTrigger.PATIENT_SERVED)));
 
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateBookingRelatedBadges_ExceptionInSave_LogsError() {
-        UUID patientId = patient.getId();
-        
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("total_advance_booking_count", 10);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(patientId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
-        when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-
-        badgeService.evaluateBookingRelatedBadges(patientId);
-
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateDocumentationRelatedBadges_ExceptionInSave_LogsError() {
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("total_turns_completed", 60);
-        statisticsJson.put("total_documented_count", 40);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateDocumentationRelatedBadges(userId);
-
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateResponseRelatedBadges_ExceptionInSave_LogsError() {
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("total_requests_handled", 7);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateResponseRelatedBadges(userId);
-
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateTurnCompletionRelatedBadges_ExceptionInSave_LogsError() {
-        ObjectNode statisticsJson = objectMapper.createObjectNode();
-        statisticsJson.put("total_turns_completed", 1);
-        
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(statisticsJson)
-                .progress(objectMapper.createObjectNode())
-                .build();
-        
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateTurnCompletionRelatedBadges(userId);
-
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void activateBadge_ExistingBadge_ActivatesSuccessfully() {
-        Badge existingBadge = new Badge();
-        existingBadge.setId(UUID.randomUUID());
-        existingBadge.setBadgeType("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-        existingBadge.setIsActive(false);
-
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR"))
-            .thenReturn(Optional.of(existingBadge));
-        when(badgeRepository.save(any(Badge.class))).thenReturn(existingBadge);
-
-        badgeService.activateBadge(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-
-        assertTrue(existingBadge.getIsActive());
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-        verify(badgeRepository).save(existingBadge);
-    }
-
-    @Test
-    void activateBadge_NewBadge_CreatesAndActivates() {
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR"))
-            .thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        badgeService.activateBadge(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-        verify(badgeRepository).save(any(Badge.class));
-    }
-
-    @Test
-    void deactivateBadge_ExistingBadge_DeactivatesSuccessfully() {
-        Badge existingBadge = new Badge();
-        existingBadge.setId(UUID.randomUUID());
-        existingBadge.setBadgeType("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-        existingBadge.setIsActive(true);
-
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR"))
-            .thenReturn(Optional.of(existingBadge));
-        when(badgeRepository.save(any(Badge.class))).thenReturn(existingBadge);
-
-        badgeService.deactivateBadge(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-
-        assertFalse(existingBadge.getIsActive());
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-        verify(badgeRepository).save(existingBadge);
+        verify(statisticsRepository, times(1)).applyStatisticsAndProgress(eq(userId), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1038,15 +743,6 @@ class BadgeServiceTest {
         assertEquals(BadgeCategory.CONSISTENCY, result);
     }
 
-    @Test
-    void createBadge_ValidInputs_CreatesBadge() {
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        badgeService.createBadge(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
-
-        verify(badgeRepository).save(any(Badge.class));
-    }
-
     @Test
     void parseJson_ValidJson_ReturnsParsedJsonNode() {
         String json = "{\"key\": \"value\", \"number\": 42}";
@@ -1088,15 +784,14 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
 
         badgeService.evaluateAllBadges(userId);
 
-        verify(statisticsRepository, atLeast(1)).findByUserId(userId);
-        verify(userRepository, times(6)).findById(userId);
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
+        verify(statisticsRepository, atLeast(1)).lockByUserId(userId);
+        verify(userRepository, times(1)).findById(userId);
+        verify(statisticsRepository, atLeast(1)).applyStatisticsAndProgress(eq(userId), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1119,15 +814,14 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
 
         badgeService.evaluateAllBadges(userId);
 
-        verify(statisticsRepository, atLeast(1)).findByUserId(userId);
-        verify(userRepository, times(5)).findById(userId);
-        verify(statisticsRepository, atLeast(1)).save(any(BadgeStatistics.class));
+        verify(statisticsRepository, atLeast(1)).lockByUserId(userId);
+        verify(userRepository, times(1)).findById(userId);
+        verify(statisticsRepository, atLeast(1)).applyStatisticsAndProgress(eq(userId), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1142,14 +836,13 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
         badgeService.evaluateAllBadges(patientId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(patientId, "PATIENT_MEDIBOOK_WELCOME");
-        verify(badgeRepository, never()).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(patientId);
+        verify(badgeRepository, never()).saveAll(anyCollection());
     }
 
     @Test
@@ -1164,13 +857,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
         badgeService.evaluateAllBadges(patientId);
 
-        verify(badgeRepository, atLeastOnce()).findByUser_IdAndBadgeType(patientId, "PATIENT_CONSTANT_PATIENT");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(patientId);
     }
 
     @Test
@@ -1187,13 +879,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
         badgeService.evaluateAllBadges(patientId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(patientId, "PATIENT_EXEMPLARY_PUNCTUALITY");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(patientId);
     }
 
     @Test
@@ -1210,13 +901,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
         badgeService.evaluateAllBadges(patientId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(patientId, "PATIENT_RESPONSIBLE_EVALUATOR");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(patientId);
     }
 
     @Test
@@ -1231,14 +921,13 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(patientId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(patientId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(badgeRepository.countActiveBadgesByUserIdExcludingType(patientId, "PATIENT_EXCELLENCE_MODEL")).thenReturn(2L);
+        stubActiveBadges(patientId, "PATIENT_MEDIBOOK_WELCOME", "PATIENT_COMMITTED_PATIENT");
 
         badgeService.evaluateAllBadges(patientId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(patientId, "PATIENT_EXCELLENCE_MODEL");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(patientId);
     }
 
     @Test
@@ -1253,14 +942,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(doctorId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(doctorId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        when(ratingRepository.findTop35ByRated_IdAndRater_RoleOrderByCreatedAtDesc(doctorId, "PATIENT")).thenReturn(createRatings(35, 4));
 
         badgeService.evaluateAllBadges(doctorId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(doctorId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(doctorId);
     }
 
     @Test
@@ -1277,13 +964,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(doctorId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(doctorId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
         badgeService.evaluateAllBadges(doctorId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(doctorId, "DOCTOR_COMPLETE_DOCUMENTER");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(doctorId);
     }
 
     @Test
@@ -1300,13 +986,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(doctorId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(doctorId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
         badgeService.evaluateAllBadges(doctorId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(doctorId, "DOCTOR_CONSISTENT_PROFESSIONAL");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(doctorId);
     }
 
     @Test
@@ -1325,17 +1010,14 @@ class BadgeServiceTest {
         profile.setId(doctorId);
         profile.setAvailabilitySchedule("[{\"day\": \"MONDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}, {\"day\": \"TUESDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}, {\"day\": \"WEDNESDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}, {\"day\": \"THURSDAY\", \"ranges\": [{\"end\": \"18:00\", \"start\": \"09:00\"}], \"enabled\": true}]");
 
-        when(statisticsRepository.findByUserId(doctorId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(doctorId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(doctorProfileRepository.findByUserId(doctorId)).thenReturn(Optional.of(profile));
-        when(badgeRepository.findByUser_IdAndBadgeType(doctorId, "DOCTOR_ALWAYS_AVAILABLE")).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         badgeService.evaluateAllBadges(doctorId);
 
-        verify(badgeRepository, atLeastOnce()).findByUser_IdAndBadgeType(doctorId, "DOCTOR_ALWAYS_AVAILABLE");
-        verify(badgeRepository, atLeastOnce()).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(doctorId);
+        verify(badgeRepository, times(1)).saveAll(anyCollection());
     }
 
     @Test
@@ -1353,13 +1035,12 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(doctorId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(doctorId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
 
         badgeService.evaluateAllBadges(doctorId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(doctorId, "DOCTOR_TOP_SPECIALIST");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(doctorId);
     }
 
     @Test
@@ -1376,14 +1057,13 @@ class BadgeServiceTest {
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(doctorId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(doctorId)).thenReturn(Optional.of(stats));
         when(userRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
         stubMedicalLegendDependencies(doctorId, true, true, true);
 
         badgeService.evaluateAllBadges(doctorId);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(doctorId, "DOCTOR_MEDICAL_LEGEND");
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(doctorId);
     }
 
     @Test
@@ -1473,7 +1153,7 @@ class BadgeServiceTest {
     @Test
     void getCategoryForBadge_PatientEvaluator_ReturnsCorrectCategory() {
         BadgeCategory result = badgeService.getCategoryForBadge("PATIENT_RESPONSIBLE_EVALUATOR", "PATIENT");
-        assertEquals(BadgeCategory.CLINICAL_EXCELLENCE, result);
+        assertEquals(BadgeCategory.ACTIVE_COMMITMENT, result);
     }
 
     @Test
@@ -1483,116 +1163,35 @@ class BadgeServiceTest {
     }
 
     @Test
-    void getOrCreateStatistics_ExistingStats_ReturnsExisting() {
+    void lockOrCreateStatistics_ExistingStats_ReturnsExisting() {
         BadgeStatistics existingStats = BadgeStatistics.builder()
                 .userId(userId)
                 .statistics(objectMapper.createObjectNode())
                 .progress(objectMapper.createObjectNode())
                 .build();
 
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(existingStats));
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(existingStats));
 
-        BadgeStatistics result = badgeService.getOrCreateStatistics(userId);
+        BadgeStatistics result = badgeService.lockOrCreateStatistics(userId);
 
         assertEquals(existingStats, result);
-        verify(statisticsRepository).findByUserId(userId);
+        verify(statisticsRepository).lockByUserId(userId);
         verify(statisticsRepository, never()).save(any());
     }
 
     @Test
-    void getOrCreateStatistics_NoExistingStats_CreatesNew() {
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.empty());
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    void lockOrCreateStatistics_NoExistingStats_CreatesNew() {
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.empty());
 
-        BadgeStatistics result = badgeService.getOrCreateStatistics(userId);
+        BadgeStatistics result = badgeService.lockOrCreateStatistics(userId);
 
         assertNotNull(result);
         assertEquals(userId, result.getUserId());
         assertNotNull(result.getStatistics());
         assertNotNull(result.getProgress());
-        verify(statisticsRepository).findByUserId(userId);
-        verify(statisticsRepository).save(any(BadgeStatistics.class));
-    }
-
-    @Test
-    void evaluateTurnCompletionRelatedBadges_DoctorRole_CallsDoctorEvaluation() {
-        User doctor = new User();
-        doctor.setId(userId);
-        doctor.setRole("DOCTOR");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-
-        badgeService.evaluateTurnCompletionRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateTurnCompletionRelatedBadges_PatientRole_CallsPatientEvaluation() {
-        User patient = new User();
-        patient.setId(userId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateTurnCompletionRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void activateBadge_BadgeExists_Inactive_Activates() {
-        Badge existingBadge = new Badge();
-        existingBadge.setIsActive(false);
-
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "TEST_BADGE")).thenReturn(Optional.of(existingBadge));
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-
-        badgeService.activateBadge(userId, "TEST_BADGE");
-
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "TEST_BADGE");
-        verify(badgeRepository).save(existingBadge);
-        assert existingBadge.getIsActive();
-    }
-
-    @Test
-    void deactivateBadge_BadgeExists_Active_Deactivates() {
-        Badge existingBadge = new Badge();
-        existingBadge.setIsActive(true);
-
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "TEST_BADGE")).thenReturn(Optional.of(existingBadge));
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-
-        badgeService.deactivateBadge(userId, "TEST_BADGE");
-
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "TEST_BADGE");
-        verify(badgeRepository).save(existingBadge);
-        assert !existingBadge.getIsActive();
+        verify(statisticsRepository).insertEmptyIfMissing(userId);
+        verify(statisticsRepository, times(2)).lockByUserId(userId);
+        verify(statisticsRepository, never()).save(any(BadgeStatistics.class));
     }
 
     @Test
@@ -1609,15 +1208,14 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.existsByUser_IdAndBadgeType(userId, "PATIENT_CONTINUOUS_FOLLOWUP")).thenReturn(false);
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateContinuousFollowup(patient);
+        BadgeEvaluationContext context = loadContext(patient);
+        badgeService.evaluateRule(context, BadgeRules.get("PATIENT_CONTINUOUS_FOLLOWUP"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository).existsByUser_IdAndBadgeType(userId, "PATIENT_CONTINUOUS_FOLLOWUP");
-        verify(badgeRepository).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository).saveAll(anyCollection());
     }
 
     @Test
@@ -1634,12 +1232,14 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateContinuousFollowup(patient);
+        BadgeEvaluationContext context = loadContext(patient);
+        badgeService.evaluateRule(context, BadgeRules.get("PATIENT_CONTINUOUS_FOLLOWUP"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository, never()).findByUser_IdAndBadgeType(any(), any());
-        verify(badgeRepository, never()).save(any());
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository, never()).saveAll(anyCollection());
     }
 
     @Test
@@ -1657,15 +1257,14 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL")).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateConsistentProfessional(doctor);
+        BadgeEvaluationContext context = loadContext(doctor);
+        badgeService.evaluateRule(context, BadgeRules.get("DOCTOR_CONSISTENT_PROFESSIONAL"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL");
-        verify(badgeRepository).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository).saveAll(anyCollection());
     }
 
     @Test
@@ -1683,14 +1282,14 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL")).thenReturn(Optional.empty());
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateConsistentProfessional(doctor);
+        BadgeEvaluationContext context = loadContext(doctor);
+        badgeService.evaluateRule(context, BadgeRules.get("DOCTOR_CONSISTENT_PROFESSIONAL"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_CONSISTENT_PROFESSIONAL");
-        verify(badgeRepository, never()).save(any());
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository, never()).saveAll(anyCollection());
     }
 
     @Test
@@ -1708,32 +1307,47 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "PATIENT_RESPONSIBLE_EVALUATOR")).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateResponsibleEvaluator(patient);
+        BadgeEvaluationContext context = loadContext(patient);
+        badgeService.evaluateRule(context, BadgeRules.get("PATIENT_RESPONSIBLE_EVALUATOR"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "PATIENT_RESPONSIBLE_EVALUATOR");
-        verify(badgeRepository).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository).saveAll(anyCollection());
     }
 
-    private List<Rating> createRatings(int count, int score) {
-        List<Rating> ratings = new ArrayList<>();
+    private ObjectNode withRecentPatientScores(ObjectNode statistics, int count, int score) {
+        RatingWindow window = new RatingWindow(BadgeRules.TOP_SPECIALIST_REQUIRED_RATINGS);
         for (int i = 0; i < count; i++) {
-            ratings.add(Rating.builder().score(score).build());
+            window.add(score);
         }
-        return ratings;
+        window.write(statistics);
+        return statistics;
     }
 
     private void stubMedicalLegendDependencies(UUID doctorId, boolean communicator, boolean empathetic, boolean punctuality) {
-        when(badgeRepository.existsByUser_IdAndBadgeTypeAndIsActive(doctorId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR", true))
-                .thenReturn(communicator);
-        when(badgeRepository.existsByUser_IdAndBadgeTypeAndIsActive(doctorId, "DOCTOR_EMPATHETIC_DOCTOR", true))
-                .thenReturn(empathetic);
-        when(badgeRepository.existsByUser_IdAndBadgeTypeAndIsActive(doctorId, "DOCTOR_PUNCTUALITY_PROFESSIONAL", true))
-                .thenReturn(punctuality);
+        List<String> active = new ArrayList<>();
+        if (communicator) active.add("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        if (empathetic) active.add("DOCTOR_EMPATHETIC_DOCTOR");
+        if (punctuality) active.add("DOCTOR_PUNCTUALITY_PROFESSIONAL");
+        stubActiveBadges(doctorId, active.toArray(String[]::new));
+    }
+
+    private void stubActiveBadges(UUID ownerId, String... badgeTypes) {
+        List<Badge> badges = new ArrayList<>();
+        for (String badgeType : badgeTypes) {
+            badges.add(Badge.builder().userId(ownerId).badgeType(badgeType).isActive(true).build());
+        }
+        when(badgeRepository.findByUser_IdOrderByEarnedAtDesc(ownerId)).thenReturn(badges);
+    }
+
+    private BadgeEvaluationContext loadContext(User user) {
+        return badgeService.loadContext(user.getId(), user.getRole());
+    }
+
+    private static Iterable<Badge> savedBadge(ArgumentMatcher<Badge> matcher) {
+        return argThat(badges -> badges != null && StreamSupport.stream(badges.spliterator(), false).anyMatch(matcher::matches));
     }
 
     @Test
@@ -1744,24 +1358,22 @@ class BadgeServiceTest {
 
         BadgeStatistics stats = BadgeStatistics.builder()
                 .userId(userId)
-                .statistics(objectMapper.createObjectNode()
+                .statistics(withRecentPatientScores(objectMapper.createObjectNode()
                         .put("total_turns_completed", 120)
                         .put("total_avg_rating", 4.5)
-                        .put("specialty_rank_percentile", 0.2))
+                        .put("specialty_rank_percentile", 0.2), 35, 4))
                 .progress(objectMapper.createObjectNode())
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_TOP_SPECIALIST")).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
-        when(ratingRepository.findTop35ByRated_IdAndRater_RoleOrderByCreatedAtDesc(userId, "PATIENT")).thenReturn(createRatings(35, 4));
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateTopSpecialist(doctor);
+        BadgeEvaluationContext context = loadContext(doctor);
+        badgeService.evaluateRule(context, BadgeRules.get("DOCTOR_TOP_SPECIALIST"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_TOP_SPECIALIST");
-        verify(badgeRepository).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository).saveAll(anyCollection());
     }
 
     @Test
@@ -1779,19 +1391,16 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_MEDICAL_LEGEND")).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
         stubMedicalLegendDependencies(userId, true, true, true);
 
-        badgeService.evaluateMedicalLegend(doctor);
+        BadgeEvaluationContext context = loadContext(doctor);
+        badgeService.evaluateRule(context, BadgeRules.get("DOCTOR_MEDICAL_LEGEND"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository, times(1)).existsByUser_IdAndBadgeTypeAndIsActive(userId, "DOCTOR_EXCEPTIONAL_COMMUNICATOR", true);
-        verify(badgeRepository, times(1)).existsByUser_IdAndBadgeTypeAndIsActive(userId, "DOCTOR_EMPATHETIC_DOCTOR", true);
-        verify(badgeRepository, times(1)).existsByUser_IdAndBadgeTypeAndIsActive(userId, "DOCTOR_PUNCTUALITY_PROFESSIONAL", true);
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_MEDICAL_LEGEND");
-        verify(badgeRepository).save(any(Badge.class));
+        verify(badgeRepository, never()).existsByUser_IdAndBadgeTypeAndIsActive(any(), anyString(), anyBoolean());
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository).saveAll(anyCollection());
     }
 
     @Test
@@ -1808,15 +1417,14 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(userId, "DOCTOR_AGILE_RESPONDER")).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(userId)).thenReturn(Optional.of(stats));
 
-        badgeService.evaluateAgileResponder(doctor);
+        BadgeEvaluationContext context = loadContext(doctor);
+        badgeService.evaluateRule(context, BadgeRules.get("DOCTOR_AGILE_RESPONDER"));
+        badgeService.saveContext(context);
 
-        verify(badgeRepository).findByUser_IdAndBadgeType(userId, "DOCTOR_AGILE_RESPONDER");
-        verify(badgeRepository).save(any(Badge.class));
+        verify(badgeRepository, times(1)).findByUser_IdOrderByEarnedAtDesc(userId);
+        verify(badgeRepository).saveAll(anyCollection());
     }
 
     @Test
@@ -1832,10 +1440,7 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(any())).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(any(), any())).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenReturn(null);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(any())).thenReturn(Optional.of(stats));
 
         badgeService.evaluateAllBadges(userId);
 
@@ -1855,10 +1460,7 @@ class BadgeServiceTest {
                 .build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(any())).thenReturn(Optional.of(stats));
-        when(badgeRepository.findByUser_IdAndBadgeType(any(), any())).thenReturn(Optional.empty());
-        when(badgeRepository.save(any(Badge.class))).thenReturn(null);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(stats);
+        when(statisticsRepository.lockByUserId(any())).thenReturn(Optional.of(stats));
 
         badgeService.evaluateAllBadges(userId);
 
@@ -1866,142 +1468,193 @@ class BadgeServiceTest {
     }
 
     @Test
-    void evaluateTurnRelatedBadges_DoctorRole_CallsDoctorTurnEvaluations() {
-        User doctor = new User();
-        doctor.setId(userId);
-        doctor.setRole("DOCTOR");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateTurnRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateRatingRelatedBadges_DoctorRole_CallsDoctorRatingEvaluations() {
-        User doctor = new User();
-        doctor.setId(userId);
-        doctor.setRole("DOCTOR");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateRatingRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateDocumentationRelatedBadges_DoctorRole_CallsDoctorDocumentationEvaluations() {
-        User doctor = new User();
-        doctor.setId(userId);
-        doctor.setRole("DOCTOR");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateDocumentationRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateConsistencyRelatedBadges_DoctorRole_CallsDoctorConsistencyEvaluations() {
-        User doctor = new User();
-        doctor.setId(userId);
-        doctor.setRole("DOCTOR");
-
-        BadgeStatistics stats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(any())).thenReturn(Optional.of(stats));
-
-        badgeService.evaluateConsistencyRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateFileRelatedBadges_PatientRole_CallsPatientFileEvaluations() {
-        User patient = new User();
-        patient.setId(userId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateFileRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateBookingRelatedBadges_PatientRole_CallsPatientBookingEvaluations() {
-        User patient = new User();
-        patient.setId(userId);
-        patient.setRole("PATIENT");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(patient));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateBookingRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-
-    @Test
-    void evaluateResponseRelatedBadges_DoctorRole_CallsDoctorResponseEvaluations() {
-        User doctor = new User();
-        doctor.setId(userId);
-        doctor.setRole("DOCTOR");
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(doctor));
-        when(statisticsRepository.findByUserId(any(UUID.class))).thenReturn(Optional.empty());
-        BadgeStatistics mockStats = mock(BadgeStatistics.class);
-        when(mockStats.getStatistics()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getProgress()).thenReturn(objectMapper.createObjectNode());
-        when(mockStats.getUserId()).thenReturn(userId);
-        when(mockStats.getVersion()).thenReturn(0L);
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(mockStats);
-
-        badgeService.evaluateResponseRelatedBadges(userId);
-
-        verify(userRepository).findById(userId);
-    }
-}
\ No newline at end of file
+    void refreshProgress_Doctor_WithHighStats_ActivatesMultipleBadges() {
+        ObjectNode statsJson = objectMapper.createObjectNode();
+        statsJson.put("total_turns_completed", 150);
+        statsJson.put("documentation_count", 40);
+        statsJson.put("total_turns_cancelled", 5);
+        statsJson.put("unique_patients_served", 15);
+        statsJson.put("requests_handled", 8);
+        statsJson.put("total_ratings_received", 30);
+        statsJson.put("total_communication_count", 30);
+        statsJson.put("total_empathy_count", 30);
+        statsJson.put("total_punctuality_count", 25);
+        statsJson.put("total_avg_rating", 4.5);
+        statsJson.put("total_low_rating_count", 2);
+
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("total_turns_completed", 150);
+        statistics.put("documentation_count", 40);
+        statistics.put("total_turns_cancelled", 5);
+        statistics.put("unique_patients_served", 15);
+        statistics.put("requests_handled", 8);
+        statistics.put("total_ratings_received", 30);
+        statistics.put("total_communication_count", 30);
+        statistics.put("total_empathy_count", 30);
+        statistics.put("total_punctuality_count", 25);
+        statistics.put("total_avg_rating", 4.5);
+        statistics.put("total_low_rating_count", 2);
+
+        statistics.put("total_turns_completed", 150);
+        BadgeEvaluationContext context = doctorContext(statistics);
+
+        badgeService.refreshProgress(context);
+        ObjectNode progress = context.getProgress();
+
+        assert progress.has("DOCTOR_COMPLETE_DOCUMENTER");
+        assert progress.has("DOCTOR_CONSISTENT_PROFESSIONAL");
+        assert progress.has("DOCTOR_RELATIONSHIP_BUILDER");
+        assert progress.has("DOCTOR_AGILE_RESPONDER");
+        assert progress.has("DOCTOR_TOP_SPECIALIST");
+        assert progress.has("DOCTOR_MEDICAL_LEGEND");
+        assert progress.has("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        assert progress.has("DOCTOR_EMPATHETIC_DOCTOR");
+        assert progress.has("DOCTOR_PUNCTUALITY_PROFESSIONAL");
+    }
+
+    @Test
+    void refreshProgress_Doctor_WithLowStats_NoBadgesActivated() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("total_turns_completed", 10);
+        statistics.put("documentation_count", 2);
+        statistics.put("total_turns_cancelled", 5);
+        statistics.put("unique_patients_served", 2);
+        statistics.put("requests_handled", 1);
+        statistics.put("total_ratings_received", 5);
+        statistics.put("total_communication_count", 2);
+        statistics.put("total_empathy_count", 2);
+        statistics.put("total_punctuality_count", 2);
+        statistics.put("total_avg_rating", 3.5);
+        statistics.put("total_low_rating_count", 2);
+
+        statistics.put("total_turns_completed", 10);
+        BadgeEvaluationContext context = doctorContext(statistics);
+
+        badgeService.refreshProgress(context);
+        ObjectNode progress = context.getProgress();
+
+        assert progress.has("DOCTOR_COMPLETE_DOCUMENTER");
+        assert progress.has("DOCTOR_CONSISTENT_PROFESSIONAL");
+        assert progress.has("DOCTOR_RELATIONSHIP_BUILDER");
+        assert progress.has("DOCTOR_AGILE_RESPONDER");
+        assert progress.has("DOCTOR_TOP_SPECIALIST");
+        assert progress.has("DOCTOR_MEDICAL_LEGEND");
+        assert progress.has("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        assert progress.has("DOCTOR_EMPATHETIC_DOCTOR");
+        assert progress.has("DOCTOR_PUNCTUALITY_PROFESSIONAL");
+    }
+
+    @Test
+    void refreshProgress_Doctor_LessThan50Turns_CoversScaledRequirements() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("documentation_count", 10); 
+        statistics.put("total_turns_cancelled", 2);
+        statistics.put("unique_patients_served", 8);
+        statistics.put("requests_handled", 5);
+        statistics.put("total_ratings_received", 50);
+        statistics.put("total_communication_count", 15);
+        statistics.put("total_empathy_count", 15);
+        statistics.put("total_punctuality_count", 10);
+        statistics.put("total_avg_rating", 4.2);
+        statistics.put("total_low_rating_count", 2);
+
+        statistics.put("total_turns_completed", 30);
+        BadgeEvaluationContext context = doctorContext(statistics);
+
+        badgeService.refreshProgress(context);
+        ObjectNode progress = context.getProgress();
+
+        assert progress.has("DOCTOR_COMPLETE_DOCUMENTER");
+        assert progress.has("DOCTOR_CONSISTENT_PROFESSIONAL");
+        assert progress.has("DOCTOR_RELATIONSHIP_BUILDER");
+        assert progress.has("DOCTOR_AGILE_RESPONDER");
+        assert progress.has("DOCTOR_TOP_SPECIALIST");
+        assert progress.has("DOCTOR_MEDICAL_LEGEND");
+        assert progress.has("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        assert progress.has("DOCTOR_EMPATHETIC_DOCTOR");
+        assert progress.has("DOCTOR_PUNCTUALITY_PROFESSIONAL");
+    }
+
+    @Test
+    void refreshProgress_Doctor_50OrMoreTurns_CoversFullRequirements() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("documentation_count", 40); 
+        statistics.put("total_turns_cancelled", 5); 
+        statistics.put("unique_patients_served", 12);
+        statistics.put("requests_handled", 8);
+        statistics.put("total_ratings_received", 100);
+        statistics.put("total_communication_count", 30);
+        statistics.put("total_empathy_count", 30);
+        statistics.put("total_punctuality_count", 25);
+        statistics.put("total_avg_rating", 4.5);
+        statistics.put("total_low_rating_count", 5);
+
+        statistics.put("total_turns_completed", 80);
+        BadgeEvaluationContext context = doctorContext(statistics);
+
+        badgeService.refreshProgress(context);
+        ObjectNode progress = context.getProgress();
+
+        assert progress.has("DOCTOR_COMPLETE_DOCUMENTER");
+        assert progress.has("DOCTOR_CONSISTENT_PROFESSIONAL");
+        assert progress.has("DOCTOR_RELATIONSHIP_BUILDER");
+        assert progress.has("DOCTOR_AGILE_RESPONDER");
+        assert progress.has("DOCTOR_TOP_SPECIALIST");
+        assert progress.has("DOCTOR_MEDICAL_LEGEND");
+        assert progress.has("DOCTOR_EXCEPTIONAL_COMMUNICATOR");
+        assert progress.has("DOCTOR_EMPATHETIC_DOCTOR");
+        assert progress.has("DOCTOR_PUNCTUALITY_PROFESSIONAL");
+    }
+
+    @Test
+    void refreshProgress_Doctor_HighCancellationRate_CoversFailureCondition() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("documentation_count", 40);
+        statistics.put("total_cancellations", 20);
+        statistics.put("unique_patients_served", 12);
+        statistics.put("requests_handled", 8);
+        statistics.put("total_ratings_received", 100);
+        statistics.put("total_communication_count", 30);
+        statistics.put("total_empathy_count", 30);
+        statistics.put("total_punctuality_count", 25);
+        statistics.put("total_avg_rating", 4.5);
+        statistics.put("total_low_rating_count", 5);
+
+        statistics.put("total_turns_completed", 80);
+        BadgeEvaluationContext context = doctorContext(statistics);
+
+        badgeService.refreshProgress(context);
+        ObjectNode progress = context.getProgress();
+
+        assert progress.has("DOCTOR_CONSISTENT_PROFESSIONAL");
+        assert progress.get("DOCTOR_CONSISTENT_PROFESSIONAL").asDouble() == 0.0;
+    }
+
+    @Test
+    void refreshProgress_Doctor_LowRequestsHandled_CoversPartialProgress() {
+        ObjectNode statistics = objectMapper.createObjectNode();
+        statistics.put("documentation_count", 40);
+        statistics.put("total_turns_cancelled", 5);
+        statistics.put("unique_patients_served", 12);
+        statistics.put("total_requests_handled", 4); 
+        statistics.put("total_ratings_received", 100);
+        statistics.put("total_communication_count", 30);
+        statistics.put("total_empathy_count", 30);
+        statistics.put("total_punctuality_count", 25);
+        statistics.put("total_avg_rating", 4.5);
+        statistics.put("total_low_rating_count", 5);
+
+        statistics.put("total_turns_completed", 80);
+        BadgeEvaluationContext context = doctorContext(statistics);
+
+        badgeService.refreshProgress(context);
+        ObjectNode progress = context.getProgress();
+
+        assert progress.has("DOCTOR_AGILE_RESPONDER");
+        assert progress.get("DOCTOR_AGILE_RESPONDER").asDouble() == 50.0;
+    }
+
+    private BadgeEvaluationContext doctorContext(ObjectNode statistics) {
+        return new BadgeEvaluationContext(userId, "DOCTOR", statistics, objectMapper.createObjectNode(), List.of());
+    }
+}
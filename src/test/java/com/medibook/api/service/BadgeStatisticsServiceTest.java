@@ -13,12 +13,13 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
-import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -50,60 +51,26 @@ class BadgeStatisticsServiceTest {
     }
 
     @Test
-    void updateAfterTurnCompleted_ExistingStats_UpdatesStatistics() {
-        BadgeStatistics existingStats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(existingStats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(existingStats);
-
-        badgeStatisticsService.updateAfterTurnCompleted(userId, UUID.randomUUID());
-
-        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
-            verify(statisticsRepository).findByUserId(userId);
-            verify(statisticsRepository).save(any(BadgeStatistics.class));
-        });
-    }
-
-    @Test
-    void updateAfterTurnCompleted_NoExistingStats_CreatesNewStats() {
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.empty());
-
-        BadgeStatistics newStats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenReturn(newStats);
+    void updateAfterTurnCompleted_IncrementsCounterInSingleStatement() {
+        when(statisticsRepository.applyStatistics(eq(userId), anyString(), anyString())).thenReturn(1);
 
         badgeStatisticsService.updateAfterTurnCompleted(userId, UUID.randomUUID());
 
         await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
-            verify(statisticsRepository).findByUserId(userId);
-            verify(statisticsRepository, times(2)).save(any(BadgeStatistics.class));
+            verify(statisticsRepository).insertEmptyIfMissing(userId);
+            verify(statisticsRepository).applyStatistics(userId, "{\"total_turns_completed\":1}", "{}");
+            verify(statisticsRepository, never()).save(any(BadgeStatistics.class));
         });
     }
 
     @Test
-    void updateAfterTurnCompleted_ExceptionInSave_LogsError() {
-        BadgeStatistics existingStats = BadgeStatistics.builder()
-                .userId(userId)
-                .statistics(objectMapper.createObjectNode())
-                .progress(objectMapper.createObjectNode())
-                .build();
-
-        when(statisticsRepository.findByUserId(userId)).thenReturn(Optional.of(existingStats));
-        when(statisticsRepository.save(any(BadgeStatistics.class))).thenThrow(new RuntimeException("Database error"));
+    void updateAfterTurnCompleted_ExceptionInUpdate_LogsError() {
+        when(statisticsRepository.applyStatistics(eq(userId), anyString(), anyString()))
+                .thenThrow(new RuntimeException("Database error"));
 
         badgeStatisticsService.updateAfterTurnCompleted(userId, UUID.randomUUID());
 
-        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
-            verify(statisticsRepository).findByUserId(userId);
-            verify(statisticsRepository).save(any(BadgeStatistics.class));
-        });
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                verify(statisticsRepository).applyStatistics(eq(userId), anyString(), anyString()));
     }
 }
\ No newline at end of file
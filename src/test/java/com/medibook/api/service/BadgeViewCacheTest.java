@@ -0,0 +1,53 @@
+package com.medibook.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BadgeViewCacheTest {
+
+    private final BadgeViewCache<String> cache = new BadgeViewCache<>("test");
+    private final AtomicInteger loads = new AtomicInteger();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void get_SameVersion_LoadsOnce() {
+        assertEquals("view-1", cache.get(userId, 1L, this::load));
+        assertEquals("view-1", cache.get(userId, 1L, this::load));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_NewVersion_ReplacesEntry() {
+        cache.get(userId, 1L, this::load);
+
+        assertEquals("view-2", cache.get(userId, 2L, this::load));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_NoVersion_AlwaysLoadsAndCachesNothing() {
+        cache.get(userId, null, this::load);
+        cache.get(userId, null, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_Full_EvictsToStayBounded() {
+        for (int i = 0; i <= BadgeViewCache.MAX_ENTRIES; i++) {
+            cache.get(new UUID(0, i), 1L, () -> "view");
+        }
+
+        assertEquals(BadgeViewCache.MAX_ENTRIES, cache.size());
+    }
+
+    private String load() {
+        return "view-" + loads.incrementAndGet();
+    }
+}
@@ -0,0 +1,138 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarFeedServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CalendarFeedService calendarFeedService;
+
+    @Test
+    void feedToken_IsStablePerUserSecretAndValidates() {
+        User user = user("feed-secret");
+        when(userRepository.findCalendarFeedSecretById(user.getId())).thenReturn(Optional.of("feed-secret"));
+
+        String token = calendarFeedService.getFeedToken(user.getId());
+
+        assertEquals(token, calendarFeedService.getFeedToken(user.getId()));
+        assertTrue(calendarFeedService.isValidFeedToken(user, token));
+        assertFalse(calendarFeedService.isValidFeedToken(user("other-secret"), token));
+        assertFalse(calendarFeedService.isValidFeedToken(user(null), token));
+        assertFalse(calendarFeedService.isValidFeedToken(user, token + "x"));
+        assertFalse(calendarFeedService.isValidFeedToken(user, null));
+        verify(userRepository, never()).setCalendarFeedSecretIfMissing(any(), any());
+    }
+
+    @Test
+    void getFeedToken_NoSecretYet_CreatesOneUnlessAnotherRequestDid() {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findCalendarFeedSecretById(userId))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of("created-concurrently"));
+
+        String token = calendarFeedService.getFeedToken(userId);
+
+        verify(userRepository).setCalendarFeedSecretIfMissing(eq(userId), anyString());
+        User user = user("created-concurrently");
+        user.setId(userId);
+        assertTrue(calendarFeedService.isValidFeedToken(user, token));
+    }
+
+    @Test
+    void resetFeedToken_ReplacesTheSecretAndRevokesTheOldUrl() {
+        User user = user("old-secret");
+        when(userRepository.findCalendarFeedSecretById(user.getId())).thenReturn(Optional.of("old-secret"));
+        String oldToken = calendarFeedService.getFeedToken(user.getId());
+
+        String newToken = calendarFeedService.resetFeedToken(user.getId());
+
+        ArgumentCaptor<String> secret = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).setCalendarFeedSecret(eq(user.getId()), secret.capture());
+        user.setCalendarFeedSecret(secret.getValue());
+        assertTrue(calendarFeedService.isValidFeedToken(user, newToken));
+        assertFalse(calendarFeedService.isValidFeedToken(user, oldToken));
+    }
+
+    @Test
+    void escapeText_EscapesReservedCharacters() {
+        assertEquals("Dolor\\, fiebre\\; control\\nurgente \\\\ ok",
+                CalendarFeedService.escapeText("Dolor, fiebre; control\nurgente \\ ok"));
+    }
+
+    @Test
+    void writeLine_FoldsLongLinesAt75Characters() throws Exception {
+        StringWriter writer = new StringWriter();
+        String line = "DESCRIPTION:" + "a".repeat(150);
+
+        CalendarFeedService.writeLine(writer, line);
+
+        String[] parts = writer.toString().split("\r\n");
+        assertEquals(3, parts.length);
+        assertEquals(75, parts[0].length());
+        assertTrue(parts[1].startsWith(" "));
+        assertEquals(75, parts[1].length());
+        assertEquals(line, String.join("", parts[0], parts[1].substring(1), parts[2].substring(1)));
+    }
+
+    @Test
+    void writeLine_FoldsAt75OctetsWithoutSplittingCharacters() throws Exception {
+        StringWriter writer = new StringWriter();
+        String line = "SUMMARY:" + "ñ".repeat(40) + "\uD83D\uDE00".repeat(10);
+
+        CalendarFeedService.writeLine(writer, line);
+
+        String[] parts = writer.toString().split("\r\n");
+        StringBuilder unfolded = new StringBuilder(parts[0]);
+        for (int i = 0; i < parts.length; i++) {
+            int octets = parts[i].getBytes(StandardCharsets.UTF_8).length;
+            assertTrue(octets <= 75, "line " + i + " has " + octets + " octets");
+            assertFalse(Character.isLowSurrogate(parts[i].charAt(i == 0 ? 0 : 1)));
+            if (i > 0) {
+                assertTrue(parts[i].startsWith(" "));
+                unfolded.append(parts[i].substring(1));
+            }
+        }
+        assertEquals(74, parts[0].getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(line, unfolded.toString());
+    }
+
+    @Test
+    void toEventStatus_MapsCanceledTurnsToCancelledEvents() {
+        assertEquals("CANCELLED", CalendarFeedService.toEventStatus("CANCELED"));
+        assertEquals("CONFIRMED", CalendarFeedService.toEventStatus("SCHEDULED"));
+        assertEquals("CONFIRMED", CalendarFeedService.toEventStatus("COMPLETED"));
+    }
+
+    private static User user(String calendarFeedSecret) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setCalendarFeedSecret(calendarFeedSecret);
+        return user;
+    }
+}
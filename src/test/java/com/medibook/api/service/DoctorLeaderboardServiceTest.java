@@ -0,0 +1,242 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.DoctorDTO;
+import com.medibook.api.dto.DoctorLeaderboardPageDTO;
+import com.medibook.api.entity.DoctorProfile;
+import com.medibook.api.entity.User;
+import com.medibook.api.mapper.DoctorMapper;
+import com.medibook.api.repository.RatingAggregateRepository;
+import com.medibook.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorLeaderboardServiceTest {
+
+    @Mock
+    private RatingAggregateRepository aggregateRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DoctorMapper doctorMapper;
+
+    @InjectMocks
+    private DoctorLeaderboardService leaderboardService;
+
+    private User cardioTop;
+    private User cardioLow;
+    private User cardioUnrated;
+    private User pediatrician;
+
+    @BeforeEach
+    void setUp() {
+        cardioTop = doctor("Cardiología");
+        cardioLow = doctor("Cardiología");
+        cardioUnrated = doctor("Cardiología");
+        pediatrician = doctor("Pediatría");
+
+        // Weighted now: cardioTop 3.94, pediatrician 3.75, cardioLow 3.5
+        when(aggregateRepository.findActiveDoctorTotals()).thenReturn(List.of(
+                totals(cardioLow, Instant.now(), 4, 3),
+                unrated(cardioUnrated),
+                totals(cardioTop, Instant.now(), 5, 5, 4),
+                totals(pediatrician, Instant.now(), 5)));
+        leaderboardService.rebuild();
+
+        lenient().when(userRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            // Returned in reverse to check that the ranking order is restored
+            List<User> users = new ArrayList<>();
+            for (User user : List.of(pediatrician, cardioUnrated, cardioLow, cardioTop)) {
+                if (ids.contains(user.getId())) {
+                    users.add(user);
+                }
+            }
+            return users;
+        });
+        lenient().when(doctorMapper.toDTO(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            return DoctorDTO.builder().id(user.getId()).weightedScore(user.getWeightedScore()).build();
+        });
+    }
+
+    @Test
+    void getPage_BySpecialty_RanksByWeightedScoreWithUnratedLast() {
+        DoctorLeaderboardPageDTO page = leaderboardService.getPage("Cardiología", 0, 10);
+
+        assertEquals(List.of(cardioTop.getId(), cardioLow.getId(), cardioUnrated.getId()), ids(page));
+        assertEquals(3.94, page.getDoctors().get(0).getWeightedScore());
+        assertNull(page.getDoctors().get(2).getWeightedScore());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(1, page.getTotalPages());
+        assertEquals("Cardiología", page.getSpecialty());
+    }
+
+    @Test
+    void getPage_WithoutSpecialty_RanksAllDoctorsAndPaginates() {
+        DoctorLeaderboardPageDTO first = leaderboardService.getPage(null, 0, 2);
+        DoctorLeaderboardPageDTO second = leaderboardService.getPage(" ", 1, 2);
+
+        assertEquals(List.of(cardioTop.getId(), pediatrician.getId()), ids(first));
+        assertEquals(List.of(cardioLow.getId(), cardioUnrated.getId()), ids(second));
+        assertEquals(4, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+        assertNull(second.getSpecialty());
+    }
+
+    @Test
+    void rebuild_ScoresEveryDoctorAtTheSameInstant() {
+        // Stored at rating time, the old ratings would score 4.5 against 4.17 for the recent ones
+        User ratedLongAgo = doctor("Dermatología");
+        User ratedToday = doctor("Dermatología");
+        when(aggregateRepository.findActiveDoctorTotals()).thenReturn(List.of(
+                totals(ratedLongAgo, Instant.now().minus(Duration.ofDays(730)), 5, 5, 5, 5, 5, 5, 5, 5, 5, 5),
+                totals(ratedToday, Instant.now(), 5, 5, 5, 5, 5, 4, 4, 4, 4, 4)));
+        lenient().when(userRepository.findAllById(anyList())).thenReturn(List.of(ratedLongAgo, ratedToday));
+
+        leaderboardService.rebuild();
+
+        assertEquals(List.of(ratedToday.getId(), ratedLongAgo.getId()),
+                ids(leaderboardService.getPage("Dermatología", 0, 10)));
+    }
+
+    @Test
+    void update_NewScore_MovesDoctorWithinRanking() {
+        stubTotals(totals(cardioLow, Instant.now(), 5, 5, 5, 5, 4, 3));
+
+        leaderboardService.update(cardioLow);
+
+        assertEquals(List.of(cardioLow.getId(), cardioTop.getId(), cardioUnrated.getId()),
+                ids(leaderboardService.getPage("Cardiología", 0, 10)));
+    }
+
+    @Test
+    void update_RanksTheStoredTotalsNotTheCallersCopy() {
+        User staleCopy = doctor("Cardiología");
+        staleCopy.setId(cardioLow.getId());
+        staleCopy.setWeightedScore(1.0);
+        stubTotals(totals(cardioLow, Instant.now(), 5, 5, 5, 5, 5, 5));
+
+        leaderboardService.update(staleCopy);
+
+        assertEquals(cardioLow.getId(), ids(leaderboardService.getPage(null, 0, 1)).get(0));
+    }
+
+    @Test
+    void update_SpecialtyChange_MovesDoctorBetweenRankings() {
+        cardioTop.getDoctorProfile().setSpecialty("Pediatría");
+        stubTotals(totals(cardioTop, Instant.now(), 5, 5, 4));
+
+        leaderboardService.update(cardioTop);
+
+        assertEquals(2, leaderboardService.getPage("Cardiología", 0, 10).getTotalElements());
+        assertEquals(List.of(cardioTop.getId(), pediatrician.getId()),
+                ids(leaderboardService.getPage("Pediatría", 0, 10)));
+    }
+
+    @Test
+    void update_DisabledDoctor_IsRemoved() {
+        cardioTop.setStatus("DISABLED");
+        when(aggregateRepository.findActiveDoctorTotalsById(cardioTop.getId())).thenReturn(Optional.empty());
+
+        leaderboardService.update(cardioTop);
+
+        assertEquals(3, leaderboardService.getPage(null, 0, 10).getTotalElements());
+        assertFalse(ids(leaderboardService.getPage("Cardiología", 0, 10)).contains(cardioTop.getId()));
+    }
+
+    @Test
+    void getPage_UnknownSpecialty_ReturnsEmptyPage() {
+        DoctorLeaderboardPageDTO page = leaderboardService.getPage("Dermatología", 0, 10);
+
+        assertTrue(page.getDoctors().isEmpty());
+        assertEquals(0, page.getTotalElements());
+    }
+
+    @Test
+    void getPage_InvalidArguments_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getPage(null, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getPage(null, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> leaderboardService.getPage(null, 0, DoctorLeaderboardService.MAX_PAGE_SIZE + 1));
+    }
+
+    private List<UUID> ids(DoctorLeaderboardPageDTO page) {
+        return page.getDoctors().stream().map(DoctorDTO::getId).toList();
+    }
+
+    private User doctor(String specialty) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setRole("DOCTOR");
+        user.setStatus("ACTIVE");
+        DoctorProfile profile = new DoctorProfile();
+        profile.setSpecialty(specialty);
+        user.setDoctorProfile(profile);
+        return user;
+    }
+
+    private void stubTotals(RatingAggregateRepository.DoctorTotals totals) {
+        when(aggregateRepository.findActiveDoctorTotalsById(totals.getDoctorId())).thenReturn(Optional.of(totals));
+    }
+
+    /** Totals of ratings all given at {@code ratedAt}, forward-decayed like the aggregate rows. */
+    private RatingAggregateRepository.DoctorTotals totals(User doctor, Instant ratedAt, int... scores) {
+        double weight = RatingAggregateService.decayWeight(ratedAt);
+        return totals(doctor, (long) scores.length, IntStream.of(scores).sum() * weight, scores.length * weight);
+    }
+
+    private RatingAggregateRepository.DoctorTotals unrated(User doctor) {
+        return totals(doctor, null, null, null);
+    }
+
+    private RatingAggregateRepository.DoctorTotals totals(User doctor, Long ratingCount, Double decayedScoreSum,
+                                                          Double decayedWeight) {
+        String specialty = doctor.getDoctorProfile().getSpecialty();
+        return new RatingAggregateRepository.DoctorTotals() {
+            @Override
+            public UUID getDoctorId() {
+                return doctor.getId();
+            }
+
+            @Override
+            public String getSpecialty() {
+                return specialty;
+            }
+
+            @Override
+            public Long getRatingCount() {
+                return ratingCount;
+            }
+
+            @Override
+            public Double getDecayedScoreSum() {
+                return decayedScoreSum;
+            }
+
+            @Override
+            public Double getDecayedWeight() {
+                return decayedWeight;
+            }
+        };
+    }
+}
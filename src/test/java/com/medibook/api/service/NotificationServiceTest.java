@@ -2,8 +2,10 @@ package com.medibook.api.service;
 
 import com.medibook.api.entity.Notification;
 import com.medibook.api.entity.NotificationType;
+import com.medibook.api.entity.SyncTombstone;
 import com.medibook.api.entity.User;
 import com.medibook.api.repository.NotificationRepository;
+import com.medibook.api.repository.SyncTombstoneRepository;
 import com.medibook.api.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,6 +32,12 @@ class NotificationServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserChangeVersionService changeVersionService;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -121,23 +130,23 @@ class NotificationServiceTest {
     @Test
     void testMarkAsRead_Success() {
         UUID notificationId = testNotification.getId();
-        when(notificationRepository.markAsReadByIdAndUserId(notificationId, testUser.getId())).thenReturn(1);
+        when(notificationRepository.markAsReadByIdAndUserId(eq(notificationId), eq(testUser.getId()), any(OffsetDateTime.class))).thenReturn(1);
 
         boolean result = notificationService.markAsRead(notificationId, testUser.getId());
 
         assertTrue(result);
-        verify(notificationRepository).markAsReadByIdAndUserId(notificationId, testUser.getId());
+        verify(notificationRepository).markAsReadByIdAndUserId(eq(notificationId), eq(testUser.getId()), any(OffsetDateTime.class));
     }
 
     @Test
     void testMarkAsRead_NotFound() {
         UUID notificationId = testNotification.getId();
-        when(notificationRepository.markAsReadByIdAndUserId(notificationId, testUser.getId())).thenReturn(0);
+        when(notificationRepository.markAsReadByIdAndUserId(eq(notificationId), eq(testUser.getId()), any(OffsetDateTime.class))).thenReturn(0);
 
         boolean result = notificationService.markAsRead(notificationId, testUser.getId());
 
         assertFalse(result);
-        verify(notificationRepository).markAsReadByIdAndUserId(notificationId, testUser.getId());
+        verify(notificationRepository).markAsReadByIdAndUserId(eq(notificationId), eq(testUser.getId()), any(OffsetDateTime.class));
     }
 
     @Test
@@ -149,6 +158,9 @@ class NotificationServiceTest {
 
         assertTrue(result);
         verify(notificationRepository).deleteByIdAndUserId(notificationId, testUser.getId());
+        verify(tombstoneRepository).save(argThat(t -> notificationId.equals(t.getEntityId())
+                && SyncTombstone.NOTIFICATION.equals(t.getEntityType())
+                && testUser.getId().equals(t.getUserId())));
     }
 
     @Test
@@ -160,6 +172,7 @@ class NotificationServiceTest {
 
         assertFalse(result);
         verify(notificationRepository).deleteByIdAndUserId(notificationId, testUser.getId());
+        verify(tombstoneRepository, never()).save(any());
     }
 
     @Test
@@ -32,6 +32,12 @@ class ProfileServiceDeactivationTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private TurnViewService turnViewService;
+
+    @Mock
+    private DoctorLeaderboardService doctorLeaderboardService;
+
     @InjectMocks
     private ProfileService profileService;
 
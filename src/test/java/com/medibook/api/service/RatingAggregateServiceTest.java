@@ -0,0 +1,158 @@
+package com.medibook.api.service;
+
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.RatingAggregateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingAggregateServiceTest {
+
+    @Mock
+    private RatingAggregateRepository aggregateRepository;
+
+    @Mock
+    private DoctorLeaderboardService doctorLeaderboardService;
+
+    @InjectMocks
+    private RatingAggregateService ratingAggregateService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void recordRating_ExistingAggregate_IncrementsOnceAndSetsScores() {
+        User user = user();
+        when(aggregateRepository.increment(eq(userId), eq(4), anyDouble(), any())).thenReturn(1);
+        when(aggregateRepository.findTotalsByUserId(userId)).thenReturn(Optional.of(totals(14, 3, 0, 0)));
+
+        ratingAggregateService.recordRating(user, 4);
+
+        assertEquals(4.67, user.getScore());
+        assertEquals(RatingAggregateService.PRIOR_MEAN, user.getWeightedScore());
+        verify(aggregateRepository, times(1)).increment(eq(userId), eq(4), anyDouble(), any());
+        verify(aggregateRepository, never()).insertEmptyIfMissing(any(), any());
+    }
+
+    @Test
+    void recordRating_FirstRating_CreatesRowThenIncrementsWithCurrentDecayWeight() {
+        User user = user();
+        when(aggregateRepository.increment(eq(userId), eq(5), anyDouble(), any())).thenReturn(0, 1);
+        when(aggregateRepository.findTotalsByUserId(userId)).thenReturn(Optional.of(totals(5, 1, 0, 0)));
+
+        ratingAggregateService.recordRating(user, 5);
+
+        assertEquals(5.0, user.getScore());
+        verify(aggregateRepository).insertEmptyIfMissing(eq(userId), any());
+        ArgumentCaptor<Double> weight = ArgumentCaptor.forClass(Double.class);
+        verify(aggregateRepository, times(2)).increment(eq(userId), eq(5), weight.capture(), any());
+        assertEquals(RatingAggregateService.decayWeight(Instant.now()), weight.getValue(), 0.001);
+    }
+
+    @Test
+    void weightedScoreOf_ManyGoodRatingsOutrankASinglePerfectOne() {
+        Instant at = RatingAggregateService.DECAY_EPOCH;
+
+        Double single = RatingAggregateService.weightedScoreOf(5, 1, 1, at);
+        Double many = RatingAggregateService.weightedScoreOf(500 * 4.9, 500, 500, at);
+
+        assertEquals(3.75, single);
+        assertEquals(4.89, many);
+        assertTrue(many > single);
+        assertNull(RatingAggregateService.weightedScoreOf(0, 0, 0, at));
+    }
+
+    @Test
+    void weightedScoreOf_RecentRatingsOutweighOldOnes() {
+        Instant twoHalfLivesLater = RatingAggregateService.DECAY_EPOCH
+                .plus(RatingAggregateService.HALF_LIFE.multipliedBy(2));
+        // Ten 1-star ratings at the epoch (weight 1) and ten 5-star ratings two half-lives later (weight 4)
+        double weight = 10 * 1.0 + 10 * 4.0;
+        double scoreSum = 10 * 1.0 + 10 * 5 * 4.0;
+
+        assertEquals(4.0, RatingAggregateService.weightedScoreOf(scoreSum, weight, 20, twoHalfLivesLater));
+    }
+
+    @Test
+    void decayWeight_DoublesEveryHalfLife() {
+        assertEquals(1.0, RatingAggregateService.decayWeight(RatingAggregateService.DECAY_EPOCH), 1e-9);
+        assertEquals(2.0, RatingAggregateService.decayWeight(
+                RatingAggregateService.DECAY_EPOCH.plus(RatingAggregateService.HALF_LIFE)), 1e-9);
+    }
+
+    @Test
+    void getAverageScore_NoAggregate_ReturnsNull() {
+        when(aggregateRepository.findTotalsByUserId(userId)).thenReturn(Optional.empty());
+
+        assertNull(ratingAggregateService.getAverageScore(userId));
+    }
+
+    @Test
+    void rebuildAll_ReplacesAggregatesAndRederivesScores() {
+        when(aggregateRepository.insertFromRatings(any(), anyDouble(), anyDouble())).thenReturn(7);
+
+        int users = ratingAggregateService.rebuildAll();
+
+        assertEquals(7, users);
+        var inOrder = inOrder(aggregateRepository);
+        inOrder.verify(aggregateRepository).lockForRebuild();
+        inOrder.verify(aggregateRepository).deleteAllRows();
+        inOrder.verify(aggregateRepository).insertFromRatings(any(),
+                eq((double) RatingAggregateService.DECAY_EPOCH.getEpochSecond()),
+                eq((double) RatingAggregateService.HALF_LIFE.toSeconds()));
+        inOrder.verify(aggregateRepository).updateUserScoresFromAggregates();
+        inOrder.verify(aggregateRepository).updateUserWeightedScoresFromAggregates(
+                eq(RatingAggregateService.PRIOR_MEAN), eq(RatingAggregateService.PRIOR_WEIGHT), anyDouble());
+        inOrder.verify(aggregateRepository).updateTurnViewPatientScores();
+        verify(doctorLeaderboardService).rebuildAfterCommit();
+    }
+
+    @Test
+    void averageOf_RoundsToTwoDecimals() {
+        assertNull(RatingAggregateService.averageOf(0, 0));
+        assertEquals(3.33, RatingAggregateService.averageOf(10, 3));
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+
+    private RatingAggregateRepository.Totals totals(long sum, long count, double decayedSum, double decayedWeight) {
+        return new RatingAggregateRepository.Totals() {
+            @Override
+            public long getScoreSum() {
+                return sum;
+            }
+
+            @Override
+            public long getRatingCount() {
+                return count;
+            }
+
+            @Override
+            public double getDecayedScoreSum() {
+                return decayedSum;
+            }
+
+            @Override
+            public double getDecayedWeight() {
+                return decayedWeight;
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Admin.AdminRatingsResponseDTO.RatingStatsDTO;
+import com.medibook.api.dto.Admin.AdminRatingsResponseDTO.SpecialtyStatsDTO;
+import com.medibook.api.entity.DoctorProfile;
+import com.medibook.api.entity.Rating;
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.RatingRepository;
+import com.medibook.api.repository.RatingRollupRepository;
+import com.medibook.api.repository.RatingSubcategoryRollupRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingRollupServiceTest {
+
+    @Mock
+    private RatingRollupRepository rollupRepository;
+
+    @Mock
+    private RatingSubcategoryRollupRepository subcategoryRollupRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private RatingRollupService ratingRollupService;
+
+    private User patient;
+    private User doctor;
+
+    @BeforeEach
+    void setUp() {
+        patient = new User();
+        patient.setId(UUID.randomUUID());
+        patient.setRole("PATIENT");
+
+        doctor = new User();
+        doctor.setId(UUID.randomUUID());
+        doctor.setRole("DOCTOR");
+        DoctorProfile profile = new DoctorProfile();
+        profile.setSpecialty("Cardiología");
+        doctor.setDoctorProfile(profile);
+    }
+
+    @Test
+    void recordRating_ExistingRows_IncrementsRollupAndEachSubcategory() {
+        // 01:30 UTC is still the previous day in Buenos Aires
+        Rating rating = rating(patient, doctor, 4, OffsetDateTime.of(2025, 3, 10, 1, 30, 0, 0, ZoneOffset.UTC),
+                Set.of("EXPLICA_CLARAMENTE", "GENERA_CONFIANZA"));
+        LocalDate day = LocalDate.of(2025, 3, 9);
+        when(rollupRepository.increment(eq(day), eq("PATIENT"), eq("Cardiología"), eq(4), any())).thenReturn(1);
+        when(subcategoryRollupRepository.increment(eq(day), eq("PATIENT"), eq("Cardiología"), any())).thenReturn(1);
+
+        ratingRollupService.recordRating(rating);
+
+        verify(rollupRepository, never()).insertEmptyIfMissing(any(), any(), any(), any());
+        verify(subcategoryRollupRepository).increment(day, "PATIENT", "Cardiología", "EXPLICA_CLARAMENTE");
+        verify(subcategoryRollupRepository).increment(day, "PATIENT", "Cardiología", "GENERA_CONFIANZA");
+        verify(subcategoryRollupRepository, never()).insertEmptyIfMissing(any(), any(), any(), any());
+    }
+
+    @Test
+    void recordRating_FirstRatingOfTheDay_CreatesRowsThenIncrements() {
+        Rating rating = rating(doctor, patient, 5, OffsetDateTime.of(2025, 3, 10, 15, 0, 0, 0, ZoneOffset.UTC),
+                Set.of("LLEGA_PUNTUAL"));
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        when(rollupRepository.increment(eq(day), eq("DOCTOR"), eq("Cardiología"), eq(5), any())).thenReturn(0, 1);
+        when(subcategoryRollupRepository.increment(day, "DOCTOR", "Cardiología", "LLEGA_PUNTUAL")).thenReturn(0, 1);
+
+        ratingRollupService.recordRating(rating);
+
+        verify(rollupRepository).insertEmptyIfMissing(eq(day), eq("DOCTOR"), eq("Cardiología"), any());
+        verify(rollupRepository, times(2)).increment(eq(day), eq("DOCTOR"), eq("Cardiología"), eq(5), any());
+        verify(subcategoryRollupRepository).insertEmptyIfMissing(day, "DOCTOR", "Cardiología", "LLEGA_PUNTUAL");
+    }
+
+    @Test
+    void getStats_CombinesRollupRowsByRoleAndSpecialty() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"PATIENT", "Cardiología", 3L, 13L, 0L, 0L, 0L, 2L, 1L});
+        rows.add(new Object[]{"PATIENT", "", 1L, 2L, 0L, 1L, 0L, 0L, 0L});
+        rows.add(new Object[]{"DOCTOR", "Cardiología", 2L, 9L, 0L, 0L, 0L, 1L, 1L});
+        when(rollupRepository.sumByRoleAndSpecialty(any(), any())).thenReturn(rows);
+        List<Object[]> subcategories = new ArrayList<>();
+        subcategories.add(new Object[]{"DOCTOR", "Cardiología", "LLEGA_PUNTUAL", 3L});
+        subcategories.add(new Object[]{"PATIENT", "", "EXPLICA_CLARAMENTE", 1L});
+        subcategories.add(new Object[]{"PATIENT", "Cardiología", "EXPLICA_CLARAMENTE", 3L});
+        subcategories.add(new Object[]{"PATIENT", "Cardiología", "LLEGA_PUNTUAL", 1L});
+        when(subcategoryRollupRepository.sumByRoleSpecialtyAndSubcategory(any(), any())).thenReturn(subcategories);
+
+        RatingStatsDTO stats = ratingRollupService.getStats(null, null);
+
+        assertEquals(6, stats.getTotalRatings());
+        assertEquals(4, stats.getPatientRatingsCount());
+        assertEquals(2, stats.getDoctorRatingsCount());
+        assertEquals(4.0, stats.getAverageScore());
+        assertEquals(3.75, stats.getAveragePatientRating());
+        assertEquals(4.5, stats.getAverageDoctorRating());
+        assertEquals(List.of(0L, 1L, 0L, 3L, 2L), stats.getScoreHistogram());
+        assertEquals("Explica claramente", stats.getTopSubcategories().get(0).getSubcategory());
+        assertEquals(4L, stats.getTopSubcategories().get(0).getCount());
+        assertEquals(4L, stats.getTopSubcategories().get(1).getCount());
+        assertEquals(2, stats.getBySpecialty().size());
+
+        SpecialtyStatsDTO patients = stats.getBySpecialty().get(0);
+        assertEquals("PATIENT", patients.getRaterRole());
+        assertEquals(2, patients.getTopSubcategories().size());
+        assertEquals("Explica claramente", patients.getTopSubcategories().get(0).getSubcategory());
+        assertEquals(3L, patients.getTopSubcategories().get(0).getCount());
+        SpecialtyStatsDTO doctors = stats.getBySpecialty().get(1);
+        assertEquals(1, doctors.getTopSubcategories().size());
+        assertEquals(3L, doctors.getTopSubcategories().get(0).getCount());
+    }
+
+    @Test
+    void getStats_FromAfterTo_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ratingRollupService.getStats(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+    }
+
+    @Test
+    void rebuildAll_LocksTheRollupsBeforeReadingTheRatings() {
+        when(ratingRepository.streamForAdmin(null)).thenReturn(Stream.of(
+                rating(patient, doctor, 4, OffsetDateTime.of(2025, 3, 10, 15, 0, 0, 0, ZoneOffset.UTC), Set.of("LLEGA_PUNTUAL")),
+                rating(patient, doctor, 5, OffsetDateTime.of(2025, 3, 10, 16, 0, 0, 0, ZoneOffset.UTC), Set.of())));
+
+        int rollups = ratingRollupService.rebuildAll();
+
+        assertEquals(1, rollups);
+        var inOrder = inOrder(rollupRepository, subcategoryRollupRepository, ratingRepository);
+        inOrder.verify(rollupRepository).lockForRebuild();
+        inOrder.verify(ratingRepository).streamForAdmin(null);
+        inOrder.verify(subcategoryRollupRepository).deleteAllRows();
+        inOrder.verify(rollupRepository).deleteAllRows();
+        inOrder.verify(rollupRepository).saveAll(argThat(saved -> saved.iterator().next().getRatingCount() == 2));
+        inOrder.verify(subcategoryRollupRepository).saveAll(any());
+    }
+
+    @Test
+    void specialtyOf_UsesTheDoctorSideOfTheRating() {
+        assertEquals("Cardiología", RatingRollupService.specialtyOf(rating(patient, doctor, 5, OffsetDateTime.now(), Set.of())));
+        assertEquals("Cardiología", RatingRollupService.specialtyOf(rating(doctor, patient, 5, OffsetDateTime.now(), Set.of())));
+
+        doctor.setDoctorProfile(null);
+        assertEquals("", RatingRollupService.specialtyOf(rating(patient, doctor, 5, OffsetDateTime.now(), Set.of())));
+    }
+
+    private Rating rating(User rater, User rated, int score, OffsetDateTime createdAt, Set<String> codes) {
+        return Rating.builder()
+                .rater(rater)
+                .rated(rated)
+                .score(score)
+                .createdAt(createdAt)
+                .subcategoryCodes(codes)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.medibook.api.service;
+
+import com.medibook.api.config.H2UpsertStatementInspector;
+import com.medibook.api.entity.TurnAssigned;
+import com.medibook.api.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RatingWriteQueryBudgetTest {
+
+    // One statement loads the turn with both parties and profiles; rating the patient adds the
+    // turn view score refresh. Each party whose badges the rating moves gets one badge event
+    // insert. A later rating only updates the daily rollup, subcategory rollup and aggregate
+    // rows; the first rating of the day misses on each of them, creates it and updates again.
+    private static final long PATIENT_RATES_DOCTOR_STATEMENTS = 22;
+    private static final long DOCTOR_RATES_PATIENT_STATEMENTS = 23;
+    private static final long PATIENT_RATES_DOCTOR_AGAIN_STATEMENTS = 16;
+    private static final long DOCTOR_RATES_PATIENT_AGAIN_STATEMENTS = 17;
+
+    @Autowired
+    private TurnAssignedService turnAssignedService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User doctor;
+    private User patient;
+    private TurnAssigned turn;
+    private TurnAssigned nextTurn;
+
+    @BeforeEach
+    void setUp() {
+        doctor = createUser("budget-doctor@test.com", 87654321L, "DOCTOR");
+        patient = createUser("budget-patient@test.com", 12345678L, "PATIENT");
+        entityManager.persist(doctor);
+        entityManager.persist(patient);
+        turn = completedTurn(OffsetDateTime.now().minusDays(2));
+        nextTurn = completedTurn(OffsetDateTime.now().minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void addRating_PatientRatesDoctor_FirstRating_CreatesCounterRows() {
+        long statements = countStatements(() ->
+                turnAssignedService.addRating(turn.getId(), patient.getId(), 5, List.of("Explica claramente")));
+
+        assertEquals(PATIENT_RATES_DOCTOR_STATEMENTS, statements);
+    }
+
+    @Test
+    void addRating_DoctorRatesPatient_FirstRating_CreatesCounterRows() {
+        long statements = countStatements(() ->
+                turnAssignedService.addRating(turn.getId(), doctor.getId(), 4, List.of("Llega puntual")));
+
+        assertEquals(DOCTOR_RATES_PATIENT_STATEMENTS, statements);
+    }
+
+    @Test
+    void addRating_PatientRatesDoctorAgain_OnlyUpdatesExistingRows() {
+        turnAssignedService.addRating(turn.getId(), patient.getId(), 5, List.of("Explica claramente"));
+        entityManager.flush();
+        entityManager.clear();
+
+        long statements = countStatements(() ->
+                turnAssignedService.addRating(nextTurn.getId(), patient.getId(), 4, List.of("Explica claramente")));
+
+        assertEquals(PATIENT_RATES_DOCTOR_AGAIN_STATEMENTS, statements);
+    }
+
+    @Test
+    void addRating_DoctorRatesPatientAgain_OnlyUpdatesExistingRows() {
+        turnAssignedService.addRating(turn.getId(), doctor.getId(), 4, List.of("Llega puntual"));
+        entityManager.flush();
+        entityManager.clear();
+
+        long statements = countStatements(() ->
+                turnAssignedService.addRating(nextTurn.getId(), doctor.getId(), 5, List.of("Llega puntual")));
+
+        assertEquals(DOCTOR_RATES_PATIENT_AGAIN_STATEMENTS, statements);
+    }
+
+    private long countStatements(Runnable action) {
+        return H2UpsertStatementInspector.countStatements(() -> {
+            action.run();
+            entityManager.flush();
+        });
+    }
+
+    private TurnAssigned completedTurn(OffsetDateTime scheduledAt) {
+        TurnAssigned completed = TurnAssigned.builder()
+                .doctor(doctor)
+                .patient(patient)
+                .scheduledAt(scheduledAt)
+                .status("COMPLETED")
+                .needsPatientRating(true)
+                .needsDoctorRating(true)
+                .build();
+        entityManager.persist(completed);
+        return completed;
+    }
+
+    private User createUser(String email, Long dni, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setDni(dni);
+        user.setPasswordHash("hashedPassword");
+        user.setName("Test");
+        user.setSurname("User");
+        user.setPhone("123456789");
+        user.setBirthdate(LocalDate.of(1990, 1, 1));
+        user.setGender("MALE");
+        user.setEmailVerified(true);
+        user.setStatus("ACTIVE");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,164 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Sync.SyncResponseDTO;
+import com.medibook.api.dto.Turn.TurnResponseDTO;
+import com.medibook.api.entity.SyncTombstone;
+import com.medibook.api.entity.TurnView;
+import com.medibook.api.entity.User;
+import com.medibook.api.mapper.NotificationMapper;
+import com.medibook.api.mapper.TurnAssignedMapper;
+import com.medibook.api.mapper.TurnModifyRequestMapper;
+import com.medibook.api.repository.BadgeRepository;
+import com.medibook.api.repository.NotificationRepository;
+import com.medibook.api.repository.SyncTombstoneRepository;
+import com.medibook.api.repository.TurnModifyRequestRepository;
+import com.medibook.api.repository.TurnViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    @Mock
+    private TurnViewRepository turnViewRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private TurnModifyRequestRepository turnModifyRequestRepository;
+
+    @Mock
+    private BadgeRepository badgeRepository;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private TurnAssignedMapper turnMapper;
+
+    @Mock
+    private NotificationMapper notificationMapper;
+
+    @Mock
+    private TurnModifyRequestMapper modifyRequestMapper;
+
+    @Mock
+    private BadgeService badgeService;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private User patient;
+    private User doctor;
+
+    @BeforeEach
+    void setUp() {
+        patient = new User();
+        patient.setId(UUID.randomUUID());
+        patient.setRole("PATIENT");
+
+        doctor = new User();
+        doctor.setId(UUID.randomUUID());
+        doctor.setRole("DOCTOR");
+    }
+
+    @Test
+    void getChanges_WithoutToken_ReturnsFullSyncWithoutTombstones() {
+        TurnView view = TurnView.builder().turnId(UUID.randomUUID()).build();
+        TurnResponseDTO dto = TurnResponseDTO.builder().id(view.getTurnId()).build();
+        when(tombstoneRepository.currentSnapshotXmin()).thenReturn(500L);
+        when(turnViewRepository.findByPatientIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(patient.getId(), 0L))
+                .thenReturn(List.of(view));
+        when(turnMapper.toDTO(view)).thenReturn(dto);
+
+        SyncResponseDTO result = syncService.getChanges(patient, null);
+
+        assertTrue(result.isFullSync());
+        assertEquals(List.of(dto), result.getTurns());
+        assertTrue(result.getDeleted().isEmpty());
+        assertEquals(SyncService.toToken(500L), result.getSyncToken());
+        verify(tombstoneRepository, never()).findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(any(), anyLong());
+    }
+
+    @Test
+    void getChanges_WithToken_QueriesFromTheTokenTransactionAndIncludesTombstones() {
+        UUID deletedId = UUID.randomUUID();
+        when(tombstoneRepository.currentSnapshotXmin()).thenReturn(730L);
+        when(tombstoneRepository.findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(doctor.getId(), 700L))
+                .thenReturn(List.of(SyncTombstone.builder()
+                        .userId(doctor.getId())
+                        .entityType(SyncTombstone.NOTIFICATION)
+                        .entityId(deletedId)
+                        .deletedAt(OffsetDateTime.now())
+                        .build()));
+
+        SyncResponseDTO result = syncService.getChanges(doctor, SyncService.toToken(700L));
+
+        assertFalse(result.isFullSync());
+        assertEquals(SyncService.toToken(730L), result.getSyncToken());
+        assertEquals(1, result.getDeleted().size());
+        assertEquals(deletedId, result.getDeleted().get(0).getEntityId());
+        verify(turnViewRepository).findByDoctorIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(doctor.getId(), 700L);
+        verify(notificationRepository).findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(doctor.getId(), 700L);
+        verify(turnModifyRequestRepository).findChangedForUserSince(doctor.getId(), 700L);
+        verify(badgeRepository).findByUserIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(doctor.getId(), 700L);
+    }
+
+    @Test
+    void getChanges_CommitLandingAfterTheTokenWasIssued_IsReturnedByTheNextSync() {
+        // Transaction 640 stamped its turn before the first sync but commits only after it, so
+        // the first sync neither sees the row nor moves the cursor past the transaction
+        TurnView lateTurn = TurnView.builder().turnId(UUID.randomUUID()).syncXid(640L).build();
+        TurnResponseDTO lateDto = TurnResponseDTO.builder().id(lateTurn.getTurnId()).build();
+        when(tombstoneRepository.currentSnapshotXmin()).thenReturn(640L, 655L);
+        when(turnViewRepository.findByPatientIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(patient.getId(), 600L))
+                .thenReturn(List.of());
+        when(turnViewRepository.findByPatientIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(patient.getId(), 640L))
+                .thenReturn(List.of(lateTurn));
+        when(turnMapper.toDTO(lateTurn)).thenReturn(lateDto);
+
+        SyncResponseDTO first = syncService.getChanges(patient, SyncService.toToken(600L));
+        SyncResponseDTO second = syncService.getChanges(patient, first.getSyncToken());
+
+        assertTrue(first.getTurns().isEmpty());
+        assertEquals(List.of(lateDto), second.getTurns());
+        assertEquals(SyncService.toToken(655L), second.getSyncToken());
+    }
+
+    @Test
+    void getChanges_TimestampTokenFromBeforeTheUpgrade_ReturnsFullSync() {
+        when(tombstoneRepository.currentSnapshotXmin()).thenReturn(900L);
+
+        SyncResponseDTO result = syncService.getChanges(patient, "1700000000123");
+
+        assertTrue(result.isFullSync());
+        verify(turnViewRepository).findByPatientIdAndSyncXidGreaterThanEqualOrderBySyncXidAsc(patient.getId(), 0L);
+    }
+
+    @Test
+    void getChanges_InvalidToken_ThrowsIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> syncService.getChanges(patient, "not-a-token"));
+
+        assertEquals("Invalid sync token", exception.getMessage());
+    }
+
+    @Test
+    void tokenRoundTrip_PreservesTheTransactionId() {
+        assertEquals(1_700_000_123L, SyncService.parseToken(SyncService.toToken(1_700_000_123L)));
+    }
+}
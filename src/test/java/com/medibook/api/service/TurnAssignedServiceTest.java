@@ -2,19 +2,25 @@
 package com.medibook.api.service;
 
 import com.medibook.api.dto.Turn.TurnCreateRequestDTO;
+import com.medibook.api.entity.TurnView;
 import com.medibook.api.dto.Turn.TurnResponseDTO;
 import com.medibook.api.dto.email.EmailResponseDto;
 import com.medibook.api.entity.TurnAssigned;
 import com.medibook.api.entity.User;
+import com.medibook.api.event.RatingAddedEvent;
 import com.medibook.api.mapper.TurnAssignedMapper;
+import com.medibook.api.repository.SyncTombstoneRepository;
 import com.medibook.api.repository.TurnAssignedRepository;
+import com.medibook.api.repository.TurnViewRepository;
 import com.medibook.api.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.util.Arrays;
@@ -59,12 +65,33 @@ class TurnAssignedServiceTest {
     @Mock
     private com.medibook.api.service.BadgeEvaluationTriggerService badgeEvaluationTrigger;
 
+    @Mock
+    private DoctorLeaderboardService doctorLeaderboardService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TurnAssignedService turnAssignedService;
 
     @Mock
     private com.medibook.api.repository.TurnModifyRequestRepository turnModifyRequestRepository;
 
+    @Mock
+    private TurnViewRepository turnViewRepository;
+
+    @Mock
+    private TurnViewService turnViewService;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private RatingAggregateService ratingAggregateService;
+
+    @Mock
+    private RatingRollupService ratingRollupService;
+
     private UUID doctorId;
     private UUID patientId;
     private UUID turnId;
@@ -321,6 +348,7 @@ class TurnAssignedServiceTest {
         verify(turnRepo).findById(turnId);
         verify(userRepo).findById(patientId);
         verify(turnRepo).save(any(TurnAssigned.class));
+        verify(turnViewService).refresh(turnId);
     }
 
     @Test
@@ -644,72 +672,117 @@ class TurnAssignedServiceTest {
 
     @Test
     void getTurnsByDoctor_Success() {
-        List<TurnAssigned> turns = Arrays.asList(turnEntity);
-        List<TurnResponseDTO> expectedResponse = Arrays.asList(turnResponse);
+        TurnView row = createView("SCHEDULED");
 
-        when(turnRepo.findByDoctor_IdOrderByScheduledAtDesc(doctorId)).thenReturn(turns);
-        when(mapper.toDTO(turnEntity)).thenReturn(turnResponse);
+        when(turnViewRepository.findByDoctorIdOrderByScheduledAtDesc(doctorId)).thenReturn(List.of(row));
+        when(mapper.toDTO(row)).thenReturn(turnResponse);
 
         List<TurnResponseDTO> result = turnAssignedService.getTurnsByDoctor(doctorId);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(expectedResponse.get(0).getId(), result.get(0).getId());
-        verify(turnRepo).findByDoctor_IdOrderByScheduledAtDesc(doctorId);
-        verify(mapper).toDTO(turnEntity);
+        assertEquals(turnResponse.getId(), result.get(0).getId());
+        verify(turnViewRepository).findByDoctorIdOrderByScheduledAtDesc(doctorId);
+        verify(turnRepo, never()).findByDoctor_IdOrderByScheduledAtDesc(any());
+        verify(mapper).toDTO(row);
+    }
+
+    @Test
+    void completeTurn_AlreadyRatedByPatient_OnlyFlagsDoctor() {
+        TurnAssigned scheduledTurn = TurnAssigned.builder()
+                .id(turnId)
+                .doctor(doctor)
+                .patient(patient)
+                .scheduledAt(OffsetDateTime.now().minusHours(1))
+                .status("SCHEDULED")
+                .build();
+
+        when(turnRepo.findById(turnId)).thenReturn(Optional.of(scheduledTurn));
+        when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(true);
+        when(turnRepo.save(any(TurnAssigned.class))).thenReturn(scheduledTurn);
+
+        turnAssignedService.completeTurn(turnId, doctorId);
+
+        assertFalse(scheduledTurn.isNeedsPatientRating());
+        assertTrue(scheduledTurn.isNeedsDoctorRating());
+    }
+
+    @Test
+    void getTurnsAwaitingRating_UsesRoleSpecificPendingQuery() {
+        TurnView row = createView("COMPLETED");
+        when(turnViewRepository.findByDoctorIdAndNeedsDoctorRatingTrueOrderByScheduledAtDesc(doctorId))
+                .thenReturn(List.of(row));
+        when(mapper.toDTO(row)).thenReturn(turnResponse);
+
+        List<TurnResponseDTO> doctorTurns = turnAssignedService.getTurnsAwaitingRating(doctor);
+        List<TurnResponseDTO> patientTurns = turnAssignedService.getTurnsAwaitingRating(patient);
+
+        assertEquals(List.of(turnResponse), doctorTurns);
+        assertTrue(patientTurns.isEmpty());
+        verify(turnViewRepository).findByPatientIdAndNeedsPatientRatingTrueOrderByScheduledAtDesc(patientId);
+        verifyNoInteractions(ratingRepo);
     }
 
     @Test
     void getTurnsByPatient_Success() {
-        List<TurnAssigned> turns = Arrays.asList(turnEntity);
-        List<TurnResponseDTO> expectedResponse = Arrays.asList(turnResponse);
+        TurnView row = createView("SCHEDULED");
 
-        when(turnRepo.findByPatient_IdOrderByScheduledAtDesc(patientId)).thenReturn(turns);
-        when(mapper.toDTO(turnEntity)).thenReturn(turnResponse);
+        when(turnViewRepository.findByPatientIdOrderByScheduledAtDesc(patientId)).thenReturn(List.of(row));
+        when(mapper.toDTO(row)).thenReturn(turnResponse);
 
         List<TurnResponseDTO> result = turnAssignedService.getTurnsByPatient(patientId);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(expectedResponse.get(0).getId(), result.get(0).getId());
-        verify(turnRepo).findByPatient_IdOrderByScheduledAtDesc(patientId);
-        verify(mapper).toDTO(turnEntity);
+        assertEquals(turnResponse.getId(), result.get(0).getId());
+        verify(turnViewRepository).findByPatientIdOrderByScheduledAtDesc(patientId);
+        verify(mapper).toDTO(row);
     }
 
     @Test
     void getTurnsByDoctorAndStatus_Success() {
         String status = "SCHEDULED";
-        List<TurnAssigned> turns = Arrays.asList(turnEntity);
-        List<TurnResponseDTO> expectedResponse = Arrays.asList(turnResponse);
+        TurnView row = createView(status);
 
-        when(turnRepo.findByDoctor_IdAndStatusOrderByScheduledAtDesc(doctorId, status)).thenReturn(turns);
-        when(mapper.toDTO(turnEntity)).thenReturn(turnResponse);
+        when(turnViewRepository.findByDoctorIdAndStatusOrderByScheduledAtDesc(doctorId, status)).thenReturn(List.of(row));
+        when(mapper.toDTO(row)).thenReturn(turnResponse);
 
         List<TurnResponseDTO> result = turnAssignedService.getTurnsByDoctorAndStatus(doctorId, status);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(expectedResponse.get(0).getId(), result.get(0).getId());
-        verify(turnRepo).findByDoctor_IdAndStatusOrderByScheduledAtDesc(doctorId, status);
-        verify(mapper).toDTO(turnEntity);
+        assertEquals(turnResponse.getId(), result.get(0).getId());
+        verify(turnViewRepository).findByDoctorIdAndStatusOrderByScheduledAtDesc(doctorId, status);
+        verify(mapper).toDTO(row);
     }
 
     @Test
     void getTurnsByPatientAndStatus_Success() {
         String status = "SCHEDULED";
-        List<TurnAssigned> turns = Arrays.asList(turnEntity);
-        List<TurnResponseDTO> expectedResponse = Arrays.asList(turnResponse);
+        TurnView row = createView(status);
 
-        when(turnRepo.findByPatient_IdAndStatusOrderByScheduledAtDesc(patientId, status)).thenReturn(turns);
-        when(mapper.toDTO(turnEntity)).thenReturn(turnResponse);
+        when(turnViewRepository.findByPatientIdAndStatusOrderByScheduledAtDesc(patientId, status)).thenReturn(List.of(row));
+        when(mapper.toDTO(row)).thenReturn(turnResponse);
 
         List<TurnResponseDTO> result = turnAssignedService.getTurnsByPatientAndStatus(patientId, status);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(expectedResponse.get(0).getId(), result.get(0).getId());
-        verify(turnRepo).findByPatient_IdAndStatusOrderByScheduledAtDesc(patientId, status);
-        verify(mapper).toDTO(turnEntity);
+        assertEquals(turnResponse.getId(), result.get(0).getId());
+        verify(turnViewRepository).findByPatientIdAndStatusOrderByScheduledAtDesc(patientId, status);
+        verify(mapper).toDTO(row);
+    }
+
+    private TurnView createView(String status) {
+        return TurnView.builder()
+                .turnId(turnId)
+                .doctorId(doctorId)
+                .doctorName("Dr. Hugo Martinez")
+                .patientId(patientId)
+                .patientName("Juan Perez")
+                .scheduledAt(scheduledAt)
+                .status(status)
+                .build();
     }
 
     @Test
@@ -788,6 +861,11 @@ class TurnAssignedServiceTest {
         verify(mapper).toDTO(canceledTurn);
         verify(turnModifyRequestRepository).findByTurnAssigned_IdAndStatus(turnId, "PENDING");
         verify(turnModifyRequestRepository).deleteByTurnAssigned_IdAndStatus(turnId, "PENDING");
+        verify(tombstoneRepository).saveAll(argThat(tombstones -> {
+            java.util.List<com.medibook.api.entity.SyncTombstone> list = new java.util.ArrayList<>();
+            tombstones.forEach(list::add);
+            return list.size() == 2 && list.stream().allMatch(t -> pendingRequest.getId().equals(t.getEntityId()));
+        }));
         assertEquals("CANCELED", scheduledTurn.getStatus());
     }
     
@@ -823,6 +901,7 @@ class TurnAssignedServiceTest {
         verify(mapper).toDTO(canceledTurn);
         verify(turnModifyRequestRepository).findByTurnAssigned_IdAndStatus(turnId, "PENDING");
         verify(turnModifyRequestRepository, never()).deleteByTurnAssigned_IdAndStatus(any(UUID.class), eq("PENDING"));
+        verify(tombstoneRepository, never()).saveAll(any());
         assertEquals("CANCELED", scheduledTurn.getStatus());
     }
 
@@ -836,7 +915,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(false);
 
@@ -846,17 +925,26 @@ class TurnAssignedServiceTest {
                 .rater(doctor)
                 .rated(patient)
                 .score(5)
-                .subcategory("Respetuoso")
+                .subcategoryCodes(java.util.Set.of("RESPETUOSO"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(saved);
+        doAnswer(invocation -> {
+            invocation.<User>getArgument(0).setScore(4.67);
+            return null;
+        }).when(ratingAggregateService).recordRating(patient, 5);
 
     com.medibook.api.entity.Rating result = turnAssignedService.addRating(turnId, doctorId, 5, java.util.List.of("Respetuoso"));
 
         assertNotNull(result);
-        assertEquals("Respetuoso", result.getSubcategory());
+        assertEquals(java.util.Set.of("RESPETUOSO"), result.getSubcategoryCodes());
+        assertEquals(4.67, patient.getScore());
+        verify(ratingRollupService).recordRating(any(com.medibook.api.entity.Rating.class));
         verify(ratingRepo).save(any(com.medibook.api.entity.Rating.class));
+        verify(userRepo, never()).save(patient);
+        verify(turnViewService).refresh(turnId);
+        verify(turnViewService).refreshPatientScore(patientId, 4.67);
     }
 
     @Test
@@ -869,7 +957,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(false);
 
@@ -909,6 +997,7 @@ class TurnAssignedServiceTest {
 
         when(turnRepo.findById(turnId)).thenReturn(Optional.of(scheduledTurn));
         when(turnRepo.save(any(TurnAssigned.class))).thenReturn(completedTurn);
+        when(turnRepo.countByDoctor_IdAndPatient_IdAndStatus(doctorId, patientId, "COMPLETED")).thenReturn(1L);
         when(mapper.toDTO(completedTurn)).thenReturn(turnResponse);
 
         TurnResponseDTO result = turnAssignedService.completeTurn(turnId, doctorId);
@@ -916,8 +1005,12 @@ class TurnAssignedServiceTest {
         assertNotNull(result);
         assertEquals("COMPLETED", result.getStatus());
         assertEquals("COMPLETED", scheduledTurn.getStatus());
+        assertTrue(scheduledTurn.isNeedsPatientRating());
+        assertTrue(scheduledTurn.isNeedsDoctorRating());
         verify(turnRepo).findById(turnId);
         verify(turnRepo).save(scheduledTurn);
+        verify(badgeEvaluationTrigger).evaluateAfterTurnCompletion(doctorId, true);
+        verify(badgeEvaluationTrigger).evaluateAfterTurnCompletion(patientId, true);
     }
 
     @Test
@@ -948,6 +1041,7 @@ class TurnAssignedServiceTest {
 
         when(turnRepo.findById(turnId)).thenReturn(Optional.of(reservedTurn));
         when(turnRepo.save(any(TurnAssigned.class))).thenReturn(completedTurn);
+        when(turnRepo.countByDoctor_IdAndPatient_IdAndStatus(doctorId, patientId, "COMPLETED")).thenReturn(3L);
         when(mapper.toDTO(completedTurn)).thenReturn(turnResponse);
 
         TurnResponseDTO result = turnAssignedService.completeTurn(turnId, doctorId);
@@ -955,6 +1049,8 @@ class TurnAssignedServiceTest {
         assertNotNull(result);
         assertEquals("COMPLETED", result.getStatus());
         assertEquals("COMPLETED", reservedTurn.getStatus());
+        // Not the first completed turn together, so the doctor gains no distinct patient
+        verify(badgeEvaluationTrigger).evaluateAfterTurnCompletion(doctorId, false);
     }
 
     @Test
@@ -1112,7 +1208,7 @@ class TurnAssignedServiceTest {
 
     @Test
     void addRating_TurnNotFound_ThrowsException() {
-        when(turnRepo.findById(turnId)).thenReturn(Optional.empty());
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> turnAssignedService.addRating(turnId, doctorId, 4, java.util.List.of()));
@@ -1131,7 +1227,7 @@ class TurnAssignedServiceTest {
                 .status("CANCELED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(canceledTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(canceledTurn));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> turnAssignedService.addRating(turnId, doctorId, 4, java.util.List.of()));
@@ -1150,11 +1246,12 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
-        when(userRepo.findById(doctorId)).thenReturn(Optional.empty());
+        UUID unknownUserId = UUID.randomUUID();
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(userRepo.findById(unknownUserId)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> turnAssignedService.addRating(turnId, doctorId, 4, java.util.List.of()));
+                () -> turnAssignedService.addRating(turnId, unknownUserId, 4, java.util.List.of()));
 
         assertEquals("Rater not found", exception.getMessage());
         verify(ratingRepo, never()).save(any());
@@ -1177,7 +1274,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(randomUserId)).thenReturn(Optional.of(randomUser));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -1197,7 +1294,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(true);
 
@@ -1208,6 +1305,28 @@ class TurnAssignedServiceTest {
         verify(ratingRepo, never()).save(any());
     }
 
+    @Test
+    void addRating_PendingRatingFlag_SkipsExistenceCheck() {
+        TurnAssigned completedTurn = TurnAssigned.builder()
+                .id(turnId)
+                .doctor(doctor)
+                .patient(patient)
+                .scheduledAt(OffsetDateTime.now().minusDays(1))
+                .status("COMPLETED")
+                .needsPatientRating(true)
+                .build();
+
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        turnAssignedService.addRating(turnId, patientId, 5, java.util.List.of());
+
+        verify(ratingRepo, never()).existsByTurnAssigned_IdAndRater_Id(any(), any());
+        verify(userRepo, never()).findById(any());
+        assertFalse(completedTurn.isNeedsPatientRating());
+        assertEquals(patientId, publishedRatingEvent().raterId());
+    }
+
     @Test
     void addRating_InvalidScore_ThrowsException() {
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -1234,6 +1353,8 @@ class TurnAssignedServiceTest {
                 .patient(patient)
                 .scheduledAt(OffsetDateTime.now().minusDays(1))
                 .status("COMPLETED")
+                .needsPatientRating(true)
+                .needsDoctorRating(true)
                 .build();
 
         com.medibook.api.entity.Rating savedRating = com.medibook.api.entity.Rating.builder()
@@ -1242,11 +1363,11 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(5)
-                .subcategory(null)
+                .subcategoryCodes(java.util.Set.of())
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1255,7 +1376,9 @@ class TurnAssignedServiceTest {
 
         assertNotNull(result);
         assertEquals(5, result.getScore());
-        assertNull(result.getSubcategory());
+        assertTrue(result.getSubcategoryCodes().isEmpty());
+        assertFalse(completedTurn.isNeedsPatientRating());
+        assertTrue(completedTurn.isNeedsDoctorRating());
         verify(ratingRepo).save(any(com.medibook.api.entity.Rating.class));
     }
 
@@ -1275,21 +1398,23 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(5)
-        .subcategory("Excelente atención, Explica claramente")
+        .subcategoryCodes(java.util.Set.of("EXCELENTE_ATENCION", "EXPLICA_CLARAMENTE"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
 
-    List<String> subcategories = Arrays.asList("Excelente atención", "Explica claramente");
+    List<String> subcategories = Arrays.asList("Excelente atención", "explica claramente", "Excelente atención");
         com.medibook.api.entity.Rating result = turnAssignedService.addRating(turnId, patientId, 5, subcategories);
 
         assertNotNull(result);
         assertEquals(5, result.getScore());
-        verify(ratingRepo).save(any(com.medibook.api.entity.Rating.class));
+        ArgumentCaptor<com.medibook.api.entity.Rating> ratingCaptor = ArgumentCaptor.forClass(com.medibook.api.entity.Rating.class);
+        verify(ratingRepo).save(ratingCaptor.capture());
+        assertEquals(java.util.Set.of("EXCELENTE_ATENCION", "EXPLICA_CLARAMENTE"), ratingCaptor.getValue().getSubcategoryCodes());
     }
 
     @Test
@@ -1302,7 +1427,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
 
@@ -1325,7 +1450,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(false);
 
@@ -1354,11 +1479,11 @@ class TurnAssignedServiceTest {
                 .rater(doctor)
                 .rated(patient)
                 .score(4)
-                .subcategory("Llega puntual")
+                .subcategoryCodes(java.util.Set.of("LLEGA_PUNTUAL"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1387,7 +1512,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(unknownRoleUser.getId())).thenReturn(Optional.of(unknownRoleUser));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, unknownRoleUser.getId())).thenReturn(false);
 
@@ -1416,11 +1541,11 @@ class TurnAssignedServiceTest {
                 .rater(doctor)
                 .rated(patient)
                 .score(4)
-                .subcategory("Llega puntual")
+                .subcategoryCodes(java.util.Set.of("LLEGA_PUNTUAL"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1449,7 +1574,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(noRoleUser.getId())).thenReturn(Optional.of(noRoleUser));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, noRoleUser.getId())).thenReturn(false);
 
@@ -1515,7 +1640,7 @@ class TurnAssignedServiceTest {
 
         assertNotNull(result);
         assertEquals("COMPLETED", result.getStatus());
-        verify(badgeEvaluationTrigger, never()).evaluateAfterTurnCompletion(any(UUID.class), any(UUID.class));
+        verify(badgeEvaluationTrigger, never()).evaluateAfterTurnCompletion(any(UUID.class), anyBoolean());
     }
 
     @Test
@@ -1547,7 +1672,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -1567,7 +1692,7 @@ class TurnAssignedServiceTest {
                 .status("COMPLETED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -1587,7 +1712,7 @@ class TurnAssignedServiceTest {
                 .status("SCHEDULED")
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(futureTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(futureTurn));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> turnAssignedService.addRating(turnId, patientId, 4, java.util.List.of()));
@@ -1612,11 +1737,11 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(4)
-                .subcategory(null)
+                .subcategoryCodes(java.util.Set.of())
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1625,7 +1750,7 @@ class TurnAssignedServiceTest {
 
         assertNotNull(result);
         assertEquals(4, result.getScore());
-        assertNull(result.getSubcategory());
+        assertTrue(result.getSubcategoryCodes().isEmpty());
         verify(ratingRepo).save(any(com.medibook.api.entity.Rating.class));
     }
 
@@ -1645,11 +1770,11 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(4)
-                .subcategory(null)
+                .subcategoryCodes(java.util.Set.of())
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1658,7 +1783,7 @@ class TurnAssignedServiceTest {
 
         assertNotNull(result);
         assertEquals(4, result.getScore());
-        assertNull(result.getSubcategory());
+        assertTrue(result.getSubcategoryCodes().isEmpty());
         verify(ratingRepo).save(any(com.medibook.api.entity.Rating.class));
     }
 
@@ -1678,11 +1803,11 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(4)
-                .subcategory("explica claramente, escucha atentamente")
+                .subcategoryCodes(java.util.Set.of("EXPLICA_CLARAMENTE", "ESCUCHA_AL_PACIENTE"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1691,7 +1816,11 @@ class TurnAssignedServiceTest {
                 Arrays.asList("Explica claramente", "Escucha al paciente"));
 
         assertNotNull(result);
-        verify(badgeEvaluationTrigger).evaluateAfterRating(eq(doctorId), eq(4), isNull(), isNull());
+        RatingAddedEvent event = publishedRatingEvent();
+        assertEquals(doctorId, event.ratedId());
+        assertEquals(Integer.valueOf(4), event.communicationScore());
+        assertNull(event.empathyScore());
+        assertNull(event.punctualityScore());
     }
 
     @Test
@@ -1710,11 +1839,11 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(5)
-                .subcategory("empatía, confianza")
+                .subcategoryCodes(java.util.Set.of("DEMUESTRA_EMPATIA", "GENERA_CONFIANZA"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1723,7 +1852,11 @@ class TurnAssignedServiceTest {
                 Arrays.asList("Demuestra empatía", "Genera confianza"));
 
         assertNotNull(result);
-        verify(badgeEvaluationTrigger).evaluateAfterRating(eq(doctorId), isNull(), eq(5), isNull());
+        RatingAddedEvent event = publishedRatingEvent();
+        assertEquals(doctorId, event.ratedId());
+        assertNull(event.communicationScore());
+        assertEquals(Integer.valueOf(5), event.empathyScore());
+        assertNull(event.punctualityScore());
     }
 
     @Test
@@ -1742,11 +1875,11 @@ class TurnAssignedServiceTest {
                 .rater(patient)
                 .rated(doctor)
                 .score(4)
-                .subcategory("respeta horarios, tiempo de espera")
+                .subcategoryCodes(java.util.Set.of("RESPETA_HORARIOS", "TIEMPO_DE_ESPERA_ACEPTABLE"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(patientId)).thenReturn(Optional.of(patient));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, patientId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1755,7 +1888,11 @@ class TurnAssignedServiceTest {
                 Arrays.asList("Respeta horarios", "Tiempo de espera aceptable"));
 
         assertNotNull(result);
-        verify(badgeEvaluationTrigger).evaluateAfterRating(eq(doctorId), isNull(), isNull(), eq(4));
+        RatingAddedEvent event = publishedRatingEvent();
+        assertEquals(doctorId, event.ratedId());
+        assertNull(event.communicationScore());
+        assertNull(event.empathyScore());
+        assertEquals(Integer.valueOf(4), event.punctualityScore());
     }
 
     @Test
@@ -1774,11 +1911,11 @@ class TurnAssignedServiceTest {
                 .rater(doctor)
                 .rated(patient)
                 .score(4)
-                .subcategory("Llega puntual")
+                .subcategoryCodes(java.util.Set.of("LLEGA_PUNTUAL"))
                 .createdAt(OffsetDateTime.now())
                 .build();
 
-        when(turnRepo.findById(turnId)).thenReturn(Optional.of(completedTurn));
+        when(turnRepo.findWithPartiesById(turnId)).thenReturn(Optional.of(completedTurn));
         when(userRepo.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(ratingRepo.existsByTurnAssigned_IdAndRater_Id(turnId, doctorId)).thenReturn(false);
         when(ratingRepo.save(any(com.medibook.api.entity.Rating.class))).thenReturn(savedRating);
@@ -1787,7 +1924,13 @@ class TurnAssignedServiceTest {
                 Arrays.asList("Llega puntual"));
 
         assertNotNull(result);
-        verify(badgeEvaluationTrigger, never()).evaluateAfterRating(any(), any(), any(), any());
+        RatingAddedEvent event = publishedRatingEvent();
+        assertEquals("PATIENT", event.ratedRole());
+        assertEquals("DOCTOR", event.raterRole());
+        assertEquals(java.util.Set.of("LLEGA_PUNTUAL"), event.subcategoryCodes());
+        assertNull(event.communicationScore());
+        assertNull(event.empathyScore());
+        assertNull(event.punctualityScore());
     }
 
     @Test
@@ -1864,4 +2007,10 @@ class TurnAssignedServiceTest {
         dto.setScheduledAt(scheduledAt);
         return dto;
     }
+
+    private RatingAddedEvent publishedRatingEvent() {
+        ArgumentCaptor<RatingAddedEvent> captor = ArgumentCaptor.forClass(RatingAddedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        return captor.getValue();
+    }
 }
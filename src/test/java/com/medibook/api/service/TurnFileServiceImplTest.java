@@ -41,6 +41,9 @@ class TurnFileServiceImplTest {
     @Mock
     private BadgeEvaluationTriggerService badgeEvaluationTrigger;
 
+    @Mock
+    private TurnViewService turnViewService;
+
     @Mock
     private MultipartFile file;
 
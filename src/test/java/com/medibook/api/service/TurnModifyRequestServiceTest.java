@@ -50,6 +50,12 @@ class TurnModifyRequestServiceTest {
 
     @Mock
     private BadgeEvaluationTriggerService badgeEvaluationTrigger;
+
+    @Mock
+    private TurnViewService turnViewService;
+
+    @Mock
+    private UserChangeVersionService changeVersionService;
     
     @InjectMocks
     private TurnModifyRequestService service;
@@ -0,0 +1,195 @@
+package com.medibook.api.service;
+
+import com.medibook.api.dto.Turn.TurnListProjection;
+import com.medibook.api.entity.DoctorProfile;
+import com.medibook.api.entity.SyncTombstone;
+import com.medibook.api.entity.TurnView;
+import com.medibook.api.entity.User;
+import com.medibook.api.repository.SyncTombstoneRepository;
+import com.medibook.api.repository.TurnAssignedRepository;
+import com.medibook.api.repository.TurnViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TurnViewServiceTest {
+
+    @Mock
+    private TurnAssignedRepository turnRepo;
+
+    @Mock
+    private TurnViewRepository turnViewRepository;
+
+    @Mock
+    private UserChangeVersionService changeVersionService;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @InjectMocks
+    private TurnViewService turnViewService;
+
+    private UUID turnId;
+    private UUID doctorId;
+    private UUID patientId;
+    private OffsetDateTime scheduledAt;
+
+    @BeforeEach
+    void setUp() {
+        turnId = UUID.randomUUID();
+        doctorId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        scheduledAt = OffsetDateTime.now().minusDays(1);
+    }
+
+    @Test
+    void refresh_CompletedTurnAwaitingRatings_CopiesPendingFlags() {
+        Instant uploadedAt = Instant.now();
+        when(turnRepo.findListById(turnId)).thenReturn(Optional.of(new TurnListProjection(
+                turnId, doctorId, "Hugo", "Martinez", "Cardiología",
+                patientId, "Juan", "Perez", 4.0, scheduledAt, "COMPLETED", "Control",
+                true, true, "https://files.test/a.pdf", "a.pdf", uploadedAt)));
+
+        turnViewService.refresh(turnId);
+
+        ArgumentCaptor<TurnView> captor = ArgumentCaptor.forClass(TurnView.class);
+        verify(turnViewRepository).save(captor.capture());
+        TurnView view = captor.getValue();
+        assertEquals(turnId, view.getTurnId());
+        assertEquals("Hugo Martinez", view.getDoctorName());
+        assertEquals("Juan Perez", view.getPatientName());
+        assertEquals("Cardiología", view.getDoctorSpecialty());
+        assertEquals(4.0, view.getPatientScore());
+        assertEquals("a.pdf", view.getFileName());
+        assertEquals(uploadedAt, view.getUploadedAt());
+        assertTrue(view.isNeedsPatientRating());
+        assertTrue(view.isNeedsDoctorRating());
+        assertNotNull(view.getUpdatedAt());
+        verify(changeVersionService).bump(doctorId, patientId);
+    }
+
+    @Test
+    void refresh_RatedByPatientOnly_CopiesClearedPatientFlag() {
+        when(turnRepo.findListById(turnId)).thenReturn(Optional.of(new TurnListProjection(
+                turnId, doctorId, "Hugo", "Martinez", null,
+                patientId, "Juan", "Perez", null, scheduledAt, "COMPLETED", null,
+                false, true, null, null, null)));
+
+        turnViewService.refresh(turnId);
+
+        ArgumentCaptor<TurnView> captor = ArgumentCaptor.forClass(TurnView.class);
+        verify(turnViewRepository).save(captor.capture());
+        assertFalse(captor.getValue().isNeedsPatientRating());
+        assertTrue(captor.getValue().isNeedsDoctorRating());
+    }
+
+    @Test
+    void refresh_AvailableTurnWithoutPatient_NoPatientNameNorFlags() {
+        when(turnRepo.findListById(turnId)).thenReturn(Optional.of(new TurnListProjection(
+                turnId, doctorId, "Hugo", "Martinez", null,
+                null, null, null, null, scheduledAt, "AVAILABLE", null,
+                false, false, null, null, null)));
+
+        turnViewService.refresh(turnId);
+
+        ArgumentCaptor<TurnView> captor = ArgumentCaptor.forClass(TurnView.class);
+        verify(turnViewRepository).save(captor.capture());
+        assertNull(captor.getValue().getPatientName());
+        assertFalse(captor.getValue().isNeedsPatientRating());
+        assertFalse(captor.getValue().isNeedsDoctorRating());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_TurnNoLongerExists_DeletesViewAndWritesTombstonesForBothParties() {
+        TurnView view = TurnView.builder().turnId(turnId).doctorId(doctorId).patientId(patientId).build();
+        when(turnRepo.findListById(turnId)).thenReturn(Optional.empty());
+        when(turnViewRepository.findById(turnId)).thenReturn(Optional.of(view));
+
+        turnViewService.refresh(turnId);
+
+        verify(turnViewRepository).delete(view);
+        verify(turnViewRepository, never()).save(any());
+        ArgumentCaptor<List<SyncTombstone>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tombstoneRepository).saveAll(captor.capture());
+        assertEquals(List.of(doctorId, patientId), captor.getValue().stream().map(SyncTombstone::getUserId).toList());
+        assertTrue(captor.getValue().stream().allMatch(t ->
+                SyncTombstone.TURN.equals(t.getEntityType()) && turnId.equals(t.getEntityId())));
+        verify(changeVersionService).bump(doctorId, patientId);
+    }
+
+    @Test
+    void refresh_TurnWithoutView_WritesNothing() {
+        when(turnRepo.findListById(turnId)).thenReturn(Optional.empty());
+        when(turnViewRepository.findById(turnId)).thenReturn(Optional.empty());
+
+        turnViewService.refresh(turnId);
+
+        verify(turnViewRepository, never()).delete(any());
+        verifyNoInteractions(tombstoneRepository, changeVersionService);
+    }
+
+    @Test
+    void refreshPatientScore_UpdatesAllPatientRows() {
+        when(turnViewRepository.updatePatientScore(eq(patientId), eq(4.5), any(OffsetDateTime.class))).thenReturn(3);
+
+        turnViewService.refreshPatientScore(patientId, 4.5);
+
+        verify(turnViewRepository).updatePatientScore(eq(patientId), eq(4.5), any(OffsetDateTime.class));
+        verify(changeVersionService).bumpDoctorsOfPatient(patientId);
+    }
+
+    @Test
+    void refreshPatientScore_NoTurns_DoesNotBumpVersions() {
+        turnViewService.refreshPatientScore(patientId, 4.5);
+
+        verifyNoInteractions(changeVersionService);
+    }
+
+    @Test
+    void refreshDisplayNames_Doctor_UpdatesNameAndSpecialty() {
+        User doctor = new User();
+        doctor.setId(doctorId);
+        doctor.setName("Hugo");
+        doctor.setSurname("Martinez");
+        doctor.setRole("DOCTOR");
+        DoctorProfile profile = new DoctorProfile();
+        profile.setSpecialty("Pediatría");
+        doctor.setDoctorProfile(profile);
+
+        turnViewService.refreshDisplayNames(doctor);
+
+        verify(turnViewRepository).updateDoctorDisplay(eq(doctorId), eq("Hugo Martinez"), eq("Pediatría"),
+                any(OffsetDateTime.class));
+        verify(turnViewRepository, never()).updatePatientName(any(), any(), any());
+    }
+
+    @Test
+    void refreshDisplayNames_Patient_UpdatesPatientName() {
+        User patient = new User();
+        patient.setId(patientId);
+        patient.setName("Juan");
+        patient.setSurname("Perez");
+        patient.setRole("PATIENT");
+
+        turnViewService.refreshDisplayNames(patient);
+
+        verify(turnViewRepository).updatePatientName(eq(patientId), eq("Juan Perez"), any(OffsetDateTime.class));
+        verify(turnViewRepository, never()).updateDoctorDisplay(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,63 @@
+package com.medibook.api.service;
+
+import com.medibook.api.repository.UserChangeVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeVersionServiceTest {
+
+    @Mock
+    private UserChangeVersionRepository versionRepository;
+
+    @InjectMocks
+    private UserChangeVersionService changeVersionService;
+
+    @Test
+    void getVersion_NoRow_ReturnsZero() {
+        UUID userId = UUID.randomUUID();
+        when(versionRepository.findVersionByUserId(userId)).thenReturn(Optional.empty());
+
+        assertEquals(0L, changeVersionService.getVersion(userId));
+    }
+
+    @Test
+    void getETag_IncludesUserAndVersion() {
+        UUID userId = UUID.randomUUID();
+        when(versionRepository.findVersionByUserId(userId)).thenReturn(Optional.of(7L));
+
+        assertEquals("\"" + userId + "-7\"", changeVersionService.getETag(userId));
+    }
+
+    @Test
+    void bump_IncrementsEachDistinctUserOnceInIdOrder() {
+        UUID first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID second = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+        changeVersionService.bump(second, first, second);
+
+        InOrder inOrder = inOrder(versionRepository);
+        inOrder.verify(versionRepository).increment(eq(first), any());
+        inOrder.verify(versionRepository).increment(eq(second), any());
+        verifyNoMoreInteractions(versionRepository);
+    }
+
+    @Test
+    void bump_OnlyNullIds_DoesNothing() {
+        changeVersionService.bump((UUID) null);
+
+        verifyNoInteractions(versionRepository);
+    }
+}